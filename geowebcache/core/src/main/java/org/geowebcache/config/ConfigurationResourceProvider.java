@@ -13,6 +13,7 @@
  */
 package org.geowebcache.config;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -53,4 +54,12 @@ public interface ConfigurationResourceProvider {
 
     /** @return true if output is supported */
     public boolean hasOutput();
+
+    /**
+     * @return the directory holding this resource, where related files may be stored, or {@code null} if this resource
+     *     is not a file
+     */
+    public default File getDirectory() throws IOException {
+        return null;
+    }
 }
@@ -46,6 +46,8 @@ public static enum PathGeneratorType {
 
     private PathGeneratorType pathGeneratorType = PathGeneratorType.DEFAULT;
 
+    private boolean linkUniformTiles;
+
     public FileBlobStoreInfo() {
         super();
     }
@@ -102,6 +104,19 @@ public void setPathGeneratorType(PathGeneratorType pathGeneratorType) {
         this.pathGeneratorType = pathGeneratorType;
     }
 
+    /**
+     * Whether single color tiles of the same format, size and color are stored as hard links to a single file, see
+     * {@link FileBlobStore#setLinkUniformTiles(boolean)}
+     */
+    public boolean isLinkUniformTiles() {
+        return linkUniformTiles;
+    }
+
+    /** Sets whether single color tiles are stored as hard links to a single file */
+    public void setLinkUniformTiles(boolean linkUniformTiles) {
+        this.linkUniformTiles = linkUniformTiles;
+    }
+
     @Override
     public String toString() {
         return new StringBuilder("FileBlobStore[id:")
@@ -112,6 +127,8 @@ public String toString() {
                 .append(baseDirectory)
                 .append(", fileSystemBlockSize:")
                 .append(fileSystemBlockSize)
+                .append(", linkUniformTiles:")
+                .append(linkUniformTiles)
                 .append(']')
                 .toString();
     }
@@ -138,6 +155,7 @@ public BlobStore createInstance(TileLayerDispatcher layers, LockProvider lockPro
         if (fileSystemBlockSize > 0) {
             fileBlobStore.setBlockSize(fileSystemBlockSize);
         }
+        fileBlobStore.setLinkUniformTiles(linkUniformTiles);
         return fileBlobStore;
     }
 
@@ -153,6 +171,7 @@ public int hashCode() {
         int result = super.hashCode();
         result = prime * result + ((baseDirectory == null) ? 0 : baseDirectory.hashCode());
         result = prime * result + fileSystemBlockSize;
+        result = prime * result + (linkUniformTiles ? 1231 : 1237);
         return result;
     }
 
@@ -166,6 +185,7 @@ public boolean equals(Object obj) {
             if (other.baseDirectory != null) return false;
         } else if (!baseDirectory.equals(other.baseDirectory)) return false;
         if (fileSystemBlockSize != other.fileSystemBlockSize) return false;
+        if (linkUniformTiles != other.linkUniformTiles) return false;
         return true;
     }
 }
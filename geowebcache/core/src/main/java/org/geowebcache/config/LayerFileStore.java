@@ -0,0 +1,218 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.config;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.converters.Converter;
+import com.thoughtworks.xstream.converters.MarshallingContext;
+import com.thoughtworks.xstream.converters.UnmarshallingContext;
+import com.thoughtworks.xstream.io.HierarchicalStreamReader;
+import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.layer.TileLayer;
+import org.geowebcache.util.FileUtils;
+
+/**
+ * Stores each layer of an {@link XMLConfiguration} in its own file, so that adding, modifying or removing a layer only
+ * writes that layer instead of the whole configuration.
+ *
+ * <p>Each file is a configuration document of the current schema version holding a single layer, so that it can be
+ * validated and upgraded by {@link XMLConfiguration} like the main configuration file. Files are named after the URL
+ * encoded layer name, and are replaced atomically, by writing a temporary file first and renaming it, so that a
+ * failure leaves the previous version in place.
+ */
+class LayerFileStore {
+
+    private static final Logger LOGGER = Logging.getLogger(LayerFileStore.class.getName());
+
+    /** Name of the directory holding the layer files, next to the configuration file */
+    static final String DIRECTORY_NAME = "layers";
+
+    private static final String EXTENSION = ".xml";
+
+    private static final String TEMP_EXTENSION = ".tmp";
+
+    private final File directory;
+
+    LayerFileStore(File directory) {
+        this.directory = directory;
+    }
+
+    File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Loads all the stored layers, sorted by file name, parsing the files in parallel on a dedicated pool whose threads
+     * share the caller's context class loader
+     */
+    List<TileLayer> load(XStream xs) throws ConfigurationException {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(EXTENSION));
+        if (files == null) {
+            return Collections.emptyList();
+        }
+        // keeping a stable layer order
+        Arrays.sort(files);
+        int parallelism = Math.min(files.length, Runtime.getRuntime().availableProcessors());
+        if (parallelism <= 1) {
+            List<TileLayer> layers = new ArrayList<>(files.length);
+            for (File file : files) {
+                layers.add(read(xs, file));
+            }
+            return layers;
+        }
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "GWC layer file reader " + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setContextClassLoader(loader);
+            return thread;
+        });
+        try {
+            List<Future<TileLayer>> futures = new ArrayList<>(files.length);
+            for (File file : files) {
+                futures.add(executor.submit(() -> read(xs, file)));
+            }
+            List<TileLayer> layers = new ArrayList<>(files.length);
+            for (Future<TileLayer> future : futures) {
+                layers.add(future.get());
+            }
+            return layers;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ConfigurationException) {
+                throw (ConfigurationException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new ConfigurationException("Error reading the layer files in " + directory, cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConfigurationException("Interrupted reading the layer files in " + directory, e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads a layer file, which goes through the same schema validation and upgrade as the main configuration file
+     * does, being a configuration document holding just that layer
+     */
+    private TileLayer read(XStream xs, File file) throws ConfigurationException {
+        try {
+            byte[] xml = Files.readAllBytes(file.toPath());
+            List<TileLayer> layers = XMLConfiguration.readConfiguration(xml, xs).getLayers();
+            if (layers.size() != 1) {
+                throw new ConfigurationException(
+                        "Expected a single layer in layer file " + file + ", found " + layers.size());
+            }
+            return layers.get(0);
+        } catch (IOException | RuntimeException e) {
+            throw new ConfigurationException("Error reading layer file " + file, e);
+        }
+    }
+
+    /** Writes the layer file, replacing the current one if any */
+    void save(XStream xs, TileLayer layer) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create layers directory " + directory);
+        }
+        File file = file(layer.getName());
+        File temp = new File(directory, file.getName() + TEMP_EXTENSION);
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(temp), UTF_8)) {
+            writer.write("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n");
+            xs.toXML(wrap(layer), writer);
+        } catch (IOException | RuntimeException e) {
+            temp.delete();
+            throw new IOException("Error writing layer file " + file, e);
+        }
+        if (!FileUtils.renameFile(temp, file)) {
+            temp.delete();
+            throw new IOException("Unable to replace layer file " + file);
+        }
+        LOGGER.fine("Wrote layer file " + file);
+    }
+
+    /** @return a configuration of the current schema version holding only {@code layer} */
+    private static GeoWebCacheConfiguration wrap(TileLayer layer) {
+        GeoWebCacheConfiguration wrapper = new GeoWebCacheConfiguration();
+        wrapper.setVersion(XMLConfiguration.getCurrentSchemaVersion());
+        wrapper.getLayers().add(layer);
+        return wrapper;
+    }
+
+    /** Deletes the layer file, if it exists */
+    void delete(String layerName) throws IOException {
+        File file = file(layerName);
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Unable to delete layer file " + file);
+        }
+    }
+
+    boolean contains(String layerName) {
+        return file(layerName).exists();
+    }
+
+    File file(String layerName) {
+        // '*' is not encoded but not allowed in file names on some platforms
+        String name = URLEncoder.encode(layerName, UTF_8).replace("*", "%2A");
+        return new File(directory, name + EXTENSION);
+    }
+
+    /**
+     * Configures {@code xs} to write an empty {@code layers} element when serializing the main configuration, as
+     * layers are stored in their own files
+     */
+    static void excludeLayers(XStream xs) {
+        xs.registerLocalConverter(GeoWebCacheConfiguration.class, "layers", new Converter() {
+
+            @Override
+            public boolean canConvert(@SuppressWarnings("rawtypes") Class type) {
+                return true;
+            }
+
+            @Override
+            public void marshal(Object source, HierarchicalStreamWriter writer, MarshallingContext context) {
+                // nothing to write
+            }
+
+            @Override
+            public Object unmarshal(HierarchicalStreamReader reader, UnmarshallingContext context) {
+                return new ArrayList<TileLayer>();
+            }
+        });
+    }
+}
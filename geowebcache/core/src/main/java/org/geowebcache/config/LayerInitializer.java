@@ -0,0 +1,232 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.config;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.GeoWebCacheExtensions;
+import org.geowebcache.layer.TileLayer;
+
+/**
+ * Initializes the layers of a configuration at startup, either in parallel on a bounded fork/join pool, or lazily,
+ * each layer being initialized the first time it's looked up.
+ *
+ * <p>The number of threads is set by the {@link #THREADS_PROPERTY} property, defaulting to {@code 1}, which initializes
+ * layers one after the other on the calling thread, as layer initialization may not be thread safe for every layer
+ * type. Setting {@link #LAZY_PROPERTY} to {@code true} defers the initialization of each layer to its first use, which
+ * is then paid by the first request hitting it, and by whoever lists all the layers first.
+ *
+ * <p>The time taken by each layer is logged at {@code FINE} level, and a summary listing the slowest layers at
+ * {@code INFO} level.
+ */
+class LayerInitializer {
+
+    private static final Logger LOGGER = Logging.getLogger(LayerInitializer.class.getName());
+
+    /** Property setting the number of threads initializing layers at startup, parallel initialization is opt-in */
+    static final String THREADS_PROPERTY = "GWC_LAYER_INIT_THREADS";
+
+    /** Property deferring the initialization of each layer to its first use */
+    static final String LAZY_PROPERTY = "GWC_LAYER_INIT_LAZY";
+
+    /** Number of slowest layers reported in the summary */
+    static final int SLOWEST_REPORTED = 5;
+
+    private final String identifier;
+
+    private final Consumer<TileLayer> initializer;
+
+    private final int threads;
+
+    private final boolean lazy;
+
+    /** Layers yet to be initialized, by name */
+    private final Map<String, TileLayer> pending = new ConcurrentHashMap<>();
+
+    /**
+     * @param identifier the configuration identifier, for logging
+     * @param initializer initializes a single layer
+     */
+    LayerInitializer(String identifier, Consumer<TileLayer> initializer) {
+        this(
+                identifier,
+                initializer,
+                threads(),
+                Boolean.parseBoolean(GeoWebCacheExtensions.getProperty(LAZY_PROPERTY)));
+    }
+
+    LayerInitializer(String identifier, Consumer<TileLayer> initializer, int threads, boolean lazy) {
+        this.identifier = identifier;
+        this.initializer = initializer;
+        this.threads = Math.max(1, threads);
+        this.lazy = lazy;
+    }
+
+    private static int threads() {
+        String value = GeoWebCacheExtensions.getProperty(THREADS_PROPERTY);
+        if (value != null) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                LOGGER.warning("Ignoring invalid " + THREADS_PROPERTY + " value: " + value);
+            }
+        }
+        return 1;
+    }
+
+    boolean isLazy() {
+        return lazy;
+    }
+
+    int getThreads() {
+        return threads;
+    }
+
+    /** Initializes the given layers, or in lazy mode, marks them for initialization on first use */
+    void start(Collection<TileLayer> layers) {
+        pending.clear();
+        for (TileLayer layer : layers) {
+            pending.put(layer.getName(), layer);
+        }
+        if (lazy) {
+            LOGGER.info("Deferring the initialization of "
+                    + pending.size()
+                    + " layers of "
+                    + identifier
+                    + " to their first use");
+        } else {
+            initializeAll();
+        }
+    }
+
+    /** Initializes {@code layer} if still pending, waiting for any other thread already doing so */
+    TileLayer initialized(TileLayer layer) {
+        if (layer == null || pending.get(layer.getName()) != layer) {
+            return layer;
+        }
+        initializeOnce(layer);
+        return layer;
+    }
+
+    /** Initializes all the pending layers */
+    void initializeAll() {
+        List<TileLayer> layers = new ArrayList<>(pending.values());
+        if (layers.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        Map<String, Long> times = new ConcurrentHashMap<>();
+        int parallelism = Math.min(threads, layers.size());
+        if (parallelism == 1) {
+            for (TileLayer layer : layers) {
+                times.put(layer.getName(), initializeOnce(layer));
+            }
+        } else {
+            List<Callable<Void>> tasks = new ArrayList<>(layers.size());
+            for (TileLayer layer : layers) {
+                tasks.add(() -> {
+                    times.put(layer.getName(), initializeOnce(layer));
+                    return null;
+                });
+            }
+            invokeAll(tasks, parallelism);
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        String slowest = times.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(SLOWEST_REPORTED)
+                .map(e -> e.getKey() + " (" + e.getValue() + " ms)")
+                .collect(Collectors.joining(", "));
+        LOGGER.info("Initialized "
+                + times.size()
+                + " layers of "
+                + identifier
+                + " in "
+                + elapsed
+                + " ms using "
+                + parallelism
+                + " threads, slowest: "
+                + slowest);
+    }
+
+    private void invokeAll(List<Callable<Void>> tasks, int parallelism) {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        ForkJoinPool pool = new ForkJoinPool(
+                parallelism,
+                p -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                    thread.setName("GWC layer initializer " + thread.getPoolIndex());
+                    thread.setContextClassLoader(loader);
+                    return thread;
+                },
+                null,
+                false);
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Failed to initialize the layers of " + identifier, cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted initializing the layers of " + identifier, e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** @return the milliseconds taken to initialize the layer, {@code 0} if another thread did it */
+    private long initializeOnce(TileLayer layer) {
+        synchronized (layer) {
+            if (pending.get(layer.getName()) != layer) {
+                return 0;
+            }
+            long start = System.nanoTime();
+            initializer.accept(layer);
+            // removed only once done, so that other threads looking it up wait for it
+            pending.remove(layer.getName(), layer);
+            long time = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine("Initialized layer '" + layer.getName() + "' in " + time + " ms");
+            }
+            return time;
+        }
+    }
+
+    /** Stops tracking the layer with the given name, as it was replaced by an already initialized one, or removed */
+    void forget(String layerName) {
+        pending.remove(layerName);
+    }
+}
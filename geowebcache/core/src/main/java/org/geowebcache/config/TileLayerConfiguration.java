@@ -114,4 +114,17 @@ public interface TileLayerConfiguration extends BaseConfiguration {
 
     /** Set the GridSetBroker */
     void setGridSetBroker(GridSetBroker broker);
+
+    /**
+     * Adds a {@link TileLayerConfigurationListener} to this configuration.
+     *
+     * @return {@code true} if this configuration notifies the changes to its layers, {@code false} if it doesn't, in
+     *     which case the listener is not registered and callers shall not rely on it to track the layers
+     */
+    default boolean addLayerListener(TileLayerConfigurationListener listener) {
+        return false;
+    }
+
+    /** Removes a {@link TileLayerConfigurationListener} from this configuration, if it is present. */
+    default void removeLayerListener(TileLayerConfigurationListener listener) {}
 }
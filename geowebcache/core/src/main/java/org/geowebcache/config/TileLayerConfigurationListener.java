@@ -0,0 +1,44 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.config;
+
+import org.geowebcache.layer.TileLayer;
+
+/**
+ * Indicates a class should listen to the changes to the layers of a {@link TileLayerConfiguration}. Implementations of
+ * this class are responsible for registering themselves via
+ * {@link TileLayerConfiguration#addLayerListener(TileLayerConfigurationListener)}.
+ *
+ * <p>Events are fired after the change took place, and only if it succeeded.
+ */
+public interface TileLayerConfigurationListener {
+
+    /** @param layer the layer that was added */
+    void handleAddLayer(TileLayer layer);
+
+    /** @param layerName the name of the layer that was removed */
+    void handleRemoveLayer(String layerName);
+
+    /** @param layer the new version of the layer */
+    void handleModifyLayer(TileLayer layer);
+
+    /**
+     * @param oldName the old name of the layer
+     * @param layer the layer, including its new name
+     */
+    void handleRenameLayer(String oldName, TileLayer layer);
+
+    /** All the layers of the configuration may have changed, e.g. because it was reloaded */
+    void handleReload();
+}
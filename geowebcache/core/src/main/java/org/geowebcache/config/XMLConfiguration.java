@@ -17,6 +17,8 @@
 
 import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.io.xml.DomReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -35,6 +37,7 @@
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -42,6 +45,10 @@
 import javax.annotation.Nullable;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.Source;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
@@ -73,6 +80,7 @@
 import org.geowebcache.grid.GridSetBroker;
 import org.geowebcache.io.GeoWebCacheXStream;
 import org.geowebcache.layer.ExpirationRule;
+import org.geowebcache.layer.MetaTilingRule;
 import org.geowebcache.layer.TileLayer;
 import org.geowebcache.layer.meta.ContactInformation;
 import org.geowebcache.layer.meta.LayerMetaInformation;
@@ -116,8 +124,25 @@
 
     public static final String DEFAULT_CONFIGURATION_FILE_NAME = "geowebcache.xml";
 
+    /**
+     * Property that, when {@code true}, stores each layer in its own file, in a {@code layers} directory next to the
+     * configuration file, so that changing a layer doesn't rewrite the whole configuration
+     */
+    public static final String LAYER_FILES_PROPERTY = "GWC_LAYER_FILES";
+
     private static Logger log = Logging.getLogger(XMLConfiguration.class.getName());
 
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+
+    static {
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    private static volatile Schema schema;
+
+    private static volatile String currentSchemaVersion;
+
     /** Web app context, used to look up {@link XMLConfigurationProvider}s. */
     private final WebApplicationContext context;
 
@@ -127,12 +152,23 @@
 
     private transient Map<String, TileLayer> layers;
 
+    private transient LayerInitializer layerInitializer;
+
+    private transient volatile XStream persistXStream;
+
+    private transient volatile XStream mainFileXStream;
+
     private transient Map<String, GridSet> gridSets;
 
     private GridSetBroker gridSetBroker;
 
     private ListenerCollection<BlobStoreConfigurationListener> blobStoreListeners = new ListenerCollection<>();
 
+    private ListenerCollection<TileLayerConfigurationListener> layerListeners = new ListenerCollection<>();
+
+    /** Stores the layers when {@link #LAYER_FILES_PROPERTY} is enabled, {@code null} otherwise */
+    private LayerFileStore layerFiles;
+
     /**
      * Base Constructor with custom {@link ConfigurationResourceProvider}.
      *
@@ -303,11 +339,71 @@ private GeoWebCacheConfiguration loadConfiguration() throws ConfigurationExcepti
     }
 
     private GeoWebCacheConfiguration loadConfiguration(InputStream xmlFile) throws IOException, ConfigurationException {
-        Node rootNode = loadDocument(xmlFile);
-        XStream xs = getConfiguredXStreamWithContext(new GeoWebCacheXStream(), Context.PERSIST);
+        return readConfiguration(xmlFile.readAllBytes(), getPersistXStream());
+    }
+
+    /**
+     * Parses a configuration document. Documents of the current schema version are validated and unmarshalled straight
+     * from the bytes, older ones are first parsed into a DOM to be upgraded by {@link #checkAndTransform(Document)}.
+     */
+    static GeoWebCacheConfiguration readConfiguration(byte[] xml, XStream xs)
+            throws IOException, ConfigurationException {
+        if (isCurrentVersion(xml)) {
+            try {
+                validate(new StreamSource(new ByteArrayInputStream(xml)));
+                log.config("TileLayerConfiguration file validated fine.");
+            } catch (SAXException e) {
+                log.warning("GWC configuration validation error: " + e.getMessage());
+                log.warning(
+                        "Will try to use configuration anyway. Please check the order of declared elements against the schema.");
+            }
+            return (GeoWebCacheConfiguration) xs.fromXML(new ByteArrayInputStream(xml));
+        }
+        Node rootNode = loadDocument(new ByteArrayInputStream(xml));
+        return (GeoWebCacheConfiguration) xs.unmarshal(new DomReader((Element) rootNode));
+    }
+
+    /** @return whether the root element of the document is a configuration of the current schema version */
+    static boolean isCurrentVersion(byte[] xml) {
+        try {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(new ByteArrayInputStream(xml));
+            try {
+                reader.nextTag();
+                return "gwcConfiguration".equals(reader.getLocalName())
+                        && getCurrentSchemaNamespace().equals(reader.getNamespaceURI());
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            // let the DOM parser report it
+            return false;
+        }
+    }
+
+    /**
+     * @return the XStream configured to persist this configuration, built once as XStream is thread safe once
+     *     configured
+     */
+    private XStream getPersistXStream() {
+        XStream xs = persistXStream;
+        if (xs == null) {
+            xs = persistXStream = getConfiguredXStreamWithContext(new GeoWebCacheXStream(), Context.PERSIST);
+        }
+        return xs;
+    }
 
-        GeoWebCacheConfiguration config = (GeoWebCacheConfiguration) xs.unmarshal(new DomReader((Element) rootNode));
-        return config;
+    /** @return the XStream writing the main configuration file, leaving out the layers if they have their own files */
+    private XStream getMainFileXStream() {
+        if (layerFiles == null) {
+            return getPersistXStream();
+        }
+        XStream xs = mainFileXStream;
+        if (xs == null) {
+            xs = getConfiguredXStreamWithContext(new GeoWebCacheXStream(), Context.PERSIST);
+            LayerFileStore.excludeLayers(xs);
+            mainFileXStream = xs;
+        }
+        return xs;
     }
 
     private synchronized void save() throws IOException {
@@ -324,6 +420,127 @@ private synchronized void save() throws IOException {
         persistToFile();
     }
 
+    /** Persists the addition or modification of a layer */
+    private void saveLayer(TileLayer layer) throws IOException {
+        if (layerFiles == null) {
+            save();
+        } else if (resourceProvider.hasOutput()) {
+            layerFiles.save(getPersistXStream(), layer);
+        }
+    }
+
+    /** Persists the removal of a layer */
+    private void deleteLayer(String layerName) throws IOException {
+        if (layerFiles == null) {
+            save();
+        } else if (resourceProvider.hasOutput()) {
+            layerFiles.delete(layerName);
+        }
+    }
+
+    private LayerFileStore createLayerFileStore() throws ConfigurationException {
+        if (!Boolean.parseBoolean(GeoWebCacheExtensions.getProperty(LAYER_FILES_PROPERTY))) {
+            return null;
+        }
+        File directory = getLayersDirectory();
+        if (directory == null) {
+            log.warning(LAYER_FILES_PROPERTY
+                    + " is set, but "
+                    + resourceProvider.getId()
+                    + " is not a file, storing layers in the configuration instead");
+            return null;
+        }
+        return new LayerFileStore(directory);
+    }
+
+    /** @return the directory of the layer files, or {@code null} if the configuration is not a file */
+    private File getLayersDirectory() throws ConfigurationException {
+        File directory;
+        try {
+            directory = resourceProvider.getDirectory();
+        } catch (IOException e) {
+            throw new ConfigurationException("Error locating the layers directory of " + resourceProvider.getId(), e);
+        }
+        return directory == null ? null : new File(directory, LayerFileStore.DIRECTORY_NAME);
+    }
+
+    /**
+     * Moves the layers back to the configuration file when {@link #LAYER_FILES_PROPERTY} is no longer enabled but layer
+     * files are left from when it was
+     */
+    private void restoreLayerFiles() throws ConfigurationException {
+        File directory = getLayersDirectory();
+        if (directory == null || !directory.isDirectory()) {
+            return;
+        }
+        LayerFileStore store = new LayerFileStore(directory);
+        List<TileLayer> stored = store.load(getPersistXStream());
+        if (stored.isEmpty()) {
+            return;
+        }
+        List<TileLayer> layers = getGwcConfig().getLayers();
+        Set<String> inConfiguration = layers.stream().map(TileLayer::getName).collect(Collectors.toSet());
+        for (TileLayer layer : stored) {
+            // the configuration is saved before deleting the files, keeping it if a previous move was interrupted
+            if (!inConfiguration.contains(layer.getName())) {
+                layers.add(layer);
+            }
+        }
+        if (!resourceProvider.hasOutput()) {
+            log.warning("Loaded "
+                    + stored.size()
+                    + " layers from "
+                    + directory
+                    + ", but can't move them back to read only "
+                    + resourceProvider.getId());
+            return;
+        }
+        try {
+            save();
+            for (TileLayer layer : stored) {
+                store.delete(layer.getName());
+            }
+        } catch (IOException e) {
+            throw new ConfigurationException("Error moving layers from " + directory + " to the configuration", e);
+        }
+        log.info("Moved " + stored.size() + " layers from " + directory + " back to " + resourceProvider.getId());
+    }
+
+    /**
+     * Loads the layers from their own files, moving there those still found in the configuration file, as happens the
+     * first time {@link #LAYER_FILES_PROPERTY} is enabled
+     */
+    private void loadLayerFiles() throws ConfigurationException {
+        XStream xs = getPersistXStream();
+        List<TileLayer> layers = getGwcConfig().getLayers();
+        List<TileLayer> inConfiguration = new ArrayList<>(layers);
+        layers.clear();
+        layers.addAll(layerFiles.load(xs));
+        log.config("Loaded " + layers.size() + " layers from " + layerFiles.getDirectory());
+
+        if (inConfiguration.isEmpty()) {
+            return;
+        }
+        if (!resourceProvider.hasOutput()) {
+            log.warning("Can't move the layers of read only " + resourceProvider.getId() + " to their own files");
+            layers.addAll(inConfiguration);
+            return;
+        }
+        try {
+            for (TileLayer layer : inConfiguration) {
+                // a file is more recent than the configuration, in case a previous move was interrupted
+                if (!layerFiles.contains(layer.getName())) {
+                    layerFiles.save(xs, layer);
+                    layers.add(layer);
+                }
+            }
+            save();
+        } catch (IOException e) {
+            throw new ConfigurationException("Error moving layers to " + layerFiles.getDirectory(), e);
+        }
+        log.info("Moved " + inConfiguration.size() + " layers to " + layerFiles.getDirectory());
+    }
+
     public XStream getConfiguredXStream(XStream xs) {
         return getConfiguredXStreamWithContext(xs, this.context, null);
     }
@@ -408,6 +625,12 @@ public static XStream getConfiguredXStreamWithContext(
         xs.useAttributeFor(ExpirationRule.class, "minZoom");
         xs.useAttributeFor(ExpirationRule.class, "expiration");
 
+        xs.alias("metaTilingRule", MetaTilingRule.class);
+        xs.useAttributeFor(MetaTilingRule.class, "minZoom");
+        xs.useAttributeFor(MetaTilingRule.class, "metaWidth");
+        xs.useAttributeFor(MetaTilingRule.class, "metaHeight");
+        xs.useAttributeFor(MetaTilingRule.class, "gutter");
+
         xs.alias("geoRssFeed", GeoRSSFeedDefinition.class);
 
         xs.alias("metaInformation", LayerMetaInformation.class);
@@ -451,8 +674,7 @@ public static XStream getConfiguredXStreamWithContext(
      */
     private void persistToFile() throws IOException {
         Assert.isTrue(resourceProvider.hasOutput(), "Resource provider must have an output");
-        // create the XStream for serializing the configuration
-        XStream xs = getConfiguredXStreamWithContext(new GeoWebCacheXStream(), Context.PERSIST);
+        XStream xs = getMainFileXStream();
 
         try (OutputStreamWriter writer = new OutputStreamWriter(resourceProvider.out(), UTF_8)) {
             // set version to latest
@@ -512,10 +734,11 @@ public synchronized void addLayer(TileLayer tl) throws IllegalArgumentException
         }
 
         initialize(tl);
+        forgetInitialization(tl.getName());
         getGwcConfig().getLayers().add(tl);
         updateLayers();
         try {
-            save();
+            saveLayer(tl);
         } catch (IOException e) {
             // If save fails, try to revert the change to maintain a consistent state.
             if (getGwcConfig().getLayers().remove(tl)) {
@@ -523,6 +746,7 @@ public synchronized void addLayer(TileLayer tl) throws IllegalArgumentException
             }
             throw new ConfigurationPersistenceException("Unable to add layer " + tl.getName(), e);
         }
+        notifyLayerListeners(listener -> listener.handleAddLayer(tl));
     }
 
     /**
@@ -541,10 +765,11 @@ public synchronized void modifyLayer(TileLayer tl) throws NoSuchElementException
 
         getGwcConfig().getLayers().remove(previous);
         initialize(tl);
+        forgetInitialization(tl.getName());
         getGwcConfig().getLayers().add(tl);
         updateLayers();
         try {
-            save();
+            saveLayer(tl);
         } catch (IOException e) {
             // If save fails, try to revert the change to maintain a consistent state.
             getGwcConfig().getLayers().remove(tl);
@@ -553,6 +778,7 @@ public synchronized void modifyLayer(TileLayer tl) throws NoSuchElementException
             updateLayers();
             throw new IllegalArgumentException("Unable to modify layer " + tl.getName(), e);
         }
+        notifyLayerListeners(listener -> listener.handleModifyLayer(tl));
     }
 
     protected TileLayer findLayer(String layerName) throws NoSuchElementException {
@@ -579,12 +805,13 @@ public synchronized void removeLayer(final String layerName)
 
         boolean removed = getGwcConfig().getLayers().remove(tileLayer);
         if (removed) {
+            forgetInitialization(layerName);
             updateLayers();
         } else {
             throw new NoSuchElementException("Layer " + tileLayer.getName() + " does not exist");
         }
         try {
-            save();
+            deleteLayer(layerName);
         } catch (IOException e) {
             // If save fails, try to revert the removal to maintain a consistent state.
             if (getGwcConfig().getLayers().add(tileLayer)) {
@@ -592,6 +819,7 @@ public synchronized void removeLayer(final String layerName)
             }
             throw new IllegalArgumentException("Unable to remove layer " + tileLayer, e);
         }
+        notifyLayerListeners(listener -> listener.handleRemoveLayer(layerName));
     }
 
     /** */
@@ -738,24 +966,34 @@ private static Node checkAndTransform(Document doc) throws ConfigurationExceptio
     }
 
     static void validate(Node rootNode) throws SAXException, IOException {
-        // Perform validation
-        // TODO dont know why this one suddenly failed to look up, revert to
-        // XMLConstants.W3C_XML_SCHEMA_NS_URI
-        SchemaFactory factory = SchemaFactory.newInstance("http://www.w3.org/2001/XMLSchema");
-        try (InputStream is = XMLConfiguration.class.getResourceAsStream("geowebcache.xsd")) {
-
-            Schema schema = factory.newSchema(new StreamSource(is));
-            Validator validator = schema.newValidator();
-
-            // debugPrint(rootNode);
+        validate(new DOMSource(rootNode));
+    }
 
-            DOMSource domSrc = new DOMSource(rootNode);
-            validator.validate(domSrc);
+    private static void validate(Source source) throws SAXException, IOException {
+        // Perform validation
+        Validator validator = getSchema().newValidator();
+        validator.validate(source);
+    }
+
+    /** @return the current configuration schema, compiled once as schemas are thread safe */
+    private static Schema getSchema() throws SAXException, IOException {
+        Schema result = schema;
+        if (result == null) {
+            // TODO dont know why this one suddenly failed to look up, revert to
+            // XMLConstants.W3C_XML_SCHEMA_NS_URI
+            SchemaFactory factory = SchemaFactory.newInstance("http://www.w3.org/2001/XMLSchema");
+            try (InputStream is = XMLConfiguration.class.getResourceAsStream("geowebcache.xsd")) {
+                result = schema = factory.newSchema(new StreamSource(is));
+            }
         }
+        return result;
     }
 
     static String getCurrentSchemaVersion() {
-
+        String result = currentSchemaVersion;
+        if (result != null) {
+            return result;
+        }
         Document dom;
         try (InputStream is = XMLConfiguration.class.getResourceAsStream("geowebcache.xsd")) {
             dom = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(is);
@@ -767,7 +1005,11 @@ static String getCurrentSchemaVersion() {
         if (null == version || version.trim().length() == 0) {
             throw new IllegalStateException("Schema doesn't define version");
         }
-        return version.trim();
+        return currentSchemaVersion = version.trim();
+    }
+
+    private static String getCurrentSchemaNamespace() {
+        return "http://geowebcache.org/schema/" + getCurrentSchemaVersion();
     }
 
     private static Node applyTransform(Node oldRootNode, String xslFilename) {
@@ -799,23 +1041,70 @@ public void afterPropertiesSet() throws GeoWebCacheException {
             throw new IllegalStateException("GridSetBroker has not been set");
         }
 
+        long start = System.nanoTime();
+        // extensions contributing to the XStream configuration may have changed
+        this.persistXStream = null;
+        this.mainFileXStream = null;
         this.setGwcConfig(loadConfiguration());
+        long configured = System.nanoTime();
+        this.layerFiles = createLayerFileStore();
+        if (layerFiles != null) {
+            loadLayerFiles();
+        } else {
+            restoreLayerFiles();
+        }
+        long layersLoaded = System.nanoTime();
 
         log.config("Initializing GridSets from " + getIdentifier());
 
         getGridSetsInternal();
+        long gridSetsInitialized = System.nanoTime();
 
         log.config("Initializing layers from " + getIdentifier());
 
-        // Loop over the layers and set appropriate values
         for (TileLayer layer : getGwcConfig().getLayers()) {
             if (layer == null) {
                 throw new IllegalStateException(getIdentifier() + " contains a null layer");
             }
-            initialize(layer);
         }
+        this.layerInitializer = new LayerInitializer(getIdentifier(), this::initialize);
+        layerInitializer.start(getGwcConfig().getLayers());
+        long layersInitialized = System.nanoTime();
 
         updateLayers();
+        notifyLayerListeners(TileLayerConfigurationListener::handleReload);
+
+        log.info("Loaded "
+                + getIdentifier()
+                + " in "
+                + millis(start, layersInitialized)
+                + " ms: configuration "
+                + millis(start, configured)
+                + " ms, layer files "
+                + millis(configured, layersLoaded)
+                + " ms, gridsets "
+                + millis(layersLoaded, gridSetsInitialized)
+                + " ms, layers "
+                + millis(gridSetsInitialized, layersInitialized)
+                + (layerInitializer.isLazy() ? " ms (deferred)" : " ms"));
+    }
+
+    private static long millis(long startNanos, long endNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(endNanos - startNanos);
+    }
+
+    /** @return {@code layer}, after initializing it if that was deferred to its first use */
+    private TileLayer initialized(TileLayer layer) {
+        LayerInitializer initializer = layerInitializer;
+        return initializer == null ? layer : initializer.initialized(layer);
+    }
+
+    /** Stops tracking the deferred initialization of a layer that was replaced or removed */
+    private void forgetInitialization(String layerName) {
+        LayerInitializer initializer = layerInitializer;
+        if (initializer != null) {
+            initializer.forget(layerName);
+        }
     }
 
     private void updateLayers() {
@@ -850,7 +1139,7 @@ private void loadGridSets() {
     }
 
     private void initialize(final TileLayer layer) {
-        log.info("Initializing TileLayer '" + layer.getName() + "'");
+        log.fine("Initializing TileLayer '" + layer.getName() + "'");
         setDefaultValues(layer);
         layer.initialize(gridSetBroker);
     }
@@ -878,13 +1167,17 @@ public void setAbsolutePath(String absPath) {
     /** @see TileLayerConfiguration#getLayers() */
     @Override
     public Collection<TileLayer> getLayers() {
+        LayerInitializer initializer = layerInitializer;
+        if (initializer != null) {
+            initializer.initializeAll();
+        }
         return Collections.unmodifiableList(getGwcConfig().getLayers());
     }
 
     /** @see TileLayerConfiguration#getLayer(java.lang.String) */
     @Override
     public Optional<TileLayer> getLayer(String layerName) {
-        return Optional.ofNullable(layers.get(layerName));
+        return Optional.ofNullable(initialized(layers.get(layerName)));
     }
 
     /** @see TileLayerConfiguration#getTileLayer(java.lang.String) */
@@ -897,7 +1190,7 @@ public Optional<TileLayer> getLayer(String layerName) {
     @Deprecated
     public @Nullable TileLayer getTileLayerById(String layerId) {
         // this configuration does not differentiate between identifier and identity yet
-        return layers.get(layerId);
+        return initialized(layers.get(layerId));
     }
 
     /** @see TileLayerConfiguration#containsLayer(java.lang.String) */
@@ -1196,6 +1489,26 @@ public void removeBlobStoreListener(BlobStoreConfigurationListener listener) {
         blobStoreListeners.remove(listener);
     }
 
+    @Override
+    public boolean addLayerListener(TileLayerConfigurationListener listener) {
+        layerListeners.add(listener);
+        return true;
+    }
+
+    @Override
+    public void removeLayerListener(TileLayerConfigurationListener listener) {
+        layerListeners.remove(listener);
+    }
+
+    private void notifyLayerListeners(ListenerCollection.HandlerMethod<TileLayerConfigurationListener> method) {
+        try {
+            layerListeners.safeForEach(method);
+        } catch (IOException | GeoWebCacheException | RuntimeException e) {
+            // the change is already done and saved, listeners can't veto it
+            log.log(Level.WARNING, "Exception while handling layer listeners of " + getIdentifier(), e);
+        }
+    }
+
     /** @see ServerConfiguration#getLockProvider() */
     @Override
     public LockProvider getLockProvider() {
@@ -1421,6 +1734,9 @@ public void setGridSetBroker(@Qualifier("gwcGridSetBroker") GridSetBroker broker
 
     @Override
     public void deinitialize() throws Exception {
+        this.layerInitializer = null;
+        this.persistXStream = null;
+        this.mainFileXStream = null;
         this.gridSets = null;
         this.layers = null;
         this.gwcConfig = null;
@@ -193,6 +193,11 @@ private File findConfigFile() throws IOException {
         return new File(configDirectory, configFileName);
     }
 
+    @Override
+    public File getDirectory() throws IOException {
+        return findConfigFile().getParentFile();
+    }
+
     @Override
     public String getLocation() throws IOException {
         File f = findConfigFile();
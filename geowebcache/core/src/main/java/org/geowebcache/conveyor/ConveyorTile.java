@@ -13,6 +13,7 @@
  */
 package org.geowebcache.conveyor;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.Map;
 import java.util.logging.Logger;
@@ -27,6 +28,7 @@
 import org.geowebcache.mime.MimeType;
 import org.geowebcache.storage.StorageBroker;
 import org.geowebcache.storage.StorageException;
+import org.geowebcache.storage.TileCompression;
 import org.geowebcache.storage.TileObject;
 
 /** Represents a request for a tile and carries the information needed to complete it. */
@@ -45,6 +47,9 @@ public class ConveyorTile extends Conveyor implements TileResponseReceiver {
 
     TileObject stObj = null;
 
+    // the decoded contents of a compressed tile
+    private Resource decodedBlob;
+
     /*
      * Stores all raw values coming form request both as path variables or request parameters
      */
@@ -182,12 +187,43 @@ public void setGridSetId(String gridSetId) {
         this.gridSetId = gridSetId;
     }
 
+    /**
+     * The tile contents, decoded if {@link #getContentEncoding() compressed} in storage
+     *
+     * @return the contents, or {@code null} if not available or not decodable
+     */
     public Resource getBlob() {
+        String encoding = stObj.getContentEncoding();
+        if (encoding == null) {
+            return stObj.getBlob();
+        }
+        if (decodedBlob == null && stObj.getBlob() != null) {
+            try {
+                decodedBlob = TileCompression.decode(stObj.getBlob(), encoding);
+            } catch (IOException e) {
+                log.warning("Unable to decode " + this + ": " + e.getMessage());
+            }
+        }
+        return decodedBlob;
+    }
+
+    /**
+     * The tile contents as stored, to be written as is to the clients accepting their
+     * {@link #getContentEncoding() encoding}
+     */
+    public Resource getEncodedBlob() {
         return stObj.getBlob();
     }
 
+    /** @return the encoding of the stored tile contents, or {@code null} if not compressed */
+    public String getContentEncoding() {
+        return stObj.getContentEncoding();
+    }
+
     public void setBlob(Resource payload) {
         stObj.setBlob(payload);
+        stObj.setContentEncoding(null);
+        decodedBlob = null;
     }
 
     public TileObject getStorageObject() {
@@ -196,7 +232,13 @@ public TileObject getStorageObject() {
 
     public boolean persist() throws GeoWebCacheException {
         try {
-            return storageBroker.put(stObj);
+            Resource blob = stObj.getBlob();
+            boolean stored = storageBroker.put(stObj);
+            if (stObj.getBlob() != blob) {
+                // compressed while stored, keep the contents at hand
+                decodedBlob = blob;
+            }
+            return stored;
         } catch (StorageException e) {
             throw new GeoWebCacheException(e);
         }
@@ -205,10 +247,12 @@ public boolean persist() throws GeoWebCacheException {
     public boolean retrieve(long maxAge) throws GeoWebCacheException {
         try {
             if (isMetaTileCacheOnly) {
+                decodedBlob = null;
                 boolean cached = storageBroker.getTransient(stObj);
                 this.setCacheResult(cached ? CacheResult.HIT : CacheResult.MISS);
                 return cached;
             }
+            decodedBlob = null;
             boolean ret = storageBroker.get(stObj);
 
             // Do we use expiration, and if so, is the tile recent enough ?
@@ -18,6 +18,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.function.IntFunction;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 import org.geowebcache.GeoWebCacheException;
@@ -132,10 +133,16 @@ public void checkTileDimensions(int width, int height) throws TileDimensionsMism
     }
 
     public long[][] expandToMetaFactors(final long[][] coverages, final int[] metaFactors) {
+        return expandToMetaFactors(coverages, z -> metaFactors);
+    }
+
+    /** Expands each coverage to the metatiling factors of its zoom level */
+    public long[][] expandToMetaFactors(final long[][] coverages, final IntFunction<int[]> zoomMetaFactors) {
         long[][] ret = ServletUtils.arrayDeepCopy(coverages);
 
         for (long[] cov : ret) {
             final int z = (int) cov[4];
+            final int[] metaFactors = zoomMetaFactors.apply(z);
             final Grid grid = this.gridSet.getGrid(z);
             final long numTilesWide = grid.getNumTilesWide();
             final long numTilesHigh = grid.getNumTilesHigh();
@@ -21,6 +21,8 @@
 import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import javax.imageio.stream.ImageOutputStreamImpl;
 import org.springframework.util.Assert;
 
 public class ByteArrayResource implements Resource, Serializable {
@@ -242,4 +244,106 @@ public void write(byte[] buff, int off, int len) throws IOException {
             remaining -= len;
         }
     }
+
+    /**
+     * An image output stream appending to the resource contents, straight into its backing array. Unlike a
+     * {@link SeekableOutputStream} wrapped in a {@link javax.imageio.stream.MemoryCacheImageOutputStream} it does not
+     * buffer the image in a separate cache, and it can seek back to patch the bytes already written.
+     */
+    public static final class SeekableImageOutputStream extends ImageOutputStreamImpl {
+
+        private final ByteArrayResource res;
+
+        /** Index in the backing array of the stream start */
+        private final int base;
+
+        public SeekableImageOutputStream(ByteArrayResource res) {
+            this.res = res;
+            if (res.data == null) {
+                res.expand();
+            }
+            this.base = res.offset + res.length;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            checkClosed();
+            flushBits();
+            int index = ensureCapacity(1);
+            res.data[index] = (byte) b;
+            advance(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            checkClosed();
+            flushBits();
+            int index = ensureCapacity(len);
+            System.arraycopy(b, off, res.data, index, len);
+            advance(len);
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkClosed();
+            bitOffset = 0;
+            if (streamPos >= length()) {
+                return -1;
+            }
+            return res.data[base + (int) streamPos++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            checkClosed();
+            if (off < 0 || len < 0 || off + len > b.length) {
+                throw new IndexOutOfBoundsException("off < 0 || len < 0 || off + len > b.length!");
+            }
+            bitOffset = 0;
+            if (len == 0) {
+                return 0;
+            }
+            int available = (int) (length() - streamPos);
+            if (available <= 0) {
+                return -1;
+            }
+            int read = Math.min(len, available);
+            System.arraycopy(res.data, base + (int) streamPos, b, off, read);
+            streamPos += read;
+            return read;
+        }
+
+        @Override
+        public long length() {
+            return res.offset + res.length - base;
+        }
+
+        @Override
+        public boolean isCached() {
+            return true;
+        }
+
+        @Override
+        public boolean isCachedMemory() {
+            return true;
+        }
+
+        /** Grows the backing array to fit {@code len} more bytes at the stream position, returning their index */
+        private int ensureCapacity(int len) throws IOException {
+            long end = base + streamPos + len;
+            if (end > Integer.MAX_VALUE) {
+                throw new IOException("Image too large for a byte array resource");
+            }
+            if (end > res.data.length) {
+                long grown = Math.min(Integer.MAX_VALUE - 8L, res.data.length * 3L / 2);
+                res.data = Arrays.copyOf(res.data, (int) Math.max(end, grown));
+            }
+            return base + (int) streamPos;
+        }
+
+        private void advance(int len) {
+            streamPos += len;
+            res.length = Math.max(res.length, base + (int) streamPos - res.offset);
+        }
+    }
 }
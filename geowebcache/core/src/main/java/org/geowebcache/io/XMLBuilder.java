@@ -145,6 +145,35 @@ public XMLBuilder endElement(@Nullable String name) throws IOException {
         return this;
     }
 
+    /**
+     * Creates a builder writing to {@code fragment} as if it was nested in the element currently open in this builder,
+     * so that the elements it writes get the same indentation, and the result can be later inserted with
+     * {@link #appendFragment(CharSequence)} into any builder open at the same depth.
+     */
+    public XMLBuilder fragment(Appendable fragment) {
+        XMLBuilder builder = new XMLBuilder(fragment);
+        for (int i = 0; i < nodeStack.size(); i++) {
+            builder.nodeStack.push(new NodeInfo());
+        }
+        return builder;
+    }
+
+    /**
+     * Append a fragment produced by a {@link #fragment(Appendable) fragment builder} for the element currently open.
+     *
+     * @throws IOException thrown if the underlying Appendable throws IOException
+     */
+    public XMLBuilder appendFragment(CharSequence fragment) throws IOException {
+        if (fragment.length() == 0) {
+            return this;
+        }
+        if (startOfElement) appendUnescaped(">");
+        startOfElement = false;
+        if (fragment.charAt(0) == '\n' && !nodeStack.isEmpty()) nodeStack.peek().containsIndented = true;
+        builder.append(fragment);
+        return this;
+    }
+
     /**
      * Append an element that contains only text.
      *
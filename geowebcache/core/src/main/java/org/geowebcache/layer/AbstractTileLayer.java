@@ -82,6 +82,8 @@ public abstract class AbstractTileLayer extends TileLayer {
 
     protected int[] metaWidthHeight;
 
+    protected ArrayList<MetaTilingRule> metaTilingRules;
+
     protected String expireCache;
 
     protected ArrayList<ExpirationRule> expireCacheList;
@@ -372,6 +374,38 @@ public int[] getMetaTilingFactors() {
         return metaWidthHeight == null ? DEFAULT_METATILING_FACTORS : metaWidthHeight;
     }
 
+    /**
+     * Uses the last metatiling rule whose minimum zoom level is not greater than the given one, the layer metatiling
+     * factors if there is none
+     */
+    @Override
+    public int[] getMetaTilingFactors(int zoomLevel) {
+        MetaTilingRule rule = getMetaTilingRule(zoomLevel);
+        return rule == null ? getMetaTilingFactors() : rule.getMetaTilingFactors();
+    }
+
+    /** @return the metatiling rule applying to the zoom level, or {@code null} if there is none */
+    protected MetaTilingRule getMetaTilingRule(int zoomLevel) {
+        MetaTilingRule match = null;
+        if (metaTilingRules != null) {
+            for (MetaTilingRule rule : metaTilingRules) {
+                if (rule.getMinZoom() <= zoomLevel && (match == null || rule.getMinZoom() >= match.getMinZoom())) {
+                    match = rule;
+                }
+            }
+        }
+        return match;
+    }
+
+    /** @return the per zoom level metatiling rules, may be null */
+    public List<MetaTilingRule> getMetaTilingRules() {
+        return metaTilingRules;
+    }
+
+    public void setMetaTilingRules(List<MetaTilingRule> metaTilingRules) {
+        this.metaTilingRules = metaTilingRules == null ? null : new ArrayList<>(metaTilingRules);
+    }
+
     /** Whether clients may specify cache=false and go straight to source */
     @Override
     public Boolean isCacheBypassAllowed() {
@@ -19,6 +19,7 @@
 import java.awt.image.BufferedImage;
 import java.awt.image.RenderedImage;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -31,6 +32,7 @@
 import javax.imageio.ImageReader;
 import javax.imageio.ImageWriteParam;
 import javax.imageio.ImageWriter;
+import javax.imageio.spi.ImageReaderSpi;
 import javax.imageio.stream.ImageInputStream;
 import javax.imageio.stream.ImageOutputStream;
 import javax.imageio.stream.MemoryCacheImageOutputStream;
@@ -46,8 +48,10 @@
 import org.geowebcache.io.ByteArrayResource;
 import org.geowebcache.io.Resource;
 import org.geowebcache.mime.FormatModifier;
+import org.geowebcache.mime.ImageIOPool;
 import org.geowebcache.mime.ImageMime;
 import org.geowebcache.mime.MimeType;
+import org.geowebcache.mime.PNGRasterEncoder;
 import org.springframework.util.Assert;
 
 public class MetaTile implements TileResponseReceiver {
@@ -117,6 +121,13 @@ public class MetaTile implements TileResponseReceiver {
 
     private List<RenderedImage> disposableImages;
 
+    private boolean metaTilePreprocessed = false;
+
+    /** Content identifiers of the single color tiles, empty for the others, lazily computed */
+    private String[] uniformTileIds;
+
+    private static final String NOT_UNIFORM = "";
+
     /**
      * The the request format is the format used for the request to the backend.
      *
@@ -252,12 +263,9 @@ public void setImageBytes(Resource buffer) throws GeoWebCacheException {
         Assert.notNull(buffer, "WMSMetaTile.setImageBytes() received null");
         Assert.isTrue(buffer.getSize() > 0, "WMSMetaTile.setImageBytes() received empty contents");
 
-        try {
-            // ImageIO.read closes the stream, and the stream throws exception on second close call
-            @SuppressWarnings("PMD.CloseResource")
-            ImageInputStream imgStream = new ResourceImageInputStream(((ByteArrayResource) buffer).getInputStream());
-            RenderedImage metaTiledImage = ImageIO.read(imgStream); // read closes the stream for us
-            setImage(metaTiledImage);
+        try (ImageInputStream imgStream =
+                new ResourceImageInputStream(((ByteArrayResource) buffer).getInputStream())) {
+            setImage(readImage(imgStream));
         } catch (IOException ioe) {
             throw new GeoWebCacheException(
                     "WMSMetaTile.setImageBytes() " + "failed on ImageIO.read(byte[" + buffer.getSize() + "])", ioe);
@@ -267,8 +275,59 @@ public void setImageBytes(Resource buffer) throws GeoWebCacheException {
         }
     }
 
+    /**
+     * Decodes the meta tile image as it is read from {@code stream}, such as the body of a backend response, keeping
+     * only a bounded window of the bytes read, see {@link StreamingImageInputStream}. The stream is not closed.
+     */
+    public void setImageStream(InputStream stream) throws GeoWebCacheException {
+        Assert.notNull(stream, "WMSMetaTile.setImageStream() received null");
+
+        try (ImageInputStream imgStream =
+                new StreamingImageInputStream(stream, StreamingImageInputStream.DEFAULT_WINDOW)) {
+            setImage(readImage(imgStream));
+        } catch (IOException ioe) {
+            throw new GeoWebCacheException("WMSMetaTile.setImageStream() failed on ImageIO.read()", ioe);
+        }
+        if (metaTileImage == null) {
+            throw new GeoWebCacheException("ImageIO.read(InputStream) returned null. Unable to read image.");
+        }
+    }
+
+    /**
+     * Decodes the image with a reader from the {@link ImageIOPool}, the way {@link ImageIO#read(ImageInputStream)} does
+     *
+     * @return the image, or {@code null} if no reader can decode it
+     */
+    private static RenderedImage readImage(ImageInputStream imgStream) throws IOException {
+        ImageReaderSpi spi = ImageIOPool.getReaderProvider(imgStream);
+        if (spi == null) {
+            return null;
+        }
+        ImageReader reader = ImageIOPool.getReader(spi);
+        boolean read = false;
+        try {
+            reader.setInput(imgStream, true, true);
+            RenderedImage image = reader.read(0, reader.getDefaultReadParam());
+            read = true;
+            return image;
+        } finally {
+            if (read) {
+                ImageIOPool.release(reader);
+            } else {
+                reader.dispose();
+            }
+        }
+    }
+
+    /** @return the meta tile image, or {@code null} if not set yet */
+    public RenderedImage getImage() {
+        return metaTileImage;
+    }
+
     public void setImage(RenderedImage metaTiledImage) {
         this.metaTileImage = metaTiledImage;
+        this.metaTilePreprocessed = false;
+        this.uniformTileIds = null;
     }
 
     /**
@@ -350,12 +409,28 @@ public boolean writeTileToStream(final int tileIdx, Resource target) throws IOEx
             log.fine("Thread: " + Thread.currentThread().getName() + " writing: " + tileIdx);
         }
 
+        String uniformTileId = getUniformTileId(tileIdx);
+        if (uniformTileId != null) {
+            byte[] encoded = UniformTiles.getEncoded(uniformTileId);
+            if (encoded != null) {
+                try (OutputStream outputStream = target.getOutputStream()) {
+                    outputStream.write(encoded);
+                }
+                return true;
+            }
+        }
+
+        preprocessMetaTile();
+
         Rectangle tileRegion = tiles[tileIdx];
         RenderedImage tile = createTile(tileRegion.x, tileRegion.y, tileRegion.width, tileRegion.height);
         disposeLater(tile);
 
-        // TODO should we recycle the writers ?
-        // GR: it'd be only a 2% perf gain according to profile
+        if (writeRasterPNG(tile, target)) {
+            cacheUniformTile(uniformTileId, target);
+            return true;
+        }
+
         ImageWriter writer = ((ImageMime) responseFormat).getImageWriter(tile);
         ImageWriteParam param = writer.getDefaultWriteParam();
 
@@ -364,18 +439,117 @@ public boolean writeTileToStream(final int tileIdx, Resource target) throws IOEx
         if (this.formatModifier != null) {
             param = formatModifier.adjustImageWriteParam(param);
         }
-        try (OutputStream outputStream = target.getOutputStream();
-                ImageOutputStream imgOut = new MemoryCacheImageOutputStream(outputStream)) {
-            writer.setOutput(imgOut);
-            IIOImage image = new IIOImage(tile, null, null);
-            writer.write(null, image, param);
+        boolean written = false;
+        try {
+            if (target instanceof ByteArrayResource) {
+                // write straight into the resource backing array, rather than through a memory cache
+                try (ImageOutputStream imgOut =
+                        new ByteArrayResource.SeekableImageOutputStream((ByteArrayResource) target)) {
+                    writer.setOutput(imgOut);
+                    writer.write(null, new IIOImage(tile, null, null), param);
+                }
+            } else {
+                try (OutputStream outputStream = target.getOutputStream();
+                        ImageOutputStream imgOut = new MemoryCacheImageOutputStream(outputStream)) {
+                    writer.setOutput(imgOut);
+                    writer.write(null, new IIOImage(tile, null, null), param);
+                }
+            }
+            written = true;
         } finally {
-            writer.dispose();
+            if (written) {
+                ImageIOPool.release(writer);
+            } else {
+                writer.dispose();
+            }
         }
 
+        cacheUniformTile(uniformTileId, target);
+
         return true;
     }
 
+    /**
+     * Encodes the PNG tiles straight from their rasters when the {@link PNGRasterEncoder#getDefault() raster encoder}
+     * is enabled, unless a format modifier adjusts the writer parameters
+     *
+     * @return {@code false} if the tile is to be encoded with the ImageIO writers
+     */
+    private boolean writeRasterPNG(RenderedImage tile, Resource target) throws IOException {
+        if (formatModifier != null || !"png".equals(responseFormat.getInternalName())) {
+            return false;
+        }
+        PNGRasterEncoder encoder = PNGRasterEncoder.getDefault();
+        if (encoder == null) {
+            return false;
+        }
+        RenderedImage preprocessed = ((ImageMime) responseFormat).preprocess(tile);
+        if (!PNGRasterEncoder.isSupported(preprocessed)) {
+            return false;
+        }
+        try (OutputStream outputStream = target.getOutputStream()) {
+            encoder.encode(preprocessed, outputStream);
+        }
+        return true;
+    }
+
+    private void cacheUniformTile(String uniformTileId, Resource target) {
+        if (uniformTileId != null && target instanceof ByteArrayResource) {
+            // copy, the resource may be a buffer reused for the next tiles
+            byte[] encoded = ((ByteArrayResource) target).getContents();
+            if (encoded != null) {
+                UniformTiles.putEncoded(uniformTileId, encoded.clone());
+            }
+        }
+    }
+
+    /**
+     * Checks whether a tile is made of a single color, in which case its encoding is shared with all the tiles of the
+     * same format, size and color.
+     *
+     * @param tileIdx the index of the tile relative to the internal array
+     * @return the {@link UniformTiles#getContentId content identifier} shared by the tiles of the same color, or
+     *     {@code null} if the tile has more colors
+     */
+    public String getUniformTileId(final int tileIdx) {
+        // format modifiers may tweak the encoding parameters, don't share it across layers
+        if (tiles == null
+                || metaTileImage == null
+                || !(responseFormat instanceof ImageMime)
+                || formatModifier != null) {
+            return null;
+        }
+        if (uniformTileIds == null) {
+            uniformTileIds = new String[tiles.length];
+        }
+        if (uniformTileIds[tileIdx] == null) {
+            preprocessMetaTile();
+            Rectangle tileRegion = tiles[tileIdx];
+            Integer color = UniformTiles.getColor(metaTileImage, tileRegion);
+            uniformTileIds[tileIdx] = color == null
+                    ? NOT_UNIFORM
+                    : UniformTiles.getContentId(responseFormat, tileRegion.width, tileRegion.height, color);
+        }
+        String id = uniformTileIds[tileIdx];
+        return id.isEmpty() ? null : id;
+    }
+
+    /**
+     * Runs the {@link ImageMime#preprocessMetaTile(RenderedImage) metatile preprocessing} of the response format once,
+     * before the first tile gets written
+     */
+    private void preprocessMetaTile() {
+        if (metaTilePreprocessed) {
+            return;
+        }
+        metaTilePreprocessed = true;
+        RenderedImage preprocessed = ((ImageMime) responseFormat).preprocessMetaTile(metaTileImage);
+        if (preprocessed != metaTileImage) {
+            disposeLater(metaTileImage);
+            metaTileImage = preprocessed;
+        }
+    }
+
     protected void disposeLater(RenderedImage tile) {
         if (disposableImages == null) {
             disposableImages = new ArrayList<>(tiles.length);
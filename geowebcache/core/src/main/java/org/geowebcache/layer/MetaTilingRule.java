@@ -0,0 +1,63 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.layer;
+
+import java.io.Serializable;
+
+/**
+ * Metatiling factors, and optionally the gutter, to be used starting from a given zoom level. The rule applies up to
+ * the zoom level of the next rule of the layer, if any.
+ */
+public class MetaTilingRule implements Serializable {
+    private int minZoom;
+
+    private int metaWidth;
+
+    private int metaHeight;
+
+    private Integer gutter;
+
+    MetaTilingRule() {
+        // default constructor for XStream
+    }
+
+    public MetaTilingRule(int minZoom, int metaWidth, int metaHeight, Integer gutter) {
+        this.minZoom = minZoom;
+        this.metaWidth = metaWidth;
+        this.metaHeight = metaHeight;
+        this.gutter = gutter;
+    }
+
+    public int getMinZoom() {
+        return minZoom;
+    }
+
+    public int getMetaWidth() {
+        return metaWidth;
+    }
+
+    public int getMetaHeight() {
+        return metaHeight;
+    }
+
+    /** @return the gutter for the zoom levels of this rule, or {@code null} to use the one of the layer */
+    public Integer getGutter() {
+        return gutter;
+    }
+
+    /** @return the {x,y} metatiling factors of this rule */
+    public int[] getMetaTilingFactors() {
+        return new int[] {Math.max(1, metaWidth), Math.max(1, metaHeight)};
+    }
+}
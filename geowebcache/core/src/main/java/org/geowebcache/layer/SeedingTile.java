@@ -0,0 +1,53 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.layer;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import org.geowebcache.GeoWebCacheException;
+
+/**
+ * A tile being seeded, whose backend response may not be received yet, see {@link TileLayer#startSeedTile}. Once
+ * {@link #received()}, the seeder shall {@link #complete()} it, storing the tiles on its own thread.
+ */
+public interface SeedingTile {
+
+    /** A tile already seeded */
+    SeedingTile DONE = new SeedingTile() {
+
+        @Override
+        public CompletableFuture<?> received() {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void complete() {}
+
+        @Override
+        public void cancel() {}
+    };
+
+    /** @return a future completing once the backend response is received or the request failed */
+    CompletableFuture<?> received();
+
+    /**
+     * Stores the tiles, waiting for the backend response if not {@link #received()} yet
+     *
+     * @throws GeoWebCacheException if the request failed
+     */
+    void complete() throws GeoWebCacheException, IOException;
+
+    /** Gives up the tile, aborting the backend request in flight, if any, and releasing its resources */
+    void cancel();
+}
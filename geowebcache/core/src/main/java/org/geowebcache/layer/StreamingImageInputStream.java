@@ -0,0 +1,61 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.layer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+
+/**
+ * An image input stream decoding an image as it is received, such as the body of a backend response, rather than once
+ * fully buffered. Only a bounded window of the bytes already read is kept in memory, for the image readers to seek back
+ * into, which suits the formats whose readers only seek back within the image headers, such as PNG, JPEG and GIF.
+ *
+ * <p>The wrapped stream is not closed along with this one.
+ */
+public class StreamingImageInputStream extends MemoryCacheImageInputStream {
+
+    /** Default number of bytes kept behind the current position */
+    public static final int DEFAULT_WINDOW = 1024 * 1024;
+
+    private final long window;
+
+    /** @param window the number of bytes kept behind the current position */
+    public StreamingImageInputStream(InputStream stream, int window) {
+        super(stream);
+        this.window = window;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int read = super.read();
+        discard();
+        return read;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = super.read(b, off, len);
+        discard();
+        return read;
+    }
+
+    /** Drops the bytes that fell out of the window */
+    private void discard() throws IOException {
+        long position = getStreamPosition() - window;
+        if (position > getFlushedPosition()) {
+            flushBefore(position);
+        }
+    }
+}
@@ -153,6 +153,17 @@ public abstract ConveyorTile getTile(ConveyorTile tile)
     /** */
     public abstract void seedTile(ConveyorTile tile, boolean tryCache) throws GeoWebCacheException, IOException;
 
+    /**
+     * Starts seeding a tile, possibly without waiting for the backend response, so that seeders can keep several
+     * requests in flight. The default implementation seeds the tile right away.
+     *
+     * @return the tile being seeded, to be {@link SeedingTile#complete() completed} by the caller
+     */
+    public SeedingTile startSeedTile(ConveyorTile tile, boolean tryCache) throws GeoWebCacheException, IOException {
+        seedTile(tile, tryCache);
+        return SeedingTile.DONE;
+    }
+
     /**
      * This is a more direct way of requesting a tile without invoking metatiling, and should not be used in general.
      * The method was exposed to let the KML service traverse the tree ahead of the client, to avoid linking to empty
@@ -179,6 +190,16 @@ public Map<String, org.geowebcache.config.legends.LegendInfo> getLayerLegendsInf
      */
     public abstract int[] getMetaTilingFactors();
 
+    /**
+     * The size of a metatile in tiles at the given zoom level, the same for all levels unless the layer configures
+     * metatiling per zoom level.
+     *
+     * @return the {x,y} metatiling factors
+     */
+    public int[] getMetaTilingFactors(int zoomLevel) {
+        return getMetaTilingFactors();
+    }
+
     /** Whether clients may specify cache=false and go straight to source */
     public abstract Boolean isCacheBypassAllowed();
 
@@ -518,6 +539,7 @@ protected void saveTiles(MetaTile metaTile, ConveyorTile tileProto, long request
                                 tileProto.getParameters(),
                                 resource);
                         tile.setCreated(requestTime);
+                        tile.setContentId(metaTile.getUniformTileId(i));
 
                         try {
                             if (tileProto.isMetaTileCacheOnly()) {
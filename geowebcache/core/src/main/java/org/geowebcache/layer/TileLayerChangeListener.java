@@ -0,0 +1,38 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.layer;
+
+import java.util.EventListener;
+
+/**
+ * Listens to the changes made to the layers served by a {@link TileLayerDispatcher}, as in
+ * {@link TileLayerDispatcher#addLayerChangeListener(TileLayerChangeListener)}.
+ *
+ * <p>Events are sent once the change has been successfully applied to the owning configuration. Changes made directly
+ * on a configuration, bypassing the dispatcher, are not notified, so listeners caching layer derived information
+ * should still be able to tell a stale entry apart.
+ */
+public interface TileLayerChangeListener extends EventListener {
+
+    void layerAdded(String layerName);
+
+    void layerModified(String layerName);
+
+    void layerRemoved(String layerName);
+
+    void layerRenamed(String oldName, String newName);
+
+    /** Anything may have changed, e.g. the configurations were reloaded, or the gridsets or service info changed */
+    void configurationChanged();
+}
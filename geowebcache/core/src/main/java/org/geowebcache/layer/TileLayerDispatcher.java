@@ -18,7 +18,6 @@
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -27,6 +26,7 @@
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -64,6 +64,10 @@
 
     private ApplicationContext applicationContext;
 
+    private final List<TileLayerChangeListener> layerChangeListeners = new CopyOnWriteArrayList<>();
+
+    private volatile TileLayerIndex layerIndex;
+
     /**
      * Used for testing only, in production use {@link #TileLayerDispatcher(GridSetBroker)} instead, configurations are
      * loaded from the application context, the {@code config} parameter will be overwritten
@@ -83,13 +87,7 @@ public TileLayerDispatcher(GridSetBroker gridSetBroker, TileLayerDispatcherFilte
     }
 
     public boolean layerExists(final String layerName) {
-        for (TileLayerConfiguration configuration : configs) {
-            Optional<TileLayer> layer = configuration.getLayer(layerName);
-            if (layer.isPresent()) {
-                return true;
-            }
-        }
-        return false;
+        return getLayerIndex().getLayer(layerName).isPresent();
     }
 
     /**
@@ -100,11 +98,9 @@ public boolean layerExists(final String layerName) {
     public TileLayer getTileLayer(final String layerName) throws GeoWebCacheException {
         Preconditions.checkNotNull(layerName, "layerName is null");
 
-        for (TileLayerConfiguration configuration : configs) {
-            Optional<TileLayer> layer = configuration.getLayer(layerName);
-            if (layer.isPresent()) {
-                return layer.get();
-            }
+        Optional<TileLayer> layer = getLayerIndex().getLayer(layerName);
+        if (layer.isPresent()) {
+            return layer.get();
         }
         throw new GeoWebCacheException("Thread "
                 + Thread.currentThread().getName()
@@ -115,19 +111,12 @@ public TileLayer getTileLayer(final String layerName) throws GeoWebCacheExceptio
     }
 
     public int getLayerCount() {
-        int count = 0;
-        for (TileLayerConfiguration configuration : configs) {
-            count += configuration.getLayerCount();
-        }
-        return count;
+        return getLayerIndex().getLayerCount();
     }
 
+    /** @return an immutable snapshot of the names of all the layers */
     public Set<String> getLayerNames() {
-        Set<String> names = new HashSet<>();
-        for (TileLayerConfiguration configuration : configs) {
-            names.addAll(configuration.getLayerNames());
-        }
-        return names;
+        return getLayerIndex().getLayerNames();
     }
 
     /**
@@ -172,12 +161,39 @@ public ServiceInformation getServiceInformation() {
     /** @param serviceInformation the serviceInformation to set */
     public void setServiceInformation(ServiceInformation serviceInformation) {
         this.serviceInformation = serviceInformation;
+        layerChangeListeners.forEach(TileLayerChangeListener::configurationChanged);
     }
 
     /** @see org.springframework.beans.factory.DisposableBean#destroy() */
     @Override
     public void destroy() throws Exception {
-        //
+        resetLayerIndex();
+    }
+
+    /**
+     * Returns the index of the layers of the current configurations, building it on first use as the configurations
+     * may not be initialized yet when this dispatcher is
+     */
+    private TileLayerIndex getLayerIndex() {
+        TileLayerIndex index = layerIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = layerIndex;
+                if (index == null) {
+                    index = new TileLayerIndex(configs);
+                    index.build();
+                    layerIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    private synchronized void resetLayerIndex() {
+        if (layerIndex != null) {
+            layerIndex.dispose();
+            layerIndex = null;
+        }
     }
 
     /**
@@ -186,13 +202,11 @@ public void destroy() throws Exception {
      * @param layerName the name of the layer to remove
      */
     public synchronized void removeLayer(final String layerName) throws IllegalArgumentException {
-        for (TileLayerConfiguration config : configs) {
-            if (config.containsLayer(layerName)) {
-                config.removeLayer(layerName);
-                return;
-            }
-        }
-        throw new NoSuchElementException("No configuration found containing layer " + layerName);
+        TileLayerConfiguration config = getLayerIndex()
+                .getConfiguration(layerName)
+                .orElseThrow(() -> new NoSuchElementException("No configuration found containing layer " + layerName));
+        config.removeLayer(layerName);
+        layerChangeListeners.forEach(l -> l.layerRemoved(layerName));
     }
 
     /**
@@ -206,6 +220,7 @@ public synchronized void addLayer(final TileLayer tl) throws IllegalArgumentExce
         for (TileLayerConfiguration c : configs) {
             if (c.canSave(tl)) {
                 c.addLayer(tl);
+                layerChangeListeners.forEach(l -> l.layerAdded(tl.getName()));
                 return;
             }
         }
@@ -222,6 +237,7 @@ public synchronized void rename(final String oldName, final String newName)
             throws NoSuchElementException, IllegalArgumentException {
         TileLayerConfiguration config = getConfiguration(oldName);
         config.renameLayer(oldName, newName);
+        layerChangeListeners.forEach(l -> l.layerRenamed(oldName, newName));
     }
 
     /**
@@ -233,6 +249,7 @@ public synchronized void modify(final TileLayer tl) throws IllegalArgumentExcept
         TileLayerConfiguration config = getConfiguration(tl);
         // TODO: this won't work with GetCapabilitiesConfiguration
         config.modifyLayer(tl);
+        layerChangeListeners.forEach(l -> l.layerModified(tl.getName()));
     }
 
     public TileLayerConfiguration getConfiguration(TileLayer tl) throws IllegalArgumentException {
@@ -242,12 +259,10 @@ public TileLayerConfiguration getConfiguration(TileLayer tl) throws IllegalArgum
 
     public TileLayerConfiguration getConfiguration(final String tileLayerName) throws IllegalArgumentException {
         Assert.notNull(tileLayerName, "tileLayerName is null");
-        for (TileLayerConfiguration c : configs) {
-            if (c.containsLayer(tileLayerName)) {
-                return c;
-            }
-        }
-        throw new IllegalArgumentException("No configuration found containing layer " + tileLayerName);
+        return getLayerIndex()
+                .getConfiguration(tileLayerName)
+                .orElseThrow(() ->
+                        new IllegalArgumentException("No configuration found containing layer " + tileLayerName));
     }
 
     public synchronized void addGridSet(final GridSet gridSet) throws IllegalArgumentException, IOException {
@@ -259,6 +274,7 @@ public synchronized void addGridSet(final GridSet gridSet) throws IllegalArgumen
 
     private void saveGridSet(final GridSet gridSet) throws IOException {
         gridSetBroker.addGridSet(gridSet);
+        layerChangeListeners.forEach(TileLayerChangeListener::configurationChanged);
     }
 
     public synchronized void removeGridSet(String gridsetToRemove) {
@@ -267,6 +283,7 @@ public synchronized void removeGridSet(String gridsetToRemove) {
             throw new IllegalStateException("Can not remove gridset " + gridsetToRemove + " as it is used by layers");
         }
         gridSetBroker.removeGridSet(gridsetToRemove);
+        layerChangeListeners.forEach(TileLayerChangeListener::configurationChanged);
     }
 
     public synchronized void removeGridSetRecursive(String gridsetToRemove) {
@@ -299,6 +316,7 @@ public synchronized void removeGridSetRecursive(String gridsetToRemove) {
             }
             throw exceptionOnRestore;
         }
+        layerChangeListeners.forEach(TileLayerChangeListener::configurationChanged);
     }
 
     @SuppressWarnings("unchecked")
@@ -314,6 +332,7 @@ public <T extends TileLayerConfiguration> List<? extends T> getConfigurations(Cl
     @Override
     public void afterPropertiesSet() throws Exception {
         this.configs = GeoWebCacheExtensions.configurations(TileLayerConfiguration.class, applicationContext);
+        resetLayerIndex();
 
         Map<String, BaseConfiguration> config = applicationContext.getBeansOfType(BaseConfiguration.class);
         if (config != null && !config.isEmpty()) {
@@ -336,5 +355,16 @@ public void setApplicationContext(ApplicationContext applicationContext) throws
     /** @deprecated use GeoWebCacheExtensions.reinitializeConfigurations instead */
     public void reInit() { // do not know how to get rid of it, it's used in mock testing...
         GeoWebCacheExtensions.reinitialize(this.applicationContext);
+        layerChangeListeners.forEach(TileLayerChangeListener::configurationChanged);
+    }
+
+    /** Registers a listener to be notified of the changes made to the layers through this dispatcher */
+    public void addLayerChangeListener(TileLayerChangeListener listener) {
+        Assert.notNull(listener, "listener is null");
+        layerChangeListeners.add(listener);
+    }
+
+    public void removeLayerChangeListener(TileLayerChangeListener listener) {
+        layerChangeListeners.remove(listener);
     }
 }
@@ -0,0 +1,268 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.layer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.geowebcache.config.TileLayerConfiguration;
+import org.geowebcache.config.TileLayerConfigurationListener;
+
+/**
+ * Maps layer names to the {@link TileLayerConfiguration} serving them, so that {@link TileLayerDispatcher} doesn't
+ * have to ask each configuration in turn.
+ *
+ * <p>The index is kept up to date by listening to the configurations. Those that don't
+ * {@link TileLayerConfiguration#addLayerListener notify} their changes are not indexed and are queried on each lookup,
+ * respecting the configurations order: a layer is served by the first configuration containing it.
+ *
+ * <p>Lookups don't lock, updates are serialized, and the set of layer names is kept as an immutable snapshot rebuilt
+ * lazily after a change. The configurations notify their listeners while holding their own locks, so the index never
+ * calls into a configuration while holding its own lock: the data needed for an update is gathered beforehand, and the
+ * update is retried if the index changed in the meantime.
+ */
+class TileLayerIndex {
+
+    private final List<TileLayerConfiguration> configs;
+
+    /** Position of each configuration in {@link #configs} */
+    private final Map<TileLayerConfiguration, Integer> positions = new IdentityHashMap<>();
+
+    /** The configurations that are not indexed, in order */
+    private final List<TileLayerConfiguration> unindexed = new ArrayList<>();
+
+    private final List<TileLayerConfiguration> indexed = new ArrayList<>();
+
+    private final Map<TileLayerConfiguration, TileLayerConfigurationListener> listeners = new IdentityHashMap<>();
+
+    private final Map<String, TileLayerConfiguration> owners = new ConcurrentHashMap<>();
+
+    private volatile Set<String> indexedNames;
+
+    /** Incremented on each change of {@link #owners}, guarded by this */
+    private long version;
+
+    TileLayerIndex(List<TileLayerConfiguration> configs) {
+        this.configs = new ArrayList<>(configs);
+        for (int i = 0; i < this.configs.size(); i++) {
+            positions.put(this.configs.get(i), i);
+        }
+    }
+
+    /** Registers with the configurations and indexes their current layers */
+    void build() {
+        // registering before indexing so that no change is missed, and out of the lock, as configurations notify
+        // their listeners while holding their own locks
+        for (TileLayerConfiguration config : configs) {
+            Listener listener = new Listener(config);
+            if (config.addLayerListener(listener)) {
+                listeners.put(config, listener);
+                indexed.add(config);
+            } else {
+                unindexed.add(config);
+            }
+        }
+        for (TileLayerConfiguration config : indexed) {
+            addAll(config);
+        }
+    }
+
+    /** Unregisters from the configurations */
+    void dispose() {
+        listeners.forEach((config, listener) -> config.removeLayerListener(listener));
+    }
+
+    /** @return the configuration serving the layer, if any */
+    Optional<TileLayerConfiguration> getConfiguration(String layerName) {
+        TileLayerConfiguration owner = owners.get(layerName);
+        int ownerPosition = owner == null ? Integer.MAX_VALUE : positions.get(owner);
+        for (TileLayerConfiguration config : unindexed) {
+            if (positions.get(config) > ownerPosition) {
+                break;
+            }
+            if (config.containsLayer(layerName)) {
+                return Optional.of(config);
+            }
+        }
+        return Optional.ofNullable(owner);
+    }
+
+    /** @return the layer named {@code layerName}, if any */
+    Optional<TileLayer> getLayer(String layerName) {
+        TileLayerConfiguration owner = owners.get(layerName);
+        int ownerPosition = owner == null ? Integer.MAX_VALUE : positions.get(owner);
+        for (TileLayerConfiguration config : unindexed) {
+            if (positions.get(config) > ownerPosition) {
+                break;
+            }
+            Optional<TileLayer> layer = config.getLayer(layerName);
+            if (layer.isPresent()) {
+                return layer;
+            }
+        }
+        return owner == null ? Optional.empty() : owner.getLayer(layerName);
+    }
+
+    /** @return the number of distinct layer names */
+    int getLayerCount() {
+        if (unindexed.isEmpty()) {
+            return owners.size();
+        }
+        return getLayerNames().size();
+    }
+
+    /** @return an immutable snapshot of the layer names */
+    Set<String> getLayerNames() {
+        Set<String> names = indexedNames;
+        if (names == null) {
+            synchronized (this) {
+                names = indexedNames;
+                if (names == null) {
+                    names = indexedNames = Collections.unmodifiableSet(new HashSet<>(owners.keySet()));
+                }
+            }
+        }
+        if (unindexed.isEmpty()) {
+            return names;
+        }
+        Set<String> all = new HashSet<>(names);
+        for (TileLayerConfiguration config : unindexed) {
+            all.addAll(config.getLayerNames());
+        }
+        return Collections.unmodifiableSet(all);
+    }
+
+    private synchronized void added(TileLayerConfiguration config, String layerName) {
+        owners.merge(layerName, config, (current, added) -> precedes(added, current) ? added : current);
+        changed();
+    }
+
+    /** Indexes all the layers of the configuration, retrying if the index changed while they were being listed */
+    private void addAll(TileLayerConfiguration config) {
+        while (true) {
+            long before = currentVersion();
+            Set<String> names = config.getLayerNames();
+            synchronized (this) {
+                if (version == before) {
+                    for (String name : names) {
+                        added(config, name);
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    private void removed(TileLayerConfiguration config, String layerName) {
+        while (true) {
+            long before;
+            synchronized (this) {
+                if (owners.get(layerName) != config) {
+                    return;
+                }
+                before = version;
+            }
+            // looked up out of the lock, the other configurations may be notifying their own changes
+            TileLayerConfiguration owner = findOwner(layerName);
+            synchronized (this) {
+                if (version == before) {
+                    if (owner == null) {
+                        owners.remove(layerName);
+                    } else {
+                        owners.put(layerName, owner);
+                    }
+                    changed();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void reloaded(TileLayerConfiguration config) {
+        List<String> previous = new ArrayList<>();
+        owners.forEach((name, owner) -> {
+            if (owner == config) {
+                previous.add(name);
+            }
+        });
+        for (String name : previous) {
+            removed(config, name);
+        }
+        addAll(config);
+    }
+
+    private synchronized long currentVersion() {
+        return version;
+    }
+
+    /** Must be called while holding the lock */
+    private void changed() {
+        version++;
+        indexedNames = null;
+    }
+
+    private TileLayerConfiguration findOwner(String layerName) {
+        for (TileLayerConfiguration config : indexed) {
+            if (config.containsLayer(layerName)) {
+                return config;
+            }
+        }
+        return null;
+    }
+
+    private boolean precedes(TileLayerConfiguration config, TileLayerConfiguration other) {
+        return positions.get(config) < positions.get(other);
+    }
+
+    private class Listener implements TileLayerConfigurationListener {
+
+        private final TileLayerConfiguration config;
+
+        Listener(TileLayerConfiguration config) {
+            this.config = config;
+        }
+
+        @Override
+        public void handleAddLayer(TileLayer layer) {
+            added(config, layer.getName());
+        }
+
+        @Override
+        public void handleRemoveLayer(String layerName) {
+            removed(config, layerName);
+        }
+
+        @Override
+        public void handleModifyLayer(TileLayer layer) {
+            // same name, same configuration
+        }
+
+        @Override
+        public void handleRenameLayer(String oldName, TileLayer layer) {
+            removed(config, oldName);
+            added(config, layer.getName());
+        }
+
+        @Override
+        public void handleReload() {
+            reloaded(config);
+        }
+    }
+}
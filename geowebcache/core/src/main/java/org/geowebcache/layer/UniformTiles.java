@@ -0,0 +1,121 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.layer;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.util.Locale;
+import org.geowebcache.mime.MimeType;
+
+/**
+ * Recognizes single color tiles, such as those covering empty ocean or transparent areas, and keeps their encoding in
+ * memory, so that they are encoded once rather than every time a metatile gets cut into tiles.
+ *
+ * <p>Single color tiles of the same format, size and color are identified by the same
+ * {@link org.geowebcache.storage.TileObject#getContentId() content identifier}, which blob stores may use to store
+ * them as references to a single blob.
+ */
+public final class UniformTiles {
+
+    /** Maximum total size of the encoded tiles kept in memory */
+    static final long MAX_BYTES = 8 * 1024 * 1024;
+
+    private static final Cache<String, byte[]> ENCODED = CacheBuilder.newBuilder()
+            .maximumWeight(MAX_BYTES)
+            .<String, byte[]>weigher((k, v) -> v.length + 2 * k.length())
+            .build();
+
+    private UniformTiles() {}
+
+    /**
+     * Checks whether the region of the image is made of a single color, stopping at the first different pixel.
+     * Transparent pixels are all considered the same color, whatever their color components.
+     *
+     * @return the ARGB color of the region, or {@code null} if it has more colors or samples larger than a byte
+     */
+    public static Integer getColor(RenderedImage image, Rectangle region) {
+        ColorModel colorModel = image.getColorModel();
+        if (colorModel == null) {
+            return null;
+        }
+        for (int size : image.getSampleModel().getSampleSize()) {
+            if (size > 8) {
+                return null;
+            }
+        }
+        // scan buffered images in place, other images are computed for the region only
+        Raster raster = image instanceof BufferedImage ? ((BufferedImage) image).getRaster() : image.getData(region);
+        int bands = raster.getNumBands();
+        int[] first = raster.getPixel(region.x, region.y, (int[]) null);
+        boolean transparent = isTransparent(colorModel, first, 0, bands);
+        int[] row = new int[region.width * bands];
+        for (int y = region.y; y < region.y + region.height; y++) {
+            raster.getPixels(region.x, y, region.width, 1, row);
+            for (int i = 0; i < row.length; i += bands) {
+                if (transparent) {
+                    if (!isTransparent(colorModel, row, i, bands)) {
+                        return null;
+                    }
+                    continue;
+                }
+                for (int b = 0; b < bands; b++) {
+                    if (row[i + b] != first[b]) {
+                        return null;
+                    }
+                }
+            }
+        }
+        int argb = colorModel.getRGB(raster.getDataElements(region.x, region.y, null));
+        return (argb >>> 24) == 0 ? 0 : argb;
+    }
+
+    /** @return whether the pixel whose samples start at {@code offset} has a zero alpha */
+    private static boolean isTransparent(ColorModel colorModel, int[] samples, int offset, int bands) {
+        if (colorModel instanceof IndexColorModel) {
+            return ((IndexColorModel) colorModel).getAlpha(samples[offset]) == 0;
+        }
+        // the alpha is the last band of both component and packed color models
+        return colorModel.hasAlpha() && colorModel.getNumComponents() == bands && samples[offset + bands - 1] == 0;
+    }
+
+    /**
+     * Builds the content identifier shared by the single color tiles of a given format, size and color, usable as a
+     * file name
+     */
+    public static String getContentId(MimeType format, int width, int height, int argb) {
+        return String.format(
+                Locale.ROOT,
+                "uniform_%s_%dx%d_%08x",
+                format.getFormat().replaceAll("[^A-Za-z0-9]", "_"),
+                width,
+                height,
+                argb);
+    }
+
+    /** @return the encoded tile with the given content identifier, or {@code null} if not in memory */
+    static byte[] getEncoded(String contentId) {
+        return ENCODED.getIfPresent(contentId);
+    }
+
+    /** Keeps the encoded tile with the given content identifier in memory */
+    static void putEncoded(String contentId, byte[] encoded) {
+        ENCODED.put(contentId, encoded);
+    }
+}
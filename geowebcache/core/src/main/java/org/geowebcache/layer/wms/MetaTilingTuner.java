@@ -0,0 +1,192 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.layer.wms;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.GeoWebCacheExtensions;
+
+/**
+ * Adjusts the metatiling factors of each zoom level of a {@link WMSLayer} from the backend requests observed while
+ * serving and seeding it, and the cache hits observed while serving it.
+ *
+ * <p>Every {@link #WINDOW} metatile requests to a zoom level the factors are moved one step, from {@code 1} up to twice
+ * the configured ones, in the direction lowering the backend latency per tile, as larger metatiles spread the cost of a
+ * request among more tiles until the backend slows down rendering them. The factors are lowered instead when the
+ * metatile requests take longer or return larger images than allowed, or when few of the tiles generated get requested
+ * afterwards, so that the backend does not render tiles no one asks for.
+ *
+ * <p>The limits can be set with the following environment variables:
+ *
+ * <ul>
+ *   <li>{@code GWC_METATILING_MAX_LATENCY}: the time, in milliseconds, a metatile request should take at most,
+ *       {@code 5000} by default
+ *   <li>{@code GWC_METATILING_MAX_PAYLOAD}: the size, in bytes, of a metatile image should be at most,
+ *       {@code 16777216} by default
+ *   <li>{@code GWC_METATILING_MIN_HIT_RATIO}: the percentage of the tiles generated that should get requested from the
+ *       cache afterwards, {@code 10} by default
+ * </ul>
+ */
+class MetaTilingTuner {
+
+    private static final Logger log = Logging.getLogger(MetaTilingTuner.class.getName());
+
+    static final String MAX_LATENCY_PROPERTY = "GWC_METATILING_MAX_LATENCY";
+
+    static final String MAX_PAYLOAD_PROPERTY = "GWC_METATILING_MAX_PAYLOAD";
+
+    static final String MIN_HIT_RATIO_PROPERTY = "GWC_METATILING_MIN_HIT_RATIO";
+
+    /** The number of metatile requests after which the factors of a zoom level get adjusted */
+    static final int WINDOW = 32;
+
+    private final ConcurrentMap<Integer, ZoomStats> zoomStats = new ConcurrentHashMap<>();
+
+    private final long maxLatency;
+
+    private final long maxPayload;
+
+    private final double minHitRatio;
+
+    MetaTilingTuner() {
+        this(
+                property(MAX_LATENCY_PROPERTY, 5000),
+                property(MAX_PAYLOAD_PROPERTY, 16 * 1024 * 1024),
+                property(MIN_HIT_RATIO_PROPERTY, 10) / 100d);
+    }
+
+    MetaTilingTuner(long maxLatency, long maxPayload, double minHitRatio) {
+        this.maxLatency = maxLatency;
+        this.maxPayload = maxPayload;
+        this.minHitRatio = minHitRatio;
+    }
+
+    private static long property(String name, long defaultValue) {
+        String value = GeoWebCacheExtensions.getProperty(name);
+        if (value != null) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                log.warning("Ignoring invalid " + name + " value: " + value);
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * @param configured the metatiling factors configured for the zoom level
+     * @return the tuned {x,y} metatiling factors of the zoom level
+     */
+    int[] getMetaTilingFactors(int zoomLevel, int[] configured) {
+        ZoomStats stats = zoomStats.get(zoomLevel);
+        return stats == null ? configured : stats.factors(configured);
+    }
+
+    /**
+     * Records a metatile request to the backend
+     *
+     * @param factors the metatiling factors of the request
+     * @param latency the time, in milliseconds, the request took
+     * @param payload the size, in bytes, of the metatile image
+     * @param serving whether the request serves a tile, the tiles generated while seeding not being expected to get
+     *     requested soon
+     */
+    void requested(int zoomLevel, int[] configured, int[] factors, long latency, long payload, boolean serving) {
+        ZoomStats stats = zoomStats.computeIfAbsent(zoomLevel, z -> new ZoomStats());
+        synchronized (stats) {
+            stats.requests++;
+            stats.tiles += factors[0] * factors[1];
+            if (serving) {
+                stats.servedTiles += factors[0] * factors[1];
+            }
+            stats.latency += latency;
+            stats.payload += payload;
+            if (stats.requests >= WINDOW) {
+                int[] previous = stats.factors(configured);
+                tune(stats, configured);
+                int[] tuned = stats.factors(configured);
+                if (log.isLoggable(Level.FINE) && !Arrays.equals(previous, tuned)) {
+                    log.fine("Metatiling factors of zoom level " + zoomLevel + " tuned to " + tuned[0] + "x"
+                            + tuned[1]);
+                }
+            }
+        }
+    }
+
+    /** Records a tile served from the cache */
+    void hit(int zoomLevel) {
+        ZoomStats stats = zoomStats.get(zoomLevel);
+        if (stats != null) {
+            synchronized (stats) {
+                stats.hits++;
+            }
+        }
+    }
+
+    /** Moves the factors one step and starts a new window, the caller holding the lock of the stats */
+    private void tune(ZoomStats stats, int[] configured) {
+        double tileLatency = (double) stats.latency / stats.tiles;
+        if (stats.latency / stats.requests > maxLatency
+                || stats.payload / stats.requests > maxPayload
+                || (stats.servedTiles > 0 && (double) stats.hits / stats.servedTiles < minHitRatio)) {
+            stats.direction = -1;
+        } else if (stats.lastTileLatency >= 0 && tileLatency > stats.lastTileLatency) {
+            // the last step made things worse, go back
+            stats.direction = -stats.direction;
+        }
+        int maxStep = Math.max(configured[0], configured[1]);
+        int minStep = 1 - Math.min(configured[0], configured[1]);
+        stats.step = Math.max(minStep, Math.min(maxStep, stats.step + stats.direction));
+        stats.lastTileLatency = tileLatency;
+        stats.requests = 0;
+        stats.tiles = 0;
+        stats.latency = 0;
+        stats.payload = 0;
+        stats.servedTiles = 0;
+        stats.hits = 0;
+    }
+
+    /** The observations of a zoom level in the current window, guarded by itself */
+    private static class ZoomStats {
+
+        /** The steps the factors have been moved from the configured ones */
+        volatile int step;
+
+        int direction = 1;
+
+        double lastTileLatency = -1;
+
+        int requests;
+
+        long tiles;
+
+        long latency;
+
+        long payload;
+
+        long servedTiles;
+
+        long hits;
+
+        int[] factors(int[] configured) {
+            int x = Math.max(1, Math.min(2 * configured[0], configured[0] + step));
+            int y = Math.max(1, Math.min(2 * configured[1], configured[1] + step));
+            return new int[] {x, y};
+        }
+    }
+}
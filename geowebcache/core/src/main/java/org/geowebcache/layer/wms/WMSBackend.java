@@ -0,0 +1,307 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.layer.wms;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import org.geotools.util.logging.Logging;
+
+/**
+ * State and statistics of a WMS backend, shared by all the layers requesting it, see {@link WMSBackendManager}.
+ *
+ * <p>The number of concurrent requests to the backend is bounded by the maximum concurrency of the manager. When the
+ * {@link WMSBackendManager#isAdaptiveLimit() adaptive limit} is enabled, the limit is rather adapted with an additive
+ * increase, multiplicative decrease scheme: it grows by one for every limit worth of successful requests, and shrinks
+ * whenever a request fails or the backend latency grows well beyond its long term average. When a
+ * {@link WMSBackendManager#getFailureThreshold() failure threshold} is set, a backend failing that many requests in a
+ * row gets its circuit opened, receiving no requests until the retry interval elapses, after which a single probe
+ * request decides whether to close the circuit again.
+ */
+public class WMSBackend {
+
+    private static final Logger log = Logging.getLogger(WMSBackend.class.getName());
+
+    /** Weight of each request latency in the short term average, used for balancing */
+    static final double LATENCY_WEIGHT = 0.2;
+
+    /** Weight of each request latency in the long term average, the reference of the limit decrease */
+    static final double BASELINE_WEIGHT = 0.02;
+
+    /** Ratio of the short to long term latency averages beyond which the backend is considered overloaded */
+    static final double LATENCY_TOLERANCE = 2;
+
+    /** Limit decrease factor on failures */
+    static final double FAILURE_DECREASE = 0.5;
+
+    /** Limit decrease factor on latency increases */
+    static final double LATENCY_DECREASE = 0.9;
+
+    /** States of the backend circuit breaker */
+    public enum CircuitState {
+        /** Requests flow normally */
+        CLOSED,
+        /** The backend failed, requests are not sent to it */
+        OPEN,
+        /** The retry interval elapsed, a single probe request is allowed */
+        HALF_OPEN
+    }
+
+    private final String url;
+
+    private final WMSBackendManager manager;
+
+    private double limit;
+
+    private int outstanding;
+
+    /** Short term average latency in nanoseconds, {@code NaN} until the first request completes */
+    private double latency = Double.NaN;
+
+    private double baseline = Double.NaN;
+
+    private int consecutiveFailures;
+
+    private CircuitState state = CircuitState.CLOSED;
+
+    private long retryTime;
+
+    private boolean probing;
+
+    private long requests;
+
+    private long failures;
+
+    private long circuitOpenings;
+
+    private long hedges;
+
+    private long hedgesWon;
+
+    WMSBackend(String url, WMSBackendManager manager) {
+        this.url = url;
+        this.manager = manager;
+        this.limit = manager.getMaxConcurrency();
+    }
+
+    /** @return the backend URL, without query string */
+    public String getUrl() {
+        return url;
+    }
+
+    /** @return the current limit of concurrent requests */
+    public synchronized int getLimit() {
+        return manager.isAdaptiveLimit() ? (int) limit : manager.getMaxConcurrency();
+    }
+
+    /** @return the number of requests in progress */
+    public synchronized int getOutstanding() {
+        return outstanding;
+    }
+
+    /** @return the recent average latency in milliseconds, or {@code NaN} if no request completed yet */
+    public synchronized double getLatency() {
+        return latency / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /** @return the number of completed requests */
+    public synchronized long getRequests() {
+        return requests;
+    }
+
+    /** @return the number of failed requests */
+    public synchronized long getFailures() {
+        return failures;
+    }
+
+    /** @return the current state of the circuit breaker */
+    public synchronized CircuitState getCircuitState() {
+        return state;
+    }
+
+    /** @return the number of times the circuit got opened */
+    public synchronized long getCircuitOpenings() {
+        return circuitOpenings;
+    }
+
+    /** @return the number of hedged requests sent to this backend */
+    public synchronized long getHedges() {
+        return hedges;
+    }
+
+    /** @return the number of hedged requests sent to this backend that answered first */
+    public synchronized long getHedgesWon() {
+        return hedgesWon;
+    }
+
+    /**
+     * @return whether the backend may receive requests, opening the circuit for a probe request once the retry
+     *     interval elapsed
+     */
+    synchronized boolean isAvailable(long now) {
+        if (state == CircuitState.OPEN && now - retryTime >= 0) {
+            state = CircuitState.HALF_OPEN;
+            probing = false;
+        }
+        return state == CircuitState.CLOSED || (state == CircuitState.HALF_OPEN && !probing);
+    }
+
+    /** @return whether the backend circuit is open, without probe request pending */
+    synchronized boolean isOpen(long now) {
+        return state == CircuitState.OPEN && now - retryTime < 0;
+    }
+
+    /**
+     * @return the cost of sending a request to this backend, the expected latency weighted by the requests in
+     *     progress, zero for the backends whose latency is yet unknown so that they get requests first
+     */
+    synchronized double cost() {
+        return Double.isNaN(latency) ? 0 : latency * (outstanding + 1);
+    }
+
+    /** @return a permit to send a request, or {@code null} if the backend is at its limit or unavailable */
+    synchronized Call tryAcquire(long now, String requestUrl) {
+        if (outstanding >= getLimit()) {
+            return null;
+        }
+        return acquireOverLimit(now, requestUrl);
+    }
+
+    /** @return a permit to send a request regardless of the limit, or {@code null} if the backend is unavailable */
+    synchronized Call acquireOverLimit(long now, String requestUrl) {
+        if (!isAvailable(now)) {
+            return null;
+        }
+        if (state == CircuitState.HALF_OPEN) {
+            probing = true;
+        }
+        outstanding++;
+        return new Call(requestUrl, now);
+    }
+
+    /** Records a hedged request was sent to this backend */
+    synchronized void hedged() {
+        hedges++;
+    }
+
+    /** Records a hedged request sent to this backend answered first */
+    synchronized void hedgeWon() {
+        hedgesWon++;
+    }
+
+    private void release(long elapsed, boolean failed) {
+        synchronized (this) {
+            outstanding--;
+            requests++;
+            boolean adaptive = manager.isAdaptiveLimit();
+            if (!adaptive) {
+                // picks up the maximum concurrency the limit would start from once enabled
+                limit = manager.getMaxConcurrency();
+            }
+            if (failed) {
+                failures++;
+                consecutiveFailures++;
+                if (adaptive) {
+                    limit = Math.max(1, limit * FAILURE_DECREASE);
+                }
+                int threshold = manager.getFailureThreshold();
+                if (state == CircuitState.HALF_OPEN
+                        || (state == CircuitState.CLOSED && threshold > 0 && consecutiveFailures >= threshold)) {
+                    open();
+                }
+            } else {
+                consecutiveFailures = 0;
+                latency = average(latency, elapsed, LATENCY_WEIGHT);
+                baseline = average(baseline, elapsed, BASELINE_WEIGHT);
+                if (adaptive) {
+                    if (latency > baseline * LATENCY_TOLERANCE) {
+                        limit = Math.max(1, limit * LATENCY_DECREASE);
+                    } else {
+                        limit = Math.min(manager.getMaxConcurrency(), limit + 1 / limit);
+                    }
+                }
+                if (state == CircuitState.HALF_OPEN) {
+                    state = CircuitState.CLOSED;
+                    log.info("WMS backend " + url + " recovered, closing its circuit");
+                }
+            }
+        }
+        manager.released();
+    }
+
+    private static double average(double average, long sample, double weight) {
+        return Double.isNaN(average) ? sample : average + (sample - average) * weight;
+    }
+
+    private void open() {
+        state = CircuitState.OPEN;
+        probing = false;
+        retryTime = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(manager.getRetryInterval());
+        circuitOpenings++;
+        log.warning("WMS backend " + url + " failed " + consecutiveFailures
+                + " requests in a row, opening its circuit for " + manager.getRetryInterval() + "ms");
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(
+                "%s: %s, %d/%d requests in progress, %.1fms latency, %d requests, %d failures, %d hedges (%d won)",
+                url, state, outstanding, getLimit(), getLatency(), requests, failures, hedges, hedgesWon);
+    }
+
+    /** Permit to send a request to the backend, to be closed once the response is read */
+    public class Call implements AutoCloseable {
+
+        private final String requestUrl;
+
+        private final long start;
+
+        private boolean failed;
+
+        private boolean closed;
+
+        Call(String requestUrl, long start) {
+            this.requestUrl = requestUrl;
+            this.start = start;
+        }
+
+        /** @return the backend the request is sent to */
+        public WMSBackend getBackend() {
+            return WMSBackend.this;
+        }
+
+        /** @return the configured URL the request is sent to, including its query string if any */
+        public String getRequestUrl() {
+            return requestUrl;
+        }
+
+        /** Records the request failed because of the backend, rather than of the request itself */
+        public void failed() {
+            failed = true;
+        }
+
+        /** Releases the permit, recording the request outcome and latency */
+        @Override
+        public void close() {
+            complete(System.nanoTime() - start);
+        }
+
+        /** Releases the permit, recording the request outcome and the given latency in nanoseconds */
+        void complete(long elapsed) {
+            if (!closed) {
+                closed = true;
+                release(elapsed, failed);
+            }
+        }
+    }
+}
@@ -0,0 +1,391 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.layer.wms;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.nio.client.HttpAsyncClient;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.GeoWebCacheException;
+import org.geowebcache.GeoWebCacheExtensions;
+import org.geowebcache.util.HttpClientBuilder;
+import org.springframework.util.Assert;
+
+/**
+ * Balances the requests of the {@link WMSHttpHelper WMS layers} among their backends, keeping track of the
+ * {@link WMSBackend state} of each backend across all the layers requesting it.
+ *
+ * <p>Each request goes to the available backend with the lowest expected latency weighted by its requests in progress,
+ * so that a backend slowing down gets less traffic, the backends being tried in turn when equally loaded. A backend
+ * gets no more concurrent requests than its limit, requests waiting up to the configured time for a backend to free
+ * up, after which they are sent anyway. Load shedding is opt-in: with the adaptive limit enabled the limit shrinks as
+ * the backend fails or slows down, and requests fail once the wait elapses, while with a failure threshold set a
+ * backend failing that many requests in a row gets none while its circuit is open. When a hedge delay is set, requests
+ * to layers with several backends that take longer than the delay are sent to a second backend as well, using the
+ * first response.
+ *
+ * <p>The defaults can be set with the following environment variables:
+ *
+ * <ul>
+ *   <li>{@code GWC_WMS_BACKEND_MAX_CONCURRENCY}: the maximum limit of concurrent requests to each backend, {@code 64}
+ *       by default
+ *   <li>{@code GWC_WMS_BACKEND_MAX_WAIT}: the time, in milliseconds, requests wait for a backend to free up,
+ *       {@code 30000} by default
+ *   <li>{@code GWC_WMS_BACKEND_ADAPTIVE_LIMIT}: whether the limit of each backend adapts to its failures and latency,
+ *       failing the requests that can't get a backend in time, {@code false} by default
+ *   <li>{@code GWC_WMS_BACKEND_FAILURE_THRESHOLD}: the number of requests failing in a row opening the circuit of a
+ *       backend, {@code 0} by default, disabling the circuit breaker
+ *   <li>{@code GWC_WMS_BACKEND_RETRY_INTERVAL}: the time, in milliseconds, the circuit of a backend stays open,
+ *       {@code 30000} by default
+ *   <li>{@code GWC_WMS_BACKEND_HEDGE_DELAY}: the time, in milliseconds, after which a request gets hedged, {@code 0}
+ *       by default, disabling hedging
+ * </ul>
+ */
+public class WMSBackendManager {
+
+    private static final Logger log = Logging.getLogger(WMSBackendManager.class.getName());
+
+    static final String MAX_CONCURRENCY_PROPERTY = "GWC_WMS_BACKEND_MAX_CONCURRENCY";
+
+    static final String MAX_WAIT_PROPERTY = "GWC_WMS_BACKEND_MAX_WAIT";
+
+    static final String ADAPTIVE_LIMIT_PROPERTY = "GWC_WMS_BACKEND_ADAPTIVE_LIMIT";
+
+    static final String FAILURE_THRESHOLD_PROPERTY = "GWC_WMS_BACKEND_FAILURE_THRESHOLD";
+
+    static final String RETRY_INTERVAL_PROPERTY = "GWC_WMS_BACKEND_RETRY_INTERVAL";
+
+    static final String HEDGE_DELAY_PROPERTY = "GWC_WMS_BACKEND_HEDGE_DELAY";
+
+    /** Backends the asynchronous client pools connections for, each up to the maximum concurrency */
+    static final int ASYNC_CLIENT_BACKENDS = 8;
+
+    /** Default timeout, in seconds, of the asynchronous client, each request setting its own */
+    static final int ASYNC_CLIENT_TIMEOUT = 120;
+
+    /** Used by the helpers when no manager is found in the application context */
+    private static WMSBackendManager defaultManager;
+
+    private final ConcurrentMap<String, WMSBackend> backends = new ConcurrentHashMap<>();
+
+    /** Rotates the backends tried first, so that equally loaded ones get requests in turn */
+    private final AtomicInteger next = new AtomicInteger();
+
+    /** Notified whenever a request completes, guarded by itself */
+    private final Object released = new Object();
+
+    private volatile int maxConcurrency = property(MAX_CONCURRENCY_PROPERTY, 64);
+
+    private volatile long maxWait = property(MAX_WAIT_PROPERTY, 30000);
+
+    private volatile boolean adaptiveLimit =
+            Boolean.parseBoolean(GeoWebCacheExtensions.getProperty(ADAPTIVE_LIMIT_PROPERTY));
+
+    private volatile int failureThreshold = property(FAILURE_THRESHOLD_PROPERTY, 0);
+
+    private volatile long retryInterval = property(RETRY_INTERVAL_PROPERTY, 30000);
+
+    private volatile long hedgeDelay = property(HEDGE_DELAY_PROPERTY, 0);
+
+    private ExecutorService hedgeExecutor;
+
+    private CloseableHttpAsyncClient asyncClient;
+
+    /** @return the manager of the application context, or a shared one if there is none */
+    static synchronized WMSBackendManager get() {
+        WMSBackendManager manager = GeoWebCacheExtensions.bean(WMSBackendManager.class);
+        if (manager != null) {
+            return manager;
+        }
+        if (defaultManager == null) {
+            defaultManager = new WMSBackendManager();
+        }
+        return defaultManager;
+    }
+
+    private static int property(String name, int defaultValue) {
+        return (int) property(name, (long) defaultValue);
+    }
+
+    private static long property(String name, long defaultValue) {
+        String value = GeoWebCacheExtensions.getProperty(name);
+        if (value != null) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                log.warning("Ignoring invalid " + name + " value: " + value);
+            }
+        }
+        return defaultValue;
+    }
+
+    /** @return the maximum limit of concurrent requests to each backend */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /** Sets the maximum limit of concurrent requests to each backend, the limit the backends start with */
+    public void setMaxConcurrency(int maxConcurrency) {
+        Assert.isTrue(maxConcurrency > 0, "maxConcurrency shall be positive");
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /** @return the time, in milliseconds, requests wait for a backend to free up */
+    public long getMaxWait() {
+        return maxWait;
+    }
+
+    /**
+     * Sets the time, in milliseconds, requests wait for a backend to free up, before failing with the adaptive limit
+     * enabled, or being sent anyway otherwise
+     */
+    public void setMaxWait(long maxWait) {
+        Assert.isTrue(maxWait >= 0, "maxWait shall not be negative");
+        this.maxWait = maxWait;
+    }
+
+    /** @return whether the limit of each backend adapts to its failures and latency */
+    public boolean isAdaptiveLimit() {
+        return adaptiveLimit;
+    }
+
+    /**
+     * Sets whether the limit of each backend adapts to its failures and latency, the requests that can't get a backend
+     * within the {@link #getMaxWait() maximum wait} failing, rather than being sent anyway
+     */
+    public void setAdaptiveLimit(boolean adaptiveLimit) {
+        this.adaptiveLimit = adaptiveLimit;
+    }
+
+    /** @return the number of requests failing in a row opening the circuit of a backend, {@code 0} if disabled */
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    /** Sets the number of requests failing in a row opening the circuit of a backend, {@code 0} disabling it */
+    public void setFailureThreshold(int failureThreshold) {
+        Assert.isTrue(failureThreshold >= 0, "failureThreshold shall not be negative");
+        this.failureThreshold = failureThreshold;
+    }
+
+    /** @return the time, in milliseconds, the circuit of a backend stays open */
+    public long getRetryInterval() {
+        return retryInterval;
+    }
+
+    /** Sets the time, in milliseconds, the circuit of a backend stays open before a probe request is let through */
+    public void setRetryInterval(long retryInterval) {
+        Assert.isTrue(retryInterval >= 0, "retryInterval shall not be negative");
+        this.retryInterval = retryInterval;
+    }
+
+    /** @return the time, in milliseconds, after which a request gets hedged, {@code 0} if disabled */
+    public long getHedgeDelay() {
+        return hedgeDelay;
+    }
+
+    /** Sets the time, in milliseconds, after which a request gets hedged, {@code 0} disabling hedging */
+    public void setHedgeDelay(long hedgeDelay) {
+        Assert.isTrue(hedgeDelay >= 0, "hedgeDelay shall not be negative");
+        this.hedgeDelay = hedgeDelay;
+    }
+
+    /** @return the backends requested so far, with their statistics */
+    public Collection<WMSBackend> getBackends() {
+        return new ArrayList<>(backends.values());
+    }
+
+    /** @return the backend serving {@code url}, regardless of its query string */
+    public WMSBackend getBackend(String url) {
+        int query = url.indexOf('?');
+        String key = query < 0 ? url : url.substring(0, query);
+        return backends.computeIfAbsent(key, k -> new WMSBackend(k, this));
+    }
+
+    /**
+     * Picks a backend among {@code urls} and takes a permit to send it a request, waiting up to the
+     * {@link #getMaxWait() maximum wait} for one to free up, after which the request goes to the cheapest available
+     * backend regardless of its limit, unless the {@link #isAdaptiveLimit() adaptive limit} is enabled
+     *
+     * @param urls the configured backend URLs
+     * @param excluded the backends already tried
+     * @return the permit, or {@code null} if all the backends were tried
+     * @throws GeoWebCacheException if the circuits of all the remaining backends are open, or none freed up in time
+     *     with the adaptive limit enabled
+     */
+    public WMSBackend.Call acquire(String[] urls, Set<WMSBackend> excluded) throws GeoWebCacheException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWait);
+        synchronized (released) {
+            while (true) {
+                long now = System.nanoTime();
+                List<String> candidates = candidates(urls, excluded);
+                if (candidates.isEmpty()) {
+                    return null;
+                }
+                WMSBackend.Call call = tryAcquire(candidates, now);
+                if (call != null) {
+                    return call;
+                }
+                if (candidates.stream().allMatch(url -> getBackend(url).isOpen(now))) {
+                    throw new GeoWebCacheException("The circuit of all the backends is open: " + candidates);
+                }
+                long remaining = deadline - now;
+                if (remaining <= 0 && !adaptiveLimit) {
+                    call = acquireOverLimit(candidates, now);
+                    if (call != null) {
+                        return call;
+                    }
+                }
+                if (remaining <= 0) {
+                    throw new GeoWebCacheException(
+                            "No backend could take the request within " + maxWait + "ms: " + candidates);
+                }
+                try {
+                    // wake up periodically as well, for the open circuits to let a probe request through
+                    TimeUnit.NANOSECONDS.timedWait(
+                            released, Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(Math.max(1, retryInterval))));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new GeoWebCacheException("Interrupted while waiting for a backend to free up");
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes a permit to send a request to a backend among {@code urls}, if any is available, without waiting
+     *
+     * @return the permit, or {@code null} if all the backends were tried or none is available
+     */
+    public WMSBackend.Call tryAcquire(String[] urls, Set<WMSBackend> excluded) {
+        return tryAcquire(candidates(urls, excluded), System.nanoTime());
+    }
+
+    private List<String> candidates(String[] urls, Set<WMSBackend> excluded) {
+        List<String> candidates = new ArrayList<>(urls.length);
+        int start = Math.floorMod(next.getAndIncrement(), urls.length);
+        for (int i = 0; i < urls.length; i++) {
+            String url = urls[(start + i) % urls.length];
+            if (!excluded.contains(getBackend(url))) {
+                candidates.add(url);
+            }
+        }
+        return candidates;
+    }
+
+    /** Takes a permit on the cheapest available backend among the candidates */
+    private WMSBackend.Call tryAcquire(List<String> candidates, long now) {
+        List<String> remaining = new ArrayList<>(candidates);
+        while (!remaining.isEmpty()) {
+            String cheapest = null;
+            double cost = Double.POSITIVE_INFINITY;
+            for (String url : remaining) {
+                WMSBackend backend = getBackend(url);
+                double c = backend.cost();
+                if (backend.isAvailable(now) && c < cost) {
+                    cheapest = url;
+                    cost = c;
+                }
+            }
+            if (cheapest == null) {
+                return null;
+            }
+            WMSBackend.Call call = getBackend(cheapest).tryAcquire(now, cheapest);
+            if (call != null) {
+                return call;
+            }
+            // at its limit
+            remaining.remove(cheapest);
+        }
+        return null;
+    }
+
+    /** Takes a permit on the cheapest available backend among the candidates, regardless of their limits */
+    private WMSBackend.Call acquireOverLimit(List<String> candidates, long now) {
+        WMSBackend cheapest = null;
+        String cheapestUrl = null;
+        for (String url : candidates) {
+            WMSBackend backend = getBackend(url);
+            if (backend.isAvailable(now) && (cheapest == null || backend.cost() < cheapest.cost())) {
+                cheapest = backend;
+                cheapestUrl = url;
+            }
+        }
+        return cheapest == null ? null : cheapest.acquireOverLimit(now, cheapestUrl);
+    }
+
+    /** Called by the backends when a request completes, waking up the requests waiting for a backend */
+    void released() {
+        synchronized (released) {
+            released.notifyAll();
+        }
+    }
+
+    /** @return the executor running the hedged requests */
+    synchronized ExecutorService getHedgeExecutor() {
+        if (hedgeExecutor == null) {
+            hedgeExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat("GWC WMS Hedged Request %d")
+                    .build());
+        }
+        return hedgeExecutor;
+    }
+
+    /**
+     * @return the non blocking client sending the asynchronous requests of all the layers, each request carrying its
+     *     own credentials and timeouts, the connections being bounded by the backend limits
+     */
+    synchronized HttpAsyncClient getAsyncClient() {
+        if (asyncClient == null) {
+            // the backend limits bound the connections, leave room for several backends
+            int maxConnections = maxConcurrency * ASYNC_CLIENT_BACKENDS;
+            asyncClient = new HttpClientBuilder(null, ASYNC_CLIENT_TIMEOUT, null, null, null, maxConnections)
+                    .buildAsyncClient();
+        }
+        return asyncClient;
+    }
+
+    /** Logs the backend statistics, stops the hedged requests executor and closes the asynchronous client */
+    public synchronized void destroy() {
+        for (WMSBackend backend : backends.values()) {
+            log.fine(backend.toString());
+        }
+        if (hedgeExecutor != null) {
+            hedgeExecutor.shutdownNow();
+            hedgeExecutor = null;
+        }
+        if (asyncClient != null) {
+            try {
+                asyncClient.close();
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Error closing the asynchronous WMS client", e);
+            }
+            asyncClient = null;
+        }
+    }
+}
@@ -14,6 +14,9 @@
 package org.geowebcache.layer.wms;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingInputStream;
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
@@ -23,7 +26,18 @@
 import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.apache.commons.io.IOUtils;
@@ -35,13 +49,18 @@
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.nio.client.HttpAsyncClient;
 import org.geotools.util.logging.Logging;
 import org.geowebcache.GeoWebCacheEnvironment;
 import org.geowebcache.GeoWebCacheException;
 import org.geowebcache.GeoWebCacheExtensions;
+import org.geowebcache.io.ByteArrayResource;
 import org.geowebcache.io.Resource;
+import org.geowebcache.layer.StreamingImageInputStream;
 import org.geowebcache.layer.TileResponseReceiver;
 import org.geowebcache.mime.ErrorMime;
 import org.geowebcache.mime.MimeType;
@@ -86,6 +105,27 @@ public class WMSHttpHelper extends WMSSourceHelper {
 
     protected HttpClient client;
 
+    private WMSBackendManager backendManager;
+
+    private Semaphore asyncPermits;
+
+    private HttpClientBuilder asyncClientBuilder;
+
+    /** Property disabling the decoding of meta tiles as they are received, enabled by default */
+    static final String STREAM_DECODING_PROPERTY = "GWC_WMS_STREAM_DECODING";
+
+    /** Number of bytes read ahead to report the error documents served as images */
+    static final int ERROR_READ_AHEAD = 8192;
+
+    /**
+     * Extensions of the formats whose readers only seek back within the image headers, so that they can decode a
+     * response as it is received, see {@link StreamingImageInputStream}
+     */
+    static final Set<String> STREAM_DECODED_EXTENSIONS = new HashSet<>(Arrays.asList("png", "jpeg", "gif"));
+
+    private boolean streamDecoding =
+            !"false".equalsIgnoreCase(GeoWebCacheExtensions.getProperty(STREAM_DECODING_PROPERTY));
+
     public WMSHttpHelper() {
         this(null, null, null);
     }
@@ -97,6 +137,29 @@ public WMSHttpHelper(String httpUsername, String httpPassword, URL proxyUrl) {
         this.proxyUrl = proxyUrl;
     }
 
+    /** Sets whether to decode meta tiles as they are received, for the formats supporting it */
+    public void setStreamDecoding(boolean streamDecoding) {
+        this.streamDecoding = streamDecoding;
+    }
+
+    /** Sets the manager balancing the requests among the backends */
+    public void setBackendManager(WMSBackendManager backendManager) {
+        this.backendManager = backendManager;
+    }
+
+    /**
+     * @return the manager balancing the requests among the backends, the one of the application context unless
+     *     {@link #setBackendManager set}
+     */
+    WMSBackendManager getBackendManager() {
+        WMSBackendManager manager = this.backendManager;
+        if (manager == null) {
+            manager = WMSBackendManager.get();
+            this.backendManager = manager;
+        }
+        return manager;
+    }
+
     /**
      * Used by {@link #executeRequest}
      *
@@ -178,48 +241,571 @@ protected void makeRequest(
         Assert.notNull(target, "Target resource can't be null");
         Assert.isTrue(target.getSize() == 0, "Target resource is not empty");
 
-        URL wmsBackendUrl = null;
+        makeRequest(tileRespRecv, layer, wmsParams, expectedMimeType, buffer(target));
+    }
+
+    /** @return a consumer buffering the response into {@code target} */
+    private static ResponseConsumer buffer(Resource target) {
+        return new ResponseConsumer() {
+
+            @Override
+            public void consume(InputStream body) throws IOException {
+                try (ReadableByteChannel channel = Channels.newChannel(body)) {
+                    target.transferFrom(channel);
+                }
+            }
+
+            @Override
+            public long received() {
+                return target.getSize();
+            }
+        };
+    }
 
-        final Integer backendTimeout = layer.getBackendTimeout();
-        int backendTries = 0; // keep track of how many backends we have tried
+    /**
+     * Requests a meta tile, decoding the response as it is received rather than once buffered into {@code target}, for
+     * the formats whose readers can do so, unless {@link #STREAM_DECODING_PROPERTY disabled}. This saves buffering the
+     * whole response, and overlaps its download with its decoding.
+     */
+    @Override
+    public void makeRequest(WMSMetaTile metaTile, Resource target) throws GeoWebCacheException {
+        MimeType mime = metaTile.getRequestFormat();
+        if (!streamDecoding || !STREAM_DECODED_EXTENSIONS.contains(mime.getFileExtension())) {
+            super.makeRequest(metaTile, target);
+            return;
+        }
+        makeRequest(metaTile, metaTile.getLayer(), metaTile.getWMSParams(), mime, new MetaTileDecoder(metaTile));
+    }
+
+    /**
+     * Sends the request to the backends picked by the {@link WMSBackendManager backend manager} in turn, until one
+     * answers
+     */
+    private void makeRequest(
+            TileResponseReceiver tileRespRecv,
+            WMSLayer layer,
+            Map<String, String> wmsParams,
+            MimeType expectedMimeType,
+            ResponseConsumer consumer)
+            throws GeoWebCacheException {
+        WMSBackendManager backends = getBackendManager();
+        String[] urls = layer.getWMSurl();
+        Set<WMSBackend> tried = new HashSet<>(); // keep track of the backends we have tried
+        String lastRequest = null;
         GeoWebCacheException fetchException = null;
-        while (target.getSize() == 0 && backendTries < layer.getWMSurl().length) {
-            String requestUrl = layer.nextWmsURL();
+        while (consumer.received() == 0) {
+            WMSBackend.Call call;
+            try {
+                call = backends.acquire(urls, tried);
+            } catch (GeoWebCacheException e) {
+                fetchException = e;
+                break;
+            }
+            if (call == null) {
+                break;
+            }
+            tried.add(call.getBackend());
+            lastRequest = call.getRequestUrl();
+            try {
+                if (backends.getHedgeDelay() > 0 && urls.length > 1) {
+                    hedgedRequest(call, tried, tileRespRecv, layer, wmsParams, expectedMimeType, consumer);
+                } else {
+                    request(call, tileRespRecv, layer, wmsParams, expectedMimeType, consumer);
+                }
+            } catch (GeoWebCacheException e) {
+                fetchException = e;
+            }
+        }
 
+        if (consumer.received() == 0) {
+            throw allFailed(tileRespRecv, tried.size(), fetchException, lastRequest);
+        }
+    }
+
+    /** Reports the failure of all the backends tried to {@code tileRespRecv} */
+    private static GeoWebCacheException allFailed(
+            TileResponseReceiver tileRespRecv, int tried, GeoWebCacheException fetchException, String lastRequest) {
+        String msg = "All backends (" + tried + ") failed.";
+        if (fetchException != null) {
+            msg += " Reason: " + fetchException.getMessage() + ". ";
+        }
+        if (lastRequest != null) {
+            msg += " Last request: '" + lastRequest + "'. ";
+        }
+        msg += tileRespRecv.getErrorMessage() == null ? "" : tileRespRecv.getErrorMessage();
+
+        tileRespRecv.setError();
+        tileRespRecv.setErrorMessage(msg);
+        return new GeoWebCacheException(msg);
+    }
+
+    /**
+     * Requests a meta tile through the non blocking client of the {@link WMSBackendManager}, so that callers such as
+     * the seeders can keep many requests in flight with few threads. The calling thread only waits for the layer
+     * {@link #getConcurrency() concurrency} to allow one more request, and for a backend to take it. The response is
+     * buffered into {@code target}, the next backends being tried in turn on failures, without waiting for them to
+     * free up.
+     */
+    @Override
+    public CompletableFuture<Resource> makeRequestAsync(WMSMetaTile metaTile, Resource target) {
+        Assert.notNull(target, "Target resource can't be null");
+        Assert.isTrue(target.getSize() == 0, "Target resource is not empty");
+
+        CompletableFuture<Resource> future = new CompletableFuture<>();
+        try {
+            Semaphore permits = getAsyncPermits();
+            permits.acquire();
+            future.whenComplete((r, e) -> permits.release());
+            new AsyncRequest(metaTile, target, future).start();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(new GeoWebCacheException("Interrupted while waiting to send the request"));
+        } catch (GeoWebCacheException | RuntimeException e) {
+            // completing the future releases the permit
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /** @return the permits of the asynchronous requests, bounded by the concurrency */
+    private synchronized Semaphore getAsyncPermits() {
+        if (asyncPermits == null) {
+            asyncPermits = new Semaphore(getConcurrency());
+        }
+        return asyncPermits;
+    }
+
+    /** @return a context carrying the credentials and timeouts of the asynchronous requests */
+    private synchronized HttpClientContext getAsyncContext() {
+        if (asyncClientBuilder == null) {
+            asyncClientBuilder = new HttpClientBuilder(
+                    null,
+                    getBackendTimeout(),
+                    getResolvedHttpUsername(),
+                    getResolvedHttpPassword(),
+                    proxyUrl,
+                    getConcurrency());
+        }
+        return asyncClientBuilder.buildContext();
+    }
+
+    @VisibleForTesting
+    void executeAsync(
+            HttpAsyncClient httpClient,
+            HttpRequestBase method,
+            HttpClientContext context,
+            FutureCallback<HttpResponse> callback) {
+        httpClient.execute(method, context, callback);
+    }
+
+    /**
+     * A meta tile request sent through the non blocking client, completing its future once a backend answers or all
+     * failed. Cancelling the future aborts the request in flight.
+     */
+    private class AsyncRequest implements FutureCallback<HttpResponse> {
+
+        private final WMSMetaTile metaTile;
+
+        private final Resource target;
+
+        private final CompletableFuture<Resource> future;
+
+        private final ResponseConsumer consumer;
+
+        private final String[] urls;
+
+        private final Set<WMSBackend> tried = new HashSet<>();
+
+        private Map<String, String> wmsParams;
+
+        private WMSBackend.Call call;
+
+        private URL url;
+
+        private volatile HttpRequestBase method;
+
+        private GeoWebCacheException failure;
+
+        AsyncRequest(WMSMetaTile metaTile, Resource target, CompletableFuture<Resource> future) {
+            this.metaTile = metaTile;
+            this.target = target;
+            this.future = future;
+            this.consumer = buffer(target);
+            this.urls = metaTile.getLayer().getWMSurl();
+            future.whenComplete((r, e) -> {
+                if (future.isCancelled()) {
+                    abort();
+                }
+            });
+        }
+
+        private void abort() {
+            HttpRequestBase method = this.method;
+            if (method != null) {
+                method.abort();
+            }
+        }
+
+        /** Sends the request to the first backend, waiting for one to take it */
+        void start() throws GeoWebCacheException {
+            wmsParams = metaTile.getWMSParams();
+            send(getBackendManager().acquire(urls, tried));
+        }
+
+        private void send(WMSBackend.Call call) {
+            if (future.isCancelled()) {
+                if (call != null) {
+                    call.close();
+                }
+                return;
+            }
+            if (call == null) {
+                String lastRequest = this.call == null ? null : this.call.getRequestUrl();
+                future.completeExceptionally(allFailed(metaTile, tried.size(), failure, lastRequest));
+                return;
+            }
+            tried.add(call.getBackend());
+            this.call = call;
+            WMSLayer layer = metaTile.getLayer();
+            HttpRequestBase method;
             try {
-                wmsBackendUrl = URLs.of(requestUrl);
+                url = URLs.of(call.getRequestUrl());
+                method = buildRequest(url, wmsParams, layer.getHttpRequestMode());
+            } catch (IOException e) {
+                call.close();
+                failure = new GeoWebCacheException("Malformed request: " + call.getRequestUrl() + " " + e.getMessage());
+                next();
+                return;
+            }
+            if (log.isLoggable(Level.FINER)) {
+                log.finer(method.toString());
+            }
+            this.method = method;
+            try {
+                executeAsync(getBackendManager().getAsyncClient(), method, getAsyncContext(), this);
+            } catch (RuntimeException e) {
+                failed(e);
+                return;
+            }
+            if (future.isCancelled()) {
+                // cancelled while being sent
+                abort();
+            }
+        }
+
+        /** Tries the next backend, if one is available right away */
+        private void next() {
+            send(getBackendManager().tryAcquire(urls, tried));
+        }
+
+        @Override
+        public void completed(HttpResponse response) {
+            try (WMSBackend.Call c = call) {
+                checkResponse(metaTile, url, response, metaTile.getRequestFormat(), consumer, c);
+            } catch (GeoWebCacheException e) {
+                failure = e;
+            } catch (RuntimeException e) {
+                failure = new GeoWebCacheException(e);
+            }
+            if (consumer.received() > 0) {
+                future.complete(target);
+            } else {
+                next();
+            }
+        }
+
+        @Override
+        public void failed(Exception e) {
+            if (future.isCancelled()) {
+                // aborted, not a backend failure
+                call.close();
+                return;
+            }
+            if (log.isLoggable(Level.FINE)) {
+                log.log(Level.FINE, "Error forwarding request " + url, e);
+            }
+            call.failed();
+            call.close();
+            failure = new GeoWebCacheException(e);
+            next();
+        }
+
+        @Override
+        public void cancelled() {
+            call.close();
+            future.completeExceptionally(new GeoWebCacheException("Request to " + url + " cancelled"));
+        }
+    }
+
+    /** Sends the request to the backend of {@code call}, releasing it once the response is read */
+    private void request(
+            WMSBackend.Call call,
+            TileResponseReceiver tileRespRecv,
+            WMSLayer layer,
+            Map<String, String> wmsParams,
+            MimeType expectedMimeType,
+            ResponseConsumer consumer)
+            throws GeoWebCacheException {
+        try (WMSBackend.Call c = call) {
+            URL wmsBackendUrl;
+            try {
+                wmsBackendUrl = URLs.of(call.getRequestUrl());
             } catch (MalformedURLException maue) {
-                throw new GeoWebCacheException("Malformed URL: " + requestUrl + " " + maue.getMessage());
+                throw new GeoWebCacheException("Malformed URL: " + call.getRequestUrl() + " " + maue.getMessage());
             }
+            connectAndCheckHeaders(
+                    tileRespRecv,
+                    wmsBackendUrl,
+                    wmsParams,
+                    expectedMimeType,
+                    layer.getBackendTimeout(),
+                    consumer,
+                    layer.getHttpRequestMode(),
+                    call);
+        }
+    }
+
+    /**
+     * Sends the request to the backend of {@code call}, and to a second backend if the first one did not answer
+     * within the {@link WMSBackendManager#getHedgeDelay() hedge delay}, using the first successful response. Both
+     * responses are buffered, the slower one being discarded.
+     */
+    private void hedgedRequest(
+            WMSBackend.Call call,
+            Set<WMSBackend> tried,
+            TileResponseReceiver tileRespRecv,
+            WMSLayer layer,
+            Map<String, String> wmsParams,
+            MimeType expectedMimeType,
+            ResponseConsumer consumer)
+            throws GeoWebCacheException {
+        WMSBackendManager backends = getBackendManager();
+        CompletionService<Attempt> attempts = new ExecutorCompletionService<>(backends.getHedgeExecutor());
+        attempts.submit(new Attempt(call, false, tileRespRecv, layer, wmsParams, expectedMimeType));
+        int pending = 1;
+        Attempt attempt = null;
+        try {
+            Future<Attempt> done = attempts.poll(backends.getHedgeDelay(), TimeUnit.MILLISECONDS);
+            if (done == null) {
+                WMSBackend.Call hedge = backends.tryAcquire(layer.getWMSurl(), tried);
+                if (hedge != null) {
+                    tried.add(hedge.getBackend());
+                    hedge.getBackend().hedged();
+                    attempts.submit(new Attempt(hedge, true, tileRespRecv, layer, wmsParams, expectedMimeType));
+                    pending++;
+                }
+            }
+            while (pending > 0) {
+                attempt = (done == null ? attempts.take() : done).get();
+                done = null;
+                pending--;
+                if (attempt.failure == null && attempt.buffer.getSize() > 0) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GeoWebCacheException("Interrupted while waiting for the backend response");
+        } catch (ExecutionException e) {
+            throw new GeoWebCacheException(e.getCause());
+        }
+
+        attempt.copyTo(tileRespRecv);
+        if (attempt.failure != null) {
+            throw attempt.failure;
+        }
+        if (attempt.buffer.getSize() > 0) {
+            if (attempt.hedge) {
+                attempt.call.getBackend().hedgeWon();
+            }
+            try (InputStream body = attempt.buffer.getInputStream()) {
+                consumer.consume(body);
+            } catch (IOException ioe) {
+                tileRespRecv.setError();
+                tileRespRecv.setErrorMessage(ioe.getMessage());
+                log.severe("Caught IO exception, " + attempt.call.getRequestUrl() + " " + ioe.getMessage());
+            }
+        }
+    }
+
+    /** A request sent to a backend, buffering the response, run by {@link #hedgedRequest} */
+    private class Attempt implements Callable<Attempt>, TileResponseReceiver {
+
+        final WMSBackend.Call call;
+
+        final boolean hedge;
+
+        final WMSLayer layer;
+
+        final Map<String, String> wmsParams;
+
+        final MimeType expectedMimeType;
+
+        final ByteArrayResource buffer = new ByteArrayResource();
+
+        final long initialExpires;
+
+        GeoWebCacheException failure;
+
+        int status;
+
+        long expires;
+
+        boolean error;
+
+        String errorMessage;
+
+        Attempt(
+                WMSBackend.Call call,
+                boolean hedge,
+                TileResponseReceiver tileRespRecv,
+                WMSLayer layer,
+                Map<String, String> wmsParams,
+                MimeType expectedMimeType) {
+            this.call = call;
+            this.hedge = hedge;
+            this.layer = layer;
+            this.wmsParams = wmsParams;
+            this.expectedMimeType = expectedMimeType;
+            this.initialExpires = tileRespRecv.getExpiresHeader();
+            this.expires = initialExpires;
+        }
+
+        @Override
+        public Attempt call() {
             try {
-                connectAndCheckHeaders(
-                        tileRespRecv,
-                        wmsBackendUrl,
-                        wmsParams,
-                        expectedMimeType,
-                        backendTimeout,
-                        target,
-                        layer.getHttpRequestMode());
+                request(call, this, layer, wmsParams, expectedMimeType, buffer(buffer));
             } catch (GeoWebCacheException e) {
-                fetchException = e;
+                failure = e;
+            }
+            return this;
+        }
+
+        void copyTo(TileResponseReceiver tileRespRecv) {
+            tileRespRecv.setStatus(status);
+            if (expires != initialExpires) {
+                tileRespRecv.setExpiresHeader(expires);
             }
+            if (error) {
+                tileRespRecv.setError();
+            }
+            if (errorMessage != null) {
+                tileRespRecv.setErrorMessage(errorMessage);
+            }
+        }
+
+        @Override
+        public void setStatus(int status) {
+            this.status = status;
+        }
+
+        @Override
+        public int getStatus() {
+            return status;
+        }
+
+        @Override
+        public void setExpiresHeader(long seconds) {
+            this.expires = seconds;
+        }
+
+        @Override
+        public long getExpiresHeader() {
+            return expires;
+        }
+
+        @Override
+        public void setError() {
+            this.error = true;
+        }
+
+        @Override
+        public boolean getError() {
+            return error;
+        }
+
+        @Override
+        public void setErrorMessage(String message) {
+            this.errorMessage = message;
+        }
+
+        @Override
+        public String getErrorMessage() {
+            return errorMessage;
+        }
+    }
+
+    /** Reads the body of the successful backend responses */
+    private interface ResponseConsumer {
+
+        void consume(InputStream body) throws IOException;
+
+        /** @return the number of bytes read so far */
+        long received();
+    }
+
+    /**
+     * Decodes the meta tile image out of the response body as it is received, the body being read ahead only to detect
+     * error documents served as images.
+     */
+    private static class MetaTileDecoder implements ResponseConsumer {
+
+        private final WMSMetaTile metaTile;
 
-            backendTries++;
+        private long received;
+
+        MetaTileDecoder(WMSMetaTile metaTile) {
+            this.metaTile = metaTile;
         }
 
-        if (target.getSize() == 0) {
-            String msg = "All backends (" + backendTries + ") failed.";
-            if (fetchException != null) {
-                msg += " Reason: " + fetchException.getMessage() + ". ";
+        @Override
+        public void consume(InputStream body) throws IOException {
+            CountingInputStream counting = new CountingInputStream(body);
+            BufferedInputStream in = new BufferedInputStream(counting, ERROR_READ_AHEAD);
+            try {
+                if (!metaTile.getError()) {
+                    in.mark(ERROR_READ_AHEAD);
+                    try {
+                        metaTile.setImageStream(in);
+                    } catch (GeoWebCacheException e) {
+                        throw new DecodingException(e.getMessage() + errorDocument(in), e);
+                    }
+                }
+                // what the reader left, such as trailing chunks, also reusing the connection
+                ByteStreams.exhaust(in);
+            } finally {
+                received = counting.getCount();
+                metaTile.setReceivedBytes(received);
             }
-            msg += " Last request: '"
-                    + wmsBackendUrl.toString()
-                    + "'. "
-                    + (tileRespRecv.getErrorMessage() == null ? "" : tileRespRecv.getErrorMessage());
+        }
 
-            tileRespRecv.setError();
-            tileRespRecv.setErrorMessage(msg);
-            throw new GeoWebCacheException(msg);
+        /** @return the start of the body if it looks like an XML or HTML error document, an empty string otherwise */
+        private static String errorDocument(BufferedInputStream in) {
+            try {
+                in.reset();
+                byte[] start = new byte[ERROR_READ_AHEAD];
+                int read = IOUtils.read(in, start);
+                String text = new String(start, 0, read, StandardCharsets.UTF_8);
+                return text.trim().startsWith("<") ? ":\n" + text : "";
+            } catch (IOException e) {
+                // read past the mark, that's not a short error document
+                return "";
+            }
+        }
+
+        @Override
+        public long received() {
+            return received;
+        }
+    }
+
+    /** Failure to decode a response, as opposed to receive it */
+    private static class DecodingException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        DecodingException(String message, Throwable cause) {
+            super(message, cause);
         }
     }
 
@@ -230,41 +816,54 @@ private void connectAndCheckHeaders(
             Map<String, String> wmsParams,
             MimeType requestMimeType,
             Integer backendTimeout,
-            Resource target,
-            WMSLayer.HttpRequestMode httpRequestMode)
+            ResponseConsumer consumer,
+            WMSLayer.HttpRequestMode httpRequestMode,
+            WMSBackend.Call call)
             throws GeoWebCacheException {
 
-        HttpResponse method = null;
-        final int responseCode;
-        int responseLength = 0;
-
+        HttpResponse method;
         try {
             method = executeRequest(wmsBackendUrl, wmsParams, backendTimeout, httpRequestMode);
-            responseCode = method.getStatusLine().getStatusCode();
-            if (responseCode == 200) {
-                if (method.getFirstHeader("length") != null) {
-                    responseLength =
-                            Integer.parseInt(method.getFirstHeader("length").getValue());
-                } else if (method.getFirstHeader("Content-Length") != null) {
-                    responseLength = Integer.parseInt(
-                            method.getFirstHeader("Content-Length").getValue());
-                } else if (method.getEntity() != null) {
-                    responseLength = Math.toIntExact(method.getEntity().getContentLength());
-                } else {
-                    throw new ServiceException("Unable to determine response length from: " + wmsBackendUrl.toString());
-                }
-            }
-            // Do not set error at this stage
         } catch (IOException ce) {
             if (log.isLoggable(Level.FINE)) {
                 String message = "Error forwarding request " + wmsBackendUrl.toString();
                 log.log(Level.FINE, message, ce);
             }
+            call.failed();
             throw new GeoWebCacheException(ce);
         }
+        checkResponse(tileRespRecv, wmsBackendUrl, method, requestMimeType, consumer, call);
+    }
+
+    /** Checks the response headers (status and MIME), and reads the response */
+    private void checkResponse(
+            TileResponseReceiver tileRespRecv,
+            URL wmsBackendUrl,
+            HttpResponse method,
+            MimeType requestMimeType,
+            ResponseConsumer consumer,
+            WMSBackend.Call call)
+            throws GeoWebCacheException {
+        final int responseCode = method.getStatusLine().getStatusCode();
+        int responseLength = 0;
+        if (responseCode == 200) {
+            if (method.getFirstHeader("length") != null) {
+                responseLength = Integer.parseInt(method.getFirstHeader("length").getValue());
+            } else if (method.getFirstHeader("Content-Length") != null) {
+                responseLength = Integer.parseInt(method.getFirstHeader("Content-Length").getValue());
+            } else if (method.getEntity() != null) {
+                responseLength = Math.toIntExact(method.getEntity().getContentLength());
+            } else {
+                throw new ServiceException("Unable to determine response length from: " + wmsBackendUrl.toString());
+            }
+        }
+        // Do not set error at this stage
         // Check that the response code is okay
         tileRespRecv.setStatus(responseCode);
         if (responseCode != 200 && responseCode != 204) {
+            if (responseCode >= 500) {
+                call.failed();
+            }
             tileRespRecv.setError();
             throw new ServiceException(
                     "Unexpected response code from backend: " + responseCode + " for " + wmsBackendUrl.toString());
@@ -318,13 +917,12 @@ private void connectAndCheckHeaders(
                 if (inStream == null) {
                     log.severe("No response for " + method);
                 } else {
-                    try (ReadableByteChannel channel = Channels.newChannel(inStream)) {
-                        target.transferFrom(channel);
-                    }
+                    consumer.consume(inStream);
                 }
                 if (responseLength > 0) {
-                    int readAccu = (int) target.getSize();
+                    int readAccu = (int) consumer.received();
                     if (readAccu != responseLength) {
+                        call.failed();
                         tileRespRecv.setError();
                         throw new GeoWebCacheException("Responseheader advertised "
                                 + responseLength
@@ -335,7 +933,11 @@ private void connectAndCheckHeaders(
                     }
                 }
             } catch (IOException ioe) {
+                if (!(ioe instanceof DecodingException)) {
+                    call.failed();
+                }
                 tileRespRecv.setError();
+                tileRespRecv.setErrorMessage(ioe.getMessage());
                 log.severe("Caught IO exception, " + wmsBackendUrl.toString() + " " + ioe.getMessage());
             }
         }
@@ -358,6 +960,25 @@ public HttpResponse executeRequest(
             WMSLayer.HttpRequestMode httpRequestMode)
             throws IOException {
 
+        HttpRequestBase method = buildRequest(url, queryParams, httpRequestMode);
+
+        // fire!
+        if (log.isLoggable(Level.FINER)) {
+            log.finer(method.toString());
+        }
+        HttpClient httpClient = getHttpClient();
+        return execute(httpClient, method);
+    }
+
+    @VisibleForTesting
+    HttpResponse execute(HttpClient httpClient, HttpRequestBase method) throws IOException, ClientProtocolException {
+        return httpClient.execute(method);
+    }
+
+    /** Sets up an HTTP request to a URL, using the given method */
+    private HttpRequestBase buildRequest(
+            URL url, Map<String, String> queryParams, WMSLayer.HttpRequestMode httpRequestMode)
+            throws UnsupportedEncodingException {
         // prepare the request
         NameValuePair[] params = null;
 
@@ -392,18 +1013,7 @@ public HttpResponse executeRequest(
             }
             method = new HttpGet(urlString);
         }
-
-        // fire!
-        if (log.isLoggable(Level.FINER)) {
-            log.finer(method.toString());
-        }
-        HttpClient httpClient = getHttpClient();
-        return execute(httpClient, method);
-    }
-
-    @VisibleForTesting
-    HttpResponse execute(HttpClient httpClient, HttpRequestBase method) throws IOException, ClientProtocolException {
-        return httpClient.execute(method);
+        return method;
     }
 
     private String processRequestParameters(Map<String, String> parameters) throws UnsupportedEncodingException {
@@ -21,6 +21,8 @@
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.servlet.http.HttpServletResponse;
@@ -44,7 +46,9 @@
 import org.geowebcache.io.Resource;
 import org.geowebcache.layer.AbstractTileLayer;
 import org.geowebcache.layer.ExpirationRule;
+import org.geowebcache.layer.MetaTilingRule;
 import org.geowebcache.layer.ProxyLayer;
+import org.geowebcache.layer.SeedingTile;
 import org.geowebcache.layer.meta.LayerMetaInformation;
 import org.geowebcache.layer.meta.MetadataURL;
 import org.geowebcache.locks.LockProvider;
@@ -80,6 +84,8 @@ public enum HttpRequestMode {
 
     protected Integer gutter;
 
+    private Boolean metaTilingAutoTune;
+
     private String errorMime;
 
     private String wmsVersion;
@@ -120,6 +126,8 @@ public enum HttpRequestMode {
 
     private transient LockProvider lockProvider;
 
+    private transient MetaTilingTuner metaTilingTuner;
+
     private LegendsRawInfo legends;
 
     private HttpRequestMode httpRequestMode = HttpRequestMode.Get;
@@ -212,6 +220,8 @@ protected boolean initializeInternal(GridSetBroker gridSetBroker) {
             gutter = Integer.valueOf(0);
         }
 
+        metaTilingTuner = isMetaTilingAutoTune() ? new MetaTilingTuner() : null;
+
         if (this.requestFilters != null) {
             Iterator<RequestFilter> iter = requestFilters.iterator();
             while (iter.hasNext()) {
@@ -267,9 +277,12 @@ public ConveyorTile getTile(ConveyorTile tile) throws GeoWebCacheException, IOEx
         tile.setMetaTileCacheOnly(!gridSubset.shouldCacheAtZoom(gridLoc[2]));
         try {
             if (tryCacheFetch(tile)) {
+                if (metaTilingTuner != null) {
+                    metaTilingTuner.hit((int) gridLoc[2]);
+                }
                 returnTile = finalizeTile(tile);
             } else if (mime.supportsTiling()) { // Okay, so we need to go to the backend
-                returnTile = getMetatilingReponse(tile, true);
+                returnTile = getMetatilingReponse(tile, true, getServingMetaTilingFactors((int) gridLoc[2]), true);
             } else {
                 returnTile = getNonMetatilingReponse(tile, true);
             }
@@ -287,8 +300,9 @@ public ConveyorTile getTile(ConveyorTile tile) throws GeoWebCacheException, IOEx
     public void seedTile(ConveyorTile tile, boolean tryCache) throws GeoWebCacheException, IOException {
         GridSubset gridSubset = getGridSubset(tile.getGridSetId());
         if (gridSubset.shouldCacheAtZoom(tile.getTileIndex()[2])) {
-            if (tile.getMimeType().supportsTiling() && (metaWidthHeight[0] > 1 || metaWidthHeight[1] > 1)) {
-                getMetatilingReponse(tile, tryCache);
+            int[] metaFactors = getMetaTilingFactors((int) tile.getTileIndex()[2]);
+            if (tile.getMimeType().supportsTiling() && (metaFactors[0] > 1 || metaFactors[1] > 1)) {
+                getMetatilingReponse(tile, tryCache, metaFactors, false);
             } else {
                 getNonMetatilingReponse(tile, tryCache);
             }
@@ -300,35 +314,13 @@ public void seedTile(ConveyorTile tile, boolean tryCache) throws GeoWebCacheExce
      *
      * @param tile the Tile with all the information
      * @param tryCache whether to try the cache, or seed
+     * @param metaFactors the {x,y} metatiling factors
+     * @param serving whether the tile is requested by a client, or seeded
      */
-    private ConveyorTile getMetatilingReponse(ConveyorTile tile, boolean tryCache) throws GeoWebCacheException {
-
-        // int idx = this.getSRSIndex(tile.getSRS());
-        long[] gridLoc = tile.getTileIndex();
-
-        GridSubset gridSubset = subSets.get(tile.getGridSetId());
+    private ConveyorTile getMetatilingReponse(ConveyorTile tile, boolean tryCache, int[] metaFactors, boolean serving)
+            throws GeoWebCacheException {
 
-        // GridCalculator gridCalc = getGrid(tile.getSRS()).getGridCalculator();
-
-        MimeType mimeType = tile.getMimeType();
-        Map<String, String> filteringParameters = tile.getFilteringParameters();
-        if (filteringParameters.isEmpty()) {
-            filteringParameters = getDefaultParameterFilters();
-        }
-        WMSMetaTile metaTile = new WMSMetaTile(
-                this,
-                gridSubset,
-                mimeType,
-                this.getFormatModifier(tile.getMimeType()),
-                gridLoc,
-                metaWidthHeight[0],
-                metaWidthHeight[1],
-                filteringParameters);
-
-        // Leave a hint to save expiration, if necessary
-        if (saveExpirationHeaders) {
-            metaTile.setExpiresHeader(GWCVars.CACHE_USE_WMS_BACKEND_VALUE);
-        }
+        WMSMetaTile metaTile = createMetaTile(tile, metaFactors);
 
         String metaKey = buildLockKey(tile, metaTile);
         Lock lock = null;
@@ -359,13 +351,16 @@ private ConveyorTile getMetatilingReponse(ConveyorTile tile, boolean tryCache) t
             if (metaTile.getError()) {
                 throw new GeoWebCacheException("Empty metatile, error message: " + metaTile.getErrorMessage());
             }
+            metaTileRequested(metaTile, buffer, metaFactors, requestTime, serving);
 
             if (saveExpirationHeaders) {
                 // Converting to seconds
                 saveExpirationInformation((int) (tile.getExpiresHeader() / 1000));
             }
 
-            metaTile.setImageBytes(buffer);
+            if (metaTile.getImage() == null) {
+                metaTile.setImageBytes(buffer);
+            }
 
             saveTiles(metaTile, tile, requestTime);
 
@@ -379,6 +374,136 @@ private ConveyorTile getMetatilingReponse(ConveyorTile tile, boolean tryCache) t
         return finalizeTile(tile);
     }
 
+    /**
+     * Seeds the meta tile through {@link WMSSourceHelper#makeRequestAsync}, without holding the meta tile lock while
+     * waiting for the backend response, as the seeders start several requests before completing them. The cache is
+     * checked beforehand, and the lock taken again to store the tiles.
+     */
+    @Override
+    public SeedingTile startSeedTile(ConveyorTile tile, boolean tryCache) throws GeoWebCacheException, IOException {
+        GridSubset gridSubset = getGridSubset(tile.getGridSetId());
+        int[] metaFactors = getMetaTilingFactors((int) tile.getTileIndex()[2]);
+        if (!gridSubset.shouldCacheAtZoom(tile.getTileIndex()[2])
+                || !tile.getMimeType().supportsTiling()
+                || (metaFactors[0] <= 1 && metaFactors[1] <= 1)) {
+            return super.startSeedTile(tile, tryCache);
+        }
+
+        WMSMetaTile metaTile = createMetaTile(tile, metaFactors);
+        String metaKey = buildLockKey(tile, metaTile);
+        if (tryCache) {
+            Lock lock = lockProvider.getLock(metaKey);
+            try {
+                if (tryCacheFetch(tile)) {
+                    finalizeTile(tile);
+                    metaTile.dispose();
+                    return SeedingTile.DONE;
+                }
+            } finally {
+                lock.release();
+            }
+        }
+        tile.setCacheResult(CacheResult.MISS);
+
+        // not the thread buffer, the thread starts several requests
+        ByteArrayResource buffer = new ByteArrayResource();
+        long requestTime = System.currentTimeMillis();
+        CompletableFuture<Resource> response = sourceHelper.makeRequestAsync(metaTile, buffer);
+        return new SeedingTile() {
+
+            @Override
+            public CompletableFuture<?> received() {
+                return response;
+            }
+
+            @Override
+            public void complete() throws GeoWebCacheException {
+                Lock lock = null;
+                try {
+                    try {
+                        response.join();
+                    } catch (CompletionException e) {
+                        if (e.getCause() instanceof GeoWebCacheException) {
+                            throw (GeoWebCacheException) e.getCause();
+                        }
+                        throw new GeoWebCacheException(e.getCause());
+                    }
+                    if (metaTile.getError()) {
+                        throw new GeoWebCacheException("Empty metatile, error message: " + metaTile.getErrorMessage());
+                    }
+                    metaTileRequested(metaTile, buffer, metaFactors, requestTime, false);
+                    if (saveExpirationHeaders) {
+                        // Converting to seconds
+                        saveExpirationInformation((int) (tile.getExpiresHeader() / 1000));
+                    }
+                    if (metaTile.getImage() == null) {
+                        metaTile.setImageBytes(buffer);
+                    }
+                    lock = lockProvider.getLock(metaKey);
+                    saveTiles(metaTile, tile, requestTime);
+                } finally {
+                    if (lock != null) {
+                        lock.release();
+                    }
+                    metaTile.dispose();
+                }
+                finalizeTile(tile);
+            }
+
+            @Override
+            public void cancel() {
+                response.cancel(false);
+                metaTile.dispose();
+            }
+        };
+    }
+
+    private WMSMetaTile createMetaTile(ConveyorTile tile, int[] metaFactors) {
+        GridSubset gridSubset = subSets.get(tile.getGridSetId());
+        Map<String, String> filteringParameters = tile.getFilteringParameters();
+        if (filteringParameters.isEmpty()) {
+            filteringParameters = getDefaultParameterFilters();
+        }
+        WMSMetaTile metaTile = new WMSMetaTile(
+                this,
+                gridSubset,
+                tile.getMimeType(),
+                this.getFormatModifier(tile.getMimeType()),
+                tile.getTileIndex(),
+                metaFactors[0],
+                metaFactors[1],
+                filteringParameters);
+
+        // Leave a hint to save expiration, if necessary
+        if (saveExpirationHeaders) {
+            metaTile.setExpiresHeader(GWCVars.CACHE_USE_WMS_BACKEND_VALUE);
+        }
+        return metaTile;
+    }
+
+    /** @return the metatiling factors to serve tiles of the zoom level with, tuned if auto tuning is enabled */
+    private int[] getServingMetaTilingFactors(int zoomLevel) {
+        int[] metaFactors = getMetaTilingFactors(zoomLevel);
+        return metaTilingTuner == null ? metaFactors : metaTilingTuner.getMetaTilingFactors(zoomLevel, metaFactors);
+    }
+
+    /** Records the backend request of the meta tile for the auto tuning of the metatiling factors, if enabled */
+    private void metaTileRequested(
+            WMSMetaTile metaTile, ByteArrayResource buffer, int[] metaFactors, long requestTime, boolean serving) {
+        if (metaTilingTuner != null) {
+            int zoomLevel = (int) metaTile.getMetaGridPos()[2];
+            // the image is decoded as received when the buffer is not used, the response is counted meanwhile
+            long payload = metaTile.getImage() == null ? buffer.getSize() : metaTile.getReceivedBytes();
+            metaTilingTuner.requested(
+                    zoomLevel,
+                    getMetaTilingFactors(zoomLevel),
+                    metaFactors,
+                    System.currentTimeMillis() - requestTime,
+                    payload,
+                    serving);
+        }
+    }
+
     private String buildLockKey(ConveyorTile tile, WMSMetaTile metaTile) {
         StringBuilder metaKey = new StringBuilder();
 
@@ -626,7 +751,8 @@ public Map<String, String> getWMSRequestTemplate(MimeType responseFormat, Reques
     }
 
     /**
-     * Get the WMS backend URL that should be used next according to the round robin.
+     * Get the WMS backend URL that should be used next according to the round robin. {@link WMSHttpHelper} balances
+     * its requests with the {@link WMSBackendManager} instead, based on the load and health of each backend.
      *
      * @return the next URL
      */
@@ -643,6 +769,24 @@ public void setErrorMime(String errormime) {
         this.errorMime = errormime;
     }
 
+    /** @return the gutter of the meta tiles of the zoom level, in pixels */
+    public int getGutter(int zoomLevel) {
+        MetaTilingRule rule = getMetaTilingRule(zoomLevel);
+        if (rule != null && rule.getGutter() != null) {
+            return rule.getGutter();
+        }
+        return gutter == null ? 0 : gutter;
+    }
+
+    /** Whether the metatiling factors get tuned from the backend requests and cache hits observed */
+    public boolean isMetaTilingAutoTune() {
+        return metaTilingAutoTune != null && metaTilingAutoTune;
+    }
+
+    public void setMetaTilingAutoTune(Boolean metaTilingAutoTune) {
+        this.metaTilingAutoTune = metaTilingAutoTune;
+    }
+
     public void addMetaWidthHeight(int w, int h) {
         this.metaWidthHeight[0] = w;
         this.metaWidthHeight[1] = h;
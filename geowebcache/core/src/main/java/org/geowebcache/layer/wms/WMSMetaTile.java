@@ -25,6 +25,9 @@ public class WMSMetaTile extends MetaTile {
 
     protected Map<String, String> fullParameters;
 
+    /** Size of the backend response the image was decoded from while being received, 0 if it was buffered */
+    private long receivedBytes;
+
     /** Used for requests by clients */
     protected WMSMetaTile(
             WMSLayer layer,
@@ -42,7 +45,7 @@ protected WMSMetaTile(
                 tileGridPosition,
                 metaX,
                 metaY,
-                (layer == null ? null : layer.gutter));
+                (layer == null ? null : layer.getGutter((int) tileGridPosition[2])));
         this.wmsLayer = layer;
         this.fullParameters = fullParameters;
 
@@ -76,6 +79,15 @@ public int[] getGutter() {
         return gutter.clone();
     }
 
+    /** @return the number of bytes received from the backend when the image was decoded as it was read, or 0 */
+    public long getReceivedBytes() {
+        return receivedBytes;
+    }
+
+    void setReceivedBytes(long receivedBytes) {
+        this.receivedBytes = receivedBytes;
+    }
+
     protected WMSLayer getLayer() {
         return wmsLayer;
     }
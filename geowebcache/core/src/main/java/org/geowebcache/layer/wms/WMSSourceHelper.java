@@ -14,12 +14,14 @@
 package org.geowebcache.layer.wms;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import org.geowebcache.GeoWebCacheException;
 import org.geowebcache.conveyor.ConveyorTile;
 import org.geowebcache.grid.BoundingBox;
 import org.geowebcache.grid.GridSubset;
 import org.geowebcache.io.ByteArrayResource;
 import org.geowebcache.io.Resource;
+import org.geowebcache.layer.MetaTile;
 import org.geowebcache.layer.TileResponseReceiver;
 import org.geowebcache.mime.MimeType;
 import org.geowebcache.mime.XMLMime;
@@ -42,6 +44,10 @@ protected abstract void makeRequest(
             Resource target)
             throws GeoWebCacheException;
 
+    /**
+     * Requests a meta tile, reading the response into {@code target}. Subclasses may instead decode the response as it
+     * is received, straight into the meta tile {@link MetaTile#setImage image}, leaving {@code target} empty.
+     */
     public void makeRequest(WMSMetaTile metaTile, Resource target) throws GeoWebCacheException {
 
         Map<String, String> wmsParams = metaTile.getWMSParams();
@@ -51,6 +57,23 @@ public void makeRequest(WMSMetaTile metaTile, Resource target) throws GeoWebCach
         makeRequest(metaTile, layer, wmsParams, mime, target);
     }
 
+    /**
+     * Requests a meta tile, reading the response into {@code target}, without waiting for the response if the
+     * subclass supports it, so that callers can keep several requests in flight. The default implementation performs
+     * the request right away and returns a completed future.
+     *
+     * @return a future completing with {@code target} once the response is read, or exceptionally with a
+     *     {@link GeoWebCacheException} if the request fails
+     */
+    public CompletableFuture<Resource> makeRequestAsync(WMSMetaTile metaTile, Resource target) {
+        try {
+            makeRequest(metaTile, target);
+            return CompletableFuture.completedFuture(target);
+        } catch (GeoWebCacheException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
     public void makeRequest(ConveyorTile tile, Resource target) throws GeoWebCacheException {
         WMSLayer layer = (WMSLayer) tile.getLayer();
 
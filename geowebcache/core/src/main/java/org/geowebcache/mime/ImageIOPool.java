@@ -0,0 +1,151 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.mime;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriter;
+import javax.imageio.spi.IIORegistry;
+import javax.imageio.spi.ImageReaderSpi;
+import javax.imageio.spi.ImageWriterSpi;
+import javax.imageio.spi.ServiceRegistry;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Keeps the image writers and readers done with for reuse, instead of having a new one created for each tile encoded
+ * or metatile decoded.
+ *
+ * <p>Instances are pooled by the service provider that created them, so that the native and pure Java codecs of a
+ * format are kept apart. Instances are {@link ImageWriter#reset() reset} when given back, and at most
+ * {@link #MAX_IDLE} idle instances are kept for each provider, the others being disposed.
+ */
+public final class ImageIOPool {
+
+    /** Maximum number of idle instances kept for each service provider */
+    static final int MAX_IDLE = 2 * Runtime.getRuntime().availableProcessors();
+
+    private static final ConcurrentMap<ImageWriterSpi, Queue<ImageWriter>> WRITERS = new ConcurrentHashMap<>();
+
+    private static final ConcurrentMap<ImageReaderSpi, Queue<ImageReader>> READERS = new ConcurrentHashMap<>();
+
+    private ImageIOPool() {}
+
+    /** @return the providers of writers for the given format, in the registry order of preference */
+    public static Iterator<ImageWriterSpi> getWriterProviders(String formatName) {
+        return IIORegistry.getDefaultInstance()
+                .getServiceProviders(ImageWriterSpi.class, new FormatNameFilter(formatName), true);
+    }
+
+    /**
+     * Finds the provider of the first reader able to decode the stream, in the registry order of preference, as
+     * {@link javax.imageio.ImageIO#getImageReaders(Object)} does
+     *
+     * @return the provider, or {@code null} if no reader can decode the stream
+     */
+    public static ImageReaderSpi getReaderProvider(ImageInputStream stream) throws IOException {
+        Iterator<ImageReaderSpi> it = IIORegistry.getDefaultInstance().getServiceProviders(ImageReaderSpi.class, true);
+        while (it.hasNext()) {
+            ImageReaderSpi spi = it.next();
+            stream.mark();
+            try {
+                if (spi.canDecodeInput(stream)) {
+                    return spi;
+                }
+            } finally {
+                stream.reset();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Takes an idle writer created by {@code spi}, or creates a new one. It shall be given back with
+     * {@link #release(ImageWriter)} once done, or disposed if it failed.
+     *
+     * @throws IllegalStateException if the writer cannot be created, as {@link javax.imageio.ImageIO} does
+     */
+    public static ImageWriter getWriter(ImageWriterSpi spi) {
+        Queue<ImageWriter> idle = WRITERS.get(spi);
+        ImageWriter writer = idle == null ? null : idle.poll();
+        if (writer == null) {
+            try {
+                writer = spi.createWriterInstance();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return writer;
+    }
+
+    /**
+     * Takes an idle reader created by {@code spi}, or creates a new one. It shall be given back with
+     * {@link #release(ImageReader)} once done, or disposed if it failed.
+     *
+     * @throws IllegalStateException if the reader cannot be created, as {@link javax.imageio.ImageIO} does
+     */
+    public static ImageReader getReader(ImageReaderSpi spi) {
+        Queue<ImageReader> idle = READERS.get(spi);
+        ImageReader reader = idle == null ? null : idle.poll();
+        if (reader == null) {
+            try {
+                reader = spi.createReaderInstance();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return reader;
+    }
+
+    /** Resets the writer and keeps it for reuse, or disposes it if enough are idle already */
+    public static void release(ImageWriter writer) {
+        writer.reset();
+        ImageWriterSpi spi = writer.getOriginatingProvider();
+        if (spi == null || !WRITERS.computeIfAbsent(spi, k -> new ArrayBlockingQueue<>(MAX_IDLE)).offer(writer)) {
+            writer.dispose();
+        }
+    }
+
+    /** Resets the reader and keeps it for reuse, or disposes it if enough are idle already */
+    public static void release(ImageReader reader) {
+        reader.reset();
+        ImageReaderSpi spi = reader.getOriginatingProvider();
+        if (spi == null || !READERS.computeIfAbsent(spi, k -> new ArrayBlockingQueue<>(MAX_IDLE)).offer(reader)) {
+            reader.dispose();
+        }
+    }
+
+    private static class FormatNameFilter implements ServiceRegistry.Filter {
+
+        private final String formatName;
+
+        FormatNameFilter(String formatName) {
+            this.formatName = formatName;
+        }
+
+        @Override
+        public boolean filter(Object provider) {
+            for (String name : ((ImageWriterSpi) provider).getFormatNames()) {
+                if (name.equals(formatName)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -28,6 +28,7 @@
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.imageio.ImageWriter;
+import javax.imageio.spi.ImageWriterSpi;
 import javax.media.jai.ImageLayout;
 import javax.media.jai.JAI;
 import javax.media.jai.RenderedOp;
@@ -91,20 +92,23 @@ public RenderedImage preprocess(RenderedImage ri) {
         /** Quantize if the source did not do so already */
         @Override
         public RenderedImage preprocess(RenderedImage canvas) {
-            if (!(canvas.getColorModel() instanceof IndexColorModel)) {
-                if (canvas.getColorModel() instanceof ComponentColorModel
-                        && canvas.getSampleModel().getDataType() == DataBuffer.TYPE_BYTE) {
-                    ColorIndexer indexer = new Quantizer(256).subsample().buildColorIndexer(canvas);
-                    if (indexer != null) {
-                        ParameterBlock pb = new ParameterBlock();
-                        pb.setSource(canvas, 0); // The source image.
-                        pb.set(indexer, 0);
-                        canvas = JAI.create(
-                                "ColorIndexer", pb, JAI.getDefaultInstance().getRenderingHints());
-                    }
-                }
+            return quantize(canvas);
+        }
+
+        /**
+         * Quantize the whole metatile against a single palette, so that the tiles cut out of it are paletted already
+         * and just need to be deflated
+         */
+        @Override
+        public RenderedImage preprocessMetaTile(RenderedImage metaTile) {
+            RenderedImage quantized = quantize(metaTile);
+            if (quantized instanceof RenderedOp) {
+                // compute the indexed raster once, tiles are then plain sub-images of it
+                RenderedOp op = (RenderedOp) quantized;
+                quantized = op.getAsBufferedImage();
+                op.dispose();
             }
-            return canvas;
+            return quantized;
         }
     };
 
@@ -215,9 +219,13 @@ protected boolean isBinary() {
         return true;
     }
 
+    /**
+     * Returns a writer for the image, taken from the {@link ImageIOPool}. Give it back with
+     * {@link ImageIOPool#release(ImageWriter)} once done.
+     */
     public ImageWriter getImageWriter(RenderedImage image) {
-        Iterator<ImageWriter> it = javax.imageio.ImageIO.getImageWritersByFormatName(internalName);
-        ImageWriter writer = it.next();
+        Iterator<ImageWriterSpi> it = ImageIOPool.getWriterProviders(internalName);
+        ImageWriterSpi spi = it.next();
 
         // Native PNG Writer can't handle 2-4 bit PNG, so if our sample depth isn't 1/8 and the
         // returned writer is the native version, let's skip it and move on to the next
@@ -227,12 +235,12 @@ public ImageWriter getImageWriter(RenderedImage image) {
                 || this.internalName.equals(ImageMime.png8.internalName)) {
 
             int bitDepth = image.getSampleModel().getSampleSize(0);
-            if (bitDepth > 1 && bitDepth < 8 && writer.getClass().getName().equals(NATIVE_PNG_WRITER_CLASS_NAME)) {
+            if (bitDepth > 1 && bitDepth < 8 && spi.getPluginClassName().equals(NATIVE_PNG_WRITER_CLASS_NAME)) {
 
-                writer = it.next();
+                spi = it.next();
             }
         }
-        return writer;
+        return ImageIOPool.getWriter(spi);
     }
 
     /** Preprocesses the image to optimize it for the write about to happen */
@@ -240,6 +248,31 @@ public RenderedImage preprocess(RenderedImage tile) {
         return tile;
     }
 
+    /**
+     * Preprocesses a whole metatile before its tiles are cut out of it, so that the work that can be shared among them
+     * is done once. Each tile still goes through {@link #preprocess(RenderedImage)} before being written.
+     */
+    public RenderedImage preprocessMetaTile(RenderedImage metaTile) {
+        return metaTile;
+    }
+
+    /** Quantizes to a 256 colors palette the byte images that are not paletted already */
+    private static RenderedImage quantize(RenderedImage canvas) {
+        if (!(canvas.getColorModel() instanceof IndexColorModel)) {
+            if (canvas.getColorModel() instanceof ComponentColorModel
+                    && canvas.getSampleModel().getDataType() == DataBuffer.TYPE_BYTE) {
+                ColorIndexer indexer = new Quantizer(256).subsample().buildColorIndexer(canvas);
+                if (indexer != null) {
+                    ParameterBlock pb = new ParameterBlock();
+                    pb.setSource(canvas, 0); // The source image.
+                    pb.set(indexer, 0);
+                    canvas = JAI.create("ColorIndexer", pb, JAI.getDefaultInstance().getRenderingHints());
+                }
+            }
+        }
+        return canvas;
+    }
+
     private static class JpegPngMime extends ImageMime {
 
         private static final int JPEG_MAGIC_MASK = 0xffd80000;
@@ -0,0 +1,892 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.mime;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.awt.Rectangle;
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.IndexColorModel;
+import java.awt.image.MultiPixelPackedSampleModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import org.geowebcache.GeoWebCacheExtensions;
+import org.springframework.util.Assert;
+
+/**
+ * Encodes images as PNG working straight on the data buffers of their rasters, without going through the ImageIO
+ * writers and image output streams.
+ *
+ * <p>Supports 8 bit gray, gray with alpha, RGB and RGBA images backed by bytes, packed RGB and ARGB images backed by
+ * ints, and paletted images of 1, 2, 4 or 8 bits, as the ones produced by the WMS backends and by the quantization of
+ * PNG8 tiles. The other images, such as 16 bit or premultiplied ones, are not {@link #isSupported(RenderedImage)
+ * supported} and are left to the ImageIO writers.
+ *
+ * <p>The rows are filtered with the configured {@link Filter}, paletted and lower bit depth images being never
+ * filtered as recommended by the PNG specification. The {@link Deflater deflaters} are kept for reuse, and the images
+ * larger than {@link #PARALLEL_THRESHOLD} bytes are filtered and deflated by chunks of rows on several threads when
+ * configured so, each chunk using the data of the previous one as preset dictionary and ending on a byte boundary so
+ * that they make up a single zlib stream.
+ */
+public class PNGRasterEncoder {
+
+    /** The filters applied to the image rows before deflating them */
+    public enum Filter {
+        NONE,
+        SUB,
+        UP,
+        AVERAGE,
+        PAETH,
+        /** Uses, for each row, the filter giving the lowest sum of absolute differences */
+        ADAPTIVE
+    }
+
+    /** Set to {@code raster} to encode the PNG tiles of the metatiles with the {@link #getDefault() default} encoder */
+    public static final String ENCODER_PROPERTY = "GWC_PNG_ENCODER";
+
+    public static final int DEFAULT_COMPRESSION_LEVEL = 4;
+
+    /** Size, in bytes of filtered image data, from which the images are deflated in parallel */
+    static final int PARALLEL_THRESHOLD = 1024 * 1024;
+
+    /** Size, in bytes of filtered image data, of the chunks deflated in parallel */
+    static final int PARALLEL_CHUNK_SIZE = 256 * 1024;
+
+    /** Maximum number of idle deflaters kept for reuse */
+    static final int MAX_IDLE = 2 * Runtime.getRuntime().availableProcessors();
+
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+
+    private static final byte[] IHDR = "IHDR".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] PLTE = "PLTE".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] TRNS = "tRNS".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] IDAT = "IDAT".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] IEND = "IEND".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int COLOR_GRAY = 0;
+
+    private static final int COLOR_RGB = 2;
+
+    private static final int COLOR_PALETTE = 3;
+
+    private static final int COLOR_GRAY_ALPHA = 4;
+
+    private static final int COLOR_RGBA = 6;
+
+    /** Size of the IDAT chunks written */
+    private static final int IDAT_SIZE = 64 * 1024;
+
+    /** Size of the deflate window, the preset dictionary of a chunk being the end of the previous one */
+    private static final int WINDOW_SIZE = 32 * 1024;
+
+    private static volatile PNGRasterEncoder defaultEncoder;
+
+    private final int compressionLevel;
+
+    private final Filter filter;
+
+    private final int deflateThreads;
+
+    private final Queue<EncoderState> states = new ArrayBlockingQueue<>(MAX_IDLE);
+
+    private ExecutorService executor;
+
+    private boolean disposed;
+
+    /** Creates an encoder using the default compression level and adaptive filtering, deflating on a single thread */
+    public PNGRasterEncoder() {
+        this(DEFAULT_COMPRESSION_LEVEL, Filter.ADAPTIVE, 1);
+    }
+
+    /**
+     * @param compressionLevel the deflate level, from 0 to 9
+     * @param filter the filter applied to the rows of the images
+     * @param deflateThreads the number of threads deflating the large images, 1 to deflate them on the encoding thread
+     */
+    public PNGRasterEncoder(int compressionLevel, Filter filter, int deflateThreads) {
+        Assert.isTrue(
+                compressionLevel >= Deflater.NO_COMPRESSION && compressionLevel <= Deflater.BEST_COMPRESSION,
+                "The compression level shall be between 0 and 9");
+        Assert.notNull(filter, "The filter shall not be null");
+        Assert.isTrue(deflateThreads > 0, "The deflate threads shall be positive");
+        this.compressionLevel = compressionLevel;
+        this.filter = filter;
+        this.deflateThreads = deflateThreads;
+    }
+
+    /**
+     * @return the encoder shared by the metatiles, deflating on up to 4 threads, or {@code null} if not enabled through
+     *     {@link #ENCODER_PROPERTY}
+     */
+    public static PNGRasterEncoder getDefault() {
+        if (!"raster".equalsIgnoreCase(GeoWebCacheExtensions.getProperty(ENCODER_PROPERTY))) {
+            return null;
+        }
+        PNGRasterEncoder encoder = defaultEncoder;
+        if (encoder == null) {
+            synchronized (PNGRasterEncoder.class) {
+                encoder = defaultEncoder;
+                if (encoder == null) {
+                    int threads = Math.min(4, Runtime.getRuntime().availableProcessors());
+                    encoder = new PNGRasterEncoder(DEFAULT_COMPRESSION_LEVEL, Filter.ADAPTIVE, threads);
+                    defaultEncoder = encoder;
+                }
+            }
+        }
+        return encoder;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public Filter getFilter() {
+        return filter;
+    }
+
+    public int getDeflateThreads() {
+        return deflateThreads;
+    }
+
+    /** @return whether the color and sample models of the image can be encoded straight from its rasters */
+    public static boolean isSupported(RenderedImage image) {
+        return image != null && getColorType(image.getColorModel(), image.getSampleModel()) >= 0;
+    }
+
+    /**
+     * Encodes the image with the configured filter, leaving the stream open
+     *
+     * @throws IllegalArgumentException if the image is not {@link #isSupported(RenderedImage) supported}
+     */
+    public void encode(RenderedImage image, OutputStream out) throws IOException {
+        encode(image, out, filter);
+    }
+
+    /**
+     * Encodes the image with the given filter, leaving the stream open
+     *
+     * @throws IllegalArgumentException if the image is not {@link #isSupported(RenderedImage) supported}
+     */
+    public void encode(RenderedImage image, OutputStream out, Filter filter) throws IOException {
+        Layout layout = new Layout(image);
+        EncoderState state = acquire();
+        try {
+            writeHeader(layout, out, state);
+            IdatStream idat = new IdatStream(out, state);
+            writeZlibHeader(idat);
+            long rawSize = (long) layout.height * (layout.rowBytes + 1);
+            Filter rowFilter = layout.bitDepth < 8 || layout.colorType == COLOR_PALETTE ? Filter.NONE : filter;
+            int adler;
+            if (deflateThreads > 1 && rawSize >= PARALLEL_THRESHOLD) {
+                adler = deflateParallel(layout, rowFilter, idat);
+            } else {
+                adler = deflate(layout, rowFilter, idat, state);
+            }
+            idat.writeInt(adler);
+            idat.flush();
+            writeChunk(out, IEND, state.scratch, 0, state);
+        } finally {
+            release(state);
+        }
+    }
+
+    /** Shuts the deflating threads down, the encoder encoding on the calling thread afterwards */
+    public synchronized void dispose() {
+        disposed = true;
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+        EncoderState state;
+        while ((state = states.poll()) != null) {
+            state.deflater.end();
+        }
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null && !disposed) {
+            executor = Executors.newFixedThreadPool(
+                    deflateThreads,
+                    new ThreadFactoryBuilder()
+                            .setDaemon(true)
+                            .setNameFormat("GWC PNG Deflater-%d")
+                            .build());
+        }
+        return executor;
+    }
+
+    private EncoderState acquire() {
+        EncoderState state = states.poll();
+        return state == null ? new EncoderState(compressionLevel) : state;
+    }
+
+    private void release(EncoderState state) {
+        state.deflater.reset();
+        if (!states.offer(state)) {
+            state.deflater.end();
+        }
+    }
+
+    /**
+     * Filters and deflates the rows one after the other, straight into the IDAT chunks
+     *
+     * @return the Adler-32 checksum of the filtered data
+     */
+    private int deflate(Layout layout, Filter rowFilter, IdatStream idat, EncoderState state) throws IOException {
+        Deflater deflater = state.deflater;
+        Adler32 adler = state.adler;
+        adler.reset();
+        state.ensureRows(layout.rowBytes);
+        Arrays.fill(state.previous, 0, layout.rowBytes, (byte) 0);
+        for (int y = 0; y < layout.height; y++) {
+            layout.reader.read(y, state.current, 0);
+            byte[] filtered = state.filter(rowFilter, layout.rowBytes, layout.bytesPerPixel);
+            adler.update(filtered, 0, layout.rowBytes + 1);
+            deflater.setInput(filtered, 0, layout.rowBytes + 1);
+            while (!deflater.needsInput()) {
+                idat.deflate(deflater);
+            }
+            state.swapRows();
+        }
+        deflater.finish();
+        while (!deflater.finished()) {
+            idat.deflate(deflater);
+        }
+        return (int) adler.getValue();
+    }
+
+    /**
+     * Filters and deflates chunks of rows in parallel, the chunks being written in order as they are done
+     *
+     * @return the Adler-32 checksum of the filtered data
+     */
+    private int deflateParallel(Layout layout, Filter rowFilter, IdatStream idat) throws IOException {
+        ExecutorService executor = getExecutor();
+        if (executor == null) {
+            return deflate(layout, rowFilter, idat, idat.state);
+        }
+        int chunkRows = Math.max(1, PARALLEL_CHUNK_SIZE / (layout.rowBytes + 1));
+        int chunks = (layout.height + chunkRows - 1) / chunkRows;
+        @SuppressWarnings("unchecked")
+        CompletableFuture<byte[]>[] filtered = new CompletableFuture[chunks];
+        @SuppressWarnings("unchecked")
+        CompletableFuture<byte[]>[] deflated = new CompletableFuture[chunks];
+        for (int i = 0; i < chunks; i++) {
+            final int startRow = i * chunkRows;
+            final int endRow = Math.min(layout.height, startRow + chunkRows);
+            final boolean last = i == chunks - 1;
+            filtered[i] =
+                    CompletableFuture.supplyAsync(() -> filterRows(layout, rowFilter, startRow, endRow), executor);
+            if (i == 0) {
+                deflated[i] = filtered[i].thenApplyAsync(data -> deflateChunk(data, null, last), executor);
+            } else {
+                deflated[i] = filtered[i].thenCombineAsync(
+                        filtered[i - 1], (data, previous) -> deflateChunk(data, previous, last), executor);
+            }
+        }
+        Adler32 adler = idat.state.adler;
+        adler.reset();
+        try {
+            for (int i = 0; i < chunks; i++) {
+                adler.update(filtered[i].join());
+                byte[] compressed = deflated[i].join();
+                idat.write(compressed, 0, compressed.length);
+                // let the chunks written go
+                filtered[i] = null;
+                deflated[i] = null;
+            }
+        } catch (CompletionException e) {
+            for (CompletableFuture<byte[]> future : deflated) {
+                if (future != null) {
+                    future.cancel(false);
+                }
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return (int) adler.getValue();
+    }
+
+    private byte[] filterRows(Layout layout, Filter rowFilter, int startRow, int endRow) {
+        int rowBytes = layout.rowBytes;
+        byte[] data = new byte[(endRow - startRow) * (rowBytes + 1)];
+        EncoderState state = acquire();
+        try {
+            state.ensureRows(rowBytes);
+            if (startRow > 0) {
+                layout.reader.read(startRow - 1, state.previous, 0);
+            } else {
+                Arrays.fill(state.previous, 0, rowBytes, (byte) 0);
+            }
+            int offset = 0;
+            for (int y = startRow; y < endRow; y++) {
+                layout.reader.read(y, state.current, 0);
+                byte[] filtered = state.filter(rowFilter, rowBytes, layout.bytesPerPixel);
+                System.arraycopy(filtered, 0, data, offset, rowBytes + 1);
+                offset += rowBytes + 1;
+                state.swapRows();
+            }
+        } finally {
+            release(state);
+        }
+        return data;
+    }
+
+    /**
+     * Deflates a chunk of the filtered data, ending on a byte boundary unless it is the last one
+     *
+     * @param previous the previous chunk, whose end is used as preset dictionary, or {@code null} for the first one
+     */
+    private byte[] deflateChunk(byte[] data, byte[] previous, boolean last) {
+        EncoderState state = acquire();
+        try {
+            Deflater deflater = state.deflater;
+            if (previous != null) {
+                int length = Math.min(WINDOW_SIZE, previous.length);
+                deflater.setDictionary(previous, previous.length - length, length);
+            }
+            deflater.setInput(data);
+            if (last) {
+                deflater.finish();
+            }
+            byte[] out = new byte[data.length / 4 + 64];
+            int count = 0;
+            while (true) {
+                if (count == out.length) {
+                    out = Arrays.copyOf(out, out.length * 2);
+                }
+                int available = out.length - count;
+                int written =
+                        deflater.deflate(out, count, available, last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH);
+                count += written;
+                if (last ? deflater.finished() : written < available) {
+                    break;
+                }
+            }
+            return Arrays.copyOf(out, count);
+        } finally {
+            release(state);
+        }
+    }
+
+    private void writeHeader(Layout layout, OutputStream out, EncoderState state) throws IOException {
+        out.write(SIGNATURE);
+        byte[] ihdr = state.scratch;
+        putInt(ihdr, 0, layout.width);
+        putInt(ihdr, 4, layout.height);
+        ihdr[8] = (byte) layout.bitDepth;
+        ihdr[9] = (byte) layout.colorType;
+        ihdr[10] = 0; // deflate
+        ihdr[11] = 0; // adaptive filtering
+        ihdr[12] = 0; // no interlace
+        writeChunk(out, IHDR, ihdr, 13, state);
+        if (layout.palette != null) {
+            writeChunk(out, PLTE, layout.palette, layout.palette.length, state);
+            if (layout.transparency != null) {
+                writeChunk(out, TRNS, layout.transparency, layout.transparency.length, state);
+            }
+        }
+    }
+
+    /** Writes the zlib header matching the compression level, the deflaters writing raw deflate data */
+    private void writeZlibHeader(IdatStream idat) throws IOException {
+        int levelFlag;
+        if (compressionLevel <= 1) {
+            levelFlag = 0;
+        } else if (compressionLevel <= 5) {
+            levelFlag = 1;
+        } else if (compressionLevel == 6) {
+            levelFlag = 2;
+        } else {
+            levelFlag = 3;
+        }
+        int cmf = 0x78; // deflate with a 32K window
+        int flg = levelFlag << 6;
+        flg += 31 - ((cmf << 8) + flg) % 31;
+        idat.write(cmf);
+        idat.write(flg);
+    }
+
+    private static void writeChunk(OutputStream out, byte[] type, byte[] data, int length, EncoderState state)
+            throws IOException {
+        writeChunk(out, type, data, 0, length, state);
+    }
+
+    private static void writeChunk(
+            OutputStream out, byte[] type, byte[] data, int offset, int length, EncoderState state)
+            throws IOException {
+        CRC32 crc = state.crc;
+        crc.reset();
+        crc.update(type);
+        crc.update(data, offset, length);
+        byte[] bytes = state.chunkHeader;
+        putInt(bytes, 0, length);
+        System.arraycopy(type, 0, bytes, 4, 4);
+        out.write(bytes, 0, 8);
+        out.write(data, offset, length);
+        putInt(bytes, 0, (int) crc.getValue());
+        out.write(bytes, 0, 4);
+    }
+
+    private static void putInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    /** @return the PNG color type for the color and sample models, or -1 if they are not supported */
+    private static int getColorType(ColorModel cm, SampleModel sm) {
+        if (cm == null || sm == null || cm.isAlphaPremultiplied()) {
+            return -1;
+        }
+        if (cm instanceof IndexColorModel) {
+            if (sm instanceof MultiPixelPackedSampleModel && sm.getDataType() == DataBuffer.TYPE_BYTE) {
+                int bits = ((MultiPixelPackedSampleModel) sm).getPixelBitStride();
+                return bits == 1 || bits == 2 || bits == 4 || bits == 8 ? COLOR_PALETTE : -1;
+            }
+            boolean bytes = sm instanceof ComponentSampleModel
+                    && sm.getDataType() == DataBuffer.TYPE_BYTE
+                    && sm.getNumBands() == 1;
+            return bytes && ((IndexColorModel) cm).getMapSize() <= 256 ? COLOR_PALETTE : -1;
+        }
+        if (cm instanceof ComponentColorModel) {
+            if (!(sm instanceof ComponentSampleModel)
+                    || sm.getDataType() != DataBuffer.TYPE_BYTE
+                    || sm.getNumBands() != cm.getNumComponents()) {
+                return -1;
+            }
+            for (int size : cm.getComponentSize()) {
+                if (size != 8) {
+                    return -1;
+                }
+            }
+            ColorSpace cs = cm.getColorSpace();
+            if (cs.getType() == ColorSpace.TYPE_GRAY && cs.getNumComponents() == 1) {
+                return cm.hasAlpha() ? COLOR_GRAY_ALPHA : COLOR_GRAY;
+            } else if (cs.isCS_sRGB()) {
+                return cm.hasAlpha() ? COLOR_RGBA : COLOR_RGB;
+            }
+            return -1;
+        }
+        if (cm instanceof DirectColorModel) {
+            if (!(sm instanceof SinglePixelPackedSampleModel)
+                    || sm.getDataType() != DataBuffer.TYPE_INT
+                    || sm.getNumBands() != cm.getNumComponents()
+                    || !cm.getColorSpace().isCS_sRGB()) {
+                return -1;
+            }
+            SinglePixelPackedSampleModel sppsm = (SinglePixelPackedSampleModel) sm;
+            int[] masks = sppsm.getBitMasks();
+            int[] offsets = sppsm.getBitOffsets();
+            for (int i = 0; i < masks.length; i++) {
+                if (masks[i] >>> offsets[i] != 0xff) {
+                    return -1;
+                }
+            }
+            return cm.hasAlpha() ? COLOR_RGBA : COLOR_RGB;
+        }
+        return -1;
+    }
+
+    /** Reads the samples of an image row, in PNG order */
+    private interface RowReader {
+
+        void read(int row, byte[] target, int offset);
+    }
+
+    /** How an image gets written */
+    private static final class Layout {
+
+        final int width;
+
+        final int height;
+
+        final int colorType;
+
+        final int bitDepth;
+
+        /** The bytes of a row, without the filter type */
+        final int rowBytes;
+
+        /** The bytes of a pixel, at least 1, used by the filters */
+        final int bytesPerPixel;
+
+        final RowReader reader;
+
+        byte[] palette;
+
+        byte[] transparency;
+
+        Layout(RenderedImage image) {
+            width = image.getWidth();
+            height = image.getHeight();
+            ColorModel cm = image.getColorModel();
+            Raster raster = getRaster(image);
+            SampleModel sm = raster.getSampleModel();
+            colorType = getColorType(cm, sm);
+            if (colorType < 0) {
+                throw new IllegalArgumentException("Unsupported image, color model " + cm + ", sample model " + sm);
+            }
+            // the raster location of the first pixel of the image
+            int x = image.getMinX() - raster.getSampleModelTranslateX();
+            int y = image.getMinY() - raster.getSampleModelTranslateY();
+            if (sm instanceof MultiPixelPackedSampleModel) {
+                MultiPixelPackedSampleModel mppsm = (MultiPixelPackedSampleModel) sm;
+                bitDepth = mppsm.getPixelBitStride();
+                rowBytes = (width * bitDepth + 7) / 8;
+                reader = packedReader(mppsm, (DataBufferByte) raster.getDataBuffer(), x, y);
+            } else if (sm instanceof SinglePixelPackedSampleModel) {
+                bitDepth = 8;
+                rowBytes = width * sm.getNumBands();
+                reader = intReader((SinglePixelPackedSampleModel) sm, (DataBufferInt) raster.getDataBuffer(), x, y);
+            } else {
+                bitDepth = 8;
+                rowBytes = width * sm.getNumBands();
+                reader = byteReader((ComponentSampleModel) sm, (DataBufferByte) raster.getDataBuffer(), x, y);
+            }
+            bytesPerPixel = Math.max(1, bitDepth * sm.getNumBands() / 8);
+            if (cm instanceof IndexColorModel) {
+                setPalette((IndexColorModel) cm);
+            }
+        }
+
+        /** @return a raster covering the whole image, not copying the data unless the image has several tiles */
+        private static Raster getRaster(RenderedImage image) {
+            if (image instanceof BufferedImage) {
+                return ((BufferedImage) image).getRaster();
+            }
+            Rectangle bounds = new Rectangle(image.getMinX(), image.getMinY(), image.getWidth(), image.getHeight());
+            if (image.getNumXTiles() == 1 && image.getNumYTiles() == 1) {
+                Raster tile = image.getTile(image.getMinTileX(), image.getMinTileY());
+                if (tile.getBounds().contains(bounds)) {
+                    return tile;
+                }
+            }
+            return image.getData(bounds);
+        }
+
+        private void setPalette(IndexColorModel icm) {
+            int size = Math.min(icm.getMapSize(), 1 << bitDepth);
+            byte[] reds = new byte[icm.getMapSize()];
+            byte[] greens = new byte[icm.getMapSize()];
+            byte[] blues = new byte[icm.getMapSize()];
+            byte[] alphas = new byte[icm.getMapSize()];
+            icm.getReds(reds);
+            icm.getGreens(greens);
+            icm.getBlues(blues);
+            icm.getAlphas(alphas);
+            palette = new byte[size * 3];
+            int lastTranslucent = -1;
+            for (int i = 0; i < size; i++) {
+                palette[i * 3] = reds[i];
+                palette[i * 3 + 1] = greens[i];
+                palette[i * 3 + 2] = blues[i];
+                if (alphas[i] != (byte) 0xff) {
+                    lastTranslucent = i;
+                }
+            }
+            if (lastTranslucent >= 0) {
+                transparency = Arrays.copyOf(alphas, lastTranslucent + 1);
+            }
+        }
+
+        private RowReader byteReader(ComponentSampleModel sm, DataBufferByte buffer, int x, int y) {
+            final int bands = sm.getNumBands();
+            final int pixelStride = sm.getPixelStride();
+            final int scanlineStride = sm.getScanlineStride();
+            final int[] bandOffsets = sm.getBandOffsets();
+            final int[] bankIndices = sm.getBankIndices();
+            final byte[][] banks = new byte[bands][];
+            final int[] starts = new int[bands];
+            boolean interleaved = pixelStride == bands;
+            for (int b = 0; b < bands; b++) {
+                banks[b] = buffer.getData(bankIndices[b]);
+                starts[b] = buffer.getOffsets()[bankIndices[b]] + bandOffsets[b] + y * scanlineStride + x * pixelStride;
+                interleaved &= bankIndices[b] == bankIndices[0] && bandOffsets[b] == bandOffsets[0] + b;
+            }
+            final int length = width * bands;
+            if (interleaved) {
+                final byte[] data = banks[0];
+                final int start = starts[0];
+                return (row, target, offset) ->
+                        System.arraycopy(data, start + row * scanlineStride, target, offset, length);
+            }
+            return (row, target, offset) -> {
+                for (int b = 0; b < bands; b++) {
+                    byte[] data = banks[b];
+                    int source = starts[b] + row * scanlineStride;
+                    for (int i = offset + b, end = offset + length; i < end; i += bands, source += pixelStride) {
+                        target[i] = data[source];
+                    }
+                }
+            };
+        }
+
+        private RowReader intReader(SinglePixelPackedSampleModel sm, DataBufferInt buffer, int x, int y) {
+            final int[] data = buffer.getData();
+            final int scanlineStride = sm.getScanlineStride();
+            final int start = buffer.getOffset() + y * scanlineStride + x;
+            final int[] shifts = sm.getBitOffsets();
+            final int bands = shifts.length;
+            return (row, target, offset) -> {
+                int source = start + row * scanlineStride;
+                int i = offset;
+                for (int end = source + width; source < end; source++) {
+                    int pixel = data[source];
+                    for (int b = 0; b < bands; b++) {
+                        target[i++] = (byte) (pixel >>> shifts[b]);
+                    }
+                }
+            };
+        }
+
+        private RowReader packedReader(MultiPixelPackedSampleModel sm, DataBufferByte buffer, int x, int y) {
+            final byte[] data = buffer.getData();
+            final int scanlineStride = sm.getScanlineStride();
+            final int firstBit = sm.getDataBitOffset() + x * bitDepth;
+            final int start = buffer.getOffset() + y * scanlineStride + firstBit / 8;
+            final int shift = firstBit % 8;
+            final int length = rowBytes;
+            // the padding bits of the last byte are cleared
+            final int lastMask = 0xff << (length * 8 - width * bitDepth);
+            return (row, target, offset) -> {
+                int source = start + row * scanlineStride;
+                if (shift == 0) {
+                    System.arraycopy(data, source, target, offset, length);
+                } else {
+                    for (int i = 0; i < length; i++, source++) {
+                        int next = source + 1 < data.length ? data[source + 1] & 0xff : 0;
+                        target[offset + i] = (byte) (((data[source] & 0xff) << shift) | (next >>> (8 - shift)));
+                    }
+                }
+                target[offset + length - 1] &= (byte) lastMask;
+            };
+        }
+    }
+
+    /** The deflater and buffers of an encoding, kept for reuse */
+    private static final class EncoderState {
+
+        final Deflater deflater;
+
+        final CRC32 crc = new CRC32();
+
+        final Adler32 adler = new Adler32();
+
+        final byte[] idat = new byte[IDAT_SIZE];
+
+        final byte[] chunkHeader = new byte[8];
+
+        final byte[] scratch = new byte[16];
+
+        byte[] previous = new byte[0];
+
+        byte[] current = new byte[0];
+
+        /** The filtered row, starting with the filter type */
+        byte[] filtered = new byte[0];
+
+        EncoderState(int compressionLevel) {
+            deflater = new Deflater(compressionLevel, true);
+        }
+
+        void ensureRows(int rowBytes) {
+            if (current.length < rowBytes) {
+                previous = new byte[rowBytes];
+                current = new byte[rowBytes];
+                filtered = new byte[rowBytes + 1];
+            }
+        }
+
+        void swapRows() {
+            byte[] row = previous;
+            previous = current;
+            current = row;
+        }
+
+        /** @return the current row filtered against the previous one, starting with the filter type */
+        byte[] filter(Filter rowFilter, int rowBytes, int bpp) {
+            int type = rowFilter == Filter.ADAPTIVE ? selectFilter(rowBytes, bpp) : rowFilter.ordinal();
+            return filter(type, rowBytes, bpp);
+        }
+
+        /**
+         * Computes the filtered bytes of every filter in a single pass, without storing them
+         *
+         * @return the filter giving the lowest sum of the absolute values of the filtered bytes, taken as signed
+         */
+        private int selectFilter(int rowBytes, int bpp) {
+            byte[] cur = current;
+            byte[] prev = previous;
+            long none = 0;
+            long sub = 0;
+            long up = 0;
+            long average = 0;
+            long paeth = 0;
+            for (int i = 0; i < rowBytes; i++) {
+                int x = cur[i] & 0xff;
+                int a = i < bpp ? 0 : cur[i - bpp] & 0xff;
+                int b = prev[i] & 0xff;
+                int c = i < bpp ? 0 : prev[i - bpp] & 0xff;
+                none += Math.abs((byte) x);
+                sub += Math.abs((byte) (x - a));
+                up += Math.abs((byte) (x - b));
+                average += Math.abs((byte) (x - ((a + b) >>> 1)));
+                paeth += Math.abs((byte) (x - paethPredictor(a, b, c)));
+            }
+            long[] sums = {none, sub, up, average, paeth};
+            int best = 0;
+            for (int type = 1; type < sums.length; type++) {
+                if (sums[type] < sums[best]) {
+                    best = type;
+                }
+            }
+            return best;
+        }
+
+        private static int paethPredictor(int a, int b, int c) {
+            int p = a + b - c;
+            int pa = Math.abs(p - a);
+            int pb = Math.abs(p - b);
+            int pc = Math.abs(p - c);
+            return pa <= pb && pa <= pc ? a : pb <= pc ? b : c;
+        }
+
+        private byte[] filter(int type, int rowBytes, int bpp) {
+            byte[] out = filtered;
+            byte[] cur = current;
+            byte[] prev = previous;
+            out[0] = (byte) type;
+            switch (type) {
+                case 0: // none
+                    System.arraycopy(cur, 0, out, 1, rowBytes);
+                    break;
+                case 1: // sub
+                    System.arraycopy(cur, 0, out, 1, Math.min(bpp, rowBytes));
+                    for (int i = bpp; i < rowBytes; i++) {
+                        out[i + 1] = (byte) (cur[i] - cur[i - bpp]);
+                    }
+                    break;
+                case 2: // up
+                    for (int i = 0; i < rowBytes; i++) {
+                        out[i + 1] = (byte) (cur[i] - prev[i]);
+                    }
+                    break;
+                case 3: // average
+                    for (int i = 0; i < rowBytes; i++) {
+                        int left = i < bpp ? 0 : cur[i - bpp] & 0xff;
+                        out[i + 1] = (byte) (cur[i] - ((left + (prev[i] & 0xff)) >>> 1));
+                    }
+                    break;
+                default: // paeth
+                    for (int i = 0; i < rowBytes; i++) {
+                        int a = i < bpp ? 0 : cur[i - bpp] & 0xff;
+                        int b = prev[i] & 0xff;
+                        int c = i < bpp ? 0 : prev[i - bpp] & 0xff;
+                        out[i + 1] = (byte) (cur[i] - paethPredictor(a, b, c));
+                    }
+            }
+            return out;
+        }
+    }
+
+    /** Writes the zlib stream as IDAT chunks of {@link #IDAT_SIZE} bytes */
+    private static final class IdatStream {
+
+        final OutputStream out;
+
+        final EncoderState state;
+
+        final byte[] buffer;
+
+        int count;
+
+        IdatStream(OutputStream out, EncoderState state) {
+            this.out = out;
+            this.state = state;
+            this.buffer = state.idat;
+        }
+
+        /** Deflates straight into the chunk buffer, writing it out when full */
+        void deflate(Deflater deflater) throws IOException {
+            count += deflater.deflate(buffer, count, buffer.length - count);
+            if (count == buffer.length) {
+                flush();
+            }
+        }
+
+        void write(int b) throws IOException {
+            if (count == buffer.length) {
+                flush();
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (count == buffer.length) {
+                    flush();
+                }
+                int n = Math.min(length, buffer.length - count);
+                System.arraycopy(bytes, offset, buffer, count, n);
+                count += n;
+                offset += n;
+                length -= n;
+            }
+        }
+
+        void writeInt(int value) throws IOException {
+            write(value >>> 24);
+            write(value >>> 16);
+            write(value >>> 8);
+            write(value);
+        }
+
+        void flush() throws IOException {
+            if (count > 0) {
+                writeChunk(out, IDAT, buffer, 0, count, state);
+                count = 0;
+            }
+        }
+    }
+}
@@ -15,7 +15,9 @@
 package org.geowebcache.seed;
 
 import com.google.common.annotations.VisibleForTesting;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -26,6 +28,7 @@
 import org.geowebcache.GeoWebCacheException;
 import org.geowebcache.conveyor.ConveyorTile;
 import org.geowebcache.filter.request.RequestFilter;
+import org.geowebcache.layer.SeedingTile;
 import org.geowebcache.layer.TileLayer;
 import org.geowebcache.layer.wms.WMSLayer;
 import org.geowebcache.storage.StorageBroker;
@@ -55,6 +58,8 @@ class SeedTask extends GWCTask {
 
     private AtomicLong sharedFailureCounter;
 
+    private int asyncRequests = 1;
+
     @VisibleForTesting
     Sleeper sleeper = Thread::sleep;
 
@@ -81,7 +86,6 @@ public SeedTask(StorageBroker sb, TileRangeIterator trIter, TileLayer tl, boolea
         super.state = GWCTask.STATE.READY;
     }
 
-    // TODO: refactoring this into smaller functions might improve readability
     @Override
     protected void doActionInternal() throws GeoWebCacheException, InterruptedException {
         super.state = GWCTask.STATE.RUNNING;
@@ -103,15 +107,50 @@ protected void doActionInternal() throws GeoWebCacheException, InterruptedExcept
         // TODO move to TileRange object, or distinguish between thread and task
         super.tilesTotal = tileCount(tr);
 
-        final int metaTilingFactorX = tl.getMetaTilingFactors()[0];
-        final int metaTilingFactorY = tl.getMetaTilingFactors()[1];
-
         final boolean tryCache = !reseed;
 
         checkInterrupted();
         long[] gridLoc = trIter.nextMetaGridLocation(new long[3]);
 
-        long seedCalls = 0;
+        // the tiles whose backend requests are in progress, when seeding asynchronously
+        Deque<PendingTile> pending = new ArrayDeque<>();
+        try {
+            seedTiles(tr, gridLoc, tryCache, pending, START_TIME);
+        } finally {
+            for (PendingTile tile : pending) {
+                tile.seeding.cancel();
+            }
+        }
+        if (super.state == GWCTask.STATE.DEAD) {
+            return;
+        }
+
+        if (this.terminate) {
+            log.info("Job on " + getThreadName() + " was terminated after " + this.tilesDone + " tiles");
+        } else {
+            log.info(getThreadName()
+                    + " completed (re)seeding layer "
+                    + layerName
+                    + " after "
+                    + this.tilesDone
+                    + " tiles and "
+                    + this.timeSpent
+                    + " seconds.");
+        }
+
+        checkInterrupted();
+        if (threadOffset == 0 && doFilterUpdate) {
+            runFilterUpdates(tr.getGridSetId());
+        }
+
+        super.state = GWCTask.STATE.DONE;
+    }
+
+    private void seedTiles(TileRange tr, long[] gridLoc, boolean tryCache, Deque<PendingTile> pending, long startTime)
+            throws GeoWebCacheException, InterruptedException {
+        final String layerName = tl.getName();
+
+        long tilesCompletedByThisThread = 0;
         while (gridLoc != null && this.terminate == false) {
 
             checkInterrupted();
@@ -120,54 +159,12 @@ protected void doActionInternal() throws GeoWebCacheException, InterruptedExcept
             ConveyorTile tile = new ConveyorTile(
                     storageBroker, layerName, tr.getGridSetId(), gridLoc, tr.getMimeType(), fullParameters, null, null);
 
-            for (int fetchAttempt = 0;
-                    fetchAttempt <= tileFailureRetryCount || tileFailureRetryCount < 0;
-                    fetchAttempt++) {
-                try {
-                    checkInterrupted();
-                    tl.seedTile(tile, tryCache);
-                    break; // success, let it go
-                } catch (Exception e) {
-                    // if GWC_SEED_RETRY_COUNT was not set then none of the settings have effect, in
-                    // order to keep backwards compatibility with the old behaviour
-                    if (tileFailureRetryCount < 0) {
-                        if (e instanceof GeoWebCacheException) {
-                            throw (GeoWebCacheException) e;
-                        }
-                        throw new GeoWebCacheException(e);
-                    }
-
-                    long sharedFailureCount = sharedFailureCounter.incrementAndGet();
-                    if (sharedFailureCount >= totalFailuresBeforeAborting) {
-                        log.info("Aborting seed thread "
-                                + getThreadName()
-                                + ". Error count reached configured maximum of "
-                                + totalFailuresBeforeAborting);
-                        super.state = GWCTask.STATE.DEAD;
-                        return;
-                    }
-                    String logMsg = "Seed failed at "
-                            + tile.toString()
-                            + " after "
-                            + (fetchAttempt + 1)
-                            + " of "
-                            + (tileFailureRetryCount + 1)
-                            + " attempts.";
-                    if (fetchAttempt < tileFailureRetryCount) {
-                        log.fine(logMsg);
-                        if (tileFailureRetryWaitTime > 0) {
-                            log.finer("Waiting " + tileFailureRetryWaitTime + " before trying again");
-                            waitToRetry();
-                        }
-                    } else {
-                        log.log(
-                                Level.WARNING,
-                                logMsg
-                                        + " Skipping and continuing with next tile. Total failure count across threads is at: "
-                                        + sharedFailureCount,
-                                e);
-                    }
+            if (asyncRequests > 1) {
+                if (!startSeedTile(tile, tryCache, pending)) {
+                    return;
                 }
+            } else if (!seedTile(tile, tryCache, 0)) {
+                return;
             }
 
             if (log.isLoggable(Level.FINER)) {
@@ -178,34 +175,128 @@ protected void doActionInternal() throws GeoWebCacheException, InterruptedExcept
             // note: computing the # of tiles processed by this thread instead of by the whole group
             // also reduces thread contention as the trIter methods are synchronized and profiler
             // shows 16 threads block on synchronization about 40% the time
-            final long tilesCompletedByThisThread = seedCalls * metaTilingFactorX * metaTilingFactorY;
+            final int[] metaTilingFactors = tl.getMetaTilingFactors((int) gridLoc[2]);
+            tilesCompletedByThisThread += metaTilingFactors[0] * metaTilingFactors[1];
 
-            updateStatusInfo(tl, tilesCompletedByThisThread, START_TIME);
+            updateStatusInfo(tl, tilesCompletedByThisThread, startTime);
 
             checkInterrupted();
-            seedCalls++;
             gridLoc = trIter.nextMetaGridLocation(gridLoc);
         }
 
-        if (this.terminate) {
-            log.info("Job on " + getThreadName() + " was terminated after " + this.tilesDone + " tiles");
-        } else {
-            log.info(getThreadName()
-                    + " completed (re)seeding layer "
-                    + layerName
-                    + " after "
-                    + this.tilesDone
-                    + " tiles and "
-                    + this.timeSpent
-                    + " seconds.");
+        while (!pending.isEmpty() && !this.terminate) {
+            if (!completeSeedTile(pending.poll(), tryCache)) {
+                return;
+            }
         }
+    }
 
-        checkInterrupted();
-        if (threadOffset == 0 && doFilterUpdate) {
-            runFilterUpdates(tr.getGridSetId());
+    /**
+     * Seeds the tile, retrying as set by the failure policy
+     *
+     * @param fetchAttempt the attempts already made
+     * @return {@code false} if the seeding shall be aborted
+     */
+    private boolean seedTile(ConveyorTile tile, boolean tryCache, int fetchAttempt)
+            throws GeoWebCacheException, InterruptedException {
+        for (; fetchAttempt <= tileFailureRetryCount || tileFailureRetryCount < 0; fetchAttempt++) {
+            try {
+                checkInterrupted();
+                tl.seedTile(tile, tryCache);
+                return true; // success, let it go
+            } catch (Exception e) {
+                if (!seedFailed(tile, e, fetchAttempt)) {
+                    return false;
+                }
+            }
         }
+        return true;
+    }
 
-        super.state = GWCTask.STATE.DONE;
+    /**
+     * Starts seeding the tile, completing the oldest pending tile if there are {@link #asyncRequests} of them
+     *
+     * @return {@code false} if the seeding shall be aborted
+     */
+    private boolean startSeedTile(ConveyorTile tile, boolean tryCache, Deque<PendingTile> pending)
+            throws GeoWebCacheException, InterruptedException {
+        try {
+            checkInterrupted();
+            pending.add(new PendingTile(tile, tl.startSeedTile(tile, tryCache)));
+        } catch (Exception e) {
+            if (!seedFailed(tile, e, 0) || !seedTile(tile, tryCache, 1)) {
+                return false;
+            }
+        }
+        if (pending.size() >= asyncRequests) {
+            return completeSeedTile(pending.poll(), tryCache);
+        }
+        return true;
+    }
+
+    /**
+     * Completes seeding the tile, seeding it again on failure as set by the failure policy
+     *
+     * @return {@code false} if the seeding shall be aborted
+     */
+    private boolean completeSeedTile(PendingTile pending, boolean tryCache)
+            throws GeoWebCacheException, InterruptedException {
+        try {
+            pending.seeding.complete();
+        } catch (Exception e) {
+            if (!seedFailed(pending.tile, e, 0) || !seedTile(pending.tile, tryCache, 1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Accounts for a failed seed attempt, waiting before the next one
+     *
+     * @return {@code false} if the seeding shall be aborted
+     */
+    private boolean seedFailed(ConveyorTile tile, Exception e, int fetchAttempt)
+            throws GeoWebCacheException, InterruptedException {
+        // if GWC_SEED_RETRY_COUNT was not set then none of the settings have effect, in
+        // order to keep backwards compatibility with the old behaviour
+        if (tileFailureRetryCount < 0) {
+            if (e instanceof GeoWebCacheException) {
+                throw (GeoWebCacheException) e;
+            }
+            throw new GeoWebCacheException(e);
+        }
+
+        long sharedFailureCount = sharedFailureCounter.incrementAndGet();
+        if (sharedFailureCount >= totalFailuresBeforeAborting) {
+            log.info("Aborting seed thread "
+                    + getThreadName()
+                    + ". Error count reached configured maximum of "
+                    + totalFailuresBeforeAborting);
+            super.state = GWCTask.STATE.DEAD;
+            return false;
+        }
+        String logMsg = "Seed failed at "
+                + tile.toString()
+                + " after "
+                + (fetchAttempt + 1)
+                + " of "
+                + (tileFailureRetryCount + 1)
+                + " attempts.";
+        if (fetchAttempt < tileFailureRetryCount) {
+            log.fine(logMsg);
+            if (tileFailureRetryWaitTime > 0) {
+                log.finer("Waiting " + tileFailureRetryWaitTime + " before trying again");
+                waitToRetry();
+            }
+        } else {
+            log.log(
+                    Level.WARNING,
+                    logMsg + " Skipping and continuing with next tile. Total failure count across threads is at: "
+                            + sharedFailureCount,
+                    e);
+        }
+        return true;
     }
 
     private void reprioritize() {
@@ -296,10 +387,30 @@ public void setFailurePolicy(
         this.sharedFailureCounter = sharedFailureCounter;
     }
 
+    /**
+     * Sets how many backend requests this task has in progress at once, seeding through
+     * {@link TileLayer#startSeedTile} rather than {@link TileLayer#seedTile} when more than one.
+     */
+    public void setAsyncRequests(int asyncRequests) {
+        this.asyncRequests = asyncRequests;
+    }
+
     @Override
     protected void dispose() {
         if (tl instanceof WMSLayer) {
             ((WMSLayer) tl).cleanUpThreadLocals();
         }
     }
+
+    private static class PendingTile {
+
+        final ConveyorTile tile;
+
+        final SeedingTile seeding;
+
+        PendingTile(ConveyorTile tile, SeedingTile seeding) {
+            this.tile = tile;
+            this.seeding = seeding;
+        }
+    }
 }
@@ -71,6 +71,9 @@
  *       as a single thread group; so if the value is {@code 10} and you launch a seed task with four threads, when
  *       {@code 10} failures are reached by all or any of those four threads the four threads will abort the seeding
  *       task. The default is {@code 1000}.
+ *   <li>{@code GWC_SEED_ASYNC_REQUESTS}: specifies how many backend requests each seeding thread keeps in progress
+ *       at once, storing the tiles of a request while the next ones are processed by the backend. The default is
+ *       {@code 1}, each thread waiting for a request to complete before sending the next one.
  * </ul>
  *
  * These environment variables can be established by any of the following ways, in order of precedence:
@@ -101,6 +104,8 @@ public class TileBreeder implements ApplicationContextAware {
 
     private static final String GWC_SEED_RETRY_COUNT = "GWC_SEED_RETRY_COUNT";
 
+    private static final String GWC_SEED_ASYNC_REQUESTS = "GWC_SEED_ASYNC_REQUESTS";
+
     private static Logger log = Logging.getLogger(TileBreeder.class.getName());
 
     private ThreadPoolExecutor threadPool;
@@ -121,6 +126,9 @@ public class TileBreeder implements ApplicationContextAware {
      */
     public static long TOTAL_FAILURES_BEFORE_ABORTING_DEFAULT = 1000;
 
+    /** How many backend requests each seed task keeps in progress at once */
+    public static int ASYNC_REQUESTS_DEFAULT = 1;
+
     private Map<Long, SubmittedTask> currentPool = new TreeMap<>();
 
     private AtomicLong currentId = new AtomicLong();
@@ -155,13 +163,16 @@ public void setApplicationContext(ApplicationContext applicationContext) throws
         String retryCount = GWCVars.findEnvVar(applicationContext, GWC_SEED_RETRY_COUNT);
         String retryWait = GWCVars.findEnvVar(applicationContext, GWC_SEED_RETRY_WAIT);
         String abortLimit = GWCVars.findEnvVar(applicationContext, GWC_SEED_ABORT_LIMIT);
+        String asyncRequests = GWCVars.findEnvVar(applicationContext, GWC_SEED_ASYNC_REQUESTS);
 
         TILE_FAILURE_RETRY_COUNT_DEFAULT = (int) toLong(GWC_SEED_RETRY_COUNT, retryCount, -1);
         TILE_FAILURE_RETRY_WAIT_TIME_DEFAULT = toLong(GWC_SEED_RETRY_WAIT, retryWait, 100);
         TOTAL_FAILURES_BEFORE_ABORTING_DEFAULT = toLong(GWC_SEED_ABORT_LIMIT, abortLimit, 1000);
+        ASYNC_REQUESTS_DEFAULT = (int) toLong(GWC_SEED_ASYNC_REQUESTS, asyncRequests, 1);
 
         checkPositive(TILE_FAILURE_RETRY_WAIT_TIME_DEFAULT, GWC_SEED_RETRY_WAIT);
         checkPositive(TOTAL_FAILURES_BEFORE_ABORTING_DEFAULT, GWC_SEED_ABORT_LIMIT);
+        checkPositive(ASYNC_REQUESTS_DEFAULT, GWC_SEED_ASYNC_REQUESTS);
     }
 
     @SuppressWarnings("serial")
@@ -263,7 +274,7 @@ public GWCTask[] createTasks(
             threadCount = 1;
         }
 
-        TileRangeIterator trIter = new TileRangeIterator(tr, tl.getMetaTilingFactors());
+        TileRangeIterator trIter = new TileRangeIterator(tr, tl::getMetaTilingFactors);
 
         GWCTask[] tasks = new GWCTask[threadCount];
 
@@ -276,6 +287,7 @@ public GWCTask[] createTasks(
                 SeedTask task = (SeedTask) createSeedTask(type, trIter, tl, filterUpdate);
                 task.setFailurePolicy(
                         tileFailureRetryCount, tileFailureRetryWaitTime, totalFailuresBeforeAborting, failureCounter);
+                task.setAsyncRequests(ASYNC_REQUESTS_DEFAULT);
                 tasks[i] = task;
             }
             tasks[i].setThreadInfo(sharedThreadCount, i);
@@ -356,9 +368,7 @@ public static TileRange createTileRange(SeedRequest req, TileLayer tl) throws Ge
             coveredGridLevels = gridSubset.getCoverageIntersections(bounds);
         }
 
-        int[] metaTilingFactors = tl.getMetaTilingFactors();
-
-        coveredGridLevels = gridSubset.expandToMetaFactors(coveredGridLevels, metaTilingFactors);
+        coveredGridLevels = gridSubset.expandToMetaFactors(coveredGridLevels, tl::getMetaTilingFactors);
 
         String layerName = tl.getName();
         Map<String, String> parameters = req.getParameters();
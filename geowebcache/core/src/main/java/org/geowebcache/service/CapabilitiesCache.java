@@ -0,0 +1,364 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.GeoWebCacheExtensions;
+import org.geowebcache.layer.TileLayer;
+import org.geowebcache.layer.TileLayerChangeListener;
+import org.geowebcache.util.ServletUtils;
+
+/**
+ * Caches the capabilities documents of a service, along with the pre-rendered fragments of each layer they are made
+ * of, so that a capabilities request doesn't have to encode every layer over and over.
+ *
+ * <p>Documents are keyed by a service provided context, which shall capture everything the output depends on besides
+ * the layers (e.g., the base URL and the state of the service extensions), and by the names of the layers they list,
+ * which captures the effect of any security filtering. A cached document is rendered again whenever any of the layer or
+ * dependency objects it was built from has been replaced, as compared by identity. Layer fragments are keyed by layer
+ * name and context, and are likewise discarded when the layer object changes. Changes made through the
+ * {@link org.geowebcache.layer.TileLayerDispatcher} are also {@link TileLayerChangeListener listened} to, dropping the
+ * fragments of the changed layers and all documents.
+ *
+ * <p>Documents are kept encoded in UTF-8, their gzipped version is computed once on the first request accepting it,
+ * and they are served with a strong {@code ETag} honoring {@code If-None-Match} conditional requests.
+ *
+ * <p>The number of cached documents is limited by the {@link #MAX_DOCUMENTS_PROPERTY} property, {@code 0} disables
+ * caching, in which case services shall rather {@link StreamingXMLResponse stream} their documents. Layer fragments are
+ * softly referenced.
+ *
+ * @param <F> the type of the layer fragments
+ */
+public class CapabilitiesCache<F> implements TileLayerChangeListener {
+
+    private static final Logger LOGGER = Logging.getLogger(CapabilitiesCache.class.getName());
+
+    /** Property setting the maximum number of capabilities documents cached by each service */
+    public static final String MAX_DOCUMENTS_PROPERTY = "GWC_CAPABILITIES_CACHE_SIZE";
+
+    static final int DEFAULT_MAX_DOCUMENTS = 32;
+
+    /** Renders a capabilities document or fragment */
+    @FunctionalInterface
+    public interface Renderer<T> {
+        T render() throws IOException;
+    }
+
+    private final Cache<DocumentKey, Document> documents;
+
+    private final Cache<FragmentKey, Fragment<F>> fragments;
+
+    private final boolean enabled;
+
+    public CapabilitiesCache() {
+        this(maxDocuments());
+    }
+
+    public CapabilitiesCache(int maxDocuments) {
+        this.enabled = maxDocuments > 0;
+        this.documents = CacheBuilder.newBuilder().maximumSize(Math.max(0, maxDocuments)).build();
+        this.fragments = CacheBuilder.newBuilder().softValues().build();
+    }
+
+    /** @return whether documents are cached, as opposed to rendered on each request */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private static int maxDocuments() {
+        String value = GeoWebCacheExtensions.getProperty(MAX_DOCUMENTS_PROPERTY);
+        if (value != null) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                LOGGER.warning("Ignoring invalid " + MAX_DOCUMENTS_PROPERTY + " value: " + value);
+            }
+        }
+        return DEFAULT_MAX_DOCUMENTS;
+    }
+
+    /**
+     * Returns the fragment of {@code layer} for the given context, rendering it if not cached yet, or if it was
+     * rendered out of another layer object
+     */
+    public F getLayerFragment(TileLayer layer, String context, Renderer<F> renderer) throws IOException {
+        if (!enabled) {
+            return renderer.render();
+        }
+        FragmentKey key = new FragmentKey(layer.getName(), context);
+        Fragment<F> fragment = fragments.getIfPresent(key);
+        if (fragment == null || fragment.layer != layer) {
+            fragment = new Fragment<>(layer, renderer.render());
+            fragments.put(key, fragment);
+        }
+        return fragment.content;
+    }
+
+    /**
+     * Returns the document listing {@code layers} for the given context, rendering it if not cached yet, or if it was
+     * rendered out of other layer or dependency objects
+     *
+     * @param context everything the document depends on besides the layers
+     * @param layers the layers listed in the document, in order
+     * @param dependencies other objects the document is rendered from, compared by identity
+     */
+    public Document getDocument(
+            String context, List<TileLayer> layers, Collection<?> dependencies, Renderer<String> renderer)
+            throws IOException {
+        List<Object> sources = new ArrayList<>(layers.size() + dependencies.size());
+        sources.addAll(layers);
+        sources.addAll(dependencies);
+        if (!enabled) {
+            return new Document(renderer.render(), sources);
+        }
+        List<String> names = new ArrayList<>(layers.size());
+        for (TileLayer layer : layers) {
+            names.add(layer.getName());
+        }
+        DocumentKey key = new DocumentKey(context, names);
+        Document document = documents.getIfPresent(key);
+        if (document == null || !document.isRenderedFrom(sources)) {
+            document = new Document(renderer.render(), sources);
+            documents.put(key, document);
+        }
+        return document;
+    }
+
+    /** Drops every cached document and fragment */
+    public void invalidateAll() {
+        documents.invalidateAll();
+        fragments.invalidateAll();
+    }
+
+    /** Drops the fragments of the given layer, and every cached document */
+    public void invalidateLayer(String layerName) {
+        documents.invalidateAll();
+        fragments.asMap().keySet().removeIf(k -> k.layerName.equals(layerName));
+    }
+
+    @Override
+    public void layerAdded(String layerName) {
+        invalidateLayer(layerName);
+    }
+
+    @Override
+    public void layerModified(String layerName) {
+        invalidateLayer(layerName);
+    }
+
+    @Override
+    public void layerRemoved(String layerName) {
+        invalidateLayer(layerName);
+    }
+
+    @Override
+    public void layerRenamed(String oldName, String newName) {
+        invalidateLayer(oldName);
+        invalidateLayer(newName);
+    }
+
+    @Override
+    public void configurationChanged() {
+        invalidateAll();
+    }
+
+    /** A rendered capabilities document */
+    public static class Document {
+
+        private final byte[] bytes;
+
+        private final String eTag;
+
+        private final Object[] sources;
+
+        private volatile byte[] gzipped;
+
+        /** Creates a standalone document, for services rendering it on each request */
+        public Document(String content) {
+            this(content, Collections.emptyList());
+        }
+
+        Document(String content, List<Object> sources) {
+            this.bytes = content.getBytes(StandardCharsets.UTF_8);
+            this.eTag = "\"" + Hashing.murmur3_128().hashBytes(bytes) + "\"";
+            this.sources = sources.toArray();
+        }
+
+        boolean isRenderedFrom(List<Object> sources) {
+            if (sources.size() != this.sources.length) {
+                return false;
+            }
+            for (int i = 0; i < this.sources.length; i++) {
+                if (sources.get(i) != this.sources[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** @return the UTF-8 encoded document */
+        public byte[] getBytes() {
+            return bytes;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+
+        public byte[] getGzippedBytes() {
+            byte[] result = gzipped;
+            if (result == null) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+                try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                    gzip.write(bytes);
+                } catch (IOException e) {
+                    // Should not happen writing to memory
+                    throw new UncheckedIOException(e);
+                }
+                result = gzipped = out.toByteArray();
+            }
+            return result;
+        }
+
+        /**
+         * Writes the document to the response, along with its {@code ETag}, answering {@code 304} if the request
+         * {@code If-None-Match} header matches it, and gzip compressing it if the request accepts it. The content type
+         * shall be already set.
+         *
+         * @return the number of bytes written
+         */
+        public int write(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            response.setHeader("ETag", eTag);
+            response.setHeader("Vary", "Accept-Encoding");
+            if (matches(request.getHeader("If-None-Match"), eTag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return 0;
+            }
+            byte[] data = bytes;
+            if (acceptsGzip(request.getHeader("Accept-Encoding"))) {
+                data = getGzippedBytes();
+                response.setHeader("Content-Encoding", "gzip");
+            }
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.setContentLength(data.length);
+            try (OutputStream os = response.getOutputStream()) {
+                os.write(data);
+                os.flush();
+            }
+            return data.length;
+        }
+    }
+
+    static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        return ServletUtils.acceptsEncoding(acceptEncoding, "gzip");
+    }
+
+    private static class Fragment<F> {
+
+        final TileLayer layer;
+
+        final F content;
+
+        Fragment(TileLayer layer, F content) {
+            this.layer = layer;
+            this.content = content;
+        }
+    }
+
+    private static class FragmentKey {
+
+        final String layerName;
+
+        final String context;
+
+        FragmentKey(String layerName, String context) {
+            this.layerName = layerName;
+            this.context = context;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof FragmentKey)) {
+                return false;
+            }
+            FragmentKey other = (FragmentKey) o;
+            return layerName.equals(other.layerName) && context.equals(other.context);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(layerName, context);
+        }
+    }
+
+    private static class DocumentKey {
+
+        final String context;
+
+        final List<String> layerNames;
+
+        DocumentKey(String context, List<String> layerNames) {
+            this.context = context;
+            this.layerNames = layerNames;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof DocumentKey)) {
+                return false;
+            }
+            DocumentKey other = (DocumentKey) o;
+            return context.equals(other.context) && layerNames.equals(other.layerNames);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(context, layerNames);
+        }
+    }
+}
@@ -25,6 +25,7 @@
 import org.geowebcache.io.Resource;
 import org.geowebcache.layer.TileLayer;
 import org.geowebcache.stats.RuntimeStats;
+import org.geowebcache.util.ResponseUtils;
 import org.geowebcache.util.ServletUtils;
 
 /** One of the services exposed by GeoWebCache, for example TMS, WMTS, KML, ... */
@@ -91,7 +92,7 @@ protected static void writeTileResponse(ConveyorTile conv, boolean writeExpirati
     protected static void writeTileResponse(
             ConveyorTile conv, boolean writeExpiration, RuntimeStats stats, String mimeTypeOverride) {
         HttpServletResponse response = conv.servletResp;
-        Resource data = conv.getBlob();
+        Resource data = ResponseUtils.negotiateEncoding(conv) ? conv.getEncodedBlob() : conv.getBlob();
 
         String mimeStr;
         if (mimeTypeOverride == null) {
@@ -0,0 +1,81 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.service;
+
+import com.google.common.io.CountingOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.geowebcache.io.XMLBuilder;
+
+/**
+ * Writes an XML document straight to the servlet response as it's being built, so that memory usage doesn't depend on
+ * the document size, gzip compressing it on the fly if the request accepts it.
+ *
+ * <p>The response status, content type and any other header shall be set before {@link #open opening}, as the response
+ * is committed as soon as the first buffer gets flushed. The content length is not known in advance, so the response
+ * gets chunked.
+ */
+public class StreamingXMLResponse implements Closeable {
+
+    static final int BUFFER_SIZE = 8192;
+
+    private final CountingOutputStream counter;
+
+    private final Writer writer;
+
+    private final XMLBuilder builder;
+
+    private StreamingXMLResponse(OutputStream out, boolean gzip) throws IOException {
+        this.counter = new CountingOutputStream(out);
+        OutputStream target = gzip ? new GZIPOutputStream(counter, BUFFER_SIZE) : counter;
+        this.writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.builder = new XMLBuilder(writer);
+    }
+
+    /** Starts streaming an UTF-8 encoded document to {@code response} */
+    public static StreamingXMLResponse open(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        boolean gzip = CapabilitiesCache.acceptsGzip(request.getHeader("Accept-Encoding"));
+        response.setHeader("Vary", "Accept-Encoding");
+        if (gzip) {
+            response.setHeader("Content-Encoding", "gzip");
+        }
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        return new StreamingXMLResponse(response.getOutputStream(), gzip);
+    }
+
+    /** @return the builder writing to the response */
+    public XMLBuilder getBuilder() {
+        return builder;
+    }
+
+    /** @return the number of bytes sent so far, after compression */
+    public long getBytesWritten() {
+        return counter.getCount();
+    }
+
+    /** Flushes the document tail, finishing the compression if needed, and closes the response stream */
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,382 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+import org.geowebcache.layer.TileLayer;
+import org.geowebcache.layer.TileLayerChangeListener;
+import org.geowebcache.storage.BlobStoreListener;
+import org.springframework.util.Assert;
+
+/**
+ * Base class for the caches of service responses built out of the tiles of a layer, which have to be dropped whenever
+ * those tiles or the layer change.
+ *
+ * <p>Responses are cached as bytes, bounded by their total size and evicting the least recently used ones. Each one
+ * remembers the layer object it was built from, and is discarded when looked up with a different one, as happens when
+ * the layer configuration is reloaded.
+ *
+ * <p>As a {@link BlobStoreListener} the cache drops the responses depending on any tile stored, updated or deleted
+ * afterwards, and those of deleted layers, gridsets and parameters, while as a {@link TileLayerChangeListener} it drops
+ * the responses of the layers whose configuration changes. Keys are indexed by layer and tile set, gridset and format,
+ * so that each event only looks at the responses of the affected tile set rather than scanning the whole cache.
+ *
+ * <p>Responses take a while to build, and may be built out of tiles that change meanwhile. Each invalidation bumps the
+ * {@link #generation(String) generation} of the layer, which callers read before building a response and pass on to
+ * {@link #put(Key, TileLayer, byte[], long)}, so that responses built before an invalidation are not cached.
+ *
+ * @param <K> the type of the keys
+ */
+public abstract class TileDependentCache<K extends TileDependentCache.Key>
+        implements BlobStoreListener, TileLayerChangeListener {
+
+    /** Estimated memory used by each entry besides the response bytes */
+    public static final int ENTRY_OVERHEAD = 512;
+
+    private final Cache<K, Entry> entries;
+
+    /** Cached keys by layer name and tile set, guarded by itself */
+    private final Map<String, Map<TileSet, Set<K>>> index = new HashMap<>();
+
+    /** The generation of each layer whose responses were invalidated, guarded by the index */
+    private final Map<String, Long> generations = new HashMap<>();
+
+    /** The generation all the responses were invalidated at, guarded by the index */
+    private long clearedGeneration;
+
+    /** The last generation handed out, guarded by the index */
+    private long lastGeneration;
+
+    /** @param maxBytes the maximum total size of the cached responses */
+    protected TileDependentCache(long maxBytes) {
+        Assert.isTrue(maxBytes > 0, "maxBytes shall be positive");
+        this.entries = CacheBuilder.newBuilder()
+                .maximumWeight(maxBytes)
+                .<K, Entry>weigher((k, v) -> v.bytes.length + ENTRY_OVERHEAD)
+                .removalListener(this::removed)
+                .build();
+    }
+
+    /**
+     * Returns the response cached for {@code key}, if it was built out of {@code layer}
+     *
+     * @return the response bytes, or {@code null} if not cached
+     */
+    public byte[] get(K key, TileLayer layer) {
+        Entry entry = entries.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.layer != layer) {
+            entries.invalidate(key);
+            return null;
+        }
+        return entry.bytes;
+    }
+
+    /**
+     * Returns the current generation of the responses of a layer, to be read before building a response
+     *
+     * @see #put(Key, TileLayer, byte[], long)
+     */
+    public long generation(String layerName) {
+        synchronized (index) {
+            return Math.max(generations.getOrDefault(layerName, 0L), clearedGeneration);
+        }
+    }
+
+    /**
+     * Caches the response built out of {@code layer} for {@code key}, unless the responses of the layer were
+     * invalidated since it started being built
+     *
+     * @param generation the {@link #generation(String) generation} of the layer read before building the response
+     */
+    public void put(K key, TileLayer layer, byte[] bytes, long generation) {
+        synchronized (index) {
+            if (generation(key.layerName) != generation) {
+                // may depend on tiles changed meanwhile
+                return;
+            }
+            index.computeIfAbsent(key.layerName, n -> new HashMap<>())
+                    .computeIfAbsent(new TileSet(key), t -> new HashSet<>())
+                    .add(key);
+            // along with the index, not to have the removal of a previous entry drop the key from it afterwards
+            entries.put(key, new Entry(layer, bytes));
+        }
+    }
+
+    private void removed(RemovalNotification<K, Entry> notification) {
+        K key = notification.getKey();
+        synchronized (index) {
+            if (entries.asMap().containsKey(key)) {
+                // replaced, or cached again since removed
+                return;
+            }
+            Map<TileSet, Set<K>> tileSets = index.get(key.layerName);
+            if (tileSets == null) {
+                return;
+            }
+            TileSet tileSet = new TileSet(key);
+            Set<K> keys = tileSets.get(tileSet);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                tileSets.remove(tileSet);
+                if (tileSets.isEmpty()) {
+                    index.remove(key.layerName);
+                }
+            }
+        }
+    }
+
+    /** @return the number of cached responses */
+    public long size() {
+        return entries.size();
+    }
+
+    /** Drops every cached response */
+    public void invalidateAll() {
+        synchronized (index) {
+            clearedGeneration = ++lastGeneration;
+        }
+        entries.invalidateAll();
+    }
+
+    /**
+     * Drops the responses of the layer matching {@code predicate}, looking only at the tile sets of the given gridset
+     * and format, or all of them when {@code null}
+     */
+    private void invalidateIf(String layerName, String gridSetId, String format, Predicate<K> predicate) {
+        List<K> matching = new ArrayList<>();
+        synchronized (index) {
+            // responses being built may depend on the changed tiles too
+            generations.put(layerName, ++lastGeneration);
+            Map<TileSet, Set<K>> tileSets = index.get(layerName);
+            if (tileSets == null) {
+                return;
+            }
+            if (gridSetId != null && format != null) {
+                addMatching(tileSets.get(new TileSet(gridSetId, format)), predicate, matching);
+            } else {
+                for (Map.Entry<TileSet, Set<K>> e : tileSets.entrySet()) {
+                    if (gridSetId == null || gridSetId.equals(e.getKey().gridSetId)) {
+                        addMatching(e.getValue(), predicate, matching);
+                    }
+                }
+            }
+        }
+        // the removal listener leaves the keys cached again meanwhile indexed
+        entries.invalidateAll(matching);
+    }
+
+    private void addMatching(Set<K> keys, Predicate<K> predicate, List<K> matching) {
+        if (keys != null) {
+            for (K key : keys) {
+                if (predicate.test(key)) {
+                    matching.add(key);
+                }
+            }
+        }
+    }
+
+    private void invalidateLayer(String layerName) {
+        invalidateIf(layerName, null, null, k -> true);
+    }
+
+    private void invalidateTiles(String layerName, String gridSetId, String format, String parametersId, long[] range) {
+        invalidateIf(layerName, gridSetId, format, k -> k.dependsOn(parametersId, range));
+    }
+
+    @Override
+    public void tileStored(
+            String layerName,
+            String gridSetId,
+            String blobFormat,
+            String parametersId,
+            long x,
+            long y,
+            int z,
+            long blobSize) {
+        invalidateTiles(layerName, gridSetId, blobFormat, parametersId, new long[] {x, y, x, y, z});
+    }
+
+    @Override
+    public void tileDeleted(
+            String layerName,
+            String gridSetId,
+            String blobFormat,
+            String parametersId,
+            long x,
+            long y,
+            int z,
+            long blobSize) {
+        invalidateTiles(layerName, gridSetId, blobFormat, parametersId, new long[] {x, y, x, y, z});
+    }
+
+    @Override
+    public void tileUpdated(
+            String layerName,
+            String gridSetId,
+            String blobFormat,
+            String parametersId,
+            long x,
+            long y,
+            int z,
+            long blobSize,
+            long oldSize) {
+        invalidateTiles(layerName, gridSetId, blobFormat, parametersId, new long[] {x, y, x, y, z});
+    }
+
+    @Override
+    public boolean supportsTilesDeleted() {
+        return true;
+    }
+
+    @Override
+    public void tilesDeleted(
+            String layerName,
+            String gridSetId,
+            String blobFormat,
+            String parametersId,
+            long[] rangeBounds,
+            long tileCount,
+            long blobSize) {
+        invalidateTiles(layerName, gridSetId, blobFormat, parametersId, rangeBounds);
+    }
+
+    @Override
+    public void layerDeleted(String layerName) {
+        invalidateLayer(layerName);
+    }
+
+    @Override
+    public void layerRenamed(String oldLayerName, String newLayerName) {
+        invalidateLayer(oldLayerName);
+        invalidateLayer(newLayerName);
+    }
+
+    @Override
+    public void gridSubsetDeleted(String layerName, String gridSetId) {
+        invalidateIf(layerName, gridSetId, null, k -> true);
+    }
+
+    @Override
+    public void parametersDeleted(String layerName, String parametersId) {
+        invalidateIf(layerName, null, null, k -> k.dependsOn(parametersId));
+    }
+
+    @Override
+    public void layerAdded(String layerName) {
+        invalidateLayer(layerName);
+    }
+
+    @Override
+    public void layerModified(String layerName) {
+        invalidateLayer(layerName);
+    }
+
+    @Override
+    public void layerRemoved(String layerName) {
+        invalidateLayer(layerName);
+    }
+
+    @Override
+    public void configurationChanged() {
+        invalidateAll();
+    }
+
+    private static class Entry {
+
+        final TileLayer layer;
+
+        final byte[] bytes;
+
+        Entry(TileLayer layer, byte[] bytes) {
+            this.layer = layer;
+            this.bytes = bytes;
+        }
+    }
+
+    /** The tiles of a layer a response may depend on */
+    private static class TileSet {
+
+        final String gridSetId;
+
+        final String format;
+
+        TileSet(Key key) {
+            this(key.gridSetId, key.format);
+        }
+
+        TileSet(String gridSetId, String format) {
+            this.gridSetId = gridSetId;
+            this.format = format;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof TileSet)) {
+                return false;
+            }
+            TileSet other = (TileSet) o;
+            return gridSetId.equals(other.gridSetId) && format.equals(other.format);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(gridSetId, format);
+        }
+    }
+
+    /**
+     * Identifies a cached response, built out of the tiles of a layer in a given gridset and format. Subclasses shall
+     * implement {@link #equals(Object)} and {@link #hashCode()}.
+     */
+    public abstract static class Key {
+
+        protected final String layerName;
+
+        protected final String gridSetId;
+
+        protected final String format;
+
+        /**
+         * @param layerName the layer
+         * @param gridSetId the gridset of the tiles the response is built out of
+         * @param format the format name of those tiles
+         */
+        protected Key(String layerName, String gridSetId, String format) {
+            this.layerName = layerName;
+            this.gridSetId = gridSetId;
+            this.format = format;
+        }
+
+        /**
+         * @return whether the response depends on any tile in the {@code [minx, miny, maxx, maxy, z]} tile range with
+         *     the given parameters
+         */
+        protected abstract boolean dependsOn(String parametersId, long[] range);
+
+        /** @return whether the response depends on the tiles with the given parameters */
+        protected abstract boolean dependsOn(String parametersId);
+    }
+}
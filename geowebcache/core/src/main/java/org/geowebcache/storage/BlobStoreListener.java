@@ -96,6 +96,58 @@ void tileUpdated(
             long blobSize,
             long oldSize);
 
+    /**
+     * Whether this listener wants bulk deletions, such as {@link BlobStore#delete(TileRange) tile range truncations},
+     * reported as aggregate {@link #tilesDeleted tilesDeleted} events rather than one {@link #tileDeleted tileDeleted}
+     * call per tile.
+     *
+     * <p>Defaults to {@code false}, listeners overriding it to return {@code true} shall implement
+     * {@link #tilesDeleted tilesDeleted} as they'll no longer receive the individual tile events for bulk deletions.
+     */
+    default boolean supportsTilesDeleted() {
+        return false;
+    }
+
+    /**
+     * Notifies that the blob store has deleted {@code tileCount} tiles, freeing {@code blobSize} bytes, from the given
+     * tile range. Only sent to listeners {@link #supportsTilesDeleted() supporting} it.
+     *
+     * <p>The range bounds all the deleted tiles, but not all the tiles within the range are necessarily deleted, nor
+     * were they necessarily stored in the first place. Blob stores keep the ranges compact, and within the
+     * {@link #tilesDeletedArea area} of their first tile, see {@link TileDeletionBatch}.
+     *
+     * @param layerName {@link TileLayer#getName() name} of the layer for the deleted tiles
+     * @param gridSetId {@link GridSet#getName() name} of the gridset for the deleted tiles
+     * @param blobFormat {@link MimeType#getFormat() format name} of the mime type for the deleted tiles
+     * @param parametersId {@link TileObject#getParametersId() parameters id} for the deleted tiles
+     * @param rangeBounds {@code [minx, miny, maxx, maxy, z]} inclusive tile range holding the deleted tiles
+     * @param tileCount number of deleted tiles
+     * @param blobSize the sum of the actual blob sizes freed from the blob store's backend storage
+     */
+    default void tilesDeleted(
+            String layerName,
+            String gridSetId,
+            String blobFormat,
+            String parametersId,
+            long[] rangeBounds,
+            long tileCount,
+            long blobSize) {
+        // not interested by default
+    }
+
+    /**
+     * The area the {@link #tilesDeleted tilesDeleted} events sent to this listener shall not straddle, for listeners
+     * accounting for the tiles by area, such as the disk quota pages. The tiles reported in a single event all fall
+     * within the area of the first of them.
+     *
+     * @return {@code [minx, miny, maxx, maxy]} inclusive bounds of the area holding tile {@code x, y, z}, or
+     *     {@code null} if the events may span any area
+     */
+    default long[] tilesDeletedArea(
+            String layerName, String gridSetId, String blobFormat, String parametersId, long x, long y, int z) {
+        return null;
+    }
+
     /** Notifies that the layer named {@code layerName} has been whipped out from the blob store's backend storage. */
     void layerDeleted(String layerName);
 
@@ -77,6 +77,56 @@ public void sendTileDeleted(
         });
     }
 
+    /** Sends a tile deleted event to the listeners not {@link BlobStoreListener#supportsTilesDeleted() aggregating} */
+    void sendTileDeletedToTileListeners(
+            String layerName,
+            String gridSetId,
+            String blobFormat,
+            String parametersId,
+            long x,
+            long y,
+            int z,
+            long length) {
+        listeners.forEach(listener -> {
+            if (!listener.supportsTilesDeleted()) {
+                listener.tileDeleted(layerName, gridSetId, blobFormat, parametersId, x, y, z, length);
+            }
+        });
+    }
+
+    /**
+     * @return the intersection of the {@link BlobStoreListener#tilesDeletedArea areas} of tile {@code x, y, z} for the
+     *     listeners {@link BlobStoreListener#supportsTilesDeleted() aggregating} tile deletions, {@code null} if none
+     *     bounds them
+     */
+    long[] tilesDeletedArea(
+            String layerName, String gridSetId, String blobFormat, String parametersId, long x, long y, int z) {
+        long[] area = null;
+        for (BlobStoreListener listener : listeners) {
+            if (!listener.supportsTilesDeleted()) {
+                continue;
+            }
+            long[] bounds = listener.tilesDeletedArea(layerName, gridSetId, blobFormat, parametersId, x, y, z);
+            if (bounds == null) {
+                continue;
+            }
+            if (area == null) {
+                area = bounds.clone();
+            } else {
+                area[0] = Math.max(area[0], bounds[0]);
+                area[1] = Math.max(area[1], bounds[1]);
+                area[2] = Math.min(area[2], bounds[2]);
+                area[3] = Math.min(area[3], bounds[3]);
+            }
+        }
+        return area;
+    }
+
+    /** @return whether any listener {@link BlobStoreListener#supportsTilesDeleted() aggregates} tile deletions */
+    boolean hasTilesDeletedListeners() {
+        return listeners.stream().anyMatch(BlobStoreListener::supportsTilesDeleted);
+    }
+
     public void sendTileDeleted(final TileObject stObj) {
 
         final long[] xyz = stObj.getXYZ();
@@ -89,6 +139,37 @@ public void sendTileDeleted(final TileObject stObj) {
         sendTileDeleted(layerName, gridSetId, blobFormat, paramsId, xyz[0], xyz[1], (int) xyz[2], blobSize);
     }
 
+    /**
+     * Sends a {@link BlobStoreListener#tilesDeleted tilesDeleted} event to the listeners
+     * {@link BlobStoreListener#supportsTilesDeleted() supporting} it, the other listeners are expected to have been
+     * notified of each tile deletion already.
+     *
+     * @see #newTileDeletionBatch(String, String, String, String)
+     */
+    public void sendTilesDeleted(
+            String layerName,
+            String gridSetId,
+            String blobFormat,
+            String parametersId,
+            long[] rangeBounds,
+            long tileCount,
+            long blobSize) {
+        listeners.forEach(listener -> {
+            if (listener.supportsTilesDeleted()) {
+                listener.tilesDeleted(layerName, gridSetId, blobFormat, parametersId, rangeBounds, tileCount, blobSize);
+            }
+        });
+    }
+
+    /**
+     * Creates a batch to report the deletion of many tiles of the same tile set, notifying each of them to the
+     * listeners that want individual tile events and aggregating them into tile range events for the others.
+     */
+    public TileDeletionBatch newTileDeletionBatch(
+            String layerName, String gridSetId, String blobFormat, String parametersId) {
+        return new TileDeletionBatch(this, layerName, gridSetId, blobFormat, parametersId);
+    }
+
     public void sendTileStored(
             String layerName,
             String gridSetId,
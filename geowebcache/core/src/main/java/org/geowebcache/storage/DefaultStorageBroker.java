@@ -31,11 +31,25 @@ public class DefaultStorageBroker implements StorageBroker {
 
     private TransientCache transientCache;
 
+    private boolean compressTiles = TileCompression.isEnabled();
+
     public DefaultStorageBroker(BlobStore blobStore, TransientCache transientCache) {
         this.blobStore = blobStore;
         this.transientCache = transientCache;
     }
 
+    /**
+     * Sets whether the tiles of the vector formats are compressed before being stored, defaults to the
+     * {@link TileCompression#COMPRESSION_PROPERTY} environment variable
+     */
+    public void setCompressTiles(boolean compressTiles) {
+        this.compressTiles = compressTiles;
+    }
+
+    public boolean isCompressTiles() {
+        return compressTiles;
+    }
+
     @Override
     public void addBlobStoreListener(BlobStoreListener listener) {
         blobStore.addListener(listener);
@@ -84,11 +98,18 @@ public boolean delete(TileRange trObj) throws StorageException {
 
     @Override
     public boolean get(TileObject tileObj) throws StorageException {
-        return blobStore.get(tileObj);
+        if (!blobStore.get(tileObj)) {
+            return false;
+        }
+        TileCompression.detectEncoding(tileObj);
+        return true;
     }
 
     @Override
     public boolean put(TileObject tileObj) throws StorageException {
+        if (compressTiles && TileCompression.isCompressible(tileObj.getBlobFormat())) {
+            TileCompression.compress(tileObj);
+        }
         blobStore.put(tileObj);
         return true;
     }
@@ -116,6 +137,7 @@ public boolean getTransient(TileObject tile) {
             resource = transientCache.get(key);
         }
         tile.setBlob(resource);
+        TileCompression.detectEncoding(tile);
         return resource != null;
     }
 
@@ -0,0 +1,147 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.GeoWebCacheExtensions;
+import org.geowebcache.io.ByteArrayResource;
+import org.geowebcache.io.Resource;
+import org.geowebcache.mime.MimeException;
+import org.geowebcache.mime.MimeType;
+
+/**
+ * Compression of the tiles of the vector formats, such as Mapbox vector tiles, GeoJSON, TopoJSON and UTFGrid, which
+ * shrink well, unlike the already compressed image formats.
+ *
+ * <p>When enabled through the {@link #COMPRESSION_PROPERTY GWC_TILE_COMPRESSION} environment variable, the
+ * {@link DefaultStorageBroker} compresses these tiles before handing them to the blob store, so that they take less
+ * space and can be served as stored to the clients accepting the encoding. The encoding is recognized from the stored
+ * contents, and recorded as the {@link TileObject#getContentEncoding() content encoding} of the retrieved tiles,
+ * hence tiles stored uncompressed, or compressed by other means as in most MBTiles files, are handled alike.
+ */
+public class TileCompression {
+
+    private static Logger log = Logging.getLogger(TileCompression.class.getName());
+
+    /** Environment variable enabling the compression, {@code gzip} or {@code none} */
+    public static final String COMPRESSION_PROPERTY = "GWC_TILE_COMPRESSION";
+
+    /** The gzip content encoding, the only one supported */
+    public static final String GZIP = "gzip";
+
+    private TileCompression() {}
+
+    /** @return whether the {@link #COMPRESSION_PROPERTY} enables compressing the stored tiles */
+    public static boolean isEnabled() {
+        String compression = GeoWebCacheExtensions.getProperty(COMPRESSION_PROPERTY);
+        if (compression == null || "none".equalsIgnoreCase(compression)) {
+            return false;
+        }
+        if (GZIP.equalsIgnoreCase(compression)) {
+            return true;
+        }
+        log.warning("Unsupported " + COMPRESSION_PROPERTY + " '" + compression + "', tiles will not be compressed");
+        return false;
+    }
+
+    /** @return whether tiles of the given format are worth compressing */
+    public static boolean isCompressible(String format) {
+        if (format == null) {
+            return false;
+        }
+        try {
+            return MimeType.createFromFormat(format).isVector();
+        } catch (MimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Compresses the contents of the tile, recording their encoding. The tile gets a new blob, the original one being
+     * left untouched.
+     */
+    public static void compress(TileObject tile) throws StorageException {
+        Resource blob = tile.getBlob();
+        if (blob == null || tile.getContentEncoding() != null) {
+            return;
+        }
+        try {
+            if (isGzipped(blob)) {
+                tile.setContentEncoding(GZIP);
+                return;
+            }
+            ByteArrayResource compressed = new ByteArrayResource((int) Math.max(blob.getSize() / 2, 64));
+            try (InputStream in = blob.getInputStream();
+                    OutputStream out = new GZIPOutputStream(compressed.getOutputStream())) {
+                in.transferTo(out);
+            }
+            tile.setBlob(compressed);
+            tile.setContentEncoding(GZIP);
+        } catch (IOException e) {
+            throw new StorageException("Unable to compress " + tile, e);
+        }
+    }
+
+    /** Records the encoding of the contents of a retrieved tile, {@code null} if not compressed */
+    public static void detectEncoding(TileObject tile) {
+        Resource blob = tile.getBlob();
+        String encoding = null;
+        if (blob != null && isCompressible(tile.getBlobFormat())) {
+            try {
+                if (isGzipped(blob)) {
+                    encoding = GZIP;
+                }
+            } catch (IOException e) {
+                log.log(Level.FINE, "Unable to read the contents of " + tile, e);
+            }
+        }
+        tile.setContentEncoding(encoding);
+    }
+
+    /**
+     * Decodes the contents of a tile
+     *
+     * @param blob the encoded contents
+     * @param encoding the {@link TileObject#getContentEncoding() content encoding}
+     * @return the decoded contents
+     */
+    public static Resource decode(Resource blob, String encoding) throws IOException {
+        if (!GZIP.equals(encoding)) {
+            throw new IOException("Unsupported content encoding " + encoding);
+        }
+        ByteArrayResource decoded = new ByteArrayResource((int) Math.max(blob.getSize() * 4, 64));
+        try (InputStream in = new GZIPInputStream(blob.getInputStream());
+                OutputStream out = decoded.getOutputStream()) {
+            in.transferTo(out);
+        }
+        return decoded;
+    }
+
+    /** Tells gzip streams apart by their magic number, which vector tiles can't start with */
+    static boolean isGzipped(Resource blob) throws IOException {
+        if (blob.getSize() < 2) {
+            return false;
+        }
+        try (InputStream in = blob.getInputStream()) {
+            return in.read() == 0x1f && in.read() == 0x8b;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage;
+
+/**
+ * Reports the deletion of many tiles of a single tile set to a {@link BlobStoreListenerList}.
+ *
+ * <p>Each deleted tile is immediately notified to the listeners wanting individual
+ * {@link BlobStoreListener#tileDeleted tileDeleted} events, and aggregated for the listeners
+ * {@link BlobStoreListener#supportsTilesDeleted() supporting} {@link BlobStoreListener#tilesDeleted tilesDeleted}
+ * events. The aggregated range is sent out when {@link #flush() flushed}, when the zoom level changes, when the next
+ * tile falls out of the {@link BlobStoreListener#tilesDeletedArea area} of the first one, or when growing it to hold
+ * the next tile would make it span more than {@link #MAX_RANGE_SPAN} tiles on either axis, so that each event covers a
+ * compact area. Blob stores are encouraged to flush at natural boundaries, like the end of a directory.
+ *
+ * <p>Instances are not thread safe, blob stores deleting tiles in parallel shall use a batch per thread.
+ *
+ * @see BlobStoreListenerList#newTileDeletionBatch(String, String, String, String)
+ */
+public final class TileDeletionBatch implements AutoCloseable {
+
+    /** Maximum number of tiles a range spans on each axis before being sent out */
+    public static final int MAX_RANGE_SPAN = 64;
+
+    private final BlobStoreListenerList listeners;
+
+    private final String layerName;
+
+    private final String gridSetId;
+
+    private final String blobFormat;
+
+    private final String parametersId;
+
+    private final boolean aggregate;
+
+    private long minX, minY, maxX, maxY;
+
+    /** The area the range shall stay within, {@code null} if unbounded */
+    private long[] area;
+
+    private int z;
+
+    private long tileCount;
+
+    private long blobSize;
+
+    TileDeletionBatch(
+            BlobStoreListenerList listeners,
+            String layerName,
+            String gridSetId,
+            String blobFormat,
+            String parametersId) {
+        this.listeners = listeners;
+        this.layerName = layerName;
+        this.gridSetId = gridSetId;
+        this.blobFormat = blobFormat;
+        this.parametersId = parametersId;
+        this.aggregate = listeners.hasTilesDeletedListeners();
+    }
+
+    /** Reports the deletion of tile {@code x, y, z}, that freed {@code blobSize} bytes */
+    public void tileDeleted(long x, long y, int z, long blobSize) {
+        listeners.sendTileDeletedToTileListeners(layerName, gridSetId, blobFormat, parametersId, x, y, z, blobSize);
+        if (!aggregate) {
+            return;
+        }
+        if (tileCount > 0 && (z != this.z || !fits(x, y))) {
+            flush();
+        }
+        if (tileCount == 0) {
+            area = listeners.tilesDeletedArea(layerName, gridSetId, blobFormat, parametersId, x, y, z);
+            this.z = z;
+            minX = maxX = x;
+            minY = maxY = y;
+        } else {
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+        }
+        tileCount++;
+        this.blobSize += blobSize;
+    }
+
+    private boolean fits(long x, long y) {
+        if (area != null && (x < area[0] || y < area[1] || x > area[2] || y > area[3])) {
+            return false;
+        }
+        return Math.max(maxX, x) - Math.min(minX, x) < MAX_RANGE_SPAN
+                && Math.max(maxY, y) - Math.min(minY, y) < MAX_RANGE_SPAN;
+    }
+
+    /** Sends out the tile deletions aggregated so far, if any */
+    public void flush() {
+        if (tileCount == 0) {
+            return;
+        }
+        long[] rangeBounds = {minX, minY, maxX, maxY, z};
+        listeners.sendTilesDeleted(layerName, gridSetId, blobFormat, parametersId, rangeBounds, tileCount, blobSize);
+        tileCount = 0;
+        blobSize = 0;
+    }
+
+    /** Same as {@link #flush()} */
+    @Override
+    public void close() {
+        flush();
+    }
+}
@@ -41,6 +41,10 @@ public class TileObject extends StorageObject implements Serializable {
 
     String gridSetId;
 
+    String contentId;
+
+    String contentEncoding;
+
     public static TileObject createQueryTileObject(
             String layerName, long[] xyz, String gridSetId, String format, Map<String, String> parameters) {
         TileObject obj = new TileObject();
@@ -96,6 +100,35 @@ public void setBlob(Resource blob) {
         this.blob = blob;
     }
 
+    /**
+     * Identifies the contents of tiles known to be the very same, such as the
+     * {@link org.geowebcache.layer.UniformTiles single color} ones, so that blob stores may store them by reference to
+     * a single blob.
+     *
+     * @return the content identifier, usable as a file name, or {@code null} if unknown
+     */
+    public String getContentId() {
+        return contentId;
+    }
+
+    public void setContentId(String contentId) {
+        this.contentId = contentId;
+    }
+
+    /**
+     * The encoding of the {@link #getBlob() contents}, if compressed, such as {@link TileCompression#GZIP gzip}. Set
+     * by the {@link StorageBroker} when storing or retrieving the tile.
+     *
+     * @return the content encoding, or {@code null} if the contents are not compressed
+     */
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    public void setContentEncoding(String contentEncoding) {
+        this.contentEncoding = contentEncoding;
+    }
+
     public String getGridSetId() {
         return this.gridSetId;
     }
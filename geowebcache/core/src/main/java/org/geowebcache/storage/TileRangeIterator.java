@@ -14,6 +14,7 @@
 package org.geowebcache.storage;
 
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
 
 public class TileRangeIterator {
 
@@ -21,9 +22,8 @@ public class TileRangeIterator {
 
     private final DiscontinuousTileRange dtr;
 
-    private final int metaX;
-
-    private final int metaY;
+    /** The {x,y} metatiling factors of each zoom level of the range, starting from the zoom start */
+    private final int[][] metaFactors;
 
     private AtomicLong tilesSkippedCount = new AtomicLong();
 
@@ -33,9 +33,20 @@ public class TileRangeIterator {
 
     /** Note that the bounds of the tile range must already be expanded to the meta tile factors for this to work. */
     public TileRangeIterator(TileRange tr, int[] metaTilingFactors) {
+        this(tr, z -> metaTilingFactors);
+    }
+
+    /**
+     * Creates an iterator using the metatiling factors of each zoom level, the bounds of each level of the tile range
+     * must already be expanded to the meta tile factors of that level.
+     */
+    public TileRangeIterator(TileRange tr, IntFunction<int[]> metaTilingFactors) {
         this.tr = tr;
-        this.metaX = metaTilingFactors[0];
-        this.metaY = metaTilingFactors[1];
+        int zoomStart = tr.getZoomStart();
+        this.metaFactors = new int[Math.max(0, tr.getZoomStop() - zoomStart + 1)][];
+        for (int i = 0; i < metaFactors.length; i++) {
+            metaFactors[i] = metaTilingFactors.apply(zoomStart + i);
+        }
 
         if (tr instanceof DiscontinuousTileRange) {
             dtr = (DiscontinuousTileRange) tr;
@@ -76,12 +87,14 @@ public synchronized long[] nextMetaGridLocation(final long[] gridLoc) {
         } else {
             z = (int) lastGridLoc[2];
             levelBounds = tr.rangeBounds(z);
-            x = lastGridLoc[0] + metaX;
+            x = lastGridLoc[0] + metaX(z);
             y = lastGridLoc[1];
         }
 
         // Loop over any remaining zoom levels
         for (; z <= tr.getZoomStop(); z++) {
+            final int metaX = metaX(z);
+            final int metaY = metaY(z);
             for (; y <= levelBounds[3]; y += metaY) {
                 for (; x <= levelBounds[2]; x += metaX) {
 
@@ -113,15 +126,23 @@ public synchronized long[] nextMetaGridLocation(final long[] gridLoc) {
         return null;
     }
 
+    private int metaX(int z) {
+        return metaFactors[z - tr.getZoomStart()][0];
+    }
+
+    private int metaY(int z) {
+        return metaFactors[z - tr.getZoomStart()][1];
+    }
+
     /** Calculates the number of tiles covered by the meta tile for this grid location. */
-    private int tilesForLocation(long x, long y, long[] levelBounds) {
+    private int tilesForLocation(long x, long y, int z, long[] levelBounds) {
         long boundsMaxX = levelBounds[2];
         long boundsMaxY = levelBounds[3];
-        return (int) Math.min(metaX, 1 + (boundsMaxX - x)) * (int) Math.min(metaY, 1 + (boundsMaxY - y));
+        return (int) Math.min(metaX(z), 1 + (boundsMaxX - x)) * (int) Math.min(metaY(z), 1 + (boundsMaxY - y));
     }
 
     private int tilesForLocation(long[] gridLoc, long[] levelBounds) {
-        return tilesForLocation(gridLoc[0], gridLoc[1], levelBounds);
+        return tilesForLocation(gridLoc[0], gridLoc[1], (int) gridLoc[2], levelBounds);
     }
 
     /**
@@ -134,8 +155,10 @@ private boolean checkGridLocation(long[] gridLoc) {
         } else {
             long[] subIdx = new long[3];
             subIdx[2] = gridLoc[2];
-            for (int i = 0; i < this.metaX; i++) {
-                for (int j = 0; j < this.metaY; j++) {
+            final int metaX = metaX((int) gridLoc[2]);
+            final int metaY = metaY((int) gridLoc[2]);
+            for (int i = 0; i < metaX; i++) {
+                for (int j = 0; j < metaY; j++) {
                     subIdx[0] = gridLoc[0] + i;
                     subIdx[1] = gridLoc[1] + j;
                     if (dtr.contains(subIdx)) {
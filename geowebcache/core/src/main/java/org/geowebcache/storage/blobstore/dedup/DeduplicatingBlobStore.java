@@ -0,0 +1,765 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage.blobstore.dedup;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.config.ConfigurationException;
+import org.geowebcache.filter.parameters.ParametersUtils;
+import org.geowebcache.io.ByteArrayResource;
+import org.geowebcache.io.Resource;
+import org.geowebcache.storage.BlobStore;
+import org.geowebcache.storage.BlobStoreListener;
+import org.geowebcache.storage.BlobStoreListenerList;
+import org.geowebcache.storage.DefaultStorageFinder;
+import org.geowebcache.storage.StorageException;
+import org.geowebcache.storage.TileDeletionBatch;
+import org.geowebcache.storage.TileObject;
+import org.geowebcache.storage.TileRange;
+import org.geowebcache.storage.blobstore.dedup.LayerIndex.Payload;
+import org.geowebcache.storage.blobstore.file.FilePathUtils;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link BlobStore} wrapping another one, and storing the tiles with the very same contents only once, as is the case
+ * of the many empty, single color or repeated pattern tiles of most layers.
+ *
+ * <p>Each tile is hashed, and its contents stored as a payload in the wrapped store unless a payload with the same hash
+ * already exists for the layer, format and parameters of the tile. Payloads are stored as tiles of the same layer, in
+ * the reserved {@link #PAYLOAD_GRIDSET} gridset, so that any store laying out tiles by layer, gridset and tile index
+ * can hold them, such as the file and MBTiles stores. The tiles are mapped to their payloads by a compact
+ * {@link TileIndex primitive table} per tile set, kept in memory and written out to the index directory every
+ * {@link #setFlushInterval(int) flush interval} and on {@link #destroy()}. Payloads count the tiles referencing them,
+ * and are deleted as soon as no tile does, while those left unreferenced by an unclean shutdown are swept the first
+ * time their layer is used.
+ *
+ * <p>Tiles the index can't hold, with zoom levels beyond 31 or coordinates beyond 2<sup>29</sup>, are stored in the
+ * wrapped store as they are, and tiles missing from the index are looked up there too, so that tiles cached before
+ * deduplication was enabled keep being served. Those copies are deleted as the tiles are stored again or deleted.
+ *
+ * <p>Listeners are notified of the tiles as stored, deleted and updated, sized as if each tile was stored on its own,
+ * but not of the payloads. The deduplication ratio of each layer is reported by {@link #getStatistics(String)}.
+ */
+public class DeduplicatingBlobStore implements BlobStore {
+
+    private static final Logger LOGGER = Logging.getLogger(DeduplicatingBlobStore.class.getName());
+
+    /** The gridset the payloads are stored under in the wrapped store */
+    public static final String PAYLOAD_GRIDSET = "_gwc_payloads_";
+
+    /** The default index directory, relative to the cache directory */
+    public static final String INDEX_DIRECTORY = "_gwc_dedup_index_";
+
+    /** The zoom level the payloads are stored at, their identifiers spread over the columns and rows */
+    static final int PAYLOAD_ZOOM = 20;
+
+    static final int DEFAULT_FLUSH_INTERVAL = 60;
+
+    private final File indexDirectory;
+
+    private BlobStore store;
+
+    private final BlobStoreListenerList listeners = new BlobStoreListenerList();
+
+    /** Set while deleting the copy of a tile being stored, whose deletion is not passed on to the listeners */
+    private final ThreadLocal<Boolean> replacingCopy = new ThreadLocal<>();
+
+    /** The indexes of the layers used so far, guarded by itself */
+    private final Map<String, LayerIndex> layers = new HashMap<>();
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat("GWC Deduplication Index Flusher")
+                    .build());
+
+    private ScheduledFuture<?> flushTask;
+
+    /** Keeps the index in the {@link #INDEX_DIRECTORY} of the cache directory */
+    public DeduplicatingBlobStore(DefaultStorageFinder storageFinder) throws ConfigurationException {
+        this(new File(storageFinder.getDefaultPath(), INDEX_DIRECTORY));
+    }
+
+    /** @param indexDirectory the directory to keep the index in, exclusively */
+    public DeduplicatingBlobStore(File indexDirectory) {
+        Assert.notNull(indexDirectory, "indexDirectory shall not be null");
+        this.indexDirectory = indexDirectory;
+        setFlushInterval(DEFAULT_FLUSH_INTERVAL);
+    }
+
+    /** Sets the wrapped store, holding both the payloads and the tiles the index can't hold */
+    public void setStore(BlobStore store) {
+        Assert.notNull(store, "store shall not be null");
+        Assert.isNull(this.store, "store already set");
+        this.store = store;
+        store.addListener(new TileEventForwarder());
+    }
+
+    /** @return the wrapped store */
+    public BlobStore getStore() {
+        return store;
+    }
+
+    /**
+     * Sets how often the modified tile indexes are written out. Tiles stored or deleted since the last write may be
+     * lost, or revert to their previous contents, after an unclean shutdown.
+     *
+     * @param seconds the flush interval in seconds, {@code 0} to write the indexes only on {@link #destroy()}
+     */
+    public synchronized void setFlushInterval(int seconds) {
+        Assert.isTrue(seconds >= 0, "the flush interval shall not be negative");
+        if (flushTask != null) {
+            flushTask.cancel(false);
+            flushTask = null;
+        }
+        if (seconds > 0) {
+            flushTask = flusher.scheduleWithFixedDelay(this::flushQuietly, seconds, seconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /** Writes out the modified tile indexes, logging the deduplication ratio of their layers */
+    public void flush() throws StorageException {
+        Map<String, LayerIndex> loaded;
+        synchronized (layers) {
+            loaded = new HashMap<>(layers);
+        }
+        for (Map.Entry<String, LayerIndex> entry : loaded.entrySet()) {
+            LayerIndex layer = entry.getValue();
+            synchronized (layer) {
+                try {
+                    if (layer.flush() && LOGGER.isLoggable(Level.INFO)) {
+                        LOGGER.info("Layer " + entry.getKey() + ": " + statistics(layer));
+                    }
+                } catch (IOException e) {
+                    throw new StorageException("Failed to write the deduplication index in " + layer.directory, e);
+                }
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (StorageException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to write the deduplication index", e);
+        }
+    }
+
+    /**
+     * Reports how well the tiles of a layer are deduplicated
+     *
+     * @return the statistics, all zero if the layer has no deduplicated tiles
+     */
+    public DeduplicationStatistics getStatistics(String layerName) throws StorageException {
+        LayerIndex layer = layer(layerName, false);
+        if (layer == null) {
+            return new DeduplicationStatistics(0, 0, 0, 0);
+        }
+        synchronized (layer) {
+            return statistics(layer);
+        }
+    }
+
+    private static DeduplicationStatistics statistics(LayerIndex layer) {
+        long tiles = 0;
+        for (TileIndex tileSet : layer.tileSets()) {
+            tiles += tileSet.size();
+        }
+        long tilesSize = 0;
+        long payloadsSize = 0;
+        for (Payload payload : layer.payloads()) {
+            tilesSize += payload.size * payload.references;
+            payloadsSize += payload.size;
+        }
+        return new DeduplicationStatistics(tiles, tilesSize, layer.payloads().size(), payloadsSize);
+    }
+
+    private File layerDirectory(String layerName) {
+        return new File(indexDirectory, FilePathUtils.filteredLayerName(layerName));
+    }
+
+    /**
+     * Gets the index of a layer, loading it on first use
+     *
+     * @param create whether to create the index of a layer that has none
+     * @return the index, or {@code null} if the layer has none and {@code create} is {@code false}
+     */
+    private LayerIndex layer(String layerName, boolean create) throws StorageException {
+        synchronized (layers) {
+            LayerIndex layer = layers.get(layerName);
+            if (layer != null) {
+                return layer;
+            }
+            File directory = layerDirectory(layerName);
+            try {
+                if (directory.exists()) {
+                    layer = LayerIndex.load(directory);
+                    for (Payload payload : layer.sweep()) {
+                        deletePayload(layerName, payload);
+                    }
+                } else if (create) {
+                    layer = LayerIndex.create(directory);
+                } else {
+                    return null;
+                }
+            } catch (IOException e) {
+                throw new StorageException("Failed to load the deduplication index in " + directory, e);
+            }
+            layers.put(layerName, layer);
+            return layer;
+        }
+    }
+
+    /** Drops the index of a layer from memory, leaving its files as they are once written out */
+    private LayerIndex unload(String layerName, boolean flush) throws StorageException {
+        LayerIndex layer;
+        synchronized (layers) {
+            layer = layers.remove(layerName);
+        }
+        if (layer != null) {
+            synchronized (layer) {
+                try {
+                    if (flush) {
+                        layer.flush();
+                    }
+                    layer.close();
+                } catch (IOException e) {
+                    throw new StorageException("Failed to write the deduplication index in " + layer.directory, e);
+                }
+            }
+        }
+        return layer;
+    }
+
+    private static String parametersId(TileObject tile) {
+        String parametersId = tile.getParametersId();
+        Map<String, String> parameters = tile.getParameters();
+        if (parametersId == null && parameters != null && !parameters.isEmpty()) {
+            parametersId = ParametersUtils.getId(parameters);
+            tile.setParametersId(parametersId);
+        }
+        return parametersId;
+    }
+
+    private static String parametersId(TileRange range) {
+        String parametersId = range.getParametersId();
+        Map<String, String> parameters = range.getParameters();
+        if (parametersId == null && parameters != null && !parameters.isEmpty()) {
+            parametersId = ParametersUtils.getId(parameters);
+        }
+        return parametersId;
+    }
+
+    /** @return the tile holding a payload in the wrapped store */
+    static TileObject payloadTile(
+            String layerName, Payload payload, Map<String, String> parameters, Resource contents) {
+        long[] xyz = {payload.id & ((1 << PAYLOAD_ZOOM) - 1), payload.id >>> PAYLOAD_ZOOM, PAYLOAD_ZOOM};
+        TileObject tile = TileObject.createCompleteTileObject(
+                layerName, xyz, PAYLOAD_GRIDSET, payload.format, parameters, contents);
+        tile.setParametersId(payload.parametersId);
+        return tile;
+    }
+
+    private void deletePayload(String layerName, Payload payload) {
+        try {
+            store.delete(payloadTile(layerName, payload, null, null));
+        } catch (StorageException e) {
+            LOGGER.log(Level.WARNING, "Failed to delete payload " + payload.id + " of layer " + layerName, e);
+        }
+    }
+
+    private static byte[] contents(Resource blob) throws StorageException {
+        if (blob instanceof ByteArrayResource) {
+            byte[] contents = ((ByteArrayResource) blob).getContents();
+            return contents == null ? new byte[0] : contents;
+        }
+        try (InputStream in = blob.getInputStream()) {
+            return IOUtils.toByteArray(in);
+        } catch (IOException e) {
+            throw new StorageException("Failed to read the tile contents", e);
+        }
+    }
+
+    private static boolean isIndexable(long[] xyz) {
+        return TileIndex.isIndexable(xyz[0], xyz[1], (int) xyz[2]);
+    }
+
+    private static long key(long[] xyz) {
+        return TileIndex.key(xyz[0], xyz[1], (int) xyz[2]);
+    }
+
+    @Override
+    public void put(TileObject obj) throws StorageException {
+        final long[] xyz = obj.getXYZ();
+        if (!isIndexable(xyz)) {
+            store.put(obj);
+            return;
+        }
+        final String layerName = obj.getLayerName();
+        final String format = obj.getBlobFormat();
+        final String parametersId = parametersId(obj);
+        final byte[] contents = contents(obj.getBlob());
+        final HashCode hash = Hashing.sha256().hashBytes(contents);
+        final long key = key(xyz);
+
+        LayerIndex layer = layer(layerName, true);
+        Payload payload;
+        Payload previous = null;
+        Payload released = null;
+        synchronized (layer) {
+            try {
+                payload = layer.reference(format, parametersId, hash, contents.length);
+                TileIndex tileSet = layer.tileSet(obj.getGridSetId(), format, parametersId, true);
+                int previousId = tileSet.put(key, payload.id, System.currentTimeMillis());
+                if (previousId != TileIndex.MISSING) {
+                    previous = layer.payload(previousId);
+                    released = layer.release(previousId);
+                }
+            } catch (IOException e) {
+                throw new StorageException("Failed to update the deduplication index of " + layerName, e);
+            }
+        }
+        if (!payload.stored) {
+            // also rewritten if known missing, or not yet stored by a concurrent put of the same contents
+            try {
+                store.put(payloadTile(layerName, payload, obj.getParameters(), new ByteArrayResource(contents)));
+            } catch (StorageException | RuntimeException e) {
+                removeFailedTile(layer, obj, key, payload);
+                throw e;
+            }
+            payload.stored = true;
+        }
+        if (released != null) {
+            deletePayload(layerName, released);
+        }
+        // a tile not indexed yet may still have a copy stored before deduplication was enabled
+        long copySize = previous == null ? deleteCopy(obj) : -1;
+        obj.setBlobSize(contents.length);
+        if (previous != null) {
+            listeners.sendTileUpdated(obj, previous.size);
+        } else if (copySize >= 0) {
+            listeners.sendTileUpdated(obj, copySize);
+        } else {
+            listeners.sendTileStored(obj);
+        }
+    }
+
+    /**
+     * Deletes the copy of the tile held by the wrapped store, if any, without passing its deletion on, the listeners
+     * being told about the tile being updated instead
+     *
+     * @return the size of the deleted copy, or -1 if there was none
+     */
+    private long deleteCopy(TileObject obj) throws StorageException {
+        TileObject copy = TileObject.createQueryTileObject(
+                obj.getLayerName(), obj.getXYZ(), obj.getGridSetId(), obj.getBlobFormat(), obj.getParameters());
+        copy.setParametersId(obj.getParametersId());
+        replacingCopy.set(Boolean.TRUE);
+        try {
+            return store.delete(copy) ? copy.getBlobSize() : -1;
+        } finally {
+            replacingCopy.remove();
+        }
+    }
+
+    /** Drops a tile whose payload failed to be stored */
+    private void removeFailedTile(LayerIndex layer, TileObject obj, long key, Payload payload) {
+        synchronized (layer) {
+            TileIndex tileSet = layer.tileSet(obj.getGridSetId(), obj.getBlobFormat(), obj.getParametersId(), false);
+            if (tileSet != null && tileSet.get(key) == payload.id) {
+                tileSet.remove(key);
+                try {
+                    layer.release(payload.id);
+                } catch (IOException e) {
+                    LOGGER.log(Level.FINE, "Failed to release payload " + payload.id, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean get(TileObject obj) throws StorageException {
+        final long[] xyz = obj.getXYZ();
+        LayerIndex layer = isIndexable(xyz) ? layer(obj.getLayerName(), false) : null;
+        if (layer != null) {
+            final long key = key(xyz);
+            Payload payload = null;
+            long created = -1;
+            synchronized (layer) {
+                TileIndex tileSet = layer.tileSet(obj.getGridSetId(), obj.getBlobFormat(), parametersId(obj), false);
+                if (tileSet != null) {
+                    int id = tileSet.get(key);
+                    if (id != TileIndex.MISSING) {
+                        payload = layer.payload(id);
+                        created = tileSet.created(key);
+                    }
+                }
+            }
+            if (payload != null) {
+                TileObject payloadTile = payloadTile(obj.getLayerName(), payload, null, null);
+                if (!store.get(payloadTile)) {
+                    // lost, have the next put of the same contents store it again
+                    payload.stored = false;
+                    return false;
+                }
+                obj.setBlob(payloadTile.getBlob());
+                obj.setCreated(created);
+                return true;
+            }
+        }
+        return store.get(obj);
+    }
+
+    @Override
+    public boolean delete(TileObject obj) throws StorageException {
+        final long[] xyz = obj.getXYZ();
+        LayerIndex layer = isIndexable(xyz) ? layer(obj.getLayerName(), false) : null;
+        if (layer != null) {
+            Payload payload = null;
+            Payload released = null;
+            synchronized (layer) {
+                TileIndex tileSet = layer.tileSet(obj.getGridSetId(), obj.getBlobFormat(), parametersId(obj), false);
+                int id = tileSet == null ? TileIndex.MISSING : tileSet.remove(key(xyz));
+                if (id != TileIndex.MISSING) {
+                    payload = layer.payload(id);
+                    try {
+                        released = layer.release(id);
+                    } catch (IOException e) {
+                        throw new StorageException("Failed to update the deduplication index", e);
+                    }
+                }
+            }
+            if (payload != null) {
+                if (released != null) {
+                    deletePayload(obj.getLayerName(), released);
+                }
+                // along with any copy stored before deduplication was enabled, not to serve it again
+                store.delete(obj);
+                obj.setBlobSize((int) payload.size);
+                listeners.sendTileDeleted(obj);
+                return true;
+            }
+        }
+        return store.delete(obj);
+    }
+
+    @Override
+    public boolean delete(TileRange range) throws StorageException {
+        final String layerName = range.getLayerName();
+        final String gridSetId = range.getGridSetId();
+        final String format = range.getMimeType().getFormat();
+        final String parametersId = parametersId(range);
+        LayerIndex layer = layer(layerName, false);
+        boolean deleted = false;
+        if (layer != null) {
+            List<long[]> tiles = new ArrayList<>();
+            List<Payload> released = new ArrayList<>();
+            synchronized (layer) {
+                TileIndex tileSet = layer.tileSet(gridSetId, format, parametersId, false);
+                if (tileSet != null) {
+                    try {
+                        tileSet.removeIf(
+                                key -> {
+                                    int z = TileIndex.z(key);
+                                    return z >= range.getZoomStart()
+                                            && z <= range.getZoomStop()
+                                            && range.contains(TileIndex.x(key), TileIndex.y(key), z);
+                                },
+                                (key, id) -> {
+                                    Payload payload = layer.payload(id);
+                                    tiles.add(new long[] {
+                                        TileIndex.x(key), TileIndex.y(key), TileIndex.z(key), payload.size
+                                    });
+                                    Payload unreferenced = layer.release(id);
+                                    if (unreferenced != null) {
+                                        released.add(unreferenced);
+                                    }
+                                });
+                    } catch (IOException e) {
+                        throw new StorageException("Failed to update the deduplication index of " + layerName, e);
+                    }
+                }
+            }
+            for (Payload payload : released) {
+                deletePayload(layerName, payload);
+            }
+            try (TileDeletionBatch batch =
+                    listeners.newTileDeletionBatch(layerName, gridSetId, format, parametersId)) {
+                for (long[] tile : tiles) {
+                    batch.tileDeleted(tile[0], tile[1], (int) tile[2], tile[3]);
+                }
+            }
+            deleted = !tiles.isEmpty();
+        }
+        // tiles stored before deduplication was enabled, or out of the index range
+        return store.delete(range) || deleted;
+    }
+
+    /**
+     * Removes the tile sets matching the predicate from the index of a layer, and their payloads if no longer used
+     *
+     * @param deletePayloads whether to delete the released payloads from the wrapped store
+     * @return whether any tile set was removed
+     */
+    private boolean deleteTileSets(String layerName, Predicate<TileIndex> predicate, boolean deletePayloads)
+            throws StorageException {
+        LayerIndex layer = layer(layerName, false);
+        if (layer == null) {
+            return false;
+        }
+        List<Payload> released = new ArrayList<>();
+        List<TileIndex> removed;
+        synchronized (layer) {
+            try {
+                removed = layer.removeTileSets(predicate);
+                for (TileIndex tileSet : removed) {
+                    tileSet.forEach((key, id) -> {
+                        Payload unreferenced = layer.release(id);
+                        if (unreferenced != null) {
+                            released.add(unreferenced);
+                        }
+                    });
+                }
+            } catch (IOException e) {
+                throw new StorageException("Failed to update the deduplication index of " + layerName, e);
+            }
+        }
+        if (deletePayloads) {
+            for (Payload payload : released) {
+                deletePayload(layerName, payload);
+            }
+        }
+        return !removed.isEmpty();
+    }
+
+    @Override
+    public boolean deleteByGridsetId(String layerName, String gridSetId) throws StorageException {
+        boolean deleted = deleteTileSets(layerName, tileSet -> tileSet.gridSetId.equals(gridSetId), true);
+        deleted |= store.deleteByGridsetId(layerName, gridSetId);
+        if (deleted) {
+            listeners.sendGridSubsetDeleted(layerName, gridSetId);
+        }
+        return deleted;
+    }
+
+    @Override
+    public boolean deleteByParametersId(String layerName, String parametersId) throws StorageException {
+        // the payloads have the parameters of their tiles, the wrapped store deletes them along with the others
+        boolean deleted = deleteTileSets(layerName, tileSet -> parametersId.equals(tileSet.parametersId), false);
+        deleted |= store.deleteByParametersId(layerName, parametersId);
+        if (deleted) {
+            listeners.sendParametersDeleted(layerName, parametersId);
+        }
+        return deleted;
+    }
+
+    @Override
+    public boolean delete(String layerName) throws StorageException {
+        boolean deleted = unload(layerName, false) != null;
+        File directory = layerDirectory(layerName);
+        if (directory.exists()) {
+            deleted = true;
+            try {
+                FileUtils.deleteDirectory(directory);
+            } catch (IOException e) {
+                throw new StorageException("Failed to delete the deduplication index in " + directory, e);
+            }
+        }
+        deleted |= store.delete(layerName);
+        if (deleted) {
+            listeners.sendLayerDeleted(layerName);
+        }
+        return deleted;
+    }
+
+    @Override
+    public boolean rename(String oldLayerName, String newLayerName) throws StorageException {
+        unload(oldLayerName, true);
+        boolean renamed = store.rename(oldLayerName, newLayerName);
+        File oldDirectory = layerDirectory(oldLayerName);
+        if (renamed && oldDirectory.exists()) {
+            File newDirectory = layerDirectory(newLayerName);
+            try {
+                unload(newLayerName, false);
+                if (newDirectory.exists()) {
+                    FileUtils.deleteDirectory(newDirectory);
+                }
+                Files.move(oldDirectory.toPath(), newDirectory.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new StorageException("Failed to move the deduplication index to " + newDirectory, e);
+            }
+        }
+        if (renamed) {
+            listeners.sendLayerRenamed(oldLayerName, newLayerName);
+        }
+        return renamed;
+    }
+
+    @Override
+    public void clear() throws StorageException {
+        synchronized (layers) {
+            for (String layerName : new ArrayList<>(layers.keySet())) {
+                unload(layerName, false);
+            }
+            try {
+                FileUtils.deleteDirectory(indexDirectory);
+            } catch (IOException e) {
+                throw new StorageException("Failed to delete the deduplication index in " + indexDirectory, e);
+            }
+        }
+        store.clear();
+    }
+
+    @Override
+    public void destroy() {
+        flusher.shutdownNow();
+        synchronized (layers) {
+            for (String layerName : new ArrayList<>(layers.keySet())) {
+                try {
+                    unload(layerName, true);
+                } catch (StorageException e) {
+                    LOGGER.log(Level.WARNING, "Failed to write the deduplication index of " + layerName, e);
+                }
+            }
+        }
+        store.destroy();
+    }
+
+    @Override
+    public void addListener(BlobStoreListener listener) {
+        listeners.addListener(listener);
+    }
+
+    @Override
+    public boolean removeListener(BlobStoreListener listener) {
+        return listeners.removeListener(listener);
+    }
+
+    @Override
+    public String getLayerMetadata(String layerName, String key) {
+        return store.getLayerMetadata(layerName, key);
+    }
+
+    @Override
+    public void putLayerMetadata(String layerName, String key, String value) {
+        store.putLayerMetadata(layerName, key, value);
+    }
+
+    @Override
+    public boolean layerExists(String layerName) {
+        return layerDirectory(layerName).exists() || store.layerExists(layerName);
+    }
+
+    @Override
+    public Set<Map<String, String>> getParameters(String layerName) throws StorageException {
+        return store.getParameters(layerName);
+    }
+
+    @Override
+    public Set<String> getParameterIds(String layerName) throws StorageException {
+        return store.getParameterIds(layerName);
+    }
+
+    @Override
+    public Map<String, Optional<Map<String, String>>> getParametersMapping(String layerName) {
+        return store.getParametersMapping(layerName);
+    }
+
+    /**
+     * Passes on the events of the tiles the wrapped store holds as they are, but not those of the payloads, nor those
+     * of layers, gridsets and parameters, sent once the index is updated too.
+     */
+    private class TileEventForwarder implements BlobStoreListener {
+
+        @Override
+        public void tileStored(
+                String layerName,
+                String gridSetId,
+                String blobFormat,
+                String parametersId,
+                long x,
+                long y,
+                int z,
+                long blobSize) {
+            if (!PAYLOAD_GRIDSET.equals(gridSetId)) {
+                listeners.sendTileStored(layerName, gridSetId, blobFormat, parametersId, x, y, z, blobSize);
+            }
+        }
+
+        @Override
+        public void tileDeleted(
+                String layerName,
+                String gridSetId,
+                String blobFormat,
+                String parametersId,
+                long x,
+                long y,
+                int z,
+                long blobSize) {
+            if (!PAYLOAD_GRIDSET.equals(gridSetId) && replacingCopy.get() == null) {
+                listeners.sendTileDeleted(layerName, gridSetId, blobFormat, parametersId, x, y, z, blobSize);
+            }
+        }
+
+        @Override
+        public void tileUpdated(
+                String layerName,
+                String gridSetId,
+                String blobFormat,
+                String parametersId,
+                long x,
+                long y,
+                int z,
+                long blobSize,
+                long oldSize) {
+            if (!PAYLOAD_GRIDSET.equals(gridSetId)) {
+                listeners.sendTileUpdated(layerName, gridSetId, blobFormat, parametersId, x, y, z, blobSize, oldSize);
+            }
+        }
+
+        @Override
+        public void layerDeleted(String layerName) {}
+
+        @Override
+        public void layerRenamed(String oldLayerName, String newLayerName) {}
+
+        @Override
+        public void gridSubsetDeleted(String layerName, String gridSetId) {}
+
+        @Override
+        public void parametersDeleted(String layerName, String parametersId) {}
+    }
+}
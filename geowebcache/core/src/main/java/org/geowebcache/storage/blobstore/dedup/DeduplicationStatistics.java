@@ -0,0 +1,65 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage.blobstore.dedup;
+
+/** Deduplication statistics of a layer, see {@link DeduplicatingBlobStore#getStatistics(String)} */
+public class DeduplicationStatistics {
+
+    private final long tiles;
+
+    private final long tilesSize;
+
+    private final long payloads;
+
+    private final long payloadsSize;
+
+    public DeduplicationStatistics(long tiles, long tilesSize, long payloads, long payloadsSize) {
+        this.tiles = tiles;
+        this.tilesSize = tilesSize;
+        this.payloads = payloads;
+        this.payloadsSize = payloadsSize;
+    }
+
+    /** @return the number of deduplicated tiles */
+    public long getTiles() {
+        return tiles;
+    }
+
+    /** @return the total size of the deduplicated tiles, as if each was stored on its own */
+    public long getTilesSize() {
+        return tilesSize;
+    }
+
+    /** @return the number of unique tile contents actually stored */
+    public long getPayloads() {
+        return payloads;
+    }
+
+    /** @return the total size of the unique tile contents actually stored */
+    public long getPayloadsSize() {
+        return payloadsSize;
+    }
+
+    /** @return the ratio between the size of the tiles and the size actually stored, {@code 1} if nothing is stored */
+    public double getRatio() {
+        return payloadsSize == 0 ? 1 : tilesSize / (double) payloadsSize;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "%d tiles, %d bytes, stored as %d payloads, %d bytes, deduplication ratio %.2f",
+                tiles, tilesSize, payloads, payloadsSize, getRatio());
+    }
+}
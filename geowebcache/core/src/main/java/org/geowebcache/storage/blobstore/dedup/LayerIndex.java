@@ -0,0 +1,411 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage.blobstore.dedup;
+
+import com.google.common.hash.HashCode;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.geotools.util.logging.Logging;
+
+/**
+ * The deduplication index of a layer: the {@link TileIndex tile indexes} of its tile sets, and the payloads their tiles
+ * reference, each counting the tiles referencing it.
+ *
+ * <p>The payloads are recorded in an append only log as they are created and released, while the tile indexes are
+ * written out as a whole on {@link #flush()}. An index found out of date on {@link #load(File)}, after an unclean
+ * shutdown, only loses the latest tiles, as payloads no tile references are swept, and tiles referencing unknown
+ * payloads are dropped. Not thread safe, callers synchronize on the instance.
+ */
+final class LayerIndex {
+
+    private static final Logger LOGGER = Logging.getLogger(LayerIndex.class.getName());
+
+    static final String PAYLOAD_LOG = "payloads.log";
+
+    static final String TILES_PREFIX = "tiles_";
+
+    static final String TILES_SUFFIX = ".idx";
+
+    private static final byte PAYLOAD_ADDED = 1;
+
+    private static final byte PAYLOAD_RELEASED = 2;
+
+    /** The log is compacted once it holds this many records more than twice the live payloads */
+    private static final int COMPACTION_SLACK = 4096;
+
+    /** A unique tile content, stored once in the wrapped store */
+    static final class Payload {
+
+        final int id;
+
+        final String format;
+
+        final String parametersId;
+
+        final HashCode hash;
+
+        final long size;
+
+        int references;
+
+        /** Whether the payload is known to be in the wrapped store */
+        volatile boolean stored;
+
+        Payload(int id, String format, String parametersId, HashCode hash, long size) {
+            this.id = id;
+            this.format = format;
+            this.parametersId = parametersId;
+            this.hash = hash;
+            this.size = size;
+        }
+
+        boolean sameContents(String format, String parametersId, HashCode hash) {
+            return this.hash.equals(hash)
+                    && this.format.equals(format)
+                    && Objects.equals(this.parametersId, parametersId);
+        }
+    }
+
+    final File directory;
+
+    private final Map<File, TileIndex> tileSets = new LinkedHashMap<>();
+
+    private final Map<Integer, Payload> payloads = new HashMap<>();
+
+    /** Payloads by hash, colliding hashes of different formats or parameters chained in lists */
+    private final Map<HashCode, Object> payloadsByHash = new HashMap<>();
+
+    private int nextPayloadId;
+
+    private int nextTileSetId;
+
+    private DataOutputStream log;
+
+    private int logRecords;
+
+    private LayerIndex(File directory) {
+        this.directory = directory;
+    }
+
+    /** Creates the index of a layer without any */
+    static LayerIndex create(File directory) throws IOException {
+        Files.createDirectories(directory.toPath());
+        LayerIndex index = new LayerIndex(directory);
+        index.compact();
+        return index;
+    }
+
+    /**
+     * Loads the index of a layer, counting the references to each payload
+     *
+     * @see #sweep()
+     */
+    static LayerIndex load(File directory) throws IOException {
+        LayerIndex index = new LayerIndex(directory);
+        File logFile = new File(directory, PAYLOAD_LOG);
+        if (logFile.exists()) {
+            index.readLog(logFile);
+        }
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(TILES_PREFIX) && name.endsWith(TILES_SUFFIX));
+        for (File file : files == null ? new File[0] : files) {
+            String name = file.getName();
+            try {
+                int id = Integer.parseInt(name.substring(TILES_PREFIX.length(), name.length() - TILES_SUFFIX.length()));
+                index.nextTileSetId = Math.max(index.nextTileSetId, id + 1);
+                index.tileSets.put(file, TileIndex.read(file));
+            } catch (NumberFormatException | IOException e) {
+                LOGGER.log(Level.WARNING, "Dropping unreadable tile index " + file, e);
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+        for (TileIndex tileSet : index.tileSets.values()) {
+            tileSet.removeIf(key -> !index.payloads.containsKey(tileSet.get(key)), (key, id) -> {});
+            tileSet.forEach((key, id) -> index.payloads.get(id).references++);
+        }
+        index.compact();
+        return index;
+    }
+
+    private void readLog(File logFile) throws IOException {
+        try (DataInputStream in =
+                new DataInputStream(new BufferedInputStream(Files.newInputStream(logFile.toPath()), 64 * 1024))) {
+            while (true) {
+                byte type;
+                try {
+                    type = in.readByte();
+                } catch (EOFException e) {
+                    break;
+                }
+                try {
+                    int id = in.readInt();
+                    if (type == PAYLOAD_ADDED) {
+                        String format = in.readUTF();
+                        String parametersId = in.readBoolean() ? in.readUTF() : null;
+                        long size = in.readLong();
+                        byte[] hash = new byte[in.readUnsignedByte()];
+                        in.readFully(hash);
+                        Payload payload = new Payload(id, format, parametersId, HashCode.fromBytes(hash), size);
+                        payload.stored = true;
+                        add(payload);
+                    } else if (type == PAYLOAD_RELEASED) {
+                        Payload payload = payloads.get(id);
+                        if (payload != null) {
+                            remove(payload);
+                        }
+                    } else {
+                        throw new IOException("Unexpected record type " + type + " in " + logFile);
+                    }
+                    nextPayloadId = Math.max(nextPayloadId, id + 1);
+                } catch (EOFException e) {
+                    LOGGER.warning("Ignoring the truncated last record of " + logFile);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the payloads no tile references, as found on {@link #load(File) load}
+     *
+     * @return the removed payloads, to be deleted from the wrapped store
+     */
+    List<Payload> sweep() throws IOException {
+        List<Payload> unreferenced = new ArrayList<>();
+        for (Payload payload : payloads.values()) {
+            if (payload.references == 0) {
+                unreferenced.add(payload);
+            }
+        }
+        for (Payload payload : unreferenced) {
+            remove(payload);
+        }
+        if (!unreferenced.isEmpty()) {
+            compact();
+        }
+        return unreferenced;
+    }
+
+    /**
+     * @param create whether to create the tile index if missing
+     * @return the index of the tile set, or {@code null} if missing and not created
+     */
+    TileIndex tileSet(String gridSetId, String format, String parametersId, boolean create) {
+        for (TileIndex tileSet : tileSets.values()) {
+            if (tileSet.isTileSet(gridSetId, format, parametersId)) {
+                return tileSet;
+            }
+        }
+        if (!create) {
+            return null;
+        }
+        TileIndex tileSet = new TileIndex(gridSetId, format, parametersId);
+        tileSets.put(new File(directory, TILES_PREFIX + nextTileSetId++ + TILES_SUFFIX), tileSet);
+        return tileSet;
+    }
+
+    Collection<TileIndex> tileSets() {
+        return tileSets.values();
+    }
+
+    /** Removes the tile sets matching the predicate, along with their files */
+    List<TileIndex> removeTileSets(Predicate<TileIndex> predicate) throws IOException {
+        List<TileIndex> removed = new ArrayList<>();
+        for (Iterator<Map.Entry<File, TileIndex>> it = tileSets.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<File, TileIndex> entry = it.next();
+            if (predicate.test(entry.getValue())) {
+                Files.deleteIfExists(entry.getKey().toPath());
+                removed.add(entry.getValue());
+                it.remove();
+            }
+        }
+        return removed;
+    }
+
+    Payload payload(int id) {
+        return payloads.get(id);
+    }
+
+    Collection<Payload> payloads() {
+        return payloads.values();
+    }
+
+    /** Adds a reference to the payload with the given contents, creating it if missing */
+    Payload reference(String format, String parametersId, HashCode hash, long size) throws IOException {
+        Payload payload = find(format, parametersId, hash);
+        if (payload == null) {
+            payload = new Payload(nextPayloadId++, format, parametersId, hash, size);
+            DataOutputStream log = log();
+            add(payload);
+            writeAdded(log, payload);
+            // make it to the file before the payload makes it to the store, the index is written later
+            log.flush();
+            logRecords++;
+        }
+        payload.references++;
+        return payload;
+    }
+
+    /**
+     * Removes a reference to a payload
+     *
+     * @return the payload if no longer referenced, to be deleted from the wrapped store, {@code null} otherwise
+     */
+    Payload release(int id) throws IOException {
+        Payload payload = payloads.get(id);
+        if (payload == null || --payload.references > 0) {
+            return null;
+        }
+        DataOutputStream log = log();
+        remove(payload);
+        log.writeByte(PAYLOAD_RELEASED);
+        log.writeInt(id);
+        logRecords++;
+        return payload;
+    }
+
+    private DataOutputStream log() throws IOException {
+        if (log == null) {
+            throw new IOException("The index in " + directory + " is closed");
+        }
+        return log;
+    }
+
+    private Payload find(String format, String parametersId, HashCode hash) {
+        Object found = payloadsByHash.get(hash);
+        if (found instanceof Payload) {
+            Payload payload = (Payload) found;
+            return payload.sameContents(format, parametersId, hash) ? payload : null;
+        }
+        if (found != null) {
+            for (Payload payload : asList(found)) {
+                if (payload.sameContents(format, parametersId, hash)) {
+                    return payload;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void add(Payload payload) {
+        payloads.put(payload.id, payload);
+        Object found = payloadsByHash.get(payload.hash);
+        if (found == null) {
+            payloadsByHash.put(payload.hash, payload);
+        } else if (found instanceof Payload) {
+            List<Payload> list = new ArrayList<>(2);
+            list.add((Payload) found);
+            list.add(payload);
+            payloadsByHash.put(payload.hash, list);
+        } else {
+            asList(found).add(payload);
+        }
+    }
+
+    private void remove(Payload payload) {
+        payloads.remove(payload.id);
+        Object found = payloadsByHash.get(payload.hash);
+        if (found == payload) {
+            payloadsByHash.remove(payload.hash);
+        } else if (found != null) {
+            List<Payload> list = asList(found);
+            list.remove(payload);
+            if (list.size() == 1) {
+                payloadsByHash.put(payload.hash, list.get(0));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Payload> asList(Object found) {
+        return (List<Payload>) found;
+    }
+
+    /**
+     * Writes out the modified tile indexes, and compacts the payload log if mostly made of released payloads
+     *
+     * @return whether any tile index was modified
+     */
+    boolean flush() throws IOException {
+        log().flush();
+        boolean modified = false;
+        for (Map.Entry<File, TileIndex> entry : tileSets.entrySet()) {
+            if (entry.getValue().isDirty()) {
+                entry.getValue().write(entry.getKey());
+                modified = true;
+            }
+        }
+        if (logRecords > 2 * payloads.size() + COMPACTION_SLACK) {
+            compact();
+        }
+        return modified;
+    }
+
+    /** Rewrites the payload log with the live payloads only */
+    private void compact() throws IOException {
+        close();
+        File logFile = new File(directory, PAYLOAD_LOG);
+        File tmp = new File(directory, PAYLOAD_LOG + ".tmp");
+        try (DataOutputStream out =
+                new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp.toPath()), 64 * 1024))) {
+            for (Payload payload : payloads.values()) {
+                writeAdded(out, payload);
+            }
+        }
+        logRecords = payloads.size();
+        Files.move(tmp.toPath(), logFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(logFile.toPath(), StandardOpenOption.APPEND, StandardOpenOption.WRITE)));
+    }
+
+    private static void writeAdded(DataOutputStream out, Payload payload) throws IOException {
+        byte[] hash = payload.hash.asBytes();
+        out.writeByte(PAYLOAD_ADDED);
+        out.writeInt(payload.id);
+        out.writeUTF(payload.format);
+        out.writeBoolean(payload.parametersId != null);
+        if (payload.parametersId != null) {
+            out.writeUTF(payload.parametersId);
+        }
+        out.writeLong(payload.size);
+        out.writeByte(hash.length);
+        out.write(hash);
+    }
+
+    /** Closes the payload log, without flushing the tile indexes */
+    void close() throws IOException {
+        if (log != null) {
+            log.close();
+            log = null;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage.blobstore.dedup;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Maps the tiles of a tile set to the identifiers of the payloads holding their contents, and to the time they were
+ * stored at, in an open addressing table of primitives taking 16 bytes per slot, kept at most {@link #MAX_LOAD} full.
+ *
+ * <p>Tiles are keyed by their {@link #key(long, long, int) packed} index, which requires the zoom level to be lower
+ * than 32 and the tile coordinates lower than 2<sup>29</sup>, see {@link #isIndexable(long, long, int)}. Not thread
+ * safe.
+ */
+final class TileIndex {
+
+    /** Returned when a tile is not in the index */
+    static final int MISSING = -1;
+
+    static final int MAX_ZOOM = 31;
+
+    static final long MAX_COORDINATE = (1L << 29) - 1;
+
+    private static final float MAX_LOAD = 0.6f;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private static final int MAGIC = 0x47574354;
+
+    private static final int VERSION = 1;
+
+    final String gridSetId;
+
+    final String format;
+
+    final String parametersId;
+
+    /** The packed tile keys plus one, so that empty slots are zero */
+    private long[] keys;
+
+    private int[] values;
+
+    /** The seconds since the epoch the tiles were stored at, as unsigned integers */
+    private int[] times;
+
+    private int size;
+
+    private boolean dirty;
+
+    TileIndex(String gridSetId, String format, String parametersId) {
+        this(gridSetId, format, parametersId, 0);
+    }
+
+    private TileIndex(String gridSetId, String format, String parametersId, int expectedSize) {
+        this.gridSetId = gridSetId;
+        this.format = format;
+        this.parametersId = parametersId;
+        int capacity = MIN_CAPACITY;
+        while (capacity * MAX_LOAD <= expectedSize) {
+            capacity <<= 1;
+        }
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.times = new int[capacity];
+    }
+
+    /** @return whether the tile can be packed into a key */
+    static boolean isIndexable(long x, long y, int z) {
+        return z >= 0 && z <= MAX_ZOOM && x >= 0 && x <= MAX_COORDINATE && y >= 0 && y <= MAX_COORDINATE;
+    }
+
+    /** Packs an {@link #isIndexable(long, long, int) indexable} tile index into a non negative key */
+    static long key(long x, long y, int z) {
+        return ((long) z << 58) | (x << 29) | y;
+    }
+
+    static long x(long key) {
+        return (key >>> 29) & MAX_COORDINATE;
+    }
+
+    static long y(long key) {
+        return key & MAX_COORDINATE;
+    }
+
+    static int z(long key) {
+        return (int) (key >>> 58);
+    }
+
+    /** @return whether this index holds the tiles of the given tile set */
+    boolean isTileSet(String gridSetId, String format, String parametersId) {
+        return this.gridSetId.equals(gridSetId)
+                && this.format.equals(format)
+                && Objects.equals(this.parametersId, parametersId);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** @return whether the index changed since it was last read or written */
+    boolean isDirty() {
+        return dirty;
+    }
+
+    /** @return the payload of the tile, or {@link #MISSING} */
+    int get(long key) {
+        int slot = find(key + 1);
+        return slot < 0 ? MISSING : values[slot];
+    }
+
+    /** @return the time the tile was stored at, in milliseconds since the epoch, or {@code -1} if missing */
+    long created(long key) {
+        int slot = find(key + 1);
+        return slot < 0 ? -1 : Integer.toUnsignedLong(times[slot]) * 1000;
+    }
+
+    /** @return the previous payload of the tile, or {@link #MISSING} */
+    int put(long key, int payload, long created) {
+        int time = (int) (created / 1000);
+        long stored = key + 1;
+        int mask = keys.length - 1;
+        int slot = slot(stored, mask);
+        while (keys[slot] != 0) {
+            if (keys[slot] == stored) {
+                int previous = values[slot];
+                values[slot] = payload;
+                times[slot] = time;
+                dirty = true;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = stored;
+        values[slot] = payload;
+        times[slot] = time;
+        dirty = true;
+        if (++size > keys.length * MAX_LOAD) {
+            rehash(keys.length << 1);
+        }
+        return MISSING;
+    }
+
+    /** @return the payload of the removed tile, or {@link #MISSING} */
+    int remove(long key) {
+        int slot = find(key + 1);
+        if (slot < 0) {
+            return MISSING;
+        }
+        int payload = values[slot];
+        int mask = keys.length - 1;
+        // shift back the entries following the removed one, so that lookups never stop early
+        int free = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (keys[next] == 0) {
+                break;
+            }
+            int ideal = slot(keys[next], mask);
+            boolean reachable = free <= next ? ideal > free && ideal <= next : ideal > free || ideal <= next;
+            if (!reachable) {
+                keys[free] = keys[next];
+                values[free] = values[next];
+                times[free] = times[next];
+                free = next;
+            }
+        }
+        keys[free] = 0;
+        size--;
+        dirty = true;
+        return payload;
+    }
+
+    /** Receives the entries of the index */
+    interface EntryConsumer {
+
+        void accept(long key, int payload) throws IOException;
+    }
+
+    /** Receives the entries of the index, that shall not be modified meanwhile */
+    void forEach(EntryConsumer consumer) throws IOException {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                consumer.accept(keys[i] - 1, values[i]);
+            }
+        }
+    }
+
+    /** Selects tile keys */
+    interface KeyFilter {
+
+        boolean accept(long key);
+    }
+
+    /** Removes the tiles whose key is accepted by the filter, passing their entries to the consumer */
+    void removeIf(KeyFilter filter, EntryConsumer removed) throws IOException {
+        long[] matches = new long[16];
+        int count = 0;
+        for (long stored : keys) {
+            if (stored != 0 && filter.accept(stored - 1)) {
+                if (count == matches.length) {
+                    matches = Arrays.copyOf(matches, count << 1);
+                }
+                matches[count++] = stored - 1;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            removed.accept(matches[i], remove(matches[i]));
+        }
+    }
+
+    private int find(long stored) {
+        int mask = keys.length - 1;
+        int slot = slot(stored, mask);
+        while (keys[slot] != 0) {
+            if (keys[slot] == stored) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static int slot(long stored, int mask) {
+        // murmur3 finalizer, as tile keys are far from evenly distributed
+        long h = stored;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        int[] oldTimes = times;
+        keys = new long[capacity];
+        values = new int[capacity];
+        times = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slot(oldKeys[i], mask);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                times[slot] = oldTimes[i];
+            }
+        }
+    }
+
+    /** Writes the index to a temporary file first, replacing {@code file} only once fully written */
+    void write(File file) throws IOException {
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (DataOutputStream out =
+                new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp.toPath()), 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(gridSetId);
+            out.writeUTF(format);
+            out.writeBoolean(parametersId != null);
+            if (parametersId != null) {
+                out.writeUTF(parametersId);
+            }
+            out.writeInt(size);
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0) {
+                    out.writeLong(keys[i] - 1);
+                    out.writeInt(values[i]);
+                    out.writeInt(times[i]);
+                }
+            }
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        dirty = false;
+    }
+
+    static TileIndex read(File file) throws IOException {
+        try (DataInputStream in =
+                new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath()), 64 * 1024))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a tile index: " + file);
+            }
+            String gridSetId = in.readUTF();
+            String format = in.readUTF();
+            String parametersId = in.readBoolean() ? in.readUTF() : null;
+            int size = in.readInt();
+            TileIndex index = new TileIndex(gridSetId, format, parametersId, size);
+            for (int i = 0; i < size; i++) {
+                long key = in.readLong();
+                int payload = in.readInt();
+                index.put(key, payload, Integer.toUnsignedLong(in.readInt()) * 1000);
+            }
+            index.dirty = false;
+            return index;
+        }
+    }
+}
@@ -30,6 +30,7 @@
 import java.net.URLDecoder;
 import java.nio.channels.FileChannel;
 import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collections;
@@ -38,6 +39,7 @@
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicLong;
@@ -61,6 +63,7 @@
 import org.geowebcache.storage.DefaultStorageFinder;
 import org.geowebcache.storage.StorageException;
 import org.geowebcache.storage.StorageObject.Status;
+import org.geowebcache.storage.TileDeletionBatch;
 import org.geowebcache.storage.TileObject;
 import org.geowebcache.storage.TileRange;
 import org.geowebcache.util.FileUtils;
@@ -101,6 +104,20 @@ interface FileWriter {
 
     private TempFileNameGenerator tmpGenerator = new TempFileNameGenerator();
 
+    /** Where the canonical blobs of the tiles stored as hard links are kept */
+    private final File sharedBlobs;
+
+    private volatile boolean linkUniformTiles;
+
+    /** The reason reported by the JDK for the {@code EMLINK} error, raised when a file can't have more links */
+    public static final String TOO_MANY_LINKS = "Too many links";
+
+    /** Bounds the canonical blobs started for the same contents, as a safety net against misreported errors */
+    static final int MAX_LINK_GENERATIONS = 1000;
+
+    /** The canonical blob generation currently linked to, by content id, when past the first one */
+    private final Map<String, Integer> linkGenerations = new ConcurrentHashMap<>();
+
     public FileBlobStore(DefaultStorageFinder defStoreFinder) throws StorageException, ConfigurationException {
         this(defStoreFinder.getDefaultPath());
     }
@@ -152,6 +169,7 @@ public FileBlobStore(String rootPath, FilePathGenerator pathGenerator) throws St
         }
 
         stagingArea = new File(path, "_gwc_in_progress_deletes_");
+        sharedBlobs = new File(path, "_gwc_shared_blobs_");
         layerMetadata = new LayerMetadataStore(path, tmp);
         createDeleteExecutorService();
         issuePendingDeletes();
@@ -412,6 +430,9 @@ public boolean delete(TileRange trObj) throws StorageException {
         final String parametersId = trObj.getParametersId();
 
         AtomicLong count = new AtomicLong();
+        // bulk deletions are reported per directory to the listeners aggregating them
+        final TileDeletionBatch deletions =
+                listeners.newTileDeletionBatch(layerName, gridSetId, blobFormat, parametersId);
         pathGenerator.visitRange(layerPath, trObj, new TileFileVisitor() {
 
             @Override
@@ -419,17 +440,19 @@ public void visitFile(File tile, long x, long y, int z) {
                 long length = tile.length();
                 boolean deleted = tile.delete();
                 if (deleted) {
-                    listeners.sendTileDeleted(layerName, gridSetId, blobFormat, parametersId, x, y, z, padSize(length));
+                    deletions.tileDeleted(x, y, z, padSize(length));
                     count.incrementAndGet();
                 }
             }
 
             @Override
             public void postVisitDirectory(File dir) {
+                deletions.flush();
                 // will delete only if empty
                 dir.delete();
             }
         });
+        deletions.flush();
 
         log.info("Truncated " + count + " tiles");
 
@@ -464,7 +487,11 @@ public void put(TileObject stObj) throws StorageException {
         final long oldSize = fh.length();
         final boolean existed = oldSize > 0;
 
-        writeTile(fh, stObj, existed);
+        if (linkUniformTiles && stObj.getContentId() != null) {
+            writeLinkedTile(fh, stObj, existed);
+        } else {
+            writeTile(fh, stObj, existed);
+        }
 
         // mark the last modification as the tile creation time if set, otherwise
         // we'll leave it to the writing time
@@ -555,6 +582,78 @@ private void writeTile(File target, TileObject stObj, boolean existed) throws St
         });
     }
 
+    /**
+     * Writes the tile as a hard link to the canonical blob of its {@link TileObject#getContentId() contents}, creating
+     * it first if missing. When the canonical blob reached the file system limit of links to a file, a new one is
+     * started, suffixed by its generation number. Falls back to a plain copy if the file system does not support hard
+     * links, or the link can't be created for another reason.
+     */
+    private void writeLinkedTile(File target, TileObject stObj, boolean existed) throws StorageException {
+        final String contentId = stObj.getContentId();
+        writeFile(target, existed, file -> {
+            int generation = linkGenerations.getOrDefault(contentId, 0);
+            while (linkUniformTiles) {
+                File canonical = canonicalBlob(contentId, generation);
+                if (!canonical.exists()) {
+                    sharedBlobs.mkdirs();
+                    try {
+                        writeTile(canonical, stObj, false);
+                    } catch (StorageException e) {
+                        throw new IOException(e.getMessage(), e);
+                    }
+                }
+                try {
+                    createLink(file.toPath(), canonical.toPath());
+                    return;
+                } catch (UnsupportedOperationException e) {
+                    disableLinks(e);
+                } catch (FileSystemException e) {
+                    if (linksUnsupported(e)) {
+                        disableLinks(e);
+                    } else if (TOO_MANY_LINKS.equals(e.getReason()) && generation < MAX_LINK_GENERATIONS) {
+                        generation++;
+                        linkGenerations.merge(contentId, generation, Math::max);
+                        log.fine("Canonical blob " + canonical + " reached the links limit, starting a new one");
+                        continue;
+                    } else {
+                        log.log(Level.FINE, "Unable to link " + target + ", storing a copy", e);
+                    }
+                } catch (IOException e) {
+                    log.log(Level.FINE, "Unable to link " + target + ", storing a copy", e);
+                }
+                break;
+            }
+            try (FileOutputStream fos = new FileOutputStream(file);
+                    FileChannel channel = fos.getChannel()) {
+                stObj.getBlob().transferTo(channel);
+            }
+        });
+    }
+
+    private File canonicalBlob(String contentId, int generation) {
+        return new File(sharedBlobs, generation == 0 ? contentId : contentId + "-" + generation);
+    }
+
+    /** Creates a hard link to an existing file, see {@link Files#createLink(Path, Path)} */
+    protected void createLink(Path link, Path existing) throws IOException {
+        Files.createLink(link, existing);
+    }
+
+    /** @return whether the exception reports that the file system does not support hard links, as opposed to a limit */
+    static boolean linksUnsupported(FileSystemException e) {
+        String reason = e.getReason();
+        return reason != null
+                && (reason.contains("not supported")
+                        || reason.contains("not permitted")
+                        || reason.contains("cross-device")
+                        || reason.contains("Incorrect function"));
+    }
+
+    private void disableLinks(Exception e) {
+        log.log(Level.WARNING, "Hard links not supported, storing single color tiles as copies", e);
+        linkUniformTiles = false;
+    }
+
     /**
      * Writes into the target file by first creating a temporary file, filling it with the writer, and then renaming it
      * to the target file.
@@ -687,6 +786,15 @@ public void setBlockSize(int fileSystemBlockSize) {
         this.diskBlockSize = fileSystemBlockSize;
     }
 
+    /**
+     * Sets whether the single color tiles of the same format, size and color are stored as hard links to a single
+     * canonical blob, saving disk space and I/O on sparse layers. Linked tiles share the modification time of their
+     * canonical blob, and are still accounted for with their full size by the listeners.
+     */
+    public void setLinkUniformTiles(boolean linkUniformTiles) {
+        this.linkUniformTiles = linkUniformTiles;
+    }
+
     /**
      * Pads the size of a tile to whole filesystem blocks
      *
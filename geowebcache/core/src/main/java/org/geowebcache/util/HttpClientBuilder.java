@@ -13,6 +13,7 @@
  */
 package org.geowebcache.util;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.net.URL;
 import java.util.logging.Logger;
 import org.apache.http.auth.AuthScope;
@@ -20,9 +21,13 @@
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.config.CookieSpecs;
 import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.conn.HttpClientConnectionManager;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
 import org.geotools.util.logging.Logging;
 
 /** Builder class for HttpClients */
@@ -43,6 +48,8 @@ public class HttpClientBuilder {
 
     private org.apache.http.impl.client.HttpClientBuilder clientBuilder;
 
+    private int concurrency;
+
     public HttpClientBuilder() {
         super();
     }
@@ -73,6 +80,7 @@ public HttpClientBuilder(
         clientBuilder.useSystemProperties();
         clientBuilder.setConnectionManager(connectionManager);
         clientBuilder.setMaxConnTotal(concurrency);
+        this.concurrency = concurrency;
     }
 
     /*
@@ -119,6 +127,49 @@ public HttpClient buildClient() {
         return httpClient;
     }
 
+    /**
+     * Uses the configuration of this builder to generate a non blocking client, already started, pooling up to the
+     * configured concurrency connections. The client shall be closed once no longer used.
+     *
+     * @return the generated client
+     */
+    public CloseableHttpAsyncClient buildAsyncClient() {
+        HttpAsyncClientBuilder builder = HttpAsyncClients.custom()
+                .useSystemProperties()
+                .setMaxConnTotal(concurrency)
+                .setMaxConnPerRoute(concurrency)
+                .setDefaultRequestConfig(connectionConfig)
+                .setThreadFactory(new ThreadFactoryBuilder()
+                        .setDaemon(true)
+                        .setNameFormat("GWC HTTP Async Client %d")
+                        .build());
+        if (authscope != null && httpcredentials != null) {
+            BasicCredentialsProvider credsProvider = new BasicCredentialsProvider();
+            credsProvider.setCredentials(authscope, httpcredentials);
+            builder.setDefaultCredentialsProvider(credsProvider);
+        }
+        CloseableHttpAsyncClient httpClient = builder.build();
+        httpClient.start();
+        return httpClient;
+    }
+
+    /**
+     * Uses the configuration of this builder to generate the context of a single request, carrying its credentials and
+     * timeouts, for requests sent through clients shared with other configurations
+     *
+     * @return the generated context
+     */
+    public HttpClientContext buildContext() {
+        HttpClientContext context = HttpClientContext.create();
+        if (authscope != null && httpcredentials != null) {
+            BasicCredentialsProvider credsProvider = new BasicCredentialsProvider();
+            credsProvider.setCredentials(authscope, httpcredentials);
+            context.setCredentialsProvider(credsProvider);
+        }
+        context.setRequestConfig(connectionConfig);
+        return context;
+    }
+
     /** returns true if this builder was configured to pass HTTP credentials to the generated HttpClient. */
     public boolean isDoAuthentication() {
         return doAuthentication;
@@ -122,7 +122,8 @@ private static void writeData(ConveyorTile tile, RuntimeStats runtimeStats) thro
 
         final CacheResult cacheResult = tile.getCacheResult();
         int httpCode = HttpServletResponse.SC_OK;
-        Resource blob = tile.getBlob();
+        final boolean encoded = negotiateEncoding(tile);
+        Resource blob = encoded ? tile.getEncodedBlob() : tile.getBlob();
         String mimeType = tile.getMimeType().getMimeType(blob);
 
         servletResp.setHeader("geowebcache-cache-result", String.valueOf(cacheResult));
@@ -161,6 +162,10 @@ private static void writeData(ConveyorTile tile, RuntimeStats runtimeStats) thro
         if (httpCode == HttpServletResponse.SC_OK && tile.getLayer().useETags()) {
             String ifNoneMatch = servletReq.getHeader("If-None-Match");
             String hexTag = Long.toHexString(tileTimeStamp);
+            if (encoded) {
+                // the compressed representation is a different one
+                hexTag += "-" + tile.getContentEncoding();
+            }
 
             if (ifNoneMatch != null) {
                 if (ifNoneMatch.equals(hexTag)) {
@@ -177,6 +182,26 @@ private static void writeData(ConveyorTile tile, RuntimeStats runtimeStats) thro
         writeFixedResponse(servletResp, httpCode, mimeType, blob, cacheResult, contentLength, runtimeStats);
     }
 
+    /**
+     * Decides whether to write the tile contents as stored, when {@link ConveyorTile#getContentEncoding() compressed}
+     * and the client accepts their encoding, setting the {@code Content-Encoding} header, or to write them decoded.
+     *
+     * @return {@code true} if the {@link ConveyorTile#getEncodedBlob() stored contents} shall be written
+     */
+    public static boolean negotiateEncoding(ConveyorTile tile) {
+        String encoding = tile.getContentEncoding();
+        if (encoding == null || tile.servletResp == null) {
+            return false;
+        }
+        tile.servletResp.setHeader("Vary", "Accept-Encoding");
+        if (tile.servletReq == null
+                || !ServletUtils.acceptsEncoding(tile.servletReq.getHeader("Accept-Encoding"), encoding)) {
+            return false;
+        }
+        tile.servletResp.setHeader("Content-Encoding", encoding);
+        return true;
+    }
+
     private static void writeEmpty(
             DefaultStorageFinder defaultStorageFinder,
             ConveyorTile tile,
@@ -103,16 +103,26 @@ public static String[][] selectedStringArraysFromMap(Map<String, String[]> map,
      *
      * @return map subset containing (URL decoded) values for {@code keys}, with keys normalized to upper case
      */
-    @SuppressWarnings("unchecked")
     public static Map<String, String> selectedStringsFromMap(Map<String, ?> map, String encoding, String... keys) {
-
-        map = new CaseInsensitiveMap<>(map);
+        // single pass over the request parameters, rather than copying them into a case insensitive map
         Map<String, String> selected = new CaseInsensitiveMap<>();
-        for (String key : keys) {
-            Object value = map.get(key);
-            if (value != null) {
-                String sValue = value instanceof String[] ? ((String[]) value)[0] : String.valueOf(value);
-                selected.put(key.toUpperCase(), URLDecode(sValue, encoding));
+        for (Entry<String, ?> entry : map.entrySet()) {
+            String name = entry.getKey();
+            if (name == null) {
+                continue;
+            }
+            for (String key : keys) {
+                if (key.equalsIgnoreCase(name)) {
+                    Object value = entry.getValue();
+                    if (value != null) {
+                        String sValue = value instanceof String[] ? ((String[]) value)[0] : String.valueOf(value);
+                        selected.put(key.toUpperCase(), URLDecode(sValue, encoding));
+                    } else {
+                        // the last parameter differing only by case wins
+                        selected.remove(key);
+                    }
+                    break;
+                }
             }
         }
         return selected;
@@ -405,6 +415,37 @@ public static Map<String, String> queryStringToMap(String queryString) {
         return ret;
     }
 
+    /**
+     * Tells whether an {@code Accept-Encoding} header accepts a content coding, that is, lists it without a zero
+     * quality value
+     *
+     * @param acceptEncoding the header value, may be {@code null}
+     * @param coding the content coding, such as {@code gzip}
+     */
+    public static boolean acceptsEncoding(String acceptEncoding, String coding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String accepted : acceptEncoding.split(",")) {
+            String[] parts = accepted.split(";");
+            if (!parts[0].trim().equalsIgnoreCase(coding)) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
     /**
      * Generate the base url of the request, minus the context path
      *
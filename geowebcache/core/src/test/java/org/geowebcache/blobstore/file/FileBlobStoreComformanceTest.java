@@ -20,11 +20,18 @@
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import org.easymock.EasyMock;
 import org.geotools.util.logging.Logging;
+import org.geowebcache.config.DefaultGridsets;
+import org.geowebcache.grid.GridSet;
+import org.geowebcache.mime.ImageMime;
 import org.geowebcache.storage.AbstractBlobStoreTest;
+import org.geowebcache.storage.BlobStoreListener;
 import org.geowebcache.storage.StorageException;
+import org.geowebcache.storage.TileRange;
 import org.geowebcache.storage.blobstore.file.FileBlobStore;
 import org.geowebcache.storage.blobstore.file.LayerMetadataStore;
 import org.junit.Ignore;
@@ -193,4 +200,53 @@ public void testConcurrentMassiveMetadataKeys() throws InterruptedException {
                     equalTo("testValue" + String.valueOf(i)));
         }
     }
+
+    @Test
+    public void testDeleteRangeAggregatesDeletions() throws Exception {
+        GridSet gridSet = new DefaultGridsets(true, false).worldEpsg4326();
+        String gridsetId = gridSet.getName();
+        setupFullCoverage("testLayer", gridSet, ImageMime.png.getFormat(), "sample", gridsetId, 2, 2);
+
+        AtomicLong tiles = new AtomicLong();
+        AtomicLong bytes = new AtomicLong();
+        BlobStoreListener listener = EasyMock.createMock(BlobStoreListener.class);
+        EasyMock.expect(listener.supportsTilesDeleted()).andReturn(true).anyTimes();
+        EasyMock.expect(listener.tilesDeletedArea(
+                        EasyMock.anyObject(),
+                        EasyMock.anyObject(),
+                        EasyMock.anyObject(),
+                        EasyMock.anyObject(),
+                        EasyMock.anyLong(),
+                        EasyMock.anyLong(),
+                        EasyMock.anyInt()))
+                .andReturn(null)
+                .anyTimes();
+        listener.tilesDeleted(
+                EasyMock.eq("testLayer"),
+                EasyMock.eq(gridsetId),
+                EasyMock.eq(ImageMime.png.getFormat()),
+                EasyMock.isNull(),
+                EasyMock.anyObject(long[].class),
+                EasyMock.anyLong(),
+                EasyMock.anyLong());
+        EasyMock.expectLastCall()
+                .andAnswer(() -> {
+                    long[] rangeBounds = (long[]) EasyMock.getCurrentArguments()[4];
+                    assertThat(rangeBounds[4], equalTo(2L));
+                    tiles.addAndGet((Long) EasyMock.getCurrentArguments()[5]);
+                    bytes.addAndGet((Long) EasyMock.getCurrentArguments()[6]);
+                    return null;
+                })
+                .atLeastOnce();
+        EasyMock.replay(listener);
+        store.addListener(listener);
+
+        store.delete(new TileRange(
+                "testLayer", gridsetId, 2, 2, new long[][] {{0, 0, 2, 2, 2}}, ImageMime.png, null));
+
+        EasyMock.verify(listener);
+        assertThat(tiles.get(), equalTo(9L));
+        // file sizes are padded to the 4K block size
+        assertThat(bytes.get(), equalTo(9L * 4096));
+    }
 }
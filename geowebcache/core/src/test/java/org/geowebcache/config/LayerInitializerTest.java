@@ -0,0 +1,132 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.config;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.geowebcache.layer.TileLayer;
+import org.geowebcache.util.PropertyRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class LayerInitializerTest {
+
+    @Rule
+    public PropertyRule threadsProperty = PropertyRule.system(LayerInitializer.THREADS_PROPERTY);
+
+    private static List<TileLayer> layers(int count) {
+        List<TileLayer> layers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            TileLayer layer = createNiceMock(TileLayer.class);
+            expect(layer.getName()).andStubReturn("layer" + i);
+            replay(layer);
+            layers.add(layer);
+        }
+        return layers;
+    }
+
+    @Test
+    public void testSequentialByDefault() {
+        List<String> threads = new CopyOnWriteArrayList<>();
+        LayerInitializer initializer =
+                new LayerInitializer("test", layer -> threads.add(Thread.currentThread().getName()));
+        assertEquals(1, initializer.getThreads());
+
+        initializer.start(layers(10));
+        assertEquals(Collections.nCopies(10, Thread.currentThread().getName()), threads);
+
+        threadsProperty.setValue("4");
+        assertEquals(4, new LayerInitializer("test", layer -> {}).getThreads());
+    }
+
+    @Test
+    public void testParallel() {
+        List<TileLayer> layers = layers(50);
+        List<TileLayer> initialized = new CopyOnWriteArrayList<>();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        LayerInitializer initializer = new LayerInitializer(
+                "test",
+                layer -> {
+                    threads.add(Thread.currentThread().getName());
+                    initialized.add(layer);
+                },
+                4,
+                false);
+
+        initializer.start(layers);
+        assertEquals(50, initialized.size());
+        assertTrue(initialized.containsAll(layers));
+        assertTrue(threads.size() <= 4);
+
+        // nothing left to do
+        initializer.initializeAll();
+        assertSame(layers.get(0), initializer.initialized(layers.get(0)));
+        assertEquals(50, initialized.size());
+    }
+
+    @Test
+    public void testLazy() {
+        List<TileLayer> layers = layers(10);
+        List<TileLayer> initialized = new CopyOnWriteArrayList<>();
+        LayerInitializer initializer = new LayerInitializer("test", initialized::add, 4, true);
+
+        initializer.start(layers);
+        assertTrue(initialized.isEmpty());
+
+        assertSame(layers.get(3), initializer.initialized(layers.get(3)));
+        assertSame(layers.get(3), initializer.initialized(layers.get(3)));
+        assertEquals(Collections.singletonList(layers.get(3)), initialized);
+
+        // replaced by an already initialized layer
+        initializer.forget("layer5");
+
+        initializer.initializeAll();
+        assertEquals(9, initialized.size());
+        assertFalse(initialized.contains(layers.get(5)));
+    }
+
+    @Test
+    public void testFailure() {
+        LayerInitializer initializer = new LayerInitializer(
+                "test",
+                layer -> {
+                    if (layer.getName().equals("layer7")) {
+                        throw new IllegalStateException("broken");
+                    }
+                },
+                4,
+                false);
+        try {
+            initializer.start(layers(20));
+            fail("Expected the initialization failure to be rethrown");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), containsString("broken"));
+        }
+    }
+}
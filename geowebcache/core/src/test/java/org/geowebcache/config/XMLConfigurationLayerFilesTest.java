@@ -0,0 +1,169 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.config;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import org.apache.commons.io.FileUtils;
+import org.geowebcache.MockWepAppContextRule;
+import org.geowebcache.grid.GridSetBroker;
+import org.geowebcache.grid.GridSubset;
+import org.geowebcache.grid.GridSubsetFactory;
+import org.geowebcache.layer.TileLayer;
+import org.geowebcache.layer.wms.WMSLayer;
+import org.geowebcache.util.PropertyRule;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class XMLConfigurationLayerFilesTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Rule
+    public MockWepAppContextRule contextRule = new MockWepAppContextRule();
+
+    @Rule
+    public PropertyRule layerFiles = PropertyRule.system(XMLConfiguration.LAYER_FILES_PROPERTY);
+
+    private File configDir;
+
+    private File configFile;
+
+    private File layersDir;
+
+    private GridSetBroker gridSetBroker;
+
+    private XMLConfiguration config;
+
+    @Before
+    public void setUp() throws Exception {
+        configDir = temp.getRoot();
+        configFile = temp.newFile("geowebcache.xml");
+        layersDir = new File(configDir, LayerFileStore.DIRECTORY_NAME);
+        URL source = XMLConfiguration.class.getResource(XMLConfigurationBackwardsCompatibilityTest.LATEST_FILENAME);
+        FileUtils.copyURLToFile(source, configFile);
+
+        layerFiles.setValue("true");
+        gridSetBroker = new GridSetBroker(Collections.singletonList(new DefaultGridsets(true, true)));
+        config = load();
+    }
+
+    private XMLConfiguration load() throws Exception {
+        XMLConfiguration config = new XMLConfiguration(null, configDir.getAbsolutePath());
+        config.setGridSetBroker(gridSetBroker);
+        config.afterPropertiesSet();
+        return config;
+    }
+
+    @Test
+    public void testLayersMovedToFiles() throws Exception {
+        int count = config.getLayerCount();
+        assertThat(count, greaterThan(0));
+        assertEquals(count, layersDir.list().length);
+        String main = FileUtils.readFileToString(configFile, StandardCharsets.UTF_8);
+        assertThat(main, not(containsString("<wmsLayer>")));
+        assertThat(main, containsString("<layers/>"));
+
+        XMLConfiguration reloaded = load();
+        assertEquals(config.getLayerNames(), reloaded.getLayerNames());
+    }
+
+    @Test
+    public void testLayerChangesWriteOnlyTheLayerFile() throws Exception {
+        String main = FileUtils.readFileToString(configFile, StandardCharsets.UTF_8);
+
+        WMSLayer layer = createLayer("topp:new*layer");
+        config.addLayer(layer);
+        File file = new LayerFileStore(layersDir).file(layer.getName());
+        assertTrue(file.exists());
+        // a configuration document, validated and upgraded as the main file is
+        String content = FileUtils.readFileToString(file, StandardCharsets.UTF_8);
+        assertThat(content, containsString("<gwcConfiguration"));
+        assertThat(content, containsString("<version>" + XMLConfiguration.getCurrentSchemaVersion() + "</version>"));
+        assertTrue(load().getLayer(layer.getName()).isPresent());
+
+        layer = createLayer("topp:new*layer");
+        layer.setEnabled(false);
+        config.modifyLayer(layer);
+        TileLayer reloaded = load().getLayer(layer.getName()).get();
+        assertFalse(reloaded.isEnabled());
+
+        config.removeLayer(layer.getName());
+        assertFalse(file.exists());
+        assertFalse(load().getLayer(layer.getName()).isPresent());
+
+        assertEquals(main, FileUtils.readFileToString(configFile, StandardCharsets.UTF_8));
+        assertEquals(0, layersDir.list((dir, name) -> name.endsWith(".tmp")).length);
+    }
+
+    @Test
+    public void testLayersMovedBackWhenDisabled() throws Exception {
+        Set<String> names = config.getLayerNames();
+        layerFiles.setValue(null);
+
+        XMLConfiguration restored = load();
+        assertEquals(names, restored.getLayerNames());
+        assertEquals(0, layersDir.list((dir, name) -> name.endsWith(".xml")).length);
+        assertThat(FileUtils.readFileToString(configFile, StandardCharsets.UTF_8), containsString("<wmsLayer>"));
+        assertEquals(names, load().getLayerNames());
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        layerFiles.setValue(null);
+        FileUtils.deleteDirectory(layersDir);
+        FileUtils.copyURLToFile(
+                XMLConfiguration.class.getResource(XMLConfigurationBackwardsCompatibilityTest.LATEST_FILENAME),
+                configFile);
+
+        config = load();
+        config.addLayer(createLayer("newLayer"));
+        assertFalse(layersDir.exists());
+        assertThat(FileUtils.readFileToString(configFile, StandardCharsets.UTF_8), containsString("newLayer"));
+    }
+
+    private WMSLayer createLayer(String name) {
+        GridSubset subset = GridSubsetFactory.createGridSubSet(gridSetBroker.get("EPSG:4326"));
+        Map<String, GridSubset> subsets = new HashMap<>();
+        subsets.put(subset.getName(), subset);
+        return new WMSLayer(
+                name,
+                new String[] {"http://wms.example.com/"},
+                null,
+                "states",
+                null,
+                subsets,
+                null,
+                null,
+                null,
+                false,
+                null);
+    }
+}
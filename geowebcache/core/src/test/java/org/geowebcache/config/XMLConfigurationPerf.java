@@ -0,0 +1,129 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.config;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.xml.DomReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import org.apache.commons.io.FileUtils;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.config.ContextualConfigurationProvider.Context;
+import org.geowebcache.grid.GridSetBroker;
+import org.geowebcache.grid.GridSubset;
+import org.geowebcache.grid.GridSubsetFactory;
+import org.geowebcache.io.GeoWebCacheXStream;
+import org.geowebcache.layer.wms.WMSLayer;
+import org.w3c.dom.Element;
+
+/**
+ * Measures the time taken to load a {@code geowebcache.xml} with many layers, comparing the parsing through a DOM with
+ * a new XStream on each load against the direct parsing of current version files with a reused XStream, and the whole
+ * {@link XMLConfiguration} startup.
+ */
+final class XMLConfigurationPerf {
+
+    private static Logger LOGGER = Logging.getLogger(XMLConfigurationPerf.class.getName());
+
+    // number of layers in the configuration
+    static final int LAYERS = 10000;
+    // number of measured loads, after as many warm up ones
+    static final int RUNS = 5;
+
+    public static void main(String[] args) throws Exception {
+        File directory = Files.createTempDirectory("gwc-").toFile();
+        try {
+            GridSetBroker gridSetBroker = new GridSetBroker(Collections.singletonList(new DefaultGridsets(true, true)));
+            File configFile = new File(directory, XMLConfiguration.DEFAULT_CONFIGURATION_FILE_NAME);
+            writeConfiguration(configFile, gridSetBroker);
+            byte[] xml = FileUtils.readFileToByteArray(configFile);
+            LOGGER.info(String.format("Created %d layers configuration of %d KB.", LAYERS, xml.length / 1024));
+
+            for (int i = 0; i < RUNS * 2; i++) {
+                long dom = time(() -> {
+                    XStream xs = newXStream();
+                    Element root = (Element) XMLConfiguration.loadDocument(new ByteArrayInputStream(xml));
+                    xs.unmarshal(new DomReader(root));
+                });
+                XStream cached = newXStream();
+                long direct = time(() -> XMLConfiguration.readConfiguration(xml, cached));
+                long startup = time(() -> {
+                    XMLConfiguration config = new XMLConfiguration(null, directory.getAbsolutePath());
+                    config.setGridSetBroker(gridSetBroker);
+                    config.afterPropertiesSet();
+                });
+                if (i >= RUNS) {
+                    LOGGER.info(String.format(
+                            "DOM and new XStream: %d ms, direct and cached XStream: %d ms, startup: %d ms.",
+                            dom, direct, startup));
+                }
+            }
+        } finally {
+            FileUtils.deleteDirectory(directory);
+        }
+    }
+
+    private static XStream newXStream() {
+        return XMLConfiguration.getConfiguredXStreamWithContext(new GeoWebCacheXStream(), null, Context.PERSIST);
+    }
+
+    /** Writes a current version configuration file with {@link #LAYERS} layers. */
+    private static void writeConfiguration(File file, GridSetBroker gridSetBroker) throws Exception {
+        GeoWebCacheConfiguration config = new GeoWebCacheConfiguration();
+        config.setVersion(XMLConfiguration.getCurrentSchemaVersion());
+        for (int i = 0; i < LAYERS; i++) {
+            Map<String, GridSubset> subSets = new HashMap<>();
+            GridSubset gridSubSet = GridSubsetFactory.createGridSubSet(gridSetBroker.get("EPSG:4326"));
+            subSets.put(gridSubSet.getName(), gridSubSet);
+            WMSLayer layer = new WMSLayer(
+                    "layer" + i,
+                    new String[] {"http://wms.example.com/wms"},
+                    null,
+                    "workspace:layer" + i,
+                    Arrays.asList("image/png", "image/jpeg"),
+                    subSets,
+                    null,
+                    new int[] {4, 4},
+                    null,
+                    false,
+                    null);
+            config.getLayers().add(layer);
+        }
+        try (Writer writer = new OutputStreamWriter(FileUtils.openOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n");
+            newXStream().toXML(config, writer);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run() throws Exception;
+    }
+
+    private static long time(Task task) throws Exception {
+        long start = System.nanoTime();
+        task.run();
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
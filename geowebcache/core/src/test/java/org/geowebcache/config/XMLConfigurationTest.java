@@ -34,6 +34,9 @@
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.xml.DomReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -65,8 +68,11 @@
 import org.geowebcache.grid.GridSubset;
 import org.geowebcache.grid.GridSubsetFactory;
 import org.geowebcache.grid.SRS;
+import org.geowebcache.io.GeoWebCacheXStream;
+import org.geowebcache.layer.MetaTilingRule;
 import org.geowebcache.layer.TileLayer;
 import org.geowebcache.layer.wms.WMSLayer;
+import org.geowebcache.util.PropertyRule;
 import org.geowebcache.util.TestUtils;
 import org.junit.Assume;
 import org.junit.Before;
@@ -74,6 +80,7 @@
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.springframework.context.ApplicationContext;
+import org.w3c.dom.Element;
 import org.xml.sax.SAXParseException;
 
 public class XMLConfigurationTest {
@@ -94,6 +101,9 @@ public class XMLConfigurationTest {
     @Rule // Not actually used but it protects against other tests that clutter the extension system
     public MockWepAppContextRule contextRule = new MockWepAppContextRule();
 
+    @Rule
+    public PropertyRule lazyLayers = PropertyRule.system(LayerInitializer.LAZY_PROPERTY);
+
     @Before
     public void setUp() throws Exception {
         configDir = temp.getRoot();
@@ -264,6 +274,9 @@ public void testSave() throws Exception {
         legendsRawInfo.addLegendRawInfo(legendRawInfoC);
         layer.setLegends(legendsRawInfo);
 
+        layer.setMetaTilingRules(Arrays.asList(new MetaTilingRule(4, 1, 1, null), new MetaTilingRule(12, 6, 4, 16)));
+        layer.setMetaTilingAutoTune(true);
+
         config.addLayer(layer);
 
         try {
@@ -300,6 +313,14 @@ public void testSave() throws Exception {
         assertThat(l.getLegends().getLegendsRawInfo().size(), is(3));
         assertThat(
                 l.getLegends().getLegendsRawInfo(), containsInAnyOrder(legendRawInfoA, legendRawInfoB, legendRawInfoC));
+
+        // check metatiling rules
+        assertArrayEquals(new int[] {9, 9}, l.getMetaTilingFactors(3));
+        assertArrayEquals(new int[] {1, 1}, l.getMetaTilingFactors(4));
+        assertArrayEquals(new int[] {6, 4}, l.getMetaTilingFactors(15));
+        assertEquals(0, l.getGutter(4));
+        assertEquals(16, l.getGutter(12));
+        assertTrue(l.isMetaTilingAutoTune());
     }
 
     public WMSLayer createTestLayer(String layerName) {
@@ -592,4 +613,40 @@ public void loadFromEmptyReadOnlyDirectoryFails() throws GeoWebCacheException, I
             roEmptyDir.setWritable(true);
         }
     }
+
+    @Test
+    public void testLazyLayerInitialization() throws Exception {
+        lazyLayers.setValue("true");
+        XMLConfiguration lazy = new XMLConfiguration(null, configDir.getAbsolutePath());
+        lazy.setGridSetBroker(gridSetBroker);
+        lazy.afterPropertiesSet();
+
+        assertEquals(config.getLayerNames(), lazy.getLayerNames());
+        String name = lazy.getLayerNames().iterator().next();
+        assertEquals(
+                config.getLayer(name).get().getGridSubsets(),
+                lazy.getLayer(name).get().getGridSubsets());
+        for (TileLayer layer : lazy.getLayers()) {
+            assertFalse(layer.getGridSubsets().isEmpty());
+        }
+    }
+
+    @Test
+    public void testReadCurrentVersionWithoutTransform() throws Exception {
+        byte[] legacy = FileUtils.readFileToByteArray(configFile);
+        assertFalse(XMLConfiguration.isCurrentVersion(legacy));
+
+        // saving upgrades the file to the current version
+        config.addLayer(createTestLayer("testLayer"));
+        byte[] current = FileUtils.readFileToByteArray(configFile);
+        assertTrue(XMLConfiguration.isCurrentVersion(current));
+
+        XStream xs = XMLConfiguration.getConfiguredXStreamWithContext(
+                new GeoWebCacheXStream(), null, ContextualConfigurationProvider.Context.PERSIST);
+        GeoWebCacheConfiguration fast = XMLConfiguration.readConfiguration(current, xs);
+        Element root = (Element) XMLConfiguration.loadDocument(new ByteArrayInputStream(current));
+        GeoWebCacheConfiguration transformed = (GeoWebCacheConfiguration) xs.unmarshal(new DomReader(root));
+        assertEquals(xs.toXML(transformed), xs.toXML(fast));
+        assertEquals(config.getLayerCount(), fast.getLayers().size());
+    }
 }
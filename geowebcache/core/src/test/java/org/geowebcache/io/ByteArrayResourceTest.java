@@ -0,0 +1,81 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import org.junit.Test;
+
+public class ByteArrayResourceTest {
+
+    @Test
+    public void testImageOutputStreamSeek() throws Exception {
+        ByteArrayResource resource = new ByteArrayResource(4);
+        try (ImageOutputStream out = new ByteArrayResource.SeekableImageOutputStream(resource)) {
+            out.writeInt(0);
+            out.write(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10});
+            // patch the header, as PNG chunks lengths are
+            out.seek(0);
+            out.writeInt(10);
+            assertEquals(4, out.getStreamPosition());
+            assertEquals(1, out.read());
+            out.seek(14);
+            assertEquals(-1, out.read());
+            assertEquals(14, out.length());
+        }
+        assertArrayEquals(new byte[] {0, 0, 0, 10, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10}, resource.getContents());
+    }
+
+    @Test
+    public void testImageOutputStreamAppends() throws Exception {
+        ByteArrayResource resource = new ByteArrayResource(new byte[] {9, 9, 1, 2, 9}, 2, 2);
+        try (ImageOutputStream out = new ByteArrayResource.SeekableImageOutputStream(resource)) {
+            out.write(new byte[] {3, 4, 5});
+        }
+        assertArrayEquals(new byte[] {1, 2, 3, 4, 5}, resource.getContents());
+    }
+
+    @Test
+    public void testImageOutputStreamImage() throws Exception {
+        BufferedImage image = new BufferedImage(300, 200, BufferedImage.TYPE_4BYTE_ABGR);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.RED);
+        graphics.fillOval(20, 20, 200, 100);
+        graphics.dispose();
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+        try (ImageOutputStream out = new MemoryCacheImageOutputStream(expected)) {
+            writer.setOutput(out);
+            writer.write(image);
+        }
+        ByteArrayResource resource = new ByteArrayResource();
+        try (ImageOutputStream out = new ByteArrayResource.SeekableImageOutputStream(resource)) {
+            writer.setOutput(out);
+            writer.write(image);
+        }
+        writer.dispose();
+
+        assertArrayEquals(expected.toByteArray(), resource.getContents());
+    }
+}
@@ -120,6 +120,18 @@ public void testRemoveLayer() {
         }
     }
 
+    @Test
+    public void testRemoveLayerFromConfiguration() throws GeoWebCacheException {
+        String layerToRemove = GWCConfigIntegrationTestData.LAYER_TOPP_STATES;
+        assertTrue(tileLayerDispatcher.layerExists(layerToRemove));
+
+        // changes made straight to the configuration are tracked as well
+        tileLayerDispatcher.getConfiguration(layerToRemove).removeLayer(layerToRemove);
+
+        assertFalse(tileLayerDispatcher.layerExists(layerToRemove));
+        assertFalse(tileLayerDispatcher.getLayerNames().contains(layerToRemove));
+    }
+
     @Test
     public void testRemoveLayerException() {
         try {
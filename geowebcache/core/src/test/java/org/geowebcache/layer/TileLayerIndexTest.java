@@ -0,0 +1,174 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.layer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import org.geowebcache.config.TileLayerConfiguration;
+import org.geowebcache.config.TileLayerConfigurationListener;
+import org.junit.Test;
+
+public class TileLayerIndexTest {
+
+    /** A configuration holding layers in a map, notifying the changes if a listener is registered */
+    private static class MapConfiguration {
+
+        final Map<String, TileLayer> layers = new HashMap<>();
+
+        final TileLayerConfiguration config = mock(TileLayerConfiguration.class);
+
+        TileLayerConfigurationListener listener;
+
+        MapConfiguration(boolean notifying, String... names) {
+            for (String name : names) {
+                layers.put(name, layer(name));
+            }
+            when(config.getLayer(anyString())).then(i -> Optional.ofNullable(layers.get(i.<String>getArgument(0))));
+            when(config.containsLayer(anyString())).then(i -> layers.containsKey(i.<String>getArgument(0)));
+            when(config.getLayerNames()).then(i -> new HashSet<>(layers.keySet()));
+            when(config.addLayerListener(any())).then(i -> {
+                listener = i.getArgument(0);
+                return notifying;
+            });
+        }
+
+        void add(String name) {
+            TileLayer layer = layer(name);
+            layers.put(name, layer);
+            if (listener != null) listener.handleAddLayer(layer);
+        }
+
+        void remove(String name) {
+            layers.remove(name);
+            if (listener != null) listener.handleRemoveLayer(name);
+        }
+    }
+
+    private static TileLayer layer(String name) {
+        TileLayer layer = mock(TileLayer.class);
+        when(layer.getName()).thenReturn(name);
+        return layer;
+    }
+
+    @Test
+    public void testLookup() {
+        MapConfiguration first = new MapConfiguration(true, "a", "b");
+        MapConfiguration second = new MapConfiguration(true, "b", "c");
+        TileLayerIndex index = new TileLayerIndex(Arrays.asList(first.config, second.config));
+        index.build();
+
+        assertSame(first.layers.get("a"), index.getLayer("a").get());
+        assertSame(first.layers.get("b"), index.getLayer("b").get());
+        assertSame(second.layers.get("c"), index.getLayer("c").get());
+        assertFalse(index.getLayer("d").isPresent());
+        assertEquals(new HashSet<>(Arrays.asList("a", "b", "c")), index.getLayerNames());
+        assertEquals(3, index.getLayerCount());
+        // only the owner is queried
+        verify(second.config, never()).getLayer("a");
+    }
+
+    @Test
+    public void testChanges() {
+        MapConfiguration first = new MapConfiguration(true, "a", "b");
+        MapConfiguration second = new MapConfiguration(true, "b");
+        TileLayerIndex index = new TileLayerIndex(Arrays.asList(first.config, second.config));
+        index.build();
+
+        first.remove("b");
+        assertSame(second.layers.get("b"), index.getLayer("b").get());
+        assertSame(second.config, index.getConfiguration("b").get());
+        first.add("b");
+        assertSame(first.layers.get("b"), index.getLayer("b").get());
+        second.add("c");
+        assertEquals(new HashSet<>(Arrays.asList("a", "b", "c")), index.getLayerNames());
+
+        first.layers.clear();
+        first.layers.put("d", layer("d"));
+        first.listener.handleReload();
+        assertEquals(new HashSet<>(Arrays.asList("b", "c", "d")), index.getLayerNames());
+        assertSame(second.config, index.getConfiguration("b").get());
+        assertFalse(index.getConfiguration("a").isPresent());
+
+        index.dispose();
+        verify(first.config).removeLayerListener(first.listener);
+    }
+
+    @Test
+    public void testUnindexed() {
+        MapConfiguration unindexed = new MapConfiguration(false, "a");
+        MapConfiguration indexed = new MapConfiguration(true, "a", "b");
+        TileLayerIndex index = new TileLayerIndex(Arrays.asList(unindexed.config, indexed.config));
+        index.build();
+
+        // the configuration not notifying its changes is queried first
+        assertSame(unindexed.layers.get("a"), index.getLayer("a").get());
+        unindexed.add("b");
+        assertSame(unindexed.layers.get("b"), index.getLayer("b").get());
+        unindexed.add("c");
+        assertTrue(index.getLayerNames().contains("c"));
+        assertEquals(3, index.getLayerCount());
+    }
+
+    @Test(timeout = 10000)
+    public void testConcurrentRemovals() throws Exception {
+        // the first configuration notifies its changes holding its own lock, which it also takes to look up layers
+        Object lock = new Object();
+        MapConfiguration first = new MapConfiguration(true, "a");
+        when(first.config.containsLayer(anyString())).then(i -> {
+            synchronized (lock) {
+                return first.layers.containsKey(i.<String>getArgument(0));
+            }
+        });
+        MapConfiguration second = new MapConfiguration(true, "b");
+        TileLayerIndex index = new TileLayerIndex(Arrays.asList(first.config, second.config));
+        index.build();
+
+        Thread removal;
+        synchronized (lock) {
+            // looks for another owner of "b" in the first configuration, blocking on its lock
+            removal = new Thread(() -> second.remove("b"));
+            removal.start();
+            while (removal.getState() != Thread.State.BLOCKED && removal.isAlive()) {
+                Thread.sleep(1);
+            }
+            first.remove("a");
+        }
+        removal.join();
+
+        assertTrue(index.getLayerNames().isEmpty());
+    }
+
+    @Test
+    public void testEmpty() {
+        TileLayerIndex index = new TileLayerIndex(Collections.emptyList());
+        index.build();
+        assertFalse(index.getLayer("a").isPresent());
+        assertTrue(index.getLayerNames().isEmpty());
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.layer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import org.geowebcache.mime.ImageMime;
+import org.junit.Test;
+
+public class UniformTilesTest {
+
+    private static BufferedImage fill(int type, Color color) {
+        BufferedImage image = new BufferedImage(512, 256, type);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(color);
+        graphics.fillRect(0, 0, 512, 256);
+        graphics.dispose();
+        return image;
+    }
+
+    @Test
+    public void testUniform() {
+        Color ocean = new Color(170, 211, 223);
+        for (int type : new int[] {
+            BufferedImage.TYPE_3BYTE_BGR,
+            BufferedImage.TYPE_4BYTE_ABGR,
+            BufferedImage.TYPE_INT_ARGB,
+            BufferedImage.TYPE_INT_RGB
+        }) {
+            BufferedImage image = fill(type, ocean);
+            assertEquals(Integer.valueOf(ocean.getRGB()), UniformTiles.getColor(image, new Rectangle(0, 0, 256, 256)));
+            assertEquals(
+                    Integer.valueOf(ocean.getRGB()), UniformTiles.getColor(image, new Rectangle(256, 0, 256, 256)));
+        }
+    }
+
+    @Test
+    public void testNotUniform() {
+        BufferedImage image = fill(BufferedImage.TYPE_4BYTE_ABGR, Color.BLUE);
+        image.setRGB(300, 255, Color.RED.getRGB());
+        assertEquals(
+                Integer.valueOf(Color.BLUE.getRGB()), UniformTiles.getColor(image, new Rectangle(0, 0, 256, 256)));
+        assertNull(UniformTiles.getColor(image, new Rectangle(256, 0, 256, 256)));
+        // slightly different alpha
+        image = fill(BufferedImage.TYPE_4BYTE_ABGR, Color.BLUE);
+        image.setRGB(0, 0, new Color(0, 0, 255, 254).getRGB());
+        assertNull(UniformTiles.getColor(image, new Rectangle(0, 0, 256, 256)));
+    }
+
+    @Test
+    public void testTransparent() {
+        BufferedImage image = new BufferedImage(256, 256, BufferedImage.TYPE_INT_ARGB);
+        assertEquals(Integer.valueOf(0), UniformTiles.getColor(image, new Rectangle(0, 0, 256, 256)));
+        image = new BufferedImage(256, 256, BufferedImage.TYPE_BYTE_INDEXED);
+        assertEquals(
+                Integer.valueOf(image.getRGB(0, 0)), UniformTiles.getColor(image, new Rectangle(0, 0, 256, 256)));
+    }
+
+    @Test
+    public void testTransparentMixedColors() {
+        for (int type : new int[] {BufferedImage.TYPE_4BYTE_ABGR, BufferedImage.TYPE_INT_ARGB}) {
+            BufferedImage image = new BufferedImage(256, 256, type);
+            image.setRGB(10, 10, 0x00ff0000);
+            image.setRGB(200, 100, 0x0000ff00);
+            assertEquals(Integer.valueOf(0), UniformTiles.getColor(image, new Rectangle(0, 0, 256, 256)));
+            image.setRGB(255, 255, 0x01000000);
+            assertNull(UniformTiles.getColor(image, new Rectangle(0, 0, 256, 256)));
+        }
+        // two transparent palette entries
+        byte[] red = {0, (byte) 255, 0};
+        byte[] green = {0, 0, 0};
+        byte[] blue = {0, 0, (byte) 255};
+        byte[] alpha = {0, 0, (byte) 255};
+        IndexColorModel palette = new IndexColorModel(8, 3, red, green, blue, alpha);
+        BufferedImage image = new BufferedImage(256, 256, BufferedImage.TYPE_BYTE_INDEXED, palette);
+        image.getRaster().setSample(10, 10, 0, 1);
+        assertEquals(Integer.valueOf(0), UniformTiles.getColor(image, new Rectangle(0, 0, 256, 256)));
+        image.getRaster().setSample(20, 20, 0, 2);
+        assertNull(UniformTiles.getColor(image, new Rectangle(0, 0, 256, 256)));
+    }
+
+    @Test
+    public void testSixteenBits() {
+        BufferedImage image = new BufferedImage(256, 256, BufferedImage.TYPE_USHORT_GRAY);
+        assertNull(UniformTiles.getColor(image, new Rectangle(0, 0, 256, 256)));
+    }
+
+    @Test
+    public void testContentId() {
+        String id = UniformTiles.getContentId(ImageMime.png8, 256, 256, 0xff336699);
+        assertEquals("uniform_image_png8_256x256_ff336699", id);
+        assertNotEquals(id, UniformTiles.getContentId(ImageMime.png, 256, 256, 0xff336699));
+        assertNotEquals(id, UniformTiles.getContentId(ImageMime.png8, 512, 256, 0xff336699));
+    }
+}
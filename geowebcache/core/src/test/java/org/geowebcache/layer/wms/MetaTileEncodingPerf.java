@@ -0,0 +1,104 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.layer.wms;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.logging.Logger;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.config.DefaultGridsets;
+import org.geowebcache.grid.BoundingBox;
+import org.geowebcache.grid.GridSetBroker;
+import org.geowebcache.grid.GridSubset;
+import org.geowebcache.grid.GridSubsetFactory;
+import org.geowebcache.io.ByteArrayResource;
+import org.geowebcache.layer.MetaTile;
+import org.geowebcache.mime.ImageMime;
+
+/**
+ * Measures the seeding throughput of a 4x4 PNG metatile, decoded from the backend response and cut into tiles encoded
+ * in memory, with pooled readers and writers compared with a new reader and writer for each image.
+ */
+final class MetaTileEncodingPerf {
+
+    private static Logger LOGGER = Logging.getLogger(MetaTileEncodingPerf.class.getName());
+
+    // number of metatiles seeded for each measurement, after as many warm up ones
+    static final int METATILES = 200;
+
+    static final int META = 4;
+
+    public static void main(String[] args) throws Exception {
+        GridSetBroker gridSetBroker = new GridSetBroker(Collections.singletonList(new DefaultGridsets(false, false)));
+        BoundingBox bbox = new BoundingBox(-180, -90, 180, 90);
+        GridSubset grid = GridSubsetFactory.createGridSubSet(gridSetBroker.getWorldEpsg4326(), bbox, 0, 21);
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        ImageIO.write(MetaTileTest.createGradientMetaTile(META, META, 256), "png", response);
+        byte[] responseBytes = response.toByteArray();
+
+        for (int run = 0; run < 2; run++) {
+            boolean warmUp = run == 0;
+            long bytes = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < METATILES; i++) {
+                MetaTile metaTile = new MetaTile(grid, ImageMime.png, null, new long[] {0, 0, 3}, META, META, null);
+                metaTile.setImageBytes(new ByteArrayResource(responseBytes));
+                for (int t = 0; t < META * META; t++) {
+                    ByteArrayResource resource = new ByteArrayResource(16 * 1024);
+                    metaTile.writeTileToStream(t, resource);
+                    bytes += resource.getSize();
+                }
+                metaTile.dispose();
+            }
+            report(warmUp, "pooled", start, bytes);
+
+            bytes = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < METATILES; i++) {
+                // what each metatile went through before
+                BufferedImage image = ImageIO.read(new ByteArrayResource(responseBytes).getInputStream());
+                for (int y = 0; y < META; y++) {
+                    for (int x = 0; x < META; x++) {
+                        ByteArrayResource resource = new ByteArrayResource(16 * 1024);
+                        ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+                        try (OutputStream os = resource.getOutputStream();
+                                ImageOutputStream out = new MemoryCacheImageOutputStream(os)) {
+                            writer.setOutput(out);
+                            writer.write(image.getSubimage(x * 256, y * 256, 256, 256));
+                        } finally {
+                            writer.dispose();
+                        }
+                        bytes += resource.getSize();
+                    }
+                }
+            }
+            report(warmUp, "new reader and writers", start, bytes);
+        }
+    }
+
+    private static void report(boolean warmUp, String name, long start, long bytes) {
+        long nanos = System.nanoTime() - start;
+        if (!warmUp) {
+            LOGGER.info(String.format(
+                    "%s: %d metatiles in %d ms, %.1f metatiles per second, %d bytes per metatile",
+                    name, METATILES, nanos / 1_000_000, METATILES * 1e9 / nanos, bytes / METATILES));
+        }
+    }
+}
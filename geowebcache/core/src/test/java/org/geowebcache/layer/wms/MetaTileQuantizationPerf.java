@@ -0,0 +1,91 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.layer.wms;
+
+import java.awt.image.BufferedImage;
+import java.util.Collections;
+import java.util.logging.Logger;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.config.DefaultGridsets;
+import org.geowebcache.grid.BoundingBox;
+import org.geowebcache.grid.GridSetBroker;
+import org.geowebcache.grid.GridSubset;
+import org.geowebcache.grid.GridSubsetFactory;
+import org.geowebcache.io.ByteArrayResource;
+import org.geowebcache.layer.MetaTile;
+import org.geowebcache.mime.ImageMime;
+
+/**
+ * Measures the time taken to write the PNG8 tiles of a 4x4 metatile, quantizing the metatile once against a shared
+ * palette, compared with quantizing each tile on its own.
+ */
+final class MetaTileQuantizationPerf {
+
+    private static Logger LOGGER = Logging.getLogger(MetaTileQuantizationPerf.class.getName());
+
+    // number of metatiles written for each measurement, after as many warm up ones
+    static final int METATILES = 50;
+
+    static final int META = 4;
+
+    public static void main(String[] args) throws Exception {
+        GridSetBroker gridSetBroker = new GridSetBroker(Collections.singletonList(new DefaultGridsets(false, false)));
+        BoundingBox bbox = new BoundingBox(-180, -90, 180, 90);
+        GridSubset grid = GridSubsetFactory.createGridSubSet(gridSetBroker.getWorldEpsg4326(), bbox, 0, 21);
+        BufferedImage image = MetaTileTest.createGradientMetaTile(META, META, 256);
+
+        for (int run = 0; run < 2; run++) {
+            boolean warmUp = run == 0;
+            long bytes = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < METATILES; i++) {
+                MetaTile metaTile = new MetaTile(grid, ImageMime.png8, null, new long[] {0, 0, 3}, META, META, null);
+                metaTile.setImage(image);
+                for (int t = 0; t < META * META; t++) {
+                    ByteArrayResource resource = new ByteArrayResource();
+                    metaTile.writeTileToStream(t, resource);
+                    bytes += resource.getSize();
+                }
+                metaTile.dispose();
+            }
+            report(warmUp, "shared palette", start, bytes);
+
+            bytes = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < METATILES; i++) {
+                for (int y = 0; y < META; y++) {
+                    for (int x = 0; x < META; x++) {
+                        // what each tile went through before, quantized on its own
+                        MetaTile tile = new MetaTile(grid, ImageMime.png8, null, new long[] {0, 0, 3}, 1, 1, null);
+                        tile.setImage(image.getSubimage(x * 256, y * 256, 256, 256));
+                        ByteArrayResource resource = new ByteArrayResource();
+                        tile.writeTileToStream(0, resource);
+                        bytes += resource.getSize();
+                        tile.dispose();
+                    }
+                }
+            }
+            report(warmUp, "palette per tile", start, bytes);
+        }
+    }
+
+    private static void report(boolean warmUp, String name, long start, long bytes) {
+        long nanos = System.nanoTime() - start;
+        if (!warmUp) {
+            LOGGER.info(String.format(
+                    "%s: %d metatiles in %d ms, %.2f ms per metatile, %d bytes per metatile",
+                    name, METATILES, nanos / 1_000_000, nanos / 1_000_000d / METATILES, bytes / METATILES));
+        }
+    }
+}
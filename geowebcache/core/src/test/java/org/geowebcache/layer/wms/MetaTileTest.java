@@ -1,25 +1,32 @@
 package org.geowebcache.layer.wms;
 
 import java.awt.Color;
+import java.awt.GradientPaint;
 import java.awt.Graphics2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
 import java.awt.image.RenderedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import javax.imageio.ImageIO;
 import javax.media.jai.PlanarImage;
 import org.geowebcache.config.DefaultGridsets;
 import org.geowebcache.grid.BoundingBox;
 import org.geowebcache.grid.GridSetBroker;
 import org.geowebcache.grid.GridSubset;
 import org.geowebcache.grid.GridSubsetFactory;
+import org.geowebcache.io.ByteArrayResource;
 import org.geowebcache.layer.MetaTile;
 import org.geowebcache.mime.ApplicationMime;
 import org.geowebcache.mime.ImageMime;
+import org.geowebcache.mime.MimeType;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -322,6 +329,79 @@ private void checkImageBorderSameColor(RenderedImage image, Color color) throws
         }
     }
 
+    // Testing that PNG8 tiles quantized against the metatile palette look like the ones quantized one by one
+    @Test
+    public void testPNG8SharedPalette() throws Exception {
+        BufferedImage image = createGradientMetaTile(2, 2, 256);
+        BufferedImage[] shared = writeTiles(ImageMime.png8, image);
+        BufferedImage[] original = writeTiles(ImageMime.png24, image);
+        Assert.assertEquals(4, shared.length);
+        for (int i = 0; i < shared.length; i++) {
+            Assert.assertTrue(shared[i].getColorModel() instanceof IndexColorModel);
+            // the tile as it was written before, quantized on its own
+            BufferedImage separate = ImageIO.read(
+                    new ByteArrayInputStream(encode(ImageMime.png8.preprocess(original[i]))));
+            double sharedError = meanError(original[i], shared[i]);
+            double separateError = meanError(original[i], separate);
+            Assert.assertTrue("Mean error " + sharedError, sharedError < 5);
+            Assert.assertTrue(sharedError + " vs " + separateError, sharedError < separateError + 3);
+        }
+    }
+
+    private BufferedImage[] writeTiles(MimeType format, RenderedImage image) throws Exception {
+        BoundingBox boundingBox = new BoundingBox(0, 0, 180, 90);
+        GridSubset grid = GridSubsetFactory.createGridSubSet(gridSetBroker.getWorldEpsg4326(), boundingBox, 0, 21);
+        MetaTile metaTile = new MetaTile(grid, format, null, new long[] {0, 0, 1}, 2, 2, null);
+        metaTile.setImage(image);
+        BufferedImage[] tiles = new BufferedImage[metaTile.getTilesGridPositions().length];
+        for (int i = 0; i < tiles.length; i++) {
+            ByteArrayResource resource = new ByteArrayResource();
+            Assert.assertTrue(metaTile.writeTileToStream(i, resource));
+            tiles[i] = ImageIO.read(resource.getInputStream());
+        }
+        metaTile.dispose();
+        return tiles;
+    }
+
+    private byte[] encode(RenderedImage tile) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(tile, "png", bytes);
+        return bytes.toByteArray();
+    }
+
+    // Mean difference per pixel and band
+    private double meanError(BufferedImage expected, BufferedImage actual) {
+        long error = 0;
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                int a = expected.getRGB(x, y);
+                int b = actual.getRGB(x, y);
+                for (int shift = 0; shift < 32; shift += 8) {
+                    error += Math.abs(((a >> shift) & 0xff) - ((b >> shift) & 0xff));
+                }
+            }
+        }
+        return error / (4d * expected.getWidth() * expected.getHeight());
+    }
+
+    // Helper method that creates a byte RGBA image with a differently colored gradient in each tile
+    static BufferedImage createGradientMetaTile(int rows, int columns, int size) {
+        BufferedImage image = new BufferedImage(columns * size, rows * size, BufferedImage.TYPE_4BYTE_ABGR);
+        Graphics2D graphics = image.createGraphics();
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                Color from = Color.getHSBColor((i * columns + j) / (float) (rows * columns), 0.8f, 0.9f);
+                Color to = new Color(255 - from.getRed(), 255 - from.getGreen(), 255 - from.getBlue(), 128);
+                int x = j * size;
+                int y = i * size;
+                graphics.setPaint(new GradientPaint(x, y, from, x + size, y + size, to));
+                graphics.fill(new Rectangle2D.Float(x, y, size, size));
+            }
+        }
+        graphics.dispose();
+        return image;
+    }
+
     // Helper method that creates a random image with random colors
     private BufferedImage createBufferImageMetaTile(int rows, int columns, int height, int width, Color[][] colors) {
         Random random = new Random();
@@ -0,0 +1,98 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.layer.wms;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class MetaTilingTunerTest {
+
+    private static final int[] CONFIGURED = {3, 3};
+
+    private static final int ZOOM = 10;
+
+    private MetaTilingTuner tuner;
+
+    @Before
+    public void setUp() {
+        tuner = new MetaTilingTuner(1000, 1024 * 1024, 0.2);
+    }
+
+    /** Runs a window of metatile requests with the current factors, each taking the same time */
+    private int[] window(long latency, long payload, boolean serving, int hitsPerRequest) {
+        for (int i = 0; i < MetaTilingTuner.WINDOW; i++) {
+            int[] factors = tuner.getMetaTilingFactors(ZOOM, CONFIGURED);
+            for (int j = 0; j < hitsPerRequest; j++) {
+                tuner.hit(ZOOM);
+            }
+            tuner.requested(ZOOM, CONFIGURED, factors, latency, payload, serving);
+        }
+        return tuner.getMetaTilingFactors(ZOOM, CONFIGURED);
+    }
+
+    @Test
+    public void testConfiguredUntilTuned() {
+        assertArrayEquals(CONFIGURED, tuner.getMetaTilingFactors(ZOOM, CONFIGURED));
+        tuner.requested(ZOOM, CONFIGURED, CONFIGURED, 100, 1000, false);
+        assertArrayEquals(CONFIGURED, tuner.getMetaTilingFactors(ZOOM, CONFIGURED));
+        assertArrayEquals(CONFIGURED, tuner.getMetaTilingFactors(ZOOM + 1, CONFIGURED));
+    }
+
+    @Test
+    public void testGrowWhileTileLatencyDrops() {
+        // the same latency per request, lower per tile as the metatiles grow
+        assertArrayEquals(new int[] {4, 4}, window(100, 1000, false, 0));
+        assertArrayEquals(new int[] {5, 5}, window(100, 1000, false, 0));
+        // up to twice the configured factors
+        for (int i = 0; i < 5; i++) {
+            window(100, 1000, false, 0);
+        }
+        assertArrayEquals(new int[] {6, 6}, tuner.getMetaTilingFactors(ZOOM, CONFIGURED));
+    }
+
+    @Test
+    public void testBackOffWhenTileLatencyRises() {
+        assertArrayEquals(new int[] {4, 4}, window(90, 1000, false, 0));
+        // 16 tiles taking 320ms, slower per tile than 9 taking 90ms
+        assertArrayEquals(new int[] {3, 3}, window(320, 1000, false, 0));
+    }
+
+    @Test
+    public void testShrinkOverLimits() {
+        assertArrayEquals(new int[] {2, 2}, window(2000, 1000, false, 0));
+        assertArrayEquals(new int[] {1, 1}, window(100, 2 * 1024 * 1024, false, 0));
+        // never below 1
+        assertArrayEquals(new int[] {1, 1}, window(2000, 1000, false, 0));
+    }
+
+    @Test
+    public void testShrinkOnLowHitRatio() {
+        // 1 hit for 9 tiles generated while serving
+        assertArrayEquals(new int[] {2, 2}, window(100, 1000, true, 1));
+        // seeding does not count for the hit ratio, back up as the latency per tile rose
+        assertArrayEquals(new int[] {3, 3}, window(100, 1000, false, 0));
+        assertArrayEquals(new int[] {2, 2}, window(100, 1000, true, 1));
+    }
+
+    @Test
+    public void testNonSquareFactors() {
+        int[] configured = {4, 2};
+        for (int i = 0; i < MetaTilingTuner.WINDOW; i++) {
+            tuner.requested(ZOOM, configured, configured, 5000, 1000, false);
+        }
+        assertArrayEquals(new int[] {3, 1}, tuner.getMetaTilingFactors(ZOOM, configured));
+    }
+}
@@ -0,0 +1,184 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.layer.wms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.geowebcache.GeoWebCacheException;
+import org.junit.Before;
+import org.junit.Test;
+
+public class WMSBackendManagerTest {
+
+    private static final String[] URLS = {"http://a:8080/wms?", "http://b:8080/wms?tiled=true"};
+
+    private static final Set<WMSBackend> NONE = Collections.emptySet();
+
+    private WMSBackendManager manager;
+
+    private WMSBackend a;
+
+    private WMSBackend b;
+
+    @Before
+    public void setUp() {
+        manager = new WMSBackendManager();
+        manager.setMaxConcurrency(4);
+        manager.setMaxWait(0);
+        a = manager.getBackend("http://a:8080/wms");
+        b = manager.getBackend("http://b:8080/wms");
+    }
+
+    private static void complete(WMSBackend.Call call, long millis) {
+        call.complete(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    @Test
+    public void testBackendKey() {
+        assertEquals(a, manager.getBackend(URLS[0]));
+        assertEquals(b, manager.getBackend(URLS[1]));
+        assertEquals(2, manager.getBackends().size());
+    }
+
+    @Test
+    public void testRoundRobinWhenEquallyLoaded() throws Exception {
+        WMSBackend.Call first = manager.acquire(URLS, NONE);
+        WMSBackend.Call second = manager.acquire(URLS, NONE);
+        assertNotEquals(first.getBackend(), second.getBackend());
+        assertEquals(URLS[1], (first.getBackend() == b ? first : second).getRequestUrl());
+    }
+
+    @Test
+    public void testLatencyAwareBalancing() throws Exception {
+        complete(manager.acquire(new String[] {URLS[0]}, NONE), 100);
+        complete(manager.acquire(new String[] {URLS[1]}, NONE), 30);
+        // b until its expected latency, weighted by its requests in progress, exceeds the one of a
+        assertEquals(b, manager.acquire(URLS, NONE).getBackend());
+        assertEquals(b, manager.acquire(URLS, NONE).getBackend());
+        assertEquals(b, manager.acquire(URLS, NONE).getBackend());
+        assertEquals(a, manager.acquire(URLS, NONE).getBackend());
+        assertEquals(1, b.getRequests());
+        assertEquals(3, b.getOutstanding());
+        assertEquals(30, b.getLatency(), 0.1);
+    }
+
+    @Test
+    public void testExcluded() throws Exception {
+        WMSBackend.Call call = manager.acquire(URLS, Collections.singleton(a));
+        assertEquals(b, call.getBackend());
+        assertNull(manager.acquire(URLS, Set.of(a, b)));
+    }
+
+    @Test
+    public void testNoLoadSheddingByDefault() throws Exception {
+        manager = new WMSBackendManager();
+        assertFalse(manager.isAdaptiveLimit());
+        assertEquals(0, manager.getFailureThreshold());
+        manager.setMaxConcurrency(2);
+        manager.setMaxWait(0);
+        String[] urls = {URLS[0]};
+        a = manager.getBackend(URLS[0]);
+
+        // failing and slowing down neither shrinks the limit nor opens the circuit
+        for (int i = 0; i < 10; i++) {
+            WMSBackend.Call call = manager.acquire(urls, NONE);
+            call.failed();
+            call.close();
+        }
+        for (int i = 0; i < 10; i++) {
+            complete(manager.acquire(urls, NONE), i < 5 ? 10 : 1000);
+        }
+        assertEquals(2, a.getLimit());
+        assertEquals(WMSBackend.CircuitState.CLOSED, a.getCircuitState());
+
+        // past the limit, requests are still sent once the wait elapses
+        for (int i = 0; i < 3; i++) {
+            assertNotNull(manager.acquire(urls, NONE));
+        }
+        assertEquals(3, a.getOutstanding());
+        assertNull(manager.tryAcquire(urls, NONE));
+    }
+
+    @Test
+    public void testAdaptiveLimit() throws Exception {
+        manager.setAdaptiveLimit(true);
+        String[] urls = {URLS[0]};
+        for (int i = 0; i < 4; i++) {
+            assertNotNull(manager.acquire(urls, NONE));
+        }
+        // at its limit, the request does not wait
+        assertThrows(GeoWebCacheException.class, () -> manager.acquire(urls, NONE));
+        assertNull(manager.tryAcquire(urls, NONE));
+
+        WMSBackend.Call call = a.tryAcquire(System.nanoTime(), URLS[0]);
+        assertNull(call);
+        assertEquals(4, a.getLimit());
+
+        // multiplicative decrease on failures
+        manager.setMaxConcurrency(8);
+        WMSBackend other = manager.getBackend("http://c:8080/wms");
+        WMSBackend.Call failing = other.tryAcquire(System.nanoTime(), "");
+        failing.failed();
+        failing.close();
+        assertEquals(4, other.getLimit());
+        // additive increase on successes, by about one every limit worth of requests
+        for (int i = 0; i < 5; i++) {
+            complete(other.tryAcquire(System.nanoTime(), ""), 10);
+        }
+        assertEquals(5, other.getLimit());
+        // and decrease when the latency grows well beyond its average
+        for (int i = 0; i < 4; i++) {
+            complete(other.tryAcquire(System.nanoTime(), ""), 1000);
+        }
+        assertTrue(other.getLimit() < 5);
+    }
+
+    @Test
+    public void testCircuitBreaker() throws Exception {
+        manager.setFailureThreshold(2);
+        manager.setRetryInterval(60000);
+        String[] urls = {URLS[0]};
+        for (int i = 0; i < 2; i++) {
+            WMSBackend.Call call = manager.acquire(urls, NONE);
+            call.failed();
+            call.close();
+        }
+        assertEquals(WMSBackend.CircuitState.OPEN, a.getCircuitState());
+        assertEquals(1, a.getCircuitOpenings());
+        assertEquals(2, a.getFailures());
+        GeoWebCacheException e = assertThrows(GeoWebCacheException.class, () -> manager.acquire(urls, NONE));
+        assertTrue(e.getMessage(), e.getMessage().contains("circuit"));
+        // the other backend takes the requests
+        assertEquals(b, manager.acquire(URLS, NONE).getBackend());
+
+        // a single probe once the retry interval elapsed
+        manager.setRetryInterval(0);
+        WMSBackend.Call probe = a.tryAcquire(System.nanoTime() + TimeUnit.MINUTES.toNanos(2), URLS[0]);
+        assertNotNull(probe);
+        assertEquals(WMSBackend.CircuitState.HALF_OPEN, a.getCircuitState());
+        assertNull(manager.tryAcquire(urls, NONE));
+        probe.close();
+        assertEquals(WMSBackend.CircuitState.CLOSED, a.getCircuitState());
+        assertNotNull(manager.tryAcquire(urls, NONE));
+    }
+}
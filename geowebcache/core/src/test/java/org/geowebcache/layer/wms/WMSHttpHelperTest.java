@@ -12,19 +12,49 @@
 package org.geowebcache.layer.wms;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.net.ConnectException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.message.BasicHttpResponse;
 import org.geowebcache.GeoWebCacheEnvironment;
+import org.geowebcache.GeoWebCacheException;
+import org.geowebcache.config.DefaultGridsets;
+import org.geowebcache.grid.GridSetBroker;
+import org.geowebcache.grid.GridSubset;
+import org.geowebcache.grid.GridSubsetFactory;
+import org.geowebcache.io.ByteArrayResource;
+import org.geowebcache.io.Resource;
 import org.geowebcache.layer.wms.WMSLayer.HttpRequestMode;
+import org.geowebcache.mime.ImageMime;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.contrib.java.lang.system.EnvironmentVariables;
@@ -101,4 +131,233 @@ public void testExecuteRequestUsesResolvedCredentials() throws IOException, URIS
                         Mockito.nullable(URL.class),
                         Mockito.anyInt());
     }
+
+    private static WMSMetaTile metaTile() {
+        GridSetBroker gridSetBroker = new GridSetBroker(Collections.singletonList(new DefaultGridsets(false, false)));
+        GridSubset grid = GridSubsetFactory.createGridSubSet(gridSetBroker.getWorldEpsg4326());
+        Map<String, GridSubset> grids = new HashMap<>();
+        grids.put(grid.getName(), grid);
+        WMSLayer layer = new WMSLayer(
+                "test:layer",
+                new String[] {"http://localhost:38080/wms"},
+                null,
+                "test:layer",
+                Collections.singletonList("image/png"),
+                grids,
+                null,
+                new int[] {2, 2},
+                null,
+                false,
+                null);
+        layer.initialize(gridSetBroker);
+        return new WMSMetaTile(
+                layer, grid, ImageMime.png, null, new long[] {4, 2, 3}, 2, 2, Collections.emptyMap());
+    }
+
+    private static WMSHttpHelper respondWith(String contentType, byte[] body) throws IOException {
+        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        response.setHeader("Content-Type", contentType);
+        response.setEntity(new ByteArrayEntity(body));
+        WMSHttpHelper helper = spy(new WMSHttpHelper());
+        doReturn(response).when(helper).execute(any(), any(HttpRequestBase.class));
+        return helper;
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", out);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testStreamDecoding() throws Exception {
+        WMSMetaTile metaTile = metaTile();
+        byte[] png = png(512, 512);
+        WMSHttpHelper helper = respondWith("image/png", png);
+        ByteArrayResource buffer = new ByteArrayResource();
+
+        helper.makeRequest(metaTile, buffer);
+        assertFalse(metaTile.getError());
+        assertEquals(512, metaTile.getImage().getWidth());
+        // decoded as received, never buffered, but the response is still accounted for
+        assertEquals(0, buffer.getSize());
+        assertEquals(png.length, metaTile.getReceivedBytes());
+    }
+
+    @Test
+    public void testStreamDecodingDisabled() throws Exception {
+        WMSMetaTile metaTile = metaTile();
+        byte[] png = png(512, 512);
+        WMSHttpHelper helper = respondWith("image/png", png);
+        helper.setStreamDecoding(false);
+        ByteArrayResource buffer = new ByteArrayResource();
+
+        helper.makeRequest(metaTile, buffer);
+        assertNull(metaTile.getImage());
+        assertEquals(png.length, buffer.getSize());
+    }
+
+    @Test
+    public void testErrorDocumentServedAsImage() throws Exception {
+        WMSMetaTile metaTile = metaTile();
+        String exception = "<ServiceExceptionReport><ServiceException>Rendering failed</ServiceException>"
+                + "</ServiceExceptionReport>";
+        WMSHttpHelper helper = respondWith("image/png", exception.getBytes(StandardCharsets.UTF_8));
+
+        helper.makeRequest(metaTile, new ByteArrayResource());
+        assertTrue(metaTile.getError());
+        assertNull(metaTile.getImage());
+        assertTrue(metaTile.getErrorMessage(), metaTile.getErrorMessage().contains("Rendering failed"));
+    }
+
+    @Test
+    public void testHedgedRequest() throws Exception {
+        WMSMetaTile metaTile = metaTile();
+        metaTile.getLayer().setWMSurl(new String[] {"http://slow:38080/wms?", "http://fast:38080/wms?"});
+        byte[] png = png(16, 16);
+        WMSHttpHelper helper = spy(new WMSHttpHelper());
+        WMSBackendManager backends = new WMSBackendManager();
+        backends.setHedgeDelay(50);
+        helper.setBackendManager(backends);
+        doAnswer(invocation -> {
+                    HttpRequestBase request = invocation.getArgument(1);
+                    if (request.getURI().getHost().equals("slow")) {
+                        Thread.sleep(10000);
+                    }
+                    HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+                    response.setHeader("Content-Type", "image/png");
+                    response.setEntity(new ByteArrayEntity(png));
+                    return response;
+                })
+                .when(helper)
+                .execute(any(), any(HttpRequestBase.class));
+
+        // the slow backend looks faster so far, and gets the request first
+        backends.getBackend("http://slow:38080/wms").tryAcquire(System.nanoTime(), "").complete(1_000_000);
+        backends.getBackend("http://fast:38080/wms").tryAcquire(System.nanoTime(), "").complete(100_000_000);
+
+        ByteArrayResource buffer = new ByteArrayResource();
+        long start = System.nanoTime();
+        helper.makeRequest(metaTile, metaTile.getLayer(), metaTile.getWMSParams(), ImageMime.png, buffer);
+        assertTrue(System.nanoTime() - start < 5_000_000_000L);
+        assertEquals(png.length, buffer.getSize());
+        assertFalse(metaTile.getError());
+        WMSBackend fast = backends.getBackend("http://fast:38080/wms");
+        assertEquals(1, fast.getHedges());
+        assertEquals(1, fast.getHedgesWon());
+        backends.destroy();
+    }
+
+    @Test
+    public void testAsyncRequest() throws Exception {
+        WMSMetaTile metaTile = metaTile();
+        metaTile.getLayer().setWMSurl(new String[] {"http://down:38080/wms?", "http://up:38080/wms?"});
+        byte[] png = png(16, 16);
+        WMSHttpHelper helper = spy(new WMSHttpHelper());
+        WMSBackendManager backends = new WMSBackendManager();
+        helper.setBackendManager(backends);
+        doAnswer(invocation -> {
+                    HttpRequestBase request = invocation.getArgument(1);
+                    FutureCallback<HttpResponse> callback = invocation.getArgument(3);
+                    if (request.getURI().getHost().equals("down")) {
+                        callback.failed(new ConnectException("Connection refused"));
+                    } else {
+                        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+                        response.setHeader("Content-Type", "image/png");
+                        response.setEntity(new ByteArrayEntity(png));
+                        callback.completed(response);
+                    }
+                    return null;
+                })
+                .when(helper)
+                .executeAsync(any(), any(), any(), any());
+
+        // the failing backend looks faster, and gets the request first
+        backends.getBackend("http://down:38080/wms").tryAcquire(System.nanoTime(), "").complete(1_000_000);
+        backends.getBackend("http://up:38080/wms").tryAcquire(System.nanoTime(), "").complete(100_000_000);
+
+        ByteArrayResource buffer = new ByteArrayResource();
+        CompletableFuture<Resource> response = helper.makeRequestAsync(metaTile, buffer);
+        assertSame(buffer, response.get(10, TimeUnit.SECONDS));
+        assertEquals(png.length, buffer.getSize());
+        assertFalse(metaTile.getError());
+        assertEquals(1, backends.getBackend("http://down:38080/wms").getFailures());
+        assertEquals(0, backends.getBackend("http://up:38080/wms").getFailures());
+        backends.destroy();
+    }
+
+    @Test
+    public void testAsyncRequestAllFailed() throws Exception {
+        WMSMetaTile metaTile = metaTile();
+        WMSHttpHelper helper = spy(new WMSHttpHelper());
+        WMSBackendManager backends = new WMSBackendManager();
+        helper.setBackendManager(backends);
+        doAnswer(invocation -> {
+                    FutureCallback<HttpResponse> callback = invocation.getArgument(3);
+                    callback.failed(new ConnectException("Connection refused"));
+                    return null;
+                })
+                .when(helper)
+                .executeAsync(any(), any(), any(), any());
+
+        CompletableFuture<Resource> response = helper.makeRequestAsync(metaTile, new ByteArrayResource());
+        try {
+            response.get(10, TimeUnit.SECONDS);
+            fail("Expected the request to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof GeoWebCacheException);
+        }
+        backends.destroy();
+    }
+
+    @Test(timeout = 10000)
+    public void testAsyncRequestStartFailureReleasesPermit() throws Exception {
+        WMSMetaTile metaTile = metaTile();
+        WMSHttpHelper helper = spy(new WMSHttpHelper());
+        helper.setConcurrency(1);
+        WMSBackendManager backends = Mockito.mock(WMSBackendManager.class);
+        Mockito.when(backends.acquire(any(), any())).thenThrow(new IllegalStateException("broken"));
+        helper.setBackendManager(backends);
+
+        // would block on the second request if the permit leaked
+        for (int i = 0; i < 2; i++) {
+            CompletableFuture<Resource> response = helper.makeRequestAsync(metaTile, new ByteArrayResource());
+            try {
+                response.get();
+                fail("Expected the request to fail");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+    }
+
+    @Test
+    public void testAsyncRequestCancelled() throws Exception {
+        WMSMetaTile metaTile = metaTile();
+        WMSHttpHelper helper = spy(new WMSHttpHelper());
+        WMSBackendManager backends = new WMSBackendManager();
+        helper.setBackendManager(backends);
+        CompletableFuture<HttpRequestBase> sent = new CompletableFuture<>();
+        CompletableFuture<FutureCallback<HttpResponse>> callback = new CompletableFuture<>();
+        doAnswer(invocation -> {
+                    sent.complete(invocation.getArgument(1));
+                    callback.complete(invocation.getArgument(3));
+                    return null;
+                })
+                .when(helper)
+                .executeAsync(any(), any(), any(), any());
+
+        CompletableFuture<Resource> response = helper.makeRequestAsync(metaTile, new ByteArrayResource());
+        HttpRequestBase request = sent.get(10, TimeUnit.SECONDS);
+        assertFalse(request.isAborted());
+        response.cancel(false);
+        assertTrue(request.isAborted());
+
+        // the client reports the aborted request, which is not held against the backend
+        callback.get().failed(new IOException("Request aborted"));
+        WMSBackend backend = backends.getBackends().iterator().next();
+        assertEquals(0, backend.getOutstanding());
+        assertEquals(0, backend.getFailures());
+        backends.destroy();
+    }
 }
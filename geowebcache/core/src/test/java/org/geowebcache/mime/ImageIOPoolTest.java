@@ -0,0 +1,95 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.mime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriter;
+import javax.imageio.spi.ImageReaderSpi;
+import javax.imageio.spi.ImageWriterSpi;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import org.junit.Test;
+
+public class ImageIOPoolTest {
+
+    @Test
+    public void testWriterReuse() throws Exception {
+        ImageWriterSpi spi = ImageIOPool.getWriterProviders("jpeg").next();
+        ImageWriter writer = ImageIOPool.getWriter(spi);
+        writer.setOutput(new MemoryCacheImageOutputStream(new ByteArrayOutputStream()));
+        writer.write(new BufferedImage(10, 10, BufferedImage.TYPE_3BYTE_BGR));
+        ImageIOPool.release(writer);
+
+        // reset and handed out again
+        ImageWriter reused = ImageIOPool.getWriter(spi);
+        assertSame(writer, reused);
+        assertNull(reused.getOutput());
+        // the pool is empty again
+        assertNotSame(writer, ImageIOPool.getWriter(spi));
+    }
+
+    @Test
+    public void testWriterProviders() throws Exception {
+        BufferedImage image = new BufferedImage(10, 10, BufferedImage.TYPE_3BYTE_BGR);
+        ImageWriter expected = ImageIO.getImageWritersByFormatName("png").next();
+        assertEquals(expected.getClass(), ImageMime.png.getImageWriter(image).getClass());
+    }
+
+    @Test
+    public void testReaderReuse() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(10, 10, BufferedImage.TYPE_3BYTE_BGR), "png", bytes);
+        ImageReaderSpi spi;
+        try (ImageInputStream stream = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            spi = ImageIOPool.getReaderProvider(stream);
+            // the stream was left at its start
+            assertEquals(0, stream.getStreamPosition());
+            ImageReader reader = ImageIOPool.getReader(spi);
+            reader.setInput(stream);
+            assertEquals(10, reader.read(0).getWidth());
+            ImageIOPool.release(reader);
+            assertNull(reader.getInput());
+            assertSame(reader, ImageIOPool.getReader(spi));
+        }
+    }
+
+    @Test
+    public void testBounded() throws Exception {
+        ImageWriterSpi spi = ImageIOPool.getWriterProviders("gif").next();
+        List<ImageWriter> writers = new ArrayList<>();
+        for (int i = 0; i < ImageIOPool.MAX_IDLE + 5; i++) {
+            writers.add(ImageIOPool.getWriter(spi));
+        }
+        writers.forEach(ImageIOPool::release);
+        List<ImageWriter> reused = new ArrayList<>();
+        for (int i = 0; i < ImageIOPool.MAX_IDLE + 5; i++) {
+            ImageWriter writer = ImageIOPool.getWriter(spi);
+            if (writers.contains(writer)) {
+                reused.add(writer);
+            }
+        }
+        assertEquals(ImageIOPool.MAX_IDLE, reused.size());
+    }
+}
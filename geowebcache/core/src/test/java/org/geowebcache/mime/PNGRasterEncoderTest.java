@@ -0,0 +1,185 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.mime;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import javax.imageio.ImageIO;
+import org.geowebcache.mime.PNGRasterEncoder.Filter;
+import org.junit.After;
+import org.junit.Test;
+
+public class PNGRasterEncoderTest {
+
+    private PNGRasterEncoder encoder = new PNGRasterEncoder();
+
+    @After
+    public void tearDown() {
+        encoder.dispose();
+    }
+
+    private static BufferedImage createImage(int width, int height, int type) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setPaint(new GradientPaint(0, 0, new Color(255, 0, 0, 40), width, height, Color.BLUE));
+            graphics.fillRect(0, 0, width, height);
+            Random random = new Random(42);
+            for (int i = 0; i < 50; i++) {
+                graphics.setColor(new Color(random.nextInt(), true));
+                graphics.fillOval(random.nextInt(width), random.nextInt(height), 1 + width / 8, 1 + height / 8);
+            }
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+
+    private BufferedImage roundTrip(BufferedImage image) throws IOException {
+        assertTrue(PNGRasterEncoder.isSupported(image));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.encode(image, out);
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+        assertPixelsEqual(image, decoded);
+        return decoded;
+    }
+
+    private static void assertPixelsEqual(BufferedImage expected, BufferedImage actual) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertEquals(
+                        "Pixel " + x + "," + y,
+                        Integer.toHexString(expected.getRGB(x, y)),
+                        Integer.toHexString(actual.getRGB(x, y)));
+            }
+        }
+    }
+
+    @Test
+    public void testImageTypes() throws Exception {
+        int[] types = {
+            BufferedImage.TYPE_INT_RGB,
+            BufferedImage.TYPE_INT_ARGB,
+            BufferedImage.TYPE_INT_BGR,
+            BufferedImage.TYPE_3BYTE_BGR,
+            BufferedImage.TYPE_4BYTE_ABGR,
+            BufferedImage.TYPE_BYTE_GRAY,
+            BufferedImage.TYPE_BYTE_INDEXED,
+            BufferedImage.TYPE_BYTE_BINARY
+        };
+        for (int type : types) {
+            roundTrip(createImage(67, 45, type));
+        }
+    }
+
+    @Test
+    public void testFilters() throws Exception {
+        BufferedImage image = createImage(100, 80, BufferedImage.TYPE_4BYTE_ABGR);
+        for (Filter filter : Filter.values()) {
+            encoder.dispose();
+            encoder = new PNGRasterEncoder(6, filter, 1);
+            roundTrip(image);
+        }
+        BufferedImage gray = createImage(100, 80, BufferedImage.TYPE_BYTE_GRAY);
+        for (Filter filter : Filter.values()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            encoder.encode(gray, out, filter);
+            assertPixelsEqual(gray, ImageIO.read(new ByteArrayInputStream(out.toByteArray())));
+        }
+    }
+
+    @Test
+    public void testCompressionLevels() throws Exception {
+        BufferedImage image = createImage(256, 256, BufferedImage.TYPE_INT_ARGB);
+        for (int level = 0; level <= 9; level++) {
+            encoder.dispose();
+            encoder = new PNGRasterEncoder(level, Filter.ADAPTIVE, 1);
+            roundTrip(image);
+        }
+    }
+
+    @Test
+    public void testSubImages() throws Exception {
+        roundTrip(createImage(100, 80, BufferedImage.TYPE_4BYTE_ABGR).getSubimage(13, 7, 50, 41));
+        roundTrip(createImage(100, 80, BufferedImage.TYPE_INT_ARGB).getSubimage(13, 7, 50, 41));
+        // not starting on a byte boundary
+        roundTrip(createImage(100, 80, BufferedImage.TYPE_BYTE_BINARY).getSubimage(3, 7, 50, 41));
+    }
+
+    @Test
+    public void testPaletteTransparency() throws Exception {
+        byte[] reds = {0, (byte) 255, 0, 0};
+        byte[] greens = {0, 0, (byte) 255, 0};
+        byte[] blues = {0, 0, 0, (byte) 255};
+        byte[] alphas = {0, (byte) 255, (byte) 128, (byte) 255};
+        IndexColorModel palette = new IndexColorModel(2, 4, reds, greens, blues, alphas);
+        BufferedImage image = new BufferedImage(33, 21, BufferedImage.TYPE_BYTE_BINARY, palette);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.getRaster().setSample(x, y, 0, (x + y) % 4);
+            }
+        }
+        BufferedImage decoded = roundTrip(image);
+        assertEquals(0, decoded.getRGB(0, 0) >>> 24);
+        assertEquals(128, decoded.getRGB(2, 0) >>> 24);
+    }
+
+    @Test
+    public void testParallelDeflate() throws Exception {
+        encoder.dispose();
+        encoder = new PNGRasterEncoder(PNGRasterEncoder.DEFAULT_COMPRESSION_LEVEL, Filter.ADAPTIVE, 4);
+        BufferedImage image = createImage(1024, 768, BufferedImage.TYPE_INT_ARGB);
+        assertTrue(image.getWidth() * image.getHeight() * 4L > PNGRasterEncoder.PARALLEL_THRESHOLD);
+        roundTrip(image);
+        // the deflaters are reused
+        roundTrip(image);
+        roundTrip(createImage(1024, 768, BufferedImage.TYPE_BYTE_INDEXED));
+    }
+
+    @Test
+    public void testReuseDeflaters() throws Exception {
+        BufferedImage image = createImage(120, 90, BufferedImage.TYPE_INT_ARGB);
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        encoder.encode(image, first);
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        encoder.encode(image, second);
+        assertEquals(first.size(), second.size());
+        assertArrayEquals(first.toByteArray(), second.toByteArray());
+    }
+
+    @Test
+    public void testUnsupported() throws Exception {
+        BufferedImage premultiplied = new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB_PRE);
+        BufferedImage ushort = new BufferedImage(10, 10, BufferedImage.TYPE_USHORT_GRAY);
+        assertFalse(PNGRasterEncoder.isSupported(premultiplied));
+        assertFalse(PNGRasterEncoder.isSupported(ushort));
+        assertFalse(PNGRasterEncoder.isSupported(null));
+        assertThrows(IllegalArgumentException.class, () -> encoder.encode(ushort, new ByteArrayOutputStream()));
+    }
+}
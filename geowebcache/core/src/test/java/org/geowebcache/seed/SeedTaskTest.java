@@ -32,6 +32,12 @@
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import org.easymock.Capture;
@@ -241,6 +247,71 @@ protected void makeRequest(
         verify(sleeper);
     }
 
+    /** Make sure the seeder keeps several asynchronous requests in progress when told to */
+    @Test
+    public void testSeedAsyncRequests() throws Exception {
+        WMSLayer tl = createWMSLayer("image/png");
+
+        // the responses are only received once all the requests have been sent
+        final int expectedWmsRequestsCount = 3; // due to metatiling
+        final CountDownLatch sent = new CountDownLatch(expectedWmsRequestsCount);
+        final AtomicInteger received = new AtomicInteger();
+        final ExecutorService backend = Executors.newCachedThreadPool();
+        WMSSourceHelper mockSourceHelper = new MockWMSSourceHelper() {
+            @Override
+            public CompletableFuture<Resource> makeRequestAsync(WMSMetaTile metaTile, Resource target) {
+                sent.countDown();
+                return CompletableFuture.supplyAsync(
+                        () -> {
+                            try {
+                                if (!sent.await(10, TimeUnit.SECONDS)) {
+                                    throw new CompletionException(new GeoWebCacheException("Not sent at once"));
+                                }
+                                makeRequest(metaTile, target);
+                            } catch (InterruptedException | GeoWebCacheException e) {
+                                throw new CompletionException(e);
+                            }
+                            received.incrementAndGet();
+                            return target;
+                        },
+                        backend);
+            }
+        };
+        tl.setSourceHelper(mockSourceHelper);
+
+        final int zoomLevel = 4;
+        SeedRequest req = createRequest(tl, TYPE.SEED, zoomLevel, zoomLevel);
+
+        TileRange tr = TileBreeder.createTileRange(req, tl);
+        TileRangeIterator trIter = new TileRangeIterator(tr, tl.getMetaTilingFactors());
+
+        final StorageBroker mockStorageBroker = EasyMock.createMock(StorageBroker.class);
+        expect(mockStorageBroker.put(anyObject())).andReturn(true).anyTimes();
+        expect(mockStorageBroker.get(anyObject())).andReturn(false).anyTimes();
+        replay(mockStorageBroker);
+
+        SeedTask seedTask = new SeedTask(mockStorageBroker, trIter, tl, false, false);
+        seedTask.setTaskId(1L);
+        seedTask.setThreadInfo(new AtomicInteger(), 0);
+        seedTask.setAsyncRequests(expectedWmsRequestsCount);
+        Sleeper sleeper = createMock(Sleeper.class);
+        // Should not be called
+        replay(sleeper);
+        seedTask.sleeper = sleeper;
+
+        Thread.currentThread().setName("pool-fake-thread-1");
+
+        try {
+            seedTask.doAction();
+        } finally {
+            backend.shutdownNow();
+        }
+
+        Assert.assertEquals(0, sent.getCount());
+        Assert.assertEquals(expectedWmsRequestsCount, received.get());
+        verify(sleeper);
+    }
+
     /** Make sure when seeding a given zoom level, the correct tiles are sent to the {@link StorageBroker} */
     @Test
     @SuppressWarnings("serial")
@@ -0,0 +1,133 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.service;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.geowebcache.io.XMLBuilder;
+import org.geowebcache.layer.TileLayer;
+import org.junit.Test;
+
+public class CapabilitiesCacheTest {
+
+    private static TileLayer layer(String name) {
+        TileLayer layer = createNiceMock(TileLayer.class);
+        expect(layer.getName()).andStubReturn(name);
+        replay(layer);
+        return layer;
+    }
+
+    @Test
+    public void testLayerFragment() throws Exception {
+        CapabilitiesCache<String> cache = new CapabilitiesCache<>(10);
+        TileLayer layer = layer("a");
+        AtomicInteger renders = new AtomicInteger();
+        CapabilitiesCache.Renderer<String> renderer = () -> "a" + renders.incrementAndGet();
+
+        assertEquals("a1", cache.getLayerFragment(layer, "ctx", renderer));
+        assertEquals("a1", cache.getLayerFragment(layer, "ctx", renderer));
+        // other context
+        assertEquals("a2", cache.getLayerFragment(layer, "other", renderer));
+        // layer changed in place
+        cache.layerModified("b");
+        assertEquals("a1", cache.getLayerFragment(layer, "ctx", renderer));
+        cache.layerModified("a");
+        assertEquals("a3", cache.getLayerFragment(layer, "ctx", renderer));
+        // layer object replaced
+        assertEquals("a4", cache.getLayerFragment(layer("a"), "ctx", renderer));
+    }
+
+    @Test
+    public void testDocument() throws Exception {
+        CapabilitiesCache<String> cache = new CapabilitiesCache<>(10);
+        List<TileLayer> layers = Arrays.asList(layer("a"), layer("b"));
+        Object serviceInfo = new Object();
+        AtomicInteger renders = new AtomicInteger();
+        CapabilitiesCache.Renderer<String> renderer = () -> "<doc>" + renders.incrementAndGet() + "</doc>";
+
+        CapabilitiesCache.Document document =
+                cache.getDocument("ctx", layers, Collections.singleton(serviceInfo), renderer);
+        assertSame(document, cache.getDocument("ctx", layers, Collections.singleton(serviceInfo), renderer));
+        assertTrue(document.getETag().startsWith("\""));
+
+        // security filtering, other layers
+        assertNotSame(document, cache.getDocument("ctx", layers.subList(0, 1), Collections.emptyList(), renderer));
+        // changed dependency
+        CapabilitiesCache.Document changed =
+                cache.getDocument("ctx", layers, Collections.singleton(new Object()), renderer);
+        assertNotSame(document, changed);
+        assertNotEquals(document.getETag(), changed.getETag());
+        // events drop all documents
+        cache.configurationChanged();
+        assertEquals(3, renders.get());
+        cache.getDocument("ctx", layers, Collections.singleton(serviceInfo), renderer);
+        assertEquals(4, renders.get());
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        CapabilitiesCache<String> cache = new CapabilitiesCache<>(0);
+        List<TileLayer> layers = Collections.singletonList(layer("a"));
+        CapabilitiesCache.Document document = cache.getDocument("ctx", layers, Collections.emptyList(), () -> "<doc/>");
+        CapabilitiesCache.Document other = cache.getDocument("ctx", layers, Collections.emptyList(), () -> "<doc/>");
+        assertNotSame(document, other);
+        assertEquals(document.getETag(), other.getETag());
+    }
+
+    @Test
+    public void testConditionalHeaders() {
+        assertTrue(CapabilitiesCache.matches("\"abc\"", "\"abc\""));
+        assertTrue(CapabilitiesCache.matches("\"xyz\", W/\"abc\"", "\"abc\""));
+        assertTrue(CapabilitiesCache.matches("*", "\"abc\""));
+        assertFalse(CapabilitiesCache.matches("\"xyz\"", "\"abc\""));
+        assertFalse(CapabilitiesCache.matches(null, "\"abc\""));
+
+        assertTrue(CapabilitiesCache.acceptsGzip("gzip"));
+        assertTrue(CapabilitiesCache.acceptsGzip("deflate, GZIP;q=0.5"));
+        assertFalse(CapabilitiesCache.acceptsGzip("gzip;q=0"));
+        assertFalse(CapabilitiesCache.acceptsGzip("deflate, br"));
+        assertFalse(CapabilitiesCache.acceptsGzip(null));
+    }
+
+    @Test
+    public void testXMLFragment() throws Exception {
+        StringBuilder expected = new StringBuilder();
+        XMLBuilder xml = new XMLBuilder(expected);
+        xml.indentElement("Root").indentElement("Contents");
+        xml.indentElement("Layer").simpleElement("Name", "a", true).endElement();
+        xml.endElement().endElement();
+
+        StringBuilder actual = new StringBuilder();
+        xml = new XMLBuilder(actual);
+        xml.indentElement("Root").indentElement("Contents");
+        StringBuilder fragment = new StringBuilder();
+        xml.fragment(fragment).indentElement("Layer").simpleElement("Name", "a", true).endElement();
+        xml.appendFragment(fragment);
+        xml.endElement().endElement();
+
+        assertEquals(expected.toString(), actual.toString());
+    }
+}
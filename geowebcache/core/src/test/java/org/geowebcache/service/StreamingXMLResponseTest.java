@@ -0,0 +1,63 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class StreamingXMLResponseTest {
+
+    @Test
+    public void testPlain() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        StreamingXMLResponse out = StreamingXMLResponse.open(new MockHttpServletRequest(), response);
+        try (out) {
+            out.getBuilder().indentElement("Root").simpleElement("Name", "a&b", true).endElement();
+        }
+
+        String expected = "\n<Root>\n  <Name>a&amp;b</Name>\n</Root>";
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        assertEquals("UTF-8", response.getCharacterEncoding());
+        assertEquals(expected, response.getContentAsString());
+        assertEquals(expected.length(), out.getBytesWritten());
+    }
+
+    @Test
+    public void testGzip() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Accept-Encoding", "gzip, deflate");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        StreamingXMLResponse out = StreamingXMLResponse.open(request, response);
+        try (out) {
+            out.getBuilder().indentElement("Root").simpleElement("Name", "è", true).endElement();
+        }
+
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        byte[] compressed = response.getContentAsByteArray();
+        assertEquals(compressed.length, out.getBytesWritten());
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            String content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertEquals("\n<Root>\n  <Name>è</Name>\n</Root>", content);
+        }
+    }
+}
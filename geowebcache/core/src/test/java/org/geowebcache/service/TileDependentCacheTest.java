@@ -0,0 +1,239 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.service;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.geowebcache.layer.TileLayer;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TileDependentCacheTest {
+
+    private TestCache cache;
+
+    private TileLayer layer;
+
+    @Before
+    public void setUp() {
+        cache = new TestCache(1024 * 1024);
+        layer = mock(TileLayer.class);
+    }
+
+    /** A response built out of tile {@code (x, y, z)} with the given parameters */
+    private static TestKey key(String layer, String gridSetId, String format, String parametersId, long x) {
+        return new TestKey(layer, gridSetId, format, parametersId, new long[] {x, 3, 6});
+    }
+
+    private static TestKey key(String layer) {
+        return key(layer, "EPSG:4326", "png", "p1", 2);
+    }
+
+    @Test
+    public void testLayerObject() {
+        byte[] bytes = {1, 2, 3};
+        cache.put(key("a"), layer, bytes);
+        assertArrayEquals(bytes, cache.get(key("a"), layer));
+        // layer object replaced
+        assertNull(cache.get(key("a"), mock(TileLayer.class)));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testTileEvents() {
+        cache.put(key("a"), layer, new byte[] {1});
+        cache.put(key("a", "EPSG:4326", "png", "p1", 5), layer, new byte[] {1});
+
+        // other layer, gridset, format, parameters, zoom level, outside the tile
+        cache.tileStored("b", "EPSG:4326", "png", "p1", 2, 3, 6, 10);
+        cache.tileStored("a", "EPSG:900913", "png", "p1", 2, 3, 6, 10);
+        cache.tileStored("a", "EPSG:4326", "jpeg", "p1", 2, 3, 6, 10);
+        cache.tileStored("a", "EPSG:4326", "png", null, 2, 3, 6, 10);
+        cache.tileStored("a", "EPSG:4326", "png", "p1", 2, 3, 7, 10);
+        cache.tileStored("a", "EPSG:4326", "png", "p1", 3, 3, 6, 10);
+        cache.tilesDeleted("a", "EPSG:4326", "png", "p1", new long[] {0, 4, 10, 10, 6}, 10, 100);
+        assertEquals(2, cache.size());
+
+        cache.tileUpdated("a", "EPSG:4326", "png", "p1", 2, 3, 6, 10, 10);
+        assertEquals(1, cache.size());
+        cache.tileDeleted("a", "EPSG:4326", "png", "p1", 5, 3, 6, 10);
+        assertEquals(0, cache.size());
+
+        cache.put(key("a"), layer, new byte[] {1});
+        cache.tilesDeleted("a", "EPSG:4326", "png", "p1", new long[] {0, 0, 2, 3, 6}, 10, 100);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testLayerEvents() {
+        cache.put(key("a"), layer, new byte[] {1});
+        cache.put(key("a", "EPSG:900913", "jpeg", "p2", 2), layer, new byte[] {1});
+        cache.put(key("b"), layer, new byte[] {1});
+
+        cache.parametersDeleted("a", "p3");
+        cache.gridSubsetDeleted("a", "EPSG:3857");
+        assertEquals(3, cache.size());
+        cache.parametersDeleted("a", "p2");
+        assertEquals(2, cache.size());
+        cache.gridSubsetDeleted("a", "EPSG:4326");
+        assertEquals(1, cache.size());
+
+        cache.put(key("a"), layer, new byte[] {1});
+        cache.layerModified("a");
+        assertEquals(1, cache.size());
+        cache.layerRenamed("b", "c");
+        assertEquals(0, cache.size());
+
+        cache.put(key("a"), layer, new byte[] {1});
+        cache.configurationChanged();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testSizeLimit() {
+        TestCache cache = new TestCache(10 * (1000 + TileDependentCache.ENTRY_OVERHEAD));
+        for (int i = 0; i < 100; i++) {
+            cache.put(key("a", "EPSG:4326", "png", null, i), layer, new byte[1000]);
+        }
+        assertTrue(cache.size() > 0 && cache.size() <= 10);
+
+        // the entries left after the evictions are still indexed
+        cache.layerRemoved("a");
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testReplace() {
+        cache.put(key("a"), layer, new byte[] {1});
+        cache.put(key("a"), layer, new byte[] {2});
+        assertArrayEquals(new byte[] {2}, cache.get(key("a"), layer));
+
+        // the replaced entry didn't drop the key from the index
+        cache.tileStored("a", "EPSG:4326", "png", "p1", 2, 3, 6, 10);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testStaleResponse() {
+        long generation = cache.generation("a");
+        // a tile the response depends on changes while it is built
+        cache.tileStored("a", "EPSG:4326", "png", "p1", 2, 3, 6, 10);
+        cache.put(key("a"), layer, new byte[] {1}, generation);
+        assertNull(cache.get(key("a"), layer));
+
+        // other layers are not affected
+        cache.put(key("b"), layer, new byte[] {1}, cache.generation("b"));
+        generation = cache.generation("b");
+        cache.tileStored("a", "EPSG:4326", "png", "p1", 2, 3, 6, 10);
+        cache.put(key("b", "EPSG:4326", "png", "p1", 3), layer, new byte[] {1}, generation);
+        assertEquals(2, cache.size());
+
+        generation = cache.generation("b");
+        cache.configurationChanged();
+        cache.put(key("b"), layer, new byte[] {1}, generation);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testConcurrentInvalidation() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        cache.put(key("a"), layer, new byte[] {1});
+                        cache.tileStored("a", "EPSG:4326", "png", "p1", 2, 3, 6, 10);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // whatever the interleaving, a cached response is still indexed and reached by the tile events
+        cache.tileStored("a", "EPSG:4326", "png", "p1", 2, 3, 6, 10);
+        assertEquals(0, cache.size());
+    }
+
+    private static class TestCache extends TileDependentCache<TestKey> {
+
+        TestCache(long maxBytes) {
+            super(maxBytes);
+        }
+
+        /** Caches a response built out of the current generation of the layer */
+        void put(TestKey key, TileLayer layer, byte[] bytes) {
+            put(key, layer, bytes, generation(key.layerName));
+        }
+    }
+
+    private static class TestKey extends TileDependentCache.Key {
+
+        final String parametersId;
+
+        final long[] tileIndex;
+
+        TestKey(String layerName, String gridSetId, String format, String parametersId, long[] tileIndex) {
+            super(layerName, gridSetId, format);
+            this.parametersId = parametersId;
+            this.tileIndex = tileIndex;
+        }
+
+        @Override
+        protected boolean dependsOn(String parametersId, long[] range) {
+            return dependsOn(parametersId)
+                    && tileIndex[2] == range[4]
+                    && tileIndex[0] >= range[0]
+                    && tileIndex[0] <= range[2]
+                    && tileIndex[1] >= range[1]
+                    && tileIndex[1] <= range[3];
+        }
+
+        @Override
+        protected boolean dependsOn(String parametersId) {
+            return Objects.equals(this.parametersId, parametersId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof TestKey)) {
+                return false;
+            }
+            TestKey other = (TestKey) o;
+            return layerName.equals(other.layerName)
+                    && gridSetId.equals(other.gridSetId)
+                    && format.equals(other.format)
+                    && Objects.equals(parametersId, other.parametersId)
+                    && tileIndex[0] == other.tileIndex[0];
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(layerName, gridSetId, format, parametersId, tileIndex[0]);
+        }
+    }
+}
@@ -14,15 +14,20 @@
 package org.geowebcache.storage;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.FileSystemException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.easymock.EasyMock;
 import org.geowebcache.grid.SRS;
 import org.geowebcache.io.ByteArrayResource;
+import org.geowebcache.io.FileResource;
 import org.geowebcache.io.Resource;
 import org.geowebcache.mime.ImageMime;
 import org.geowebcache.mime.MimeType;
@@ -219,7 +224,121 @@ public void testRenameLayer() throws Exception {
         }
     }
 
+    @Test
+    public void testUniformTileLinks() throws Exception {
+        FileBlobStore store = (FileBlobStore) setup();
+        fbs = store;
+        store.setLinkUniformTiles(true);
+
+        Resource bytes = new ByteArrayResource("uniform".getBytes());
+        String layerName = "test:uniform";
+        String contentId = "uniform_image_png_256x256_00000000";
+        File[] files = new File[3];
+        for (int i = 0; i < files.length; i++) {
+            long[] xyz = {i, 0, 3};
+            TileObject to = TileObject.createCompleteTileObject(layerName, xyz, "EPSG:4326", "image/png", null, bytes);
+            to.setContentId(contentId);
+            store.put(to);
+
+            TileObject query = TileObject.createQueryTileObject(layerName, xyz, "EPSG:4326", "image/png", null);
+            Assert.assertTrue(store.get(query));
+            try (InputStream is = query.getBlob().getInputStream();
+                    InputStream is2 = bytes.getInputStream()) {
+                Assert.assertTrue(IOUtils.contentEquals(is, is2));
+            }
+            files[i] = ((FileResource) query.getBlob()).getFile();
+        }
+        // all links to the same file
+        Assert.assertTrue(Files.isSameFile(files[0].toPath(), files[1].toPath()));
+        Assert.assertTrue(Files.isSameFile(files[0].toPath(), files[2].toPath()));
+
+        // deleting a tile leaves the others alone
+        store.delete(TileObject.createQueryTileObject(layerName, new long[] {0, 0, 3}, "EPSG:4326", "image/png", null));
+        Assert.assertFalse(files[0].exists());
+        Assert.assertTrue(store.get(
+                TileObject.createQueryTileObject(layerName, new long[] {1, 0, 3}, "EPSG:4326", "image/png", null)));
+
+        // overwriting a linked tile replaces the link, not the shared contents
+        TileObject other = TileObject.createCompleteTileObject(
+                layerName,
+                new long[] {1, 0, 3},
+                "EPSG:4326",
+                "image/png",
+                null,
+                new ByteArrayResource("other".getBytes()));
+        store.put(other);
+        Assert.assertEquals("uniform", new String(Files.readAllBytes(files[2].toPath())));
+        Assert.assertEquals("other", new String(Files.readAllBytes(files[1].toPath())));
+    }
+
+    @Test
+    public void testUniformTileLinksLimit() throws Exception {
+        // simulates a file system allowing two links to a file
+        Map<Path, Integer> links = new HashMap<>();
+        FileBlobStore store = new FileBlobStore(setupDirectory()) {
+            @Override
+            protected void createLink(Path link, Path existing) throws IOException {
+                if (links.merge(existing, 1, Integer::sum) > 2) {
+                    throw new FileSystemException(link.toString(), existing.toString(), FileBlobStore.TOO_MANY_LINKS);
+                }
+                super.createLink(link, existing);
+            }
+        };
+        fbs = store;
+        store.setLinkUniformTiles(true);
+
+        File[] files = putUniformTiles(store, 5);
+        Assert.assertTrue(Files.isSameFile(files[0].toPath(), files[1].toPath()));
+        Assert.assertTrue(Files.isSameFile(files[2].toPath(), files[3].toPath()));
+        Assert.assertFalse(Files.isSameFile(files[1].toPath(), files[2].toPath()));
+        Assert.assertFalse(Files.isSameFile(files[3].toPath(), files[4].toPath()));
+        // a single failed attempt per full canonical blob, which is not tried again
+        Assert.assertEquals(5, links.values().stream().mapToInt(Integer::intValue).sum() - 2);
+    }
+
+    @Test
+    public void testUniformTileLinksUnsupported() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        FileBlobStore store = new FileBlobStore(setupDirectory()) {
+            @Override
+            protected void createLink(Path link, Path existing) throws IOException {
+                attempts.incrementAndGet();
+                throw new FileSystemException(link.toString(), existing.toString(), "Operation not permitted");
+            }
+        };
+        fbs = store;
+        store.setLinkUniformTiles(true);
+
+        File[] files = putUniformTiles(store, 3);
+        Assert.assertFalse(Files.isSameFile(files[0].toPath(), files[1].toPath()));
+        // linking is given up on after the first failure
+        Assert.assertEquals(1, attempts.get());
+    }
+
+    /** Stores {@code count} tiles with the same contents, returning their files */
+    private File[] putUniformTiles(FileBlobStore store, int count) throws Exception {
+        Resource bytes = new ByteArrayResource("uniform".getBytes());
+        File[] files = new File[count];
+        for (int i = 0; i < count; i++) {
+            long[] xyz = {i, 0, 3};
+            TileObject to =
+                    TileObject.createCompleteTileObject("test:uniform", xyz, "EPSG:4326", "image/png", null, bytes);
+            to.setContentId("uniform_image_png_256x256_00000000");
+            store.put(to);
+
+            TileObject query = TileObject.createQueryTileObject("test:uniform", xyz, "EPSG:4326", "image/png", null);
+            Assert.assertTrue(store.get(query));
+            files[i] = ((FileResource) query.getBlob()).getFile();
+            Assert.assertEquals("uniform", new String(Files.readAllBytes(files[i].toPath())));
+        }
+        return files;
+    }
+
     public BlobStore setup() throws Exception {
+        return new FileBlobStore(setupDirectory());
+    }
+
+    private String setupDirectory() throws Exception {
         File fh = new File(StorageBrokerTest.findTempDir() + File.separator + TEST_BLOB_DIR_NAME);
 
         if (!fh.exists()) {
@@ -232,7 +351,7 @@ public BlobStore setup() throws Exception {
             }
         }
 
-        return new FileBlobStore(StorageBrokerTest.findTempDir() + File.separator + TEST_BLOB_DIR_NAME);
+        return fh.getAbsolutePath();
     }
 
     @Test
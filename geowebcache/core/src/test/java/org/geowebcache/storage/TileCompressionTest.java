@@ -0,0 +1,171 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+import org.geowebcache.conveyor.ConveyorTile;
+import org.geowebcache.io.ByteArrayResource;
+import org.geowebcache.io.Resource;
+import org.geowebcache.mime.ApplicationMime;
+import org.geowebcache.mime.ImageMime;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TileCompressionTest {
+
+    private static final byte[] GEOJSON = ("{\"type\":\"FeatureCollection\",\"features\":["
+                    + "{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\",\"coordinates\":[0,0]}},".repeat(50)
+                    + "{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\",\"coordinates\":[1,1]}}]}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private BlobStore blobStore;
+
+    private DefaultStorageBroker broker;
+
+    // the blob and encoding of the last tile stored
+    private final AtomicReference<byte[]> stored = new AtomicReference<>();
+
+    private final AtomicReference<String> storedEncoding = new AtomicReference<>();
+
+    @Before
+    public void setUp() throws Exception {
+        blobStore = mock(BlobStore.class);
+        doAnswer(invocation -> {
+                    TileObject tile = invocation.getArgument(0);
+                    stored.set(((ByteArrayResource) tile.getBlob()).getContents());
+                    storedEncoding.set(tile.getContentEncoding());
+                    return null;
+                })
+                .when(blobStore)
+                .put(any());
+        doAnswer(invocation -> {
+                    TileObject tile = invocation.getArgument(0);
+                    if (stored.get() == null) {
+                        return false;
+                    }
+                    tile.setBlob(new ByteArrayResource(stored.get()));
+                    return true;
+                })
+                .when(blobStore)
+                .get(any());
+        broker = new DefaultStorageBroker(blobStore, new TransientCache(10, 100, 2000));
+        broker.setCompressTiles(true);
+    }
+
+    private static TileObject tile(String format, byte[] contents) {
+        return TileObject.createCompleteTileObject(
+                "layer", new long[] {1, 2, 3}, "EPSG:4326", format, null, new ByteArrayResource(contents));
+    }
+
+    @Test
+    public void testCompressedWhenStored() throws Exception {
+        TileObject tile = tile(ApplicationMime.geojson.getFormat(), GEOJSON);
+        Resource original = tile.getBlob();
+        broker.put(tile);
+
+        assertEquals(TileCompression.GZIP, storedEncoding.get());
+        assertTrue(stored.get().length < GEOJSON.length / 4);
+        assertEquals(stored.get().length, tile.getBlobSize());
+        // the original contents are left untouched
+        assertNotSame(original, tile.getBlob());
+        assertArrayEquals(GEOJSON, ((ByteArrayResource) original).getContents());
+        Resource decoded = TileCompression.decode(tile.getBlob(), TileCompression.GZIP);
+        assertArrayEquals(GEOJSON, ((ByteArrayResource) decoded).getContents());
+    }
+
+    @Test
+    public void testImagesNotCompressed() throws Exception {
+        byte[] png = {(byte) 0x89, 'P', 'N', 'G', 1, 2, 3, 4};
+        TileObject tile = tile(ImageMime.png.getFormat(), png);
+        broker.put(tile);
+
+        assertNull(storedEncoding.get());
+        assertArrayEquals(png, stored.get());
+    }
+
+    @Test
+    public void testNotCompressedWhenDisabled() throws Exception {
+        broker.setCompressTiles(false);
+        broker.put(tile(ApplicationMime.geojson.getFormat(), GEOJSON));
+
+        assertNull(storedEncoding.get());
+        assertArrayEquals(GEOJSON, stored.get());
+    }
+
+    @Test
+    public void testEncodingDetectedWhenRetrieved() throws Exception {
+        broker.put(tile(ApplicationMime.geojson.getFormat(), GEOJSON));
+        TileObject query = TileObject.createQueryTileObject(
+                "layer", new long[] {1, 2, 3}, "EPSG:4326", ApplicationMime.geojson.getFormat(), null);
+        assertTrue(broker.get(query));
+        assertEquals(TileCompression.GZIP, query.getContentEncoding());
+
+        // tiles stored before compression was enabled
+        broker.setCompressTiles(false);
+        broker.put(tile(ApplicationMime.geojson.getFormat(), GEOJSON));
+        assertTrue(broker.get(query));
+        assertNull(query.getContentEncoding());
+    }
+
+    @Test
+    public void testConveyorTileDecodes() throws Exception {
+        broker.put(tile(ApplicationMime.geojson.getFormat(), GEOJSON));
+        ConveyorTile tile = new ConveyorTile(
+                broker,
+                "layer",
+                "EPSG:4326",
+                new long[] {1, 2, 3},
+                ApplicationMime.geojson,
+                Collections.emptyMap(),
+                null,
+                null);
+        assertTrue(tile.retrieve(0));
+
+        assertEquals(TileCompression.GZIP, tile.getContentEncoding());
+        assertArrayEquals(stored.get(), ((ByteArrayResource) tile.getEncodedBlob()).getContents());
+        assertArrayEquals(GEOJSON, ((ByteArrayResource) tile.getBlob()).getContents());
+        assertSame(tile.getBlob(), tile.getBlob());
+    }
+
+    @Test
+    public void testConveyorTileKeepsContentsWhenPersisted() throws Exception {
+        ConveyorTile tile = new ConveyorTile(
+                broker,
+                "layer",
+                "EPSG:4326",
+                new long[] {1, 2, 3},
+                ApplicationMime.geojson,
+                Collections.emptyMap(),
+                null,
+                null);
+        Resource contents = new ByteArrayResource(GEOJSON);
+        tile.setBlob(contents);
+        tile.persist();
+
+        assertEquals(TileCompression.GZIP, storedEncoding.get());
+        assertSame(contents, tile.getBlob());
+    }
+}
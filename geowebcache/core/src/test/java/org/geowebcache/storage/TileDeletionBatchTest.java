@@ -0,0 +1,142 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage;
+
+import static org.easymock.EasyMock.anyInt;
+import static org.easymock.EasyMock.anyLong;
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.aryEq;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.isNull;
+
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TileDeletionBatchTest {
+
+    private BlobStoreListenerList listeners;
+
+    private BlobStoreListener tileListener;
+
+    private BlobStoreListener rangeListener;
+
+    @Before
+    public void setUp() {
+        tileListener = EasyMock.createMock(BlobStoreListener.class);
+        expect(tileListener.supportsTilesDeleted()).andReturn(false).anyTimes();
+        rangeListener = EasyMock.createMock(BlobStoreListener.class);
+        expect(rangeListener.supportsTilesDeleted()).andReturn(true).anyTimes();
+        expect(rangeListener.tilesDeletedArea(
+                        anyObject(), anyObject(), anyObject(), anyObject(), anyLong(), anyLong(), anyInt()))
+                .andReturn(null)
+                .anyTimes();
+
+        listeners = new BlobStoreListenerList();
+        listeners.addListener(tileListener);
+        listeners.addListener(rangeListener);
+    }
+
+    private void expectTilesDeleted(long[] rangeBounds, long tileCount, long blobSize) {
+        rangeListener.tilesDeleted(
+                eq("layer"),
+                eq("EPSG:4326"),
+                eq("png"),
+                isNull(),
+                aryEq(rangeBounds),
+                eq(tileCount),
+                eq(blobSize));
+        EasyMock.expectLastCall();
+    }
+
+    @Test
+    public void testAggregatesPerZoomLevel() {
+        for (int i = 0; i < 3; i++) {
+            tileListener.tileDeleted("layer", "EPSG:4326", "png", null, i, 2 - i, 4, 10);
+        }
+        tileListener.tileDeleted("layer", "EPSG:4326", "png", null, 7, 7, 5, 20);
+        expectTilesDeleted(new long[] {0, 0, 2, 2, 4}, 3, 30);
+        expectTilesDeleted(new long[] {7, 7, 7, 7, 5}, 1, 20);
+        EasyMock.replay(tileListener, rangeListener);
+
+        try (TileDeletionBatch batch = listeners.newTileDeletionBatch("layer", "EPSG:4326", "png", null)) {
+            for (int i = 0; i < 3; i++) {
+                batch.tileDeleted(i, 2 - i, 4, 10);
+            }
+            batch.tileDeleted(7, 7, 5, 20);
+        }
+        EasyMock.verify(tileListener, rangeListener);
+    }
+
+    @Test
+    public void testKeepsRangesCompact() {
+        long far = TileDeletionBatch.MAX_RANGE_SPAN;
+        tileListener.tileDeleted("layer", "EPSG:4326", "png", null, 0, 0, 8, 1);
+        tileListener.tileDeleted("layer", "EPSG:4326", "png", null, far - 1, 0, 8, 1);
+        tileListener.tileDeleted("layer", "EPSG:4326", "png", null, far, 0, 8, 1);
+        expectTilesDeleted(new long[] {0, 0, far - 1, 0, 8}, 2, 2);
+        expectTilesDeleted(new long[] {far, 0, far, 0, 8}, 1, 1);
+        EasyMock.replay(tileListener, rangeListener);
+
+        TileDeletionBatch batch = listeners.newTileDeletionBatch("layer", "EPSG:4326", "png", null);
+        batch.tileDeleted(0, 0, 8, 1);
+        batch.tileDeleted(far - 1, 0, 8, 1);
+        batch.tileDeleted(far, 0, 8, 1);
+        batch.flush();
+        // nothing left to send
+        batch.flush();
+        EasyMock.verify(tileListener, rangeListener);
+    }
+
+    @Test
+    public void testStaysWithinListenerArea() {
+        BlobStoreListener areaListener = EasyMock.createMock(BlobStoreListener.class);
+        expect(areaListener.supportsTilesDeleted()).andReturn(true).anyTimes();
+        expect(areaListener.tilesDeletedArea(
+                        anyObject(), anyObject(), anyObject(), anyObject(), anyLong(), anyLong(), anyInt()))
+                .andAnswer(() -> {
+                    // areas of 4x4 tiles
+                    long x = (Long) EasyMock.getCurrentArguments()[4] / 4 * 4;
+                    long y = (Long) EasyMock.getCurrentArguments()[5] / 4 * 4;
+                    return new long[] {x, y, x + 3, y + 3};
+                })
+                .anyTimes();
+        listeners.addListener(areaListener);
+        for (int x = 2; x < 6; x++) {
+            tileListener.tileDeleted("layer", "EPSG:4326", "png", null, x, 1, 8, 1);
+        }
+        // a range per area, that the listeners account for exactly
+        for (BlobStoreListener listener : new BlobStoreListener[] {rangeListener, areaListener}) {
+            for (long minX = 2; minX < 6; minX += 2) {
+                listener.tilesDeleted(
+                        eq("layer"),
+                        eq("EPSG:4326"),
+                        eq("png"),
+                        isNull(),
+                        aryEq(new long[] {minX, 1, minX + 1, 1, 8}),
+                        eq(2L),
+                        eq(2L));
+            }
+        }
+        EasyMock.replay(tileListener, rangeListener, areaListener);
+
+        try (TileDeletionBatch batch = listeners.newTileDeletionBatch("layer", "EPSG:4326", "png", null)) {
+            for (int x = 2; x < 6; x++) {
+                batch.tileDeleted(x, 1, 8, 1);
+            }
+        }
+        EasyMock.verify(tileListener, rangeListener, areaListener);
+    }
+}
@@ -16,6 +16,7 @@
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
 import java.util.logging.Logger;
 import org.geotools.util.logging.Logging;
 import org.geowebcache.config.DefaultGridsets;
@@ -155,6 +156,22 @@ public void testWholeRangeMultiThreadedMetaTiling() throws Exception {
         Assert.assertEquals(expected, tilesProcessed);
     }
 
+    @Test
+    public void testWholeRangeMultiThreadedPerZoomMetaTiling() throws Exception {
+        int zoomStart = gridSubSet.getZoomStart();
+        int zoomStop = gridSubSet.getZoomStop();
+        IntFunction<int[]> metaTilingFactors =
+                z -> z < 3 ? new int[] {1, 1} : z < 6 ? new int[] {4, 2} : new int[] {3, 3};
+
+        int nThreads = 32;
+        long tilesProcessed = traverseTileRangeIter(nThreads, gridCoverages, zoomStart, zoomStop, metaTilingFactors);
+        long expected = 0;
+        for (int z = zoomStart; z <= zoomStop; z++) {
+            expected += countMetaTiles(gridCoverages, z, z, metaTilingFactors.apply(z));
+        }
+        Assert.assertEquals(expected, tilesProcessed);
+    }
+
     /** */
     @Test
     public void testDiscontinuousTileRange() throws Exception {
@@ -187,6 +204,16 @@ private long traverseTileRangeIter(
             final int zoomStop,
             final int[] metaTilingFactors)
             throws Exception {
+        return traverseTileRangeIter(nThreads, coveredGridLevels, zoomStart, zoomStop, z -> metaTilingFactors);
+    }
+
+    private long traverseTileRangeIter(
+            final int nThreads,
+            final long[][] coveredGridLevels,
+            final int zoomStart,
+            final int zoomStop,
+            final IntFunction<int[]> metaTilingFactors)
+            throws Exception {
 
         @SuppressWarnings("PMD.CloseResource") // implements AutoCloseable in Java 21
         final ExecutorService executorService = Executors.newFixedThreadPool(nThreads);
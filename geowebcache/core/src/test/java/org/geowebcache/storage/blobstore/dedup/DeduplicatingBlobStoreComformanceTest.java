@@ -0,0 +1,32 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage.blobstore.dedup;
+
+import java.io.File;
+import org.geowebcache.storage.AbstractBlobStoreTest;
+import org.geowebcache.storage.blobstore.file.FileBlobStore;
+import org.junit.Rule;
+import org.junit.rules.TemporaryFolder;
+
+public class DeduplicatingBlobStoreComformanceTest extends AbstractBlobStoreTest<DeduplicatingBlobStore> {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Override
+    public void createTestUnit() throws Exception {
+        this.store = new DeduplicatingBlobStore(new File(temp.getRoot(), "index"));
+        this.store.setStore(new FileBlobStore(temp.newFolder("tiles").getAbsolutePath()));
+    }
+}
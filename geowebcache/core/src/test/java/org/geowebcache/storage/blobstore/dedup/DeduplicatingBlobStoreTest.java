@@ -0,0 +1,261 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage.blobstore.dedup;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Map;
+import org.apache.commons.io.IOUtils;
+import org.easymock.EasyMock;
+import org.geowebcache.io.ByteArrayResource;
+import org.geowebcache.mime.ImageMime;
+import org.geowebcache.storage.BlobStoreListener;
+import org.geowebcache.storage.TileObject;
+import org.geowebcache.storage.TileRange;
+import org.geowebcache.storage.blobstore.file.FileBlobStore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DeduplicatingBlobStoreTest {
+
+    private static final String LAYER = "topp:states";
+
+    private static final String GRIDSET = "EPSG:4326";
+
+    private static final String FORMAT = ImageMime.png.getFormat();
+
+    private static final byte[] EMPTY = {1, 1, 1, 1};
+
+    private static final byte[] LAND = {2, 2, 2, 2, 2};
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private File indexDirectory;
+
+    private File tilesDirectory;
+
+    private DeduplicatingBlobStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        indexDirectory = new File(temp.getRoot(), "index");
+        tilesDirectory = temp.newFolder("tiles");
+        store = newStore();
+    }
+
+    @After
+    public void tearDown() {
+        store.destroy();
+    }
+
+    private DeduplicatingBlobStore newStore() throws Exception {
+        DeduplicatingBlobStore store = new DeduplicatingBlobStore(indexDirectory);
+        store.setFlushInterval(0);
+        store.setStore(new FileBlobStore(tilesDirectory.getAbsolutePath()));
+        return store;
+    }
+
+    private void put(long x, long y, int z, byte[] contents) throws Exception {
+        store.put(TileObject.createCompleteTileObject(
+                LAYER, new long[] {x, y, z}, GRIDSET, FORMAT, null, new ByteArrayResource(contents)));
+    }
+
+    private byte[] get(long x, long y, int z) throws Exception {
+        return get(store, x, y, z);
+    }
+
+    private static byte[] get(DeduplicatingBlobStore store, long x, long y, int z) throws Exception {
+        TileObject tile = TileObject.createQueryTileObject(LAYER, new long[] {x, y, z}, GRIDSET, FORMAT, null);
+        if (!store.get(tile)) {
+            return null;
+        }
+        try (InputStream in = tile.getBlob().getInputStream()) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+    private boolean payloadStored(int id) throws Exception {
+        LayerIndex.Payload payload = new LayerIndex.Payload(id, FORMAT, null, null, 0);
+        return store.getStore().get(DeduplicatingBlobStore.payloadTile(LAYER, payload, null, null));
+    }
+
+    @Test
+    public void testDeduplication() throws Exception {
+        for (int x = 0; x < 8; x++) {
+            put(x, 0, 3, EMPTY);
+        }
+        put(0, 1, 3, LAND);
+        put(1, 1, 3, LAND);
+
+        for (int x = 0; x < 8; x++) {
+            assertArrayEquals(EMPTY, get(x, 0, 3));
+        }
+        assertArrayEquals(LAND, get(0, 1, 3));
+        assertArrayEquals(null, get(2, 1, 3));
+
+        DeduplicationStatistics statistics = store.getStatistics(LAYER);
+        assertEquals(10, statistics.getTiles());
+        assertEquals(8 * EMPTY.length + 2 * LAND.length, statistics.getTilesSize());
+        assertEquals(2, statistics.getPayloads());
+        assertEquals(EMPTY.length + LAND.length, statistics.getPayloadsSize());
+        assertEquals(42d / 9, statistics.getRatio(), 1e-9);
+        // only the payloads made it to the wrapped store
+        assertTrue(payloadStored(0));
+        assertTrue(payloadStored(1));
+        assertFalse(store.getStore()
+                .get(TileObject.createQueryTileObject(LAYER, new long[] {0, 0, 3}, GRIDSET, FORMAT, null)));
+    }
+
+    @Test
+    public void testReferenceCounting() throws Exception {
+        put(0, 0, 3, EMPTY);
+        put(1, 0, 3, EMPTY);
+        put(2, 0, 3, LAND);
+
+        // overwriting the only tile referencing a payload deletes it
+        put(2, 0, 3, EMPTY);
+        assertArrayEquals(EMPTY, get(2, 0, 3));
+        assertFalse(payloadStored(1));
+        assertEquals(1, store.getStatistics(LAYER).getPayloads());
+
+        store.delete(TileObject.createQueryTileObject(LAYER, new long[] {0, 0, 3}, GRIDSET, FORMAT, null));
+        store.delete(TileObject.createQueryTileObject(LAYER, new long[] {1, 0, 3}, GRIDSET, FORMAT, null));
+        assertTrue(payloadStored(0));
+        store.delete(TileObject.createQueryTileObject(LAYER, new long[] {2, 0, 3}, GRIDSET, FORMAT, null));
+        assertFalse(payloadStored(0));
+        assertEquals(0, store.getStatistics(LAYER).getTiles());
+    }
+
+    @Test
+    public void testRangeDelete() throws Exception {
+        for (int x = 0; x < 4; x++) {
+            put(x, 0, 2, EMPTY);
+            put(x, 1, 2, LAND);
+        }
+        long[][] bounds = new long[3][];
+        bounds[2] = new long[] {0, 1, 3, 1, 2};
+        TileRange range = new TileRange(LAYER, GRIDSET, 2, 2, bounds, ImageMime.png, null);
+        assertTrue(store.delete(range));
+
+        assertArrayEquals(EMPTY, get(3, 0, 2));
+        assertArrayEquals(null, get(3, 1, 2));
+        assertTrue(payloadStored(0));
+        assertFalse(payloadStored(1));
+        assertEquals(4, store.getStatistics(LAYER).getTiles());
+    }
+
+    @Test
+    public void testParameters() throws Exception {
+        Map<String, String> parameters = Collections.singletonMap("STYLES", "dark");
+        put(0, 0, 1, EMPTY);
+        store.put(TileObject.createCompleteTileObject(
+                LAYER, new long[] {0, 0, 1}, GRIDSET, FORMAT, parameters, new ByteArrayResource(EMPTY)));
+        // same contents, but payloads don't cross parameters
+        assertEquals(2, store.getStatistics(LAYER).getPayloads());
+        assertEquals(Collections.singleton(parameters), store.getParameters(LAYER));
+
+        String parametersId = store.getParameterIds(LAYER).iterator().next();
+        assertTrue(store.deleteByParametersId(LAYER, parametersId));
+        assertArrayEquals(EMPTY, get(0, 0, 1));
+        assertEquals(1, store.getStatistics(LAYER).getTiles());
+    }
+
+    @Test
+    public void testReload() throws Exception {
+        put(0, 0, 3, EMPTY);
+        put(1, 0, 3, LAND);
+        store.flush();
+        // stored after the last flush, and lost on an unclean shutdown
+        put(2, 0, 3, EMPTY);
+        put(3, 0, 3, new byte[] {3});
+
+        DeduplicatingBlobStore reloaded = newStore();
+        try {
+            assertArrayEquals(EMPTY, get(reloaded, 0, 0, 3));
+            assertArrayEquals(LAND, get(reloaded, 1, 0, 3));
+            assertArrayEquals(null, get(reloaded, 2, 0, 3));
+            DeduplicationStatistics statistics = reloaded.getStatistics(LAYER);
+            assertEquals(2, statistics.getTiles());
+            assertEquals(2, statistics.getPayloads());
+            // swept as no tile references it
+            assertFalse(payloadStored(2));
+        } finally {
+            reloaded.destroy();
+        }
+    }
+
+    @Test
+    public void testUnindexableTiles() throws Exception {
+        put(1L << 30, 0, 31, EMPTY);
+        assertArrayEquals(EMPTY, get(1L << 30, 0, 31));
+        assertEquals(0, store.getStatistics(LAYER).getTiles());
+        assertTrue(store.getStore()
+                .get(TileObject.createQueryTileObject(LAYER, new long[] {1L << 30, 0, 31}, GRIDSET, FORMAT, null)));
+    }
+
+    @Test
+    public void testEvents() throws Exception {
+        BlobStoreListener listener = EasyMock.createMock(BlobStoreListener.class);
+        listener.tileStored(LAYER, GRIDSET, FORMAT, null, 0, 0, 3, EMPTY.length);
+        listener.tileStored(LAYER, GRIDSET, FORMAT, null, 1, 0, 3, EMPTY.length);
+        listener.tileUpdated(LAYER, GRIDSET, FORMAT, null, 1, 0, 3, LAND.length, EMPTY.length);
+        listener.tileDeleted(LAYER, GRIDSET, FORMAT, null, 1, 0, 3, LAND.length);
+        listener.layerDeleted(LAYER);
+        EasyMock.replay(listener);
+        store.addListener(listener);
+
+        put(0, 0, 3, EMPTY);
+        put(1, 0, 3, EMPTY);
+        put(1, 0, 3, LAND);
+        store.delete(TileObject.createQueryTileObject(LAYER, new long[] {1, 0, 3}, GRIDSET, FORMAT, null));
+        store.delete(LAYER);
+        EasyMock.verify(listener);
+        assertFalse(new File(indexDirectory, LAYER.replace(':', '_')).exists());
+    }
+
+    @Test
+    public void testPreDeduplicationCopy() throws Exception {
+        long[] xyz = {2, 0, 3};
+        TileObject copy = TileObject.createCompleteTileObject(
+                LAYER, xyz, GRIDSET, FORMAT, null, new ByteArrayResource(LAND));
+        store.getStore().put(copy);
+        assertArrayEquals(LAND, get(2, 0, 3));
+
+        BlobStoreListener listener = EasyMock.createMock(BlobStoreListener.class);
+        // the copy is replaced, not counted twice
+        listener.tileUpdated(LAYER, GRIDSET, FORMAT, null, 2, 0, 3, EMPTY.length, copy.getBlobSize());
+        listener.tileDeleted(LAYER, GRIDSET, FORMAT, null, 2, 0, 3, EMPTY.length);
+        EasyMock.replay(listener);
+        store.addListener(listener);
+
+        put(2, 0, 3, EMPTY);
+        assertFalse(store.getStore().get(TileObject.createQueryTileObject(LAYER, xyz, GRIDSET, FORMAT, null)));
+        assertArrayEquals(EMPTY, get(2, 0, 3));
+
+        store.delete(TileObject.createQueryTileObject(LAYER, xyz, GRIDSET, FORMAT, null));
+        assertNull(get(2, 0, 3));
+        EasyMock.verify(listener);
+    }
+}
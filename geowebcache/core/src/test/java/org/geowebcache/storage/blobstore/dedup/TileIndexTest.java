@@ -0,0 +1,99 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage.blobstore.dedup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TileIndexTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testKeys() {
+        assertTrue(TileIndex.isIndexable(TileIndex.MAX_COORDINATE, TileIndex.MAX_COORDINATE, TileIndex.MAX_ZOOM));
+        assertFalse(TileIndex.isIndexable(TileIndex.MAX_COORDINATE + 1, 0, 29));
+        assertFalse(TileIndex.isIndexable(0, 0, 32));
+        assertFalse(TileIndex.isIndexable(-1, 0, 0));
+
+        long key = TileIndex.key(123456789, 7, 30);
+        assertTrue(key >= 0);
+        assertEquals(123456789, TileIndex.x(key));
+        assertEquals(7, TileIndex.y(key));
+        assertEquals(30, TileIndex.z(key));
+    }
+
+    @Test
+    public void testAgainstHashMap() throws Exception {
+        TileIndex index = new TileIndex("EPSG:4326", "image/png", null);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            // a small key space, for plenty of collisions, updates and removals
+            long key = TileIndex.key(random.nextInt(256), random.nextInt(256), 8);
+            if (random.nextInt(3) == 0) {
+                Integer removed = expected.remove(key);
+                assertEquals(removed == null ? TileIndex.MISSING : removed, index.remove(key));
+            } else {
+                int payload = random.nextInt(1000);
+                Integer previous = expected.put(key, payload);
+                assertEquals(previous == null ? TileIndex.MISSING : previous, index.put(key, payload, 1000L * i));
+            }
+        }
+        assertEquals(expected.size(), index.size());
+        for (long x = 0; x < 256; x++) {
+            for (long y = 0; y < 256; y++) {
+                long key = TileIndex.key(x, y, 8);
+                Integer payload = expected.get(key);
+                assertEquals(payload == null ? TileIndex.MISSING : payload, index.get(key));
+            }
+        }
+
+        index.removeIf(
+                key -> TileIndex.x(key) < 128, (key, payload) -> assertEquals((int) expected.remove(key), payload));
+        assertEquals(expected.size(), index.size());
+        index.forEach((key, payload) -> assertEquals((int) expected.get(key), payload));
+    }
+
+    @Test
+    public void testWriteRead() throws Exception {
+        TileIndex index = new TileIndex("EPSG:4326", "image/png", "1234abcd");
+        for (int i = 0; i < 1000; i++) {
+            index.put(TileIndex.key(i, i * 2, 12), i % 10, 1_700_000_000_000L + i * 1000);
+        }
+        assertTrue(index.isDirty());
+        File file = new File(temp.getRoot(), "tiles_0.idx");
+        index.write(file);
+        assertFalse(index.isDirty());
+
+        TileIndex read = TileIndex.read(file);
+        assertTrue(read.isTileSet("EPSG:4326", "image/png", "1234abcd"));
+        assertFalse(read.isDirty());
+        assertEquals(1000, read.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i % 10, read.get(TileIndex.key(i, i * 2, 12)));
+            assertEquals(1_700_000_000_000L + i * 1000, read.created(TileIndex.key(i, i * 2, 12)));
+        }
+    }
+}
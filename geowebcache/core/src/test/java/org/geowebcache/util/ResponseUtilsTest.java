@@ -14,6 +14,9 @@
 package org.geowebcache.util;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
@@ -31,11 +34,13 @@
 import org.geowebcache.mime.ApplicationMime;
 import org.geowebcache.stats.RuntimeStats;
 import org.geowebcache.storage.DefaultStorageFinder;
+import org.geowebcache.storage.TileCompression;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -105,4 +110,36 @@ public void writeOutOfBoundsTile() throws GeoWebCacheException, RequestFilterExc
         assertEquals("image/png", response.getContentType());
         assertEquals("Zoom level was 10, but value has to be in [0,5]", response.getHeader("geowebcache-message"));
     }
+
+    @Test
+    public void negotiateEncodingAccepted() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Accept-Encoding", "gzip, deflate, br");
+        tile.servletReq = request;
+        when(tile.getContentEncoding()).thenReturn(TileCompression.GZIP);
+
+        assertTrue(ResponseUtils.negotiateEncoding(tile));
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+    }
+
+    @Test
+    public void negotiateEncodingNotAccepted() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Accept-Encoding", "gzip;q=0, br");
+        tile.servletReq = request;
+        when(tile.getContentEncoding()).thenReturn(TileCompression.GZIP);
+
+        assertFalse(ResponseUtils.negotiateEncoding(tile));
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+    }
+
+    @Test
+    public void negotiateEncodingNotCompressed() {
+        tile.servletReq = new MockHttpServletRequest();
+
+        assertFalse(ResponseUtils.negotiateEncoding(tile));
+        assertNull(response.getHeader("Vary"));
+    }
 }
@@ -31,7 +31,17 @@ public AbstractMonitor() {
     private ExecutorService executorService;
 
     public void startUp() {
-        executorService = Executors.newSingleThreadExecutor(getThreadFactory());
+        final int threads = getThreadCount();
+        if (threads > 1) {
+            executorService = Executors.newFixedThreadPool(threads, getThreadFactory());
+        } else {
+            executorService = Executors.newSingleThreadExecutor(getThreadFactory());
+        }
+    }
+
+    /** @return the number of threads the monitor tasks run on, defaults to a single one */
+    protected int getThreadCount() {
+        return 1;
     }
 
     protected abstract CustomizableThreadFactory getThreadFactory();
@@ -29,6 +29,7 @@
 import org.geowebcache.seed.TileBreeder;
 import org.geowebcache.storage.TileRange;
 import org.springframework.beans.factory.DisposableBean;
+import org.springframework.util.Assert;
 
 /**
  * @author groldan
@@ -42,6 +43,8 @@ public class CacheCleaner implements DisposableBean {
 
     private boolean shutDown;
 
+    private DiskQuotaMetrics metrics = new DiskQuotaMetrics();
+
     public static interface QuotaResolver {
         ExpirationPolicy getExpirationPolicy();
 
@@ -116,6 +119,16 @@ public CacheCleaner(final TileBreeder tileBreeder) {
         this.tileBreeder = tileBreeder;
     }
 
+    /** Sets the metrics collecting the amount of pages evicted and bytes freed by this cleaner */
+    public void setMetrics(DiskQuotaMetrics metrics) {
+        Assert.notNull(metrics, "metrics can't be null");
+        this.metrics = metrics;
+    }
+
+    public DiskQuotaMetrics getMetrics() {
+        return metrics;
+    }
+
     /** @see org.springframework.beans.factory.DisposableBean#destroy() */
     @Override
     public void destroy() throws Exception {
@@ -133,10 +146,29 @@ public void destroy() throws Exception {
     public void expireByLayerNames(
             final Set<String> layerNames, final QuotaResolver quotaResolver, final QuotaStore pageStore)
             throws InterruptedException {
+        expireByLayerNames(layerNames, quotaResolver, pageStore, null);
+    }
+
+    /**
+     * Same as {@link #expireByLayerNames(Set, QuotaResolver, QuotaStore)}, but when a {@link WatermarkEviction} is
+     * given pages are expired until the used quota reaches its {@link WatermarkEviction#target target}, pausing between
+     * pages as {@link WatermarkEviction#pauseMillis paced} by it.
+     *
+     * @param eviction the watermark eviction pacing, or {@code null} to expire pages at full speed until the limit is
+     *     reached
+     */
+    public void expireByLayerNames(
+            final Set<String> layerNames,
+            final QuotaResolver quotaResolver,
+            final QuotaStore pageStore,
+            final WatermarkEviction eviction)
+            throws InterruptedException {
 
         Quota limit;
         Quota used;
         Quota excess;
+        // used to track the space actually reclaimed, as the quota store catches up with the truncated pages
+        BigInteger previouslyUsed = null;
 
         while (true) {
             if (shutDown || Thread.currentThread().isInterrupted()) {
@@ -145,10 +177,15 @@ public void expireByLayerNames(
             // get it everytime in case the admin changed it while we're processsing
             limit = quotaResolver.getLimit();
             used = quotaResolver.getUsed();
-            excess = used.difference(limit);
+            if (previouslyUsed != null) {
+                metrics.bytesFreed(previouslyUsed.subtract(used.getBytes()).longValue());
+            }
+            previouslyUsed = used.getBytes();
+            final Quota target = eviction == null ? limit : eviction.target(limit);
+            excess = used.difference(target);
             if (excess.getBytes().compareTo(BigInteger.ZERO) <= 0) {
                 log.info("Reached back Quota: "
-                        + limit.toNiceString()
+                        + target.toNiceString()
                         + " ("
                         + used.toNiceString()
                         + ") for layers "
@@ -196,6 +233,14 @@ public void expireByLayerNames(
             }
 
             expirePage(pageStore, tilePage);
+            metrics.pageEvicted();
+
+            if (eviction != null) {
+                long pause = eviction.pauseMillis(used, limit);
+                if (pause > 0) {
+                    Thread.sleep(pause);
+                }
+            }
         }
     }
 
@@ -88,6 +88,9 @@ private void innerRun() throws InterruptedException {
 
         quotaConfig.setLastCleanUpTime(new Date());
 
+        // when watermarks are configured clean ups start ahead of time and are paced
+        final WatermarkEviction eviction = monitor.newWatermarkEviction();
+
         final Set<String> allLayerNames = monitor.getLayerNames();
         final Set<String> configuredLayerNames = quotaConfig.layerNames();
         final Set<String> globallyManagedLayerNames = new HashSet<>(allLayerNames);
@@ -121,7 +124,19 @@ private void innerRun() throws InterruptedException {
             final Quota usedQuota = monitor.getUsedQuotaByLayerName(layerName);
 
             Quota excedent = usedQuota.difference(quota);
-            if (excedent.getBytes().compareTo(BigInteger.ZERO) > 0) {
+            if (eviction != null && excedent.getBytes().signum() <= 0 && eviction.shouldStart(usedQuota, quota)) {
+                if (LOG.isLoggable(Level.FINE)) {
+                    LOG.fine("Layer '"
+                            + layerName
+                            + "' is about to reach its high watermark. Currently used: "
+                            + usedQuota.toNiceString()
+                            + " out of "
+                            + quota.toNiceString()
+                            + ". Paced clean up task will be performed using expiration policy "
+                            + policy);
+                }
+                submitLayerCleanUp(layerName, eviction);
+            } else if (excedent.getBytes().compareTo(BigInteger.ZERO) > 0) {
                 if (LOG.isLoggable(Level.INFO)) {
                     LOG.info("Layer '"
                             + layerName
@@ -135,12 +150,7 @@ private void innerRun() throws InterruptedException {
                             + policy);
                 }
 
-                Set<String> layerNames = Collections.singleton(layerName);
-                QuotaResolver quotaResolver = monitor.newLayerQuotaResolver(layerName);
-
-                LayerQuotaEnforcementTask task = new LayerQuotaEnforcementTask(layerNames, quotaResolver, monitor);
-                Future<Object> future = this.cleanUpExecutorService.submit(task);
-                perLayerRunningCleanUps.put(layerName, future);
+                submitLayerCleanUp(layerName, eviction);
             }
         }
 
@@ -165,12 +175,13 @@ private void innerRun() throws InterruptedException {
             Quota globalUsedQuota = monitor.getGloballyUsedQuota();
             Quota excedent = globalUsedQuota.difference(globalQuota);
 
-            if (excedent.getBytes().compareTo(BigInteger.ZERO) > 0) {
+            if (excedent.getBytes().compareTo(BigInteger.ZERO) > 0
+                    || (eviction != null && eviction.shouldStart(globalUsedQuota, globalQuota))) {
 
                 LOG.fine("Submitting global cache quota enforcement task");
                 QuotaResolver quotaResolver = monitor.newGlobalQuotaResolver();
                 LayerQuotaEnforcementTask task =
-                        new LayerQuotaEnforcementTask(globallyManagedLayerNames, quotaResolver, monitor);
+                        new LayerQuotaEnforcementTask(globallyManagedLayerNames, quotaResolver, monitor, eviction);
                 this.globalCleanUpTask = this.cleanUpExecutorService.submit(task);
             } else {
                 if (LOG.isLoggable(Level.FINER)) {
@@ -184,6 +195,15 @@ private void innerRun() throws InterruptedException {
         }
     }
 
+    private void submitLayerCleanUp(String layerName, WatermarkEviction eviction) {
+        Set<String> layerNames = Collections.singleton(layerName);
+        QuotaResolver quotaResolver = monitor.newLayerQuotaResolver(layerName);
+
+        LayerQuotaEnforcementTask task = new LayerQuotaEnforcementTask(layerNames, quotaResolver, monitor, eviction);
+        Future<Object> future = this.cleanUpExecutorService.submit(task);
+        perLayerRunningCleanUps.put(layerName, future);
+    }
+
     /** @author Gabriel Roldan */
     private static class LayerQuotaEnforcementTask implements Callable<Object> {
 
@@ -193,18 +213,25 @@ private static class LayerQuotaEnforcementTask implements Callable<Object> {
 
         private final DiskQuotaMonitor monitor;
 
+        private final WatermarkEviction eviction;
+
+        /** @param eviction paces the clean up down to the low watermark, or {@code null} to clean up to the limit */
         public LayerQuotaEnforcementTask(
-                final Set<String> layerNames, final QuotaResolver quotaResolver, final DiskQuotaMonitor monitor) {
+                final Set<String> layerNames,
+                final QuotaResolver quotaResolver,
+                final DiskQuotaMonitor monitor,
+                final WatermarkEviction eviction) {
             this.layerNames = layerNames;
             this.quotaResolver = quotaResolver;
             this.monitor = monitor;
+            this.eviction = eviction;
         }
 
         /** @see java.util.concurrent.Callable#call() */
         @Override
         public Object call() throws Exception {
             try {
-                monitor.expireByLayerNames(layerNames, quotaResolver);
+                monitor.expireByLayerNames(layerNames, quotaResolver, eviction);
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 LOG.info("Layer quota enforcement task terminated prematurely");
@@ -181,6 +181,15 @@ private void validateConfig(DiskQuotaConfig quotaConfig) throws ConfigurationExc
         if (maxConcurrentCleanUps <= 0) {
             throw new ConfigurationException("maxConcurrentCleanUps shall be specified as a positive integer");
         }
+        Integer highWatermark = quotaConfig.getHighWatermark();
+        Integer lowWatermark = quotaConfig.getLowWatermark();
+        if ((highWatermark == null) != (lowWatermark == null)) {
+            throw new ConfigurationException("highWatermark and lowWatermark shall be specified together");
+        }
+        if (highWatermark != null && lowWatermark > highWatermark) {
+            throw new ConfigurationException("lowWatermark (" + lowWatermark
+                    + ") shall not be greater than highWatermark (" + highWatermark + ")");
+        }
 
         if (null != quotaConfig.getLayerQuotas()) {
             for (LayerQuota lq : new ArrayList<>(quotaConfig.getLayerQuotas())) {
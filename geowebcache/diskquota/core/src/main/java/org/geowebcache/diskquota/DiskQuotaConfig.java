@@ -65,6 +65,10 @@ public class DiskQuotaConfig implements Cloneable, Serializable {
 
     private String quotaStore;
 
+    private Integer highWatermark;
+
+    private Integer lowWatermark;
+
     public void setDefaults() {
         if (enabled == null) {
             enabled = Boolean.FALSE;
@@ -96,6 +100,8 @@ void setFrom(DiskQuotaConfig other) {
         this.layerQuotas = other.layerQuotas == null ? null : new ArrayList<>(other.layerQuotas);
         this.maxConcurrentCleanUps = other.maxConcurrentCleanUps;
         this.quotaStore = other.quotaStore;
+        this.highWatermark = other.highWatermark;
+        this.lowWatermark = other.lowWatermark;
     }
 
     public Boolean isEnabled() {
@@ -247,6 +253,50 @@ public DiskQuotaConfig clone() {
         return clone;
     }
 
+    /**
+     * Percentage of a quota that, once reached or foreseen to be reached by the next clean up run at the current cache
+     * fill rate, starts the clean up of the layers under it.
+     *
+     * @return the high watermark percentage, or {@code null} if clean ups only start once a quota is exceeded
+     * @see #getLowWatermark()
+     */
+    public Integer getHighWatermark() {
+        return highWatermark;
+    }
+
+    /** @param highWatermark the high watermark percentage, between 1 and 100, or {@code null} to unset */
+    public void setHighWatermark(Integer highWatermark) {
+        checkWatermark("highWatermark", highWatermark);
+        this.highWatermark = highWatermark;
+    }
+
+    /**
+     * Percentage of a quota the clean ups started by the {@link #getHighWatermark() high watermark} bring the cache
+     * back to, evicting pages at a pace that follows the cache fill rate rather than all at once.
+     *
+     * @return the low watermark percentage, or {@code null} if clean ups stop as soon as the quota is met
+     */
+    public Integer getLowWatermark() {
+        return lowWatermark;
+    }
+
+    /** @param lowWatermark the low watermark percentage, between 1 and 100, or {@code null} to unset */
+    public void setLowWatermark(Integer lowWatermark) {
+        checkWatermark("lowWatermark", lowWatermark);
+        this.lowWatermark = lowWatermark;
+    }
+
+    private static void checkWatermark(String name, Integer percentage) {
+        if (percentage != null && (percentage < 1 || percentage > 100)) {
+            throw new IllegalArgumentException(name + " shall be a percentage between 1 and 100: " + percentage);
+        }
+    }
+
+    /** @return whether both watermarks are set, enabling the paced, ahead of time, clean ups */
+    public boolean isWatermarkEvictionEnabled() {
+        return highWatermark != null && lowWatermark != null;
+    }
+
     /** Returns the quota store name */
     public String getQuotaStore() {
         return quotaStore;
@@ -0,0 +1,156 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.diskquota;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread safe counters tracking how well the disk quota subsystem keeps up with the cache: how long the quota store
+ * takes to commit the aggregated quota updates, how fast new tiles fill the cache, and how many pages and bytes the
+ * {@link CacheCleaner} reclaims.
+ *
+ * <p>The fill and reclaim rates are computed over a sliding window of {@link #RATE_WINDOW_SECONDS} seconds.
+ *
+ * @see DiskQuotaMonitor#getStatus()
+ */
+public class DiskQuotaMetrics {
+
+    /** Length of the sliding window used to compute the fill and reclaim rates */
+    public static final int RATE_WINDOW_SECONDS = 60;
+
+    private final LongSupplier clock;
+
+    private final LongAdder quotaCommits = new LongAdder();
+
+    private final LongAdder quotaCommitNanos = new LongAdder();
+
+    private final AtomicLong maxQuotaCommitNanos = new AtomicLong();
+
+    private final LongAdder pagesEvicted = new LongAdder();
+
+    private final LongAdder bytesFreed = new LongAdder();
+
+    private final RateWindow freedRate = new RateWindow();
+
+    private final RateWindow addedRate = new RateWindow();
+
+    /** Sums up amounts per second over the last {@link #RATE_WINDOW_SECONDS} seconds */
+    private static class RateWindow {
+
+        /** Amounts per second, guarded by this */
+        private final long[] bySecond = new long[RATE_WINDOW_SECONDS];
+
+        /** The second each slot of {@link #bySecond} accounts for, guarded by this */
+        private final long[] slotSecond = new long[RATE_WINDOW_SECONDS];
+
+        synchronized void add(long second, long amount) {
+            int slot = (int) (second % RATE_WINDOW_SECONDS);
+            if (slotSecond[slot] != second) {
+                slotSecond[slot] = second;
+                bySecond[slot] = 0;
+            }
+            bySecond[slot] += amount;
+        }
+
+        synchronized double perSecond(long now) {
+            long total = 0;
+            for (int i = 0; i < RATE_WINDOW_SECONDS; i++) {
+                if (now - slotSecond[i] < RATE_WINDOW_SECONDS) {
+                    total += bySecond[i];
+                }
+            }
+            return total / (double) RATE_WINDOW_SECONDS;
+        }
+    }
+
+    public DiskQuotaMetrics() {
+        this(System::currentTimeMillis);
+    }
+
+    /** @param clock provides the current time in milliseconds */
+    DiskQuotaMetrics(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /** Records a quota store commit of aggregated quota updates that took {@code nanos} nanoseconds */
+    public void quotaCommitted(long nanos) {
+        quotaCommits.increment();
+        quotaCommitNanos.add(nanos);
+        maxQuotaCommitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /** Records a tile page has been truncated to reclaim space */
+    public void pageEvicted() {
+        pagesEvicted.increment();
+    }
+
+    /** Records the used quota decreased by {@code bytes} while enforcing a quota */
+    public void bytesFreed(long bytes) {
+        if (bytes <= 0) {
+            return;
+        }
+        bytesFreed.add(bytes);
+        freedRate.add(currentSecond(), bytes);
+    }
+
+    /** Records {@code bytes} of newly stored tiles have been committed to the quota store */
+    public void bytesAdded(long bytes) {
+        if (bytes > 0) {
+            addedRate.add(currentSecond(), bytes);
+        }
+    }
+
+    private long currentSecond() {
+        return TimeUnit.MILLISECONDS.toSeconds(clock.getAsLong());
+    }
+
+    public long getQuotaCommits() {
+        return quotaCommits.sum();
+    }
+
+    /** @return the average time it took to commit aggregated quota updates, in milliseconds */
+    public double getAverageQuotaCommitMillis() {
+        long commits = quotaCommits.sum();
+        return commits == 0 ? 0 : quotaCommitNanos.sum() / (commits * 1_000_000d);
+    }
+
+    /** @return the longest time it took to commit aggregated quota updates, in milliseconds */
+    public double getMaxQuotaCommitMillis() {
+        return maxQuotaCommitNanos.get() / 1_000_000d;
+    }
+
+    public long getPagesEvicted() {
+        return pagesEvicted.sum();
+    }
+
+    public long getBytesFreed() {
+        return bytesFreed.sum();
+    }
+
+    /** @return the average bytes freed per second during the last {@link #RATE_WINDOW_SECONDS} seconds */
+    public double getBytesFreedPerSecond() {
+        return freedRate.perSecond(currentSecond());
+    }
+
+    /**
+     * @return the average bytes of new tiles added to the cache per second during the last
+     *     {@link #RATE_WINDOW_SECONDS} seconds, that is, the cache fill rate
+     */
+    public double getBytesAddedPerSecond() {
+        return addedRate.perSecond(currentSecond());
+    }
+}
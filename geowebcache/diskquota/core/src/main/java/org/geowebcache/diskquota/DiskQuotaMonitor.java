@@ -98,6 +98,8 @@ public class DiskQuotaMonitor implements DisposableBean, ApplicationListener<Con
 
     private QuotaStoreProvider quotaStoreProvider;
 
+    private final DiskQuotaMetrics metrics = new DiskQuotaMetrics();
+
     /**
      * @param configLoader loads and saves the layers quota config and usage status
      * @param tld provides access to the layers configured for disk quota insurance quota usage
@@ -125,6 +127,9 @@ public DiskQuotaMonitor(
         this.tileLayerDispatcher = tld;
         this.quotaStoreProvider = quotaStoreProvider;
         this.cacheCleaner = cacheCleaner;
+        if (cacheCleaner != null) {
+            cacheCleaner.setMetrics(metrics);
+        }
     }
 
     /**
@@ -228,7 +233,7 @@ private void startUpInternal() throws InterruptedException, ConfigurationExcepti
 
         quotaStore = quotaStoreProvider.getQuotaStore();
 
-        quotaUsageMonitor = new QuotaUpdatesMonitor(storageBroker, quotaStore);
+        quotaUsageMonitor = new QuotaUpdatesMonitor(storageBroker, quotaStore, metrics);
         usageStatsMonitor = new UsageStatsMonitor(quotaStore, tileLayerDispatcher);
 
         if (cleanUpExecutorService != null) {
@@ -471,6 +476,63 @@ public Quota getGloballyUsedQuota() throws InterruptedException {
         return quotaStore.getGloballyUsedQuota();
     }
 
+    /** Returns the counters tracking quota store commits and cache clean up progress */
+    public DiskQuotaMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Builds a snapshot of the queue depths, quota store commit latencies and clean up progress, along with how much
+     * the cache currently exceeds its quotas and an estimate of the time needed to get back within them.
+     */
+    public DiskQuotaStatus getStatus() throws InterruptedException {
+        DiskQuotaStatus status = new DiskQuotaStatus();
+        status.setEnabled(diskQuotaEnabled);
+        status.setRunning(isRunning);
+        status.setQuotaCommits(metrics.getQuotaCommits());
+        status.setAverageQuotaCommitMillis(metrics.getAverageQuotaCommitMillis());
+        status.setMaxQuotaCommitMillis(metrics.getMaxQuotaCommitMillis());
+        status.setPagesEvicted(metrics.getPagesEvicted());
+        status.setBytesFreed(metrics.getBytesFreed());
+        final double freedPerSecond = metrics.getBytesFreedPerSecond();
+        status.setBytesFreedPerSecond(freedPerSecond);
+        status.setBytesAddedPerSecond(metrics.getBytesAddedPerSecond());
+        if (!isRunning) {
+            return status;
+        }
+
+        status.setQuotaUpdatesQueueDepth(quotaUsageMonitor.getQueueDepth());
+        status.setQuotaUpdatesConsumers(quotaUsageMonitor.getConsumerCount());
+        status.setUsageStatsQueueDepth(usageStatsMonitor.getQueueDepth());
+
+        BigInteger excess = BigInteger.ZERO;
+        final Quota globallyUsed = quotaStore.getGloballyUsedQuota();
+        status.setGloballyUsedBytes(globallyUsed.getBytes().longValue());
+        final Quota globalQuota = quotaConfig.getGlobalQuota();
+        if (globalQuota != null) {
+            status.setGlobalQuotaBytes(globalQuota.getBytes().longValue());
+            excess = excess.add(globallyUsed.difference(globalQuota).getBytes().max(BigInteger.ZERO));
+        }
+        List<LayerQuota> layerQuotas = quotaConfig.getLayerQuotas();
+        if (layerQuotas != null) {
+            for (LayerQuota layerQuota : layerQuotas) {
+                if (layerQuota.getQuota() != null) {
+                    Quota used = quotaStore.getUsedQuotaByLayerName(layerQuota.getLayer());
+                    excess = excess.add(used.difference(layerQuota.getQuota()).getBytes().max(BigInteger.ZERO));
+                }
+            }
+        }
+        status.setExcessBytes(excess.longValue());
+        if (excess.signum() == 0) {
+            status.setTimeToComplianceSeconds(0);
+        } else if (freedPerSecond > 0) {
+            status.setTimeToComplianceSeconds((long) Math.ceil(excess.doubleValue() / freedPerSecond));
+        } else {
+            status.setTimeToComplianceSeconds(-1);
+        }
+        return status;
+    }
+
     /**
      * <b>Preconditions</b>:
      *
@@ -483,4 +545,29 @@ public Quota getGloballyUsedQuota() throws InterruptedException {
     public void expireByLayerNames(Set<String> layerNames, QuotaResolver quotaResolver) throws InterruptedException {
         cacheCleaner.expireByLayerNames(layerNames, quotaResolver, quotaStore);
     }
+
+    /**
+     * @param eviction paces the expiration down to the low watermark, or {@code null} to expire down to the limit
+     * @see CacheCleaner#expireByLayerNames(Set, QuotaResolver, QuotaStore, WatermarkEviction)
+     */
+    public void expireByLayerNames(Set<String> layerNames, QuotaResolver quotaResolver, WatermarkEviction eviction)
+            throws InterruptedException {
+        cacheCleaner.expireByLayerNames(layerNames, quotaResolver, quotaStore, eviction);
+    }
+
+    /**
+     * @return the paced clean up settings derived from the configured watermarks, or {@code null} if they're not set
+     * @see DiskQuotaConfig#isWatermarkEvictionEnabled()
+     */
+    public WatermarkEviction newWatermarkEviction() {
+        final DiskQuotaConfig config = quotaConfig;
+        if (config == null || !config.isWatermarkEvictionEnabled()) {
+            return null;
+        }
+        int high = config.getHighWatermark();
+        // guard against a REST update leaving the low watermark above the high one
+        int low = Math.min(config.getLowWatermark(), high);
+        long periodMillis = config.getCacheCleanUpUnits().toMillis(config.getCacheCleanUpFrequency());
+        return new WatermarkEviction(high, low, metrics, Math.max(1, periodMillis));
+    }
 }
@@ -0,0 +1,187 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.diskquota;
+
+/**
+ * Point in time snapshot of the disk quota subsystem health, as returned by {@link DiskQuotaMonitor#getStatus()}.
+ *
+ * <p>The excess is the amount of bytes the cache is over its configured quotas, summing up the global quota excess and
+ * the excess of each layer with its own quota. The time to compliance estimates how long the clean up tasks will take
+ * to get rid of it at the current reclaim rate, it's {@code 0} when no quota is exceeded and {@code -1} when it can't
+ * be estimated because nothing has been reclaimed lately.
+ */
+public class DiskQuotaStatus {
+
+    private boolean enabled;
+
+    private boolean running;
+
+    private int quotaUpdatesQueueDepth;
+
+    private int quotaUpdatesConsumers;
+
+    private int usageStatsQueueDepth;
+
+    private long quotaCommits;
+
+    private double averageQuotaCommitMillis;
+
+    private double maxQuotaCommitMillis;
+
+    private long pagesEvicted;
+
+    private long bytesFreed;
+
+    private double bytesFreedPerSecond;
+
+    private double bytesAddedPerSecond;
+
+    private long globallyUsedBytes;
+
+    private Long globalQuotaBytes;
+
+    private long excessBytes;
+
+    private long timeToComplianceSeconds;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public void setRunning(boolean running) {
+        this.running = running;
+    }
+
+    public int getQuotaUpdatesQueueDepth() {
+        return quotaUpdatesQueueDepth;
+    }
+
+    public void setQuotaUpdatesQueueDepth(int quotaUpdatesQueueDepth) {
+        this.quotaUpdatesQueueDepth = quotaUpdatesQueueDepth;
+    }
+
+    public int getQuotaUpdatesConsumers() {
+        return quotaUpdatesConsumers;
+    }
+
+    public void setQuotaUpdatesConsumers(int quotaUpdatesConsumers) {
+        this.quotaUpdatesConsumers = quotaUpdatesConsumers;
+    }
+
+    public int getUsageStatsQueueDepth() {
+        return usageStatsQueueDepth;
+    }
+
+    public void setUsageStatsQueueDepth(int usageStatsQueueDepth) {
+        this.usageStatsQueueDepth = usageStatsQueueDepth;
+    }
+
+    public long getQuotaCommits() {
+        return quotaCommits;
+    }
+
+    public void setQuotaCommits(long quotaCommits) {
+        this.quotaCommits = quotaCommits;
+    }
+
+    public double getAverageQuotaCommitMillis() {
+        return averageQuotaCommitMillis;
+    }
+
+    public void setAverageQuotaCommitMillis(double averageQuotaCommitMillis) {
+        this.averageQuotaCommitMillis = averageQuotaCommitMillis;
+    }
+
+    public double getMaxQuotaCommitMillis() {
+        return maxQuotaCommitMillis;
+    }
+
+    public void setMaxQuotaCommitMillis(double maxQuotaCommitMillis) {
+        this.maxQuotaCommitMillis = maxQuotaCommitMillis;
+    }
+
+    public long getPagesEvicted() {
+        return pagesEvicted;
+    }
+
+    public void setPagesEvicted(long pagesEvicted) {
+        this.pagesEvicted = pagesEvicted;
+    }
+
+    public long getBytesFreed() {
+        return bytesFreed;
+    }
+
+    public void setBytesFreed(long bytesFreed) {
+        this.bytesFreed = bytesFreed;
+    }
+
+    public double getBytesFreedPerSecond() {
+        return bytesFreedPerSecond;
+    }
+
+    public void setBytesFreedPerSecond(double bytesFreedPerSecond) {
+        this.bytesFreedPerSecond = bytesFreedPerSecond;
+    }
+
+    /** @return the cache fill rate, in bytes of new tiles per second */
+    public double getBytesAddedPerSecond() {
+        return bytesAddedPerSecond;
+    }
+
+    public void setBytesAddedPerSecond(double bytesAddedPerSecond) {
+        this.bytesAddedPerSecond = bytesAddedPerSecond;
+    }
+
+    public long getGloballyUsedBytes() {
+        return globallyUsedBytes;
+    }
+
+    public void setGloballyUsedBytes(long globallyUsedBytes) {
+        this.globallyUsedBytes = globallyUsedBytes;
+    }
+
+    /** @return the configured global quota, or {@code null} if there is none */
+    public Long getGlobalQuotaBytes() {
+        return globalQuotaBytes;
+    }
+
+    public void setGlobalQuotaBytes(Long globalQuotaBytes) {
+        this.globalQuotaBytes = globalQuotaBytes;
+    }
+
+    public long getExcessBytes() {
+        return excessBytes;
+    }
+
+    public void setExcessBytes(long excessBytes) {
+        this.excessBytes = excessBytes;
+    }
+
+    public long getTimeToComplianceSeconds() {
+        return timeToComplianceSeconds;
+    }
+
+    public void setTimeToComplianceSeconds(long timeToComplianceSeconds) {
+        this.timeToComplianceSeconds = timeToComplianceSeconds;
+    }
+}
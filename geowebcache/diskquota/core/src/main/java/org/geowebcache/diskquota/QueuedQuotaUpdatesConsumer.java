@@ -53,13 +53,15 @@ public class QueuedQuotaUpdatesConsumer implements Callable<Long> {
 
     private final BlockingQueue<QuotaUpdate> queue;
 
+    private final DiskQuotaMetrics metrics;
+
     /**
      * Tracks aggregated quota size diffs per TileSet until committed by {@link #commit(TimedQuotaUpdate)} as the result
      * of {@link #checkAggregatedTimeouts()} or {@link #checkAggregatedTimeout(TimedQuotaUpdate)} at {@link #call()}
      */
     private Map<TileSet, TimedQuotaUpdate> aggregatedDelayedUpdates;
 
-    boolean terminate = false;
+    volatile boolean terminate = false;
 
     /**
      * Tracks accumulated quota difference for a single TileSet and accumulated number of tiles difference for pages in
@@ -82,6 +84,9 @@ private static class TimedQuotaUpdate {
         /** Tracks accumulated quota difference per TileSet */
         private Quota accumQuotaDiff;
 
+        /** Tracks the bytes of the stored tiles only, to measure the cache fill rate */
+        private long accumAddedBytes;
+
         /** Tracks accumulated number of tiles per TilePage id */
         private Map<String, PageStatsPayload> tilePages;
 
@@ -104,6 +109,9 @@ public void add(QuotaUpdate quotaUpdate) {
 
             long size = quotaUpdate.getSize();
             this.accumQuotaDiff.addBytes(quotaUpdate.getSize());
+            if (size > 0) {
+                accumAddedBytes += size;
+            }
 
             long[] tileIndex = quotaUpdate.getTileIndex();
             tpc.pageIndexForTile(tileSet, tileIndex, pageIndexTarget);
@@ -114,7 +122,7 @@ public void add(QuotaUpdate quotaUpdate) {
             TilePage.computeId(tileSetId, pageX, pageY, pageZ, pageIdTarget);
             String pageIdForTile = pageIdTarget.toString();
 
-            final int tileCountDiff = size > 0 ? 1 : -1;
+            final int tileCountDiff = quotaUpdate.getTileCount();
             PageStatsPayload payload = tilePages.get(pageIdForTile);
             if (payload == null) {
                 TilePage page = new TilePage(tileSetId, pageX, pageY, pageZ);
@@ -155,12 +163,20 @@ public String toString() {
     }
 
     public QueuedQuotaUpdatesConsumer(QuotaStore quotaStore, BlockingQueue<QuotaUpdate> queue) {
+        this(quotaStore, queue, new DiskQuotaMetrics());
+    }
+
+    /** @param metrics records how long each commit to the quota store takes, and the cache fill rate */
+    public QueuedQuotaUpdatesConsumer(
+            QuotaStore quotaStore, BlockingQueue<QuotaUpdate> queue, DiskQuotaMetrics metrics) {
         Assert.notNull(quotaStore, "quotaStore can't be null");
         Assert.notNull(queue, "queue can't be null");
+        Assert.notNull(metrics, "metrics can't be null");
 
         this.quotaStore = quotaStore;
         this.tilePageCalculator = quotaStore.getTilePageCalculator();
         this.queue = queue;
+        this.metrics = metrics;
         aggregatedDelayedUpdates = new HashMap<>();
     }
 
@@ -292,7 +308,10 @@ private void commit(final TimedQuotaUpdate aggregatedUpadte) throws InterruptedE
             return;
         }
 
+        final long start = System.nanoTime();
         quotaStore.addToQuotaAndTileCounts(tileSet, quotaDiff, tileCountDiffs);
+        metrics.quotaCommitted(System.nanoTime() - start);
+        metrics.bytesAdded(aggregatedUpadte.accumAddedBytes);
     }
 
     public void shutdown() {
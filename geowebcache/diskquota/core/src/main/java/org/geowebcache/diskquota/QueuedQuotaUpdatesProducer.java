@@ -13,12 +13,15 @@
  */
 package org.geowebcache.diskquota;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.geotools.util.logging.Logging;
 import org.geowebcache.GeoWebCacheExtensions;
+import org.geowebcache.diskquota.storage.TileSet;
 import org.geowebcache.storage.BlobStoreListener;
 import org.geowebcache.storage.DefaultStorageBroker;
 import org.springframework.util.Assert;
@@ -30,6 +33,13 @@
  * provided {@link BlockingQueue}. Another thread is responsible of taking the {@link QuotaUpdate} off the queue and
  * updating the quota store as appropriate.
  *
+ * <p>Bulk deletions are reported through {@link #tilesDeleted tilesDeleted} events that the blob store keeps within a
+ * single quota page, each queued as a single update carrying the exact tile count of the page.
+ *
+ * <p>When more than one queue is provided the updates are partitioned by {@link TileSet} hash, so that all the updates
+ * for a given tile set land on the same queue and can be aggregated by a single consumer, while updates for different
+ * tile sets are committed in parallel.
+ *
  * @author groldan
  * @see DiskQuotaMonitor
  * @see QueuedQuotaUpdatesConsumer
@@ -38,7 +48,7 @@ class QueuedQuotaUpdatesProducer implements BlobStoreListener {
 
     private static final Logger log = Logging.getLogger(QueuedQuotaUpdatesProducer.class.getName());
 
-    private final BlockingQueue<QuotaUpdate> queuedUpdates;
+    private final List<BlockingQueue<QuotaUpdate>> queuedUpdates;
 
     private boolean cancelled;
 
@@ -51,7 +61,16 @@ class QueuedQuotaUpdatesProducer implements BlobStoreListener {
      *     separate thread that takes care of them.
      */
     public QueuedQuotaUpdatesProducer(final BlockingQueue<QuotaUpdate> queuedUpdates, QuotaStore quotaStore) {
-        Assert.notNull(queuedUpdates, "queuedUpdates can't be null");
+        this(Collections.singletonList(queuedUpdates), quotaStore);
+    }
+
+    /**
+     * @param queuedUpdates the queues this monitor will fill with updates at each tile event, one per consumer shard.
+     *     Updates for a given tile set always go to the same queue.
+     */
+    public QueuedQuotaUpdatesProducer(final List<BlockingQueue<QuotaUpdate>> queuedUpdates, QuotaStore quotaStore) {
+        Assert.notEmpty(queuedUpdates, "queuedUpdates can't be null or empty");
+        Assert.noNullElements(queuedUpdates, "queuedUpdates can't contain null queues");
 
         this.queuedUpdates = queuedUpdates;
         this.quotaStore = quotaStore;
@@ -102,6 +121,62 @@ public void tileDeleted(
         quotaUpdate(layerName, gridSetId, blobFormat, parametersId, actualSizeFreed, new long[] {x, y, z});
     }
 
+    /** Bulk deletions are queued per quota page, see {@link #tilesDeleted tilesDeleted} */
+    @Override
+    public boolean supportsTilesDeleted() {
+        return true;
+    }
+
+    /**
+     * Bounds the bulk deletions to the quota page of their first tile, so that their tile count can be subtracted from
+     * that page alone.
+     *
+     * @see org.geowebcache.storage.BlobStoreListener#tilesDeletedArea
+     */
+    @Override
+    public long[] tilesDeletedArea(
+            final String layerName,
+            final String gridSetId,
+            final String blobFormat,
+            final String parametersId,
+            final long x,
+            final long y,
+            final int z) {
+        TileSet tileSet = new TileSet(layerName, gridSetId, blobFormat, parametersId);
+        try {
+            return quotaStore.getTilePageCalculator().pageBoundsForTile(tileSet, new long[] {x, y, z});
+        } catch (RuntimeException e) {
+            // can't tell the page apart, have each tile reported on its own
+            log.log(Level.FINE, "Can't compute the quota page of a tile of " + tileSet, e);
+            return new long[] {x, y, x, y};
+        }
+    }
+
+    /**
+     * Queues the subtraction of the freed space from the tile set quota, and of the deleted tiles from the quota page
+     * holding them, as a single update.
+     *
+     * @see org.geowebcache.storage.BlobStoreListener#tilesDeleted
+     */
+    @Override
+    public void tilesDeleted(
+            final String layerName,
+            final String gridSetId,
+            final String blobFormat,
+            final String parametersId,
+            final long[] rangeBounds,
+            final long tileCount,
+            final long blobSize) {
+
+        if (tileCount == 0 && blobSize == 0) {
+            return;
+        }
+        // the range lies within the page of its first tile, see tilesDeletedArea
+        long[] tileIndex = {rangeBounds[0], rangeBounds[1], rangeBounds[4]};
+        int tileCountDiff = (int) -Math.min(tileCount, Integer.MAX_VALUE);
+        quotaUpdate(layerName, gridSetId, blobFormat, parametersId, -blobSize, tileIndex, tileCountDiff);
+    }
+
     /** @see org.geowebcache.storage.BlobStoreListener#tileUpdated */
     @Override
     public void tileUpdated(
@@ -163,16 +238,30 @@ public void layerRenamed(String oldLayerName, String newLayerName) {
      */
     private void quotaUpdate(
             String layerName, String gridSetId, String blobFormat, String parametersId, long amount, long[] tileIndex) {
+        quotaUpdate(layerName, gridSetId, blobFormat, parametersId, amount, tileIndex, amount > 0 ? 1 : -1);
+    }
+
+    /** @param tileCount number of tiles added or removed from the page of {@code tileIndex} */
+    private void quotaUpdate(
+            String layerName,
+            String gridSetId,
+            String blobFormat,
+            String parametersId,
+            long amount,
+            long[] tileIndex,
+            int tileCount) {
 
         if (cancelled(layerName)) {
             return;
         }
-        QuotaUpdate payload = new QuotaUpdate(layerName, gridSetId, blobFormat, parametersId, amount, tileIndex);
+        TileSet tileSet = new TileSet(layerName, gridSetId, blobFormat, parametersId);
+        QuotaUpdate payload = new QuotaUpdate(tileSet, amount, tileIndex, tileCount);
+        final BlockingQueue<QuotaUpdate> queue = queueFor(payload.getTileSet());
         try {
             if (updateOfferTimeoutSeconds <= 0) {
-                this.queuedUpdates.put(payload);
+                queue.put(payload);
             } else {
-                if (!this.queuedUpdates.offer(payload, updateOfferTimeoutSeconds, TimeUnit.SECONDS)) {
+                if (!queue.offer(payload, updateOfferTimeoutSeconds, TimeUnit.SECONDS)) {
                     throw new RuntimeException("Failed to offer the quota diff to the updates queue "
                             + "within the configured timeout of "
                             + updateOfferTimeoutSeconds
@@ -192,6 +281,15 @@ private void quotaUpdate(
         }
     }
 
+    /** @return the queue (shard) all updates for the given tile set are sent to */
+    BlockingQueue<QuotaUpdate> queueFor(TileSet tileSet) {
+        final int shards = queuedUpdates.size();
+        if (shards == 1) {
+            return queuedUpdates.get(0);
+        }
+        return queuedUpdates.get(Math.floorMod(tileSet.hashCode(), shards));
+    }
+
     private boolean cancelled(String layerName) {
         if (cancelled) {
             log.fine("Quota updates listener cancelled. Avoiding adding update for layer "
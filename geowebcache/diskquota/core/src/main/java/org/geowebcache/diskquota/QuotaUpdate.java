@@ -23,6 +23,8 @@ public class QuotaUpdate {
 
     private long[] tileIndex;
 
+    private final int tileCount;
+
     /** @param size bytes to add or subtract from a quota: positive value increase quota, negative value decreases it */
     public QuotaUpdate(
             String layerName, String gridsetId, String blobFormat, String parametersId, long size, long[] tileIndex) {
@@ -30,9 +32,18 @@ public QuotaUpdate(
     }
 
     public QuotaUpdate(TileSet tileset, long quotaUpdateSize, long[] tileIndex) {
+        this(tileset, quotaUpdateSize, tileIndex, quotaUpdateSize > 0 ? 1 : -1);
+    }
+
+    /**
+     * @param tileIndex a tile of the page the tiles belong to
+     * @param tileCount number of tiles added (positive) or removed (negative) from the page of {@code tileIndex}
+     */
+    public QuotaUpdate(TileSet tileset, long quotaUpdateSize, long[] tileIndex, int tileCount) {
         this.tileSet = tileset;
         this.size = quotaUpdateSize;
         this.tileIndex = tileIndex;
+        this.tileCount = tileCount;
     }
 
     public TileSet getTileSet() {
@@ -51,6 +62,11 @@ public long[] getTileIndex() {
         return tileIndex;
     }
 
+    /** @return the number of tiles added (positive) or removed (negative), a single one unless a bulk deletion */
+    public int getTileCount() {
+        return tileCount;
+    }
+
     @Override
     public String toString() {
         return new StringBuilder("[")
@@ -13,6 +13,8 @@
  */
 package org.geowebcache.diskquota;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.logging.Level;
@@ -23,9 +25,22 @@
 import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.Assert;
 
+/**
+ * Listens to blob store events and saves the resulting quota updates to the {@link QuotaStore}.
+ *
+ * <p>By default a single {@link QueuedQuotaUpdatesConsumer} drains the updates queue. When seeding many layers at once
+ * a single consumer may not keep up, in which case the {@code GEOWEBCACHE_QUOTA_CONSUMERS} property can be used to
+ * partition the updates by tile set across several consumers, each with its own queue. The configured
+ * {@code GEOWEBCACHE_QUOTA_QUEUE_SIZE} is split among the shard queues, so the overall amount of pending updates held
+ * in memory stays bounded the same way it is with a single consumer.
+ */
 public class QuotaUpdatesMonitor extends AbstractMonitor {
 
     private static final Logger log = Logging.getLogger(QuotaUpdatesMonitor.class.getName());
+
+    /** Name of the property setting how many parallel consumers commit the quota updates */
+    public static final String QUOTA_CONSUMERS_PROPERTY = "GEOWEBCACHE_QUOTA_CONSUMERS";
+
     private static final CustomizableThreadFactory tf =
             new CustomizableThreadFactory("GWC DiskQuota Updates Gathering Thread-");
 
@@ -33,28 +48,51 @@ public class QuotaUpdatesMonitor extends AbstractMonitor {
 
     private final QuotaStore quotaStore;
 
-    private BlockingQueue<QuotaUpdate> sharedQueue;
+    private List<BlockingQueue<QuotaUpdate>> sharedQueues;
 
     private QueuedQuotaUpdatesProducer quotaDiffsProducer;
 
-    private QueuedQuotaUpdatesConsumer quotaUsageUpdatesConsumer;
+    private List<QueuedQuotaUpdatesConsumer> quotaUsageUpdatesConsumers;
+
+    private final DiskQuotaMetrics metrics;
 
     public QuotaUpdatesMonitor(final StorageBroker storageBroker, final QuotaStore quotaStore) {
+        this(storageBroker, quotaStore, new DiskQuotaMetrics());
+    }
+
+    /** @param metrics collects the quota store commit latencies and the cache fill rate */
+    public QuotaUpdatesMonitor(
+            final StorageBroker storageBroker, final QuotaStore quotaStore, final DiskQuotaMetrics metrics) {
         Assert.notNull(storageBroker, "storageBroker is null");
         Assert.notNull(quotaStore, "quotaStore is null");
+        Assert.notNull(metrics, "metrics is null");
 
         this.storageBroker = storageBroker;
         this.quotaStore = quotaStore;
+        this.metrics = metrics;
 
         String sizeStr = GeoWebCacheExtensions.getProperty("GEOWEBCACHE_QUOTA_QUEUE_SIZE");
         int quotaQueueSize = 1000;
         if (sizeStr != null) {
             quotaQueueSize = Integer.parseInt(sizeStr);
         }
-        if (quotaQueueSize > 0) {
-            this.sharedQueue = new LinkedBlockingQueue<>(quotaQueueSize);
-        } else {
-            this.sharedQueue = new LinkedBlockingQueue<>();
+        String consumersStr = GeoWebCacheExtensions.getProperty(QUOTA_CONSUMERS_PROPERTY);
+        int consumers = 1;
+        if (consumersStr != null) {
+            consumers = Integer.parseInt(consumersStr);
+            if (consumers < 1) {
+                throw new IllegalArgumentException(
+                        QUOTA_CONSUMERS_PROPERTY + " shall be a positive integer: " + consumersStr);
+            }
+        }
+
+        this.sharedQueues = new ArrayList<>(consumers);
+        for (int i = 0; i < consumers; i++) {
+            if (quotaQueueSize > 0) {
+                this.sharedQueues.add(new LinkedBlockingQueue<>(Math.max(1, quotaQueueSize / consumers)));
+            } else {
+                this.sharedQueues.add(new LinkedBlockingQueue<>());
+            }
         }
     }
 
@@ -62,15 +100,46 @@ public QuotaUpdatesMonitor(final StorageBroker storageBroker, final QuotaStore q
     public void startUp() {
         super.startUp();
 
-        quotaDiffsProducer = new QueuedQuotaUpdatesProducer(sharedQueue, quotaStore);
+        quotaDiffsProducer = new QueuedQuotaUpdatesProducer(sharedQueues, quotaStore);
 
-        // the task that takes quota updates from the queue and saves them to the store
-        quotaUsageUpdatesConsumer = new QueuedQuotaUpdatesConsumer(quotaStore, sharedQueue);
+        // the tasks that take quota updates from the queues and save them to the store, one per shard
+        quotaUsageUpdatesConsumers = new ArrayList<>(sharedQueues.size());
+        for (BlockingQueue<QuotaUpdate> queue : sharedQueues) {
+            quotaUsageUpdatesConsumers.add(new QueuedQuotaUpdatesConsumer(quotaStore, queue, metrics));
+        }
+        if (sharedQueues.size() > 1) {
+            log.config("Committing quota updates with " + sharedQueues.size() + " parallel consumers");
+        }
 
-        // the listener that puts quota updates on the queue
+        // the listener that puts quota updates on the queues
         storageBroker.addBlobStoreListener(quotaDiffsProducer);
 
-        getExecutorService().submit(quotaUsageUpdatesConsumer);
+        for (QueuedQuotaUpdatesConsumer consumer : quotaUsageUpdatesConsumers) {
+            getExecutorService().submit(consumer);
+        }
+    }
+
+    @Override
+    protected int getThreadCount() {
+        return sharedQueues.size();
+    }
+
+    /** @return the number of quota updates waiting to be committed, summed up across all the consumer queues */
+    public int getQueueDepth() {
+        List<BlockingQueue<QuotaUpdate>> queues = this.sharedQueues;
+        int depth = 0;
+        if (queues != null) {
+            for (BlockingQueue<QuotaUpdate> queue : queues) {
+                depth += queue.size();
+            }
+        }
+        return depth;
+    }
+
+    /** @return the number of parallel consumers the quota updates are partitioned across */
+    public int getConsumerCount() {
+        List<BlockingQueue<QuotaUpdate>> queues = this.sharedQueues;
+        return queues == null ? 0 : queues.size();
     }
 
     @Override
@@ -93,12 +162,14 @@ protected void shutDown(final boolean cancel) {
         } else {
             getExecutorService().shutdown();
         }
-        sharedQueue = null;
+        sharedQueues = null;
     }
 
     @Override
     public void shutDown() {
-        quotaUsageUpdatesConsumer.shutdown();
+        for (QueuedQuotaUpdatesConsumer consumer : quotaUsageUpdatesConsumers) {
+            consumer.shutdown();
+        }
         super.shutDown();
     }
 
@@ -39,7 +39,7 @@ public class UsageStatsMonitor extends AbstractMonitor {
     private final TilePageCalculator tilePageCalculator;
 
     /** Queue shared by the stats producer and the consumer */
-    private BlockingQueue<UsageStats> sharedQueue;
+    private volatile BlockingQueue<UsageStats> sharedQueue;
 
     /**
      * Listens to all {@link TileLayer layers} {@link TileLayerListener#tileRequested(TileLayer,
@@ -80,6 +80,12 @@ public void startUp() {
         }
     }
 
+    /** @return the number of tile usage statistics waiting to be aggregated and committed */
+    public int getQueueDepth() {
+        BlockingQueue<UsageStats> queue = this.sharedQueue;
+        return queue == null ? 0 : queue.size();
+    }
+
     @Override
     protected void shutDown(final boolean cancel) {
         Iterable<TileLayer> allLayers = tileLayerDispatcher.getLayerList();
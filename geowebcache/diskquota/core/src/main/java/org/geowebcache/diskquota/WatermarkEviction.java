@@ -0,0 +1,99 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.diskquota;
+
+import java.math.BigInteger;
+import org.geowebcache.diskquota.storage.Quota;
+import org.springframework.util.Assert;
+
+/**
+ * Predictive, paced quota enforcement driven by the {@link DiskQuotaConfig#getHighWatermark() high} and
+ * {@link DiskQuotaConfig#getLowWatermark() low} watermarks.
+ *
+ * <p>A clean up {@link #shouldStart starts} once the used quota reaches the high watermark, or is foreseen to reach it
+ * before the next clean up run given the {@link DiskQuotaMetrics#getBytesAddedPerSecond() cache fill rate}, and goes on
+ * until the used quota gets down to the low watermark {@link #target target}. Meanwhile, pages are evicted at the pace
+ * needed to keep up with the fill rate and get rid of the backlog above the target within a clean up period, so that
+ * the truncation I/O is spread over time instead of happening in bursts. Only when the quota is actually exceeded are
+ * pages evicted at full speed.
+ */
+public class WatermarkEviction {
+
+    private static final BigInteger PERCENT = BigInteger.valueOf(100);
+
+    private final int highWatermark;
+
+    private final int lowWatermark;
+
+    private final DiskQuotaMetrics metrics;
+
+    private final long periodMillis;
+
+    /**
+     * @param highWatermark percentage of the quota starting a clean up
+     * @param lowWatermark percentage of the quota a clean up brings the cache back to
+     * @param metrics provides the cache fill rate and the average size of the evicted pages
+     * @param periodMillis the clean up runs period
+     */
+    public WatermarkEviction(int highWatermark, int lowWatermark, DiskQuotaMetrics metrics, long periodMillis) {
+        Assert.isTrue(highWatermark > 0 && highWatermark <= 100, "highWatermark shall be a percentage");
+        Assert.isTrue(lowWatermark > 0 && lowWatermark <= highWatermark, "lowWatermark shall not exceed highWatermark");
+        Assert.notNull(metrics, "metrics can't be null");
+        Assert.isTrue(periodMillis > 0, "periodMillis shall be positive");
+        this.highWatermark = highWatermark;
+        this.lowWatermark = lowWatermark;
+        this.metrics = metrics;
+        this.periodMillis = periodMillis;
+    }
+
+    /**
+     * @return whether {@code used} is at the high watermark of {@code limit}, or will be by the next clean up run at
+     *     the current fill rate
+     */
+    public boolean shouldStart(Quota used, Quota limit) {
+        BigInteger foreseen = used.getBytes().add(BigInteger.valueOf(growthWithin(periodMillis)));
+        return foreseen.compareTo(percentage(limit, highWatermark)) >= 0;
+    }
+
+    /** @return the used quota a clean up shall bring the cache back to */
+    public Quota target(Quota limit) {
+        return new Quota(percentage(limit, lowWatermark));
+    }
+
+    /**
+     * @return the milliseconds to wait before evicting the next page, {@code 0} if the quota is exceeded or there are
+     *     no evicted pages to estimate the page size yet
+     */
+    public long pauseMillis(Quota used, Quota limit) {
+        final long pages = metrics.getPagesEvicted();
+        if (pages == 0 || used.getBytes().compareTo(limit.getBytes()) > 0) {
+            return 0;
+        }
+        final double bytesPerPage = metrics.getBytesFreed() / (double) pages;
+        final double backlog = used.getBytes().subtract(target(limit).getBytes()).doubleValue();
+        final double budget = metrics.getBytesAddedPerSecond() + Math.max(0d, backlog) * 1000 / periodMillis;
+        if (budget <= 0) {
+            return periodMillis;
+        }
+        return Math.min(periodMillis, (long) (1000 * bytesPerPage / budget));
+    }
+
+    private long growthWithin(long millis) {
+        return (long) (metrics.getBytesAddedPerSecond() * millis / 1000);
+    }
+
+    private static BigInteger percentage(Quota limit, int percentage) {
+        return limit.getBytes().multiply(BigInteger.valueOf(percentage)).divide(PERCENT);
+    }
+}
@@ -32,15 +32,20 @@
 import org.geowebcache.diskquota.ConfigLoader;
 import org.geowebcache.diskquota.DiskQuotaConfig;
 import org.geowebcache.diskquota.DiskQuotaMonitor;
+import org.geowebcache.diskquota.DiskQuotaStatus;
 import org.geowebcache.io.GeoWebCacheXStream;
 import org.geowebcache.storage.blobstore.memory.CacheStatistics;
 import org.geowebcache.util.ApplicationContextProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.WebApplicationContext;
 
@@ -56,6 +61,9 @@ public DiskQuotaController(ApplicationContextProvider appCtx) {
         context = appCtx == null ? null : appCtx.getApplicationContext();
     }
 
+    /** Minimum reconnection delay, in milliseconds, accepted for the status event stream */
+    static final long MIN_STREAM_INTERVAL = 1000;
+
     static final Logger LOG = Logging.getLogger(DiskQuotaController.class.getName());
 
     @Autowired
@@ -80,6 +88,80 @@ public ResponseEntity<?> doGet(HttpServletRequest request) {
         }
     }
 
+    /**
+     * Returns a {@link DiskQuotaStatus} snapshot with the quota updates queue depths, quota store commit latencies and
+     * clean up progress, as JSON or XML depending on the requested extension.
+     */
+    @RequestMapping(value = "/diskquota/status", method = RequestMethod.GET)
+    public ResponseEntity<?> doGetStatus(HttpServletRequest request) {
+        DiskQuotaStatus status;
+        try {
+            status = monitor.getStatus();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ResponseEntity<>(
+                    "Interrupted while gathering the disk quota status", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        if (request.getPathInfo().contains("json")) {
+            try {
+                return new ResponseEntity<>(toJSON(status), HttpStatus.OK);
+            } catch (JSONException e) {
+                return new ResponseEntity<>("Caught JSON Execption.", HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+        } else {
+            String xmlText = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                    + getStatusXStream(new GeoWebCacheXStream()).toXML(status);
+            return new ResponseEntity<>(xmlText, HttpStatus.OK);
+        }
+    }
+
+    /**
+     * Returns the {@link DiskQuotaStatus} as a server-sent events response made of a single {@code status} event. This
+     * is a one-shot response, not a stream: the connection is closed right after the event.
+     *
+     * <p>The event carries a {@code retry} field so that {@code EventSource} clients reconnect after {@code interval}
+     * milliseconds and get the next snapshot, polling the status without holding a servlet thread between snapshots.
+     */
+    @RequestMapping(value = "/diskquota/status/stream", method = RequestMethod.GET)
+    public ResponseEntity<?> doGetStatusStream(
+            @RequestParam(value = "interval", required = false, defaultValue = "5000") long interval) {
+        if (interval < MIN_STREAM_INTERVAL) {
+            return new ResponseEntity<>(
+                    "interval shall be at least " + MIN_STREAM_INTERVAL + " milliseconds", HttpStatus.BAD_REQUEST);
+        }
+        String json;
+        try {
+            json = toJSON(monitor.getStatus());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ResponseEntity<>(
+                    "Interrupted while gathering the disk quota status", HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (JSONException e) {
+            return new ResponseEntity<>("Caught JSON Execption.", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        StringBuilder event = new StringBuilder();
+        event.append("retry: ").append(interval).append('\n');
+        event.append("id: ").append(System.currentTimeMillis()).append('\n');
+        event.append("event: status\n");
+        event.append("data: ").append(json).append("\n\n");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_EVENT_STREAM);
+        headers.setCacheControl(CacheControl.noCache());
+        return new ResponseEntity<>(event.toString(), headers, HttpStatus.OK);
+    }
+
+    private String toJSON(DiskQuotaStatus status) throws JSONException {
+        XStream xs = getStatusXStream(new GeoWebCacheXStream(new JsonHierarchicalStreamDriver()));
+        return new JSONObject(xs.toXML(status)).toString();
+    }
+
+    private static XStream getStatusXStream(XStream xs) {
+        xs.setMode(XStream.NO_REFERENCES);
+        xs.alias("diskQuotaStatus", DiskQuotaStatus.class);
+        return xs;
+    }
+
     @RequestMapping(value = "/diskquota", method = RequestMethod.PUT)
     public ResponseEntity<?> doPut(HttpServletRequest request) {
         DiskQuotaConfig config = monitor.getConfig();
@@ -136,6 +218,12 @@ private void applyDiff(DiskQuotaConfig config, DiskQuotaConfig newConfig) throws
             if (null != newConfig.getLayerQuotas()) {
                 config.setLayerQuotas(newConfig.getLayerQuotas());
             }
+            if (null != newConfig.getHighWatermark()) {
+                config.setHighWatermark(newConfig.getHighWatermark());
+            }
+            if (null != newConfig.getLowWatermark()) {
+                config.setLowWatermark(newConfig.getLowWatermark());
+            }
         }
     }
 
@@ -72,6 +72,22 @@ public int[] pageIndexForTile(final TileSet tileSet, final long[] tileIndex, int
         return pageIndexTarget;
     }
 
+    /**
+     * Returns the bounds of the tiles of the page holding a tile
+     *
+     * @return {@code [minx, miny, maxx, maxy]} inclusive bounds of the page holding {@code tileIndex}
+     */
+    public long[] pageBoundsForTile(final TileSet tileSet, final long[] tileIndex) {
+        Assert.notNull(tileSet, "TileSet must be non null");
+        Assert.notNull(tileIndex, "TileIndex must be non null");
+
+        PagePyramid pagePyramid = getPagePyramid(tileSet);
+        int level = (int) tileIndex[2];
+        int[] page = pagePyramid.pageIndexForTile(tileIndex[0], tileIndex[1], level, new int[3]);
+        long[] coverage = pagePyramid.toGridCoverage(page[0], page[1], level)[level];
+        return new long[] {coverage[0], coverage[1], coverage[2], coverage[3]};
+    }
+
     private PagePyramid getPagePyramid(TileSet tileSet) {
         PagePyramid pagePyramid = newPagePyramid(tileSet);
         return pagePyramid;
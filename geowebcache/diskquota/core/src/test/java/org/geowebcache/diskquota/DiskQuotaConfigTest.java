@@ -108,4 +108,33 @@ public void testSetMaxConcurrentCleanUps() {
         config.setMaxConcurrentCleanUps(10);
         Assert.assertEquals(10, config.getMaxConcurrentCleanUps().intValue());
     }
+
+    @Test
+    public void testSetWatermarks() {
+        Assert.assertFalse(config.isWatermarkEvictionEnabled());
+        try {
+            config.setHighWatermark(101);
+            Assert.fail("Expected IAE");
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(true);
+        }
+        try {
+            config.setLowWatermark(0);
+            Assert.fail("Expected IAE");
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(true);
+        }
+        config.setHighWatermark(90);
+        Assert.assertFalse(config.isWatermarkEvictionEnabled());
+        config.setLowWatermark(80);
+        Assert.assertTrue(config.isWatermarkEvictionEnabled());
+
+        DiskQuotaConfig copy = new DiskQuotaConfig();
+        copy.setFrom(config);
+        Assert.assertEquals(90, copy.getHighWatermark().intValue());
+        Assert.assertEquals(80, copy.getLowWatermark().intValue());
+
+        config.setHighWatermark(null);
+        Assert.assertFalse(config.isWatermarkEvictionEnabled());
+    }
 }
@@ -0,0 +1,80 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.diskquota;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+
+public class DiskQuotaMetricsTest {
+
+    @Test
+    public void testQuotaCommitLatency() {
+        DiskQuotaMetrics metrics = new DiskQuotaMetrics();
+        assertEquals(0d, metrics.getAverageQuotaCommitMillis(), 0d);
+
+        metrics.quotaCommitted(TimeUnit.MILLISECONDS.toNanos(2));
+        metrics.quotaCommitted(TimeUnit.MILLISECONDS.toNanos(4));
+
+        assertEquals(2, metrics.getQuotaCommits());
+        assertEquals(3d, metrics.getAverageQuotaCommitMillis(), 1e-9);
+        assertEquals(4d, metrics.getMaxQuotaCommitMillis(), 1e-9);
+    }
+
+    @Test
+    public void testBytesFreedRateSlidingWindow() {
+        AtomicLong now = new AtomicLong(TimeUnit.DAYS.toMillis(1));
+        DiskQuotaMetrics metrics = new DiskQuotaMetrics(now::get);
+
+        metrics.bytesFreed(6000);
+        now.addAndGet(1000);
+        metrics.bytesFreed(3000);
+        metrics.bytesFreed(3000);
+        // growth of the used quota is not reclaimed space
+        metrics.bytesFreed(-500);
+        metrics.pageEvicted();
+
+        assertEquals(1, metrics.getPagesEvicted());
+        assertEquals(12000, metrics.getBytesFreed());
+        assertEquals(200d, metrics.getBytesFreedPerSecond(), 1e-9);
+
+        // the first second falls out of the window
+        now.addAndGet(TimeUnit.SECONDS.toMillis(DiskQuotaMetrics.RATE_WINDOW_SECONDS - 1));
+        assertEquals(100d, metrics.getBytesFreedPerSecond(), 1e-9);
+
+        now.addAndGet(1000);
+        assertEquals(0d, metrics.getBytesFreedPerSecond(), 1e-9);
+        assertEquals(12000, metrics.getBytesFreed());
+    }
+
+    @Test
+    public void testFillRate() {
+        AtomicLong now = new AtomicLong(TimeUnit.DAYS.toMillis(1));
+        DiskQuotaMetrics metrics = new DiskQuotaMetrics(now::get);
+
+        metrics.bytesAdded(3000);
+        metrics.bytesAdded(0);
+        now.addAndGet(1000);
+        metrics.bytesAdded(3000);
+
+        assertEquals(100d, metrics.getBytesAddedPerSecond(), 1e-9);
+        // filling the cache is tracked apart from reclaiming space
+        assertEquals(0d, metrics.getBytesFreedPerSecond(), 1e-9);
+
+        now.addAndGet(TimeUnit.SECONDS.toMillis(DiskQuotaMetrics.RATE_WINDOW_SECONDS));
+        assertEquals(0d, metrics.getBytesAddedPerSecond(), 1e-9);
+    }
+}
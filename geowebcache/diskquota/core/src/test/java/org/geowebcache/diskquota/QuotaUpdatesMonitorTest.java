@@ -0,0 +1,187 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.diskquota;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.easymock.EasyMock;
+import org.geowebcache.diskquota.storage.Quota;
+import org.geowebcache.diskquota.storage.TilePageCalculator;
+import org.geowebcache.diskquota.storage.TileSet;
+import org.geowebcache.layer.TileLayerDispatcher;
+import org.geowebcache.storage.BlobStoreListener;
+import org.geowebcache.storage.StorageBroker;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class QuotaUpdatesMonitorTest {
+
+    private StorageBroker storageBroker;
+
+    private QuotaStore quotaStore;
+
+    /** Accumulated bytes committed to the mock quota store, per tile set id */
+    private Map<String, BigInteger> committed;
+
+    @Before
+    public void setUp() throws Exception {
+        committed = new ConcurrentHashMap<>();
+
+        storageBroker = EasyMock.createNiceMock(StorageBroker.class);
+        EasyMock.replay(storageBroker);
+
+        TilePageCalculator tpc =
+                new TilePageCalculator(EasyMock.createMock(TileLayerDispatcher.class), storageBroker) {
+                    @Override
+                    public int[] pageIndexForTile(TileSet tileSet, long[] tileIndex, int[] pageIndexTarget) {
+                        pageIndexTarget[0] = 0;
+                        pageIndexTarget[1] = 0;
+                        pageIndexTarget[2] = (int) tileIndex[2];
+                        return pageIndexTarget;
+                    }
+
+                    @Override
+                    public long[] pageBoundsForTile(TileSet tileSet, long[] tileIndex) {
+                        // pages of 10x10 tiles
+                        long x = tileIndex[0] / 10 * 10;
+                        long y = tileIndex[1] / 10 * 10;
+                        return new long[] {x, y, x + 9, y + 9};
+                    }
+                };
+
+        quotaStore = EasyMock.createNiceMock(QuotaStore.class);
+        EasyMock.expect(quotaStore.getTilePageCalculator()).andReturn(tpc).anyTimes();
+        quotaStore.addToQuotaAndTileCounts(
+                EasyMock.anyObject(TileSet.class), EasyMock.anyObject(Quota.class), EasyMock.anyObject());
+        EasyMock.expectLastCall()
+                .andAnswer(() -> {
+                    TileSet tileSet = (TileSet) EasyMock.getCurrentArguments()[0];
+                    Quota diff = (Quota) EasyMock.getCurrentArguments()[1];
+                    committed.merge(tileSet.getId(), diff.getBytes(), BigInteger::add);
+                    return null;
+                })
+                .anyTimes();
+        EasyMock.replay(quotaStore);
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty(QuotaUpdatesMonitor.QUOTA_CONSUMERS_PROPERTY);
+    }
+
+    @Test
+    public void testSingleConsumerByDefault() throws Exception {
+        QuotaUpdatesMonitor monitor = new QuotaUpdatesMonitor(storageBroker, quotaStore);
+        assertEquals(1, monitor.getConsumerCount());
+        assertEquals(0, monitor.getQueueDepth());
+    }
+
+    @Test
+    public void testShardedConsumersCommitAllTileSets() throws Exception {
+        System.setProperty(QuotaUpdatesMonitor.QUOTA_CONSUMERS_PROPERTY, "4");
+        QuotaUpdatesMonitor monitor = new QuotaUpdatesMonitor(storageBroker, quotaStore);
+        assertEquals(4, monitor.getConsumerCount());
+
+        monitor.startUp();
+        try {
+            final int layers = 16;
+            final int tilesPerLayer = 50;
+            for (int l = 0; l < layers; l++) {
+                for (int t = 0; t < tilesPerLayer; t++) {
+                    monitor.tileStored("layer" + l, "EPSG:4326", "png", null, t, t, 3, 10);
+                }
+            }
+
+            final BigInteger expected = BigInteger.valueOf(10L * layers * tilesPerLayer);
+            long timeout = System.currentTimeMillis() + 10_000;
+            while (!expected.equals(committed.values().stream().reduce(BigInteger.ZERO, BigInteger::add))
+                    && System.currentTimeMillis() < timeout) {
+                Thread.sleep(50);
+            }
+            assertEquals(layers, committed.size());
+            for (BigInteger bytes : committed.values()) {
+                assertEquals(BigInteger.valueOf(10 * tilesPerLayer), bytes);
+            }
+            assertEquals(0, monitor.getQueueDepth());
+        } finally {
+            monitor.shutDownNow();
+            monitor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testTilesDeletedQueuedPerPage() throws Exception {
+        BlockingQueue<QuotaUpdate> queue = new LinkedBlockingQueue<>();
+        QueuedQuotaUpdatesProducer producer =
+                new QueuedQuotaUpdatesProducer(Collections.singletonList(queue), quotaStore);
+
+        BlobStoreListener listener = producer;
+        assertTrue(listener.supportsTilesDeleted());
+        assertArrayEquals(
+                new long[] {10, 0, 19, 9}, listener.tilesDeletedArea("layer", "EPSG:4326", "png", null, 12, 3, 5));
+        listener.tilesDeleted("layer", "EPSG:4326", "png", null, new long[] {10, 0, 19, 9, 5}, 100, 4096);
+
+        assertEquals(1, queue.size());
+        QuotaUpdate update = queue.poll();
+        assertEquals(new TileSet("layer", "EPSG:4326", "png", null), update.getTileSet());
+        assertEquals(-4096, update.getSize());
+        assertEquals(-100, update.getTileCount());
+        assertArrayEquals(new long[] {10, 0, 5}, update.getTileIndex());
+
+        producer.setCancelled(true);
+        listener.tilesDeleted("layer", "EPSG:4326", "png", null, new long[] {10, 0, 19, 9, 5}, 100, 4096);
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void testProducerShardsByTileSet() throws Exception {
+        List<BlockingQueue<QuotaUpdate>> queues = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            queues.add(new LinkedBlockingQueue<>());
+        }
+        QueuedQuotaUpdatesProducer producer = new QueuedQuotaUpdatesProducer(queues, quotaStore);
+
+        BlobStoreListener listener = producer;
+        for (int i = 0; i < 10; i++) {
+            listener.tileStored("layer", "EPSG:4326", "png", null, i, i, 5, 100);
+            listener.tileDeleted("layer", "EPSG:4326", "png", null, i, i, 5, 100);
+        }
+
+        TileSet tileSet = new TileSet("layer", "EPSG:4326", "png", null);
+        BlockingQueue<QuotaUpdate> target = producer.queueFor(tileSet);
+        assertEquals(20, target.size());
+        int total = 0;
+        for (BlockingQueue<QuotaUpdate> queue : queues) {
+            total += queue.size();
+        }
+        assertEquals(20, total);
+        for (QuotaUpdate update : target) {
+            assertEquals(tileSet, update.getTileSet());
+        }
+        assertSame(target, producer.queueFor(new TileSet("layer", "EPSG:4326", "png", null)));
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.diskquota;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.geowebcache.diskquota.storage.Quota;
+import org.junit.Before;
+import org.junit.Test;
+
+public class WatermarkEvictionTest {
+
+    private static final long PERIOD = 10_000;
+
+    private AtomicLong now;
+
+    private DiskQuotaMetrics metrics;
+
+    private WatermarkEviction eviction;
+
+    private final Quota limit = quota(10_000_000);
+
+    @Before
+    public void setUp() {
+        now = new AtomicLong(TimeUnit.DAYS.toMillis(1));
+        metrics = new DiskQuotaMetrics(now::get);
+        eviction = new WatermarkEviction(90, 80, metrics, PERIOD);
+    }
+
+    private static Quota quota(long bytes) {
+        return new Quota(BigInteger.valueOf(bytes));
+    }
+
+    @Test
+    public void testTarget() {
+        assertEquals(BigInteger.valueOf(8_000_000), eviction.target(limit).getBytes());
+    }
+
+    @Test
+    public void testShouldStartAtHighWatermark() {
+        assertFalse(eviction.shouldStart(quota(8_999_999), limit));
+        assertTrue(eviction.shouldStart(quota(9_000_000), limit));
+        assertTrue(eviction.shouldStart(quota(12_000_000), limit));
+    }
+
+    @Test
+    public void testShouldStartAheadOfTime() {
+        // 60K per second over the rate window, 600K by the next run
+        metrics.bytesAdded(3_600_000);
+        assertFalse(eviction.shouldStart(quota(8_000_000), limit));
+        assertTrue(eviction.shouldStart(quota(8_400_000), limit));
+    }
+
+    @Test
+    public void testNoPauseWithoutPageSizeEstimate() {
+        assertEquals(0, eviction.pauseMillis(quota(9_000_000), limit));
+    }
+
+    @Test
+    public void testNoPauseWhenQuotaExceeded() {
+        metrics.pageEvicted();
+        metrics.bytesFreed(100_000);
+        assertEquals(0, eviction.pauseMillis(quota(10_000_001), limit));
+    }
+
+    @Test
+    public void testPauseFollowsBacklogAndFillRate() {
+        // 100K per page
+        metrics.pageEvicted();
+        metrics.bytesFreed(100_000);
+
+        // 1M backlog over the target to clear within the 10s period: 100K/s, a page per second
+        assertEquals(1000, eviction.pauseMillis(quota(9_000_000), limit));
+
+        // the cache also fills at 100K/s, so pages have to go twice as fast
+        metrics.bytesAdded(100_000L * DiskQuotaMetrics.RATE_WINDOW_SECONDS);
+        assertEquals(500, eviction.pauseMillis(quota(9_000_000), limit));
+    }
+
+    @Test
+    public void testPauseNeverExceedsPeriod() {
+        metrics.pageEvicted();
+        metrics.bytesFreed(1_000_000);
+        assertEquals(PERIOD, eviction.pauseMillis(quota(8_000_001), limit));
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.diskquota.rest.controller;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.easymock.EasyMock;
+import org.geowebcache.diskquota.DiskQuotaMonitor;
+import org.geowebcache.diskquota.DiskQuotaStatus;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+public class DiskQuotaControllerTest {
+
+    private MockMvc mockMvc;
+
+    private DiskQuotaMonitor monitor;
+
+    @Before
+    @SuppressWarnings("deprecation") // setUseSuffixPatternMatch is deprecated because Spring wants to
+    // discourage extensions in paths
+    public void setUp() throws Exception {
+        DiskQuotaStatus diskQuotaStatus = new DiskQuotaStatus();
+        diskQuotaStatus.setEnabled(true);
+        diskQuotaStatus.setRunning(true);
+        diskQuotaStatus.setQuotaUpdatesQueueDepth(42);
+
+        monitor = EasyMock.createMock(DiskQuotaMonitor.class);
+        EasyMock.expect(monitor.getStatus()).andReturn(diskQuotaStatus).anyTimes();
+        EasyMock.replay(monitor);
+
+        DiskQuotaController controller = new DiskQuotaController(null);
+        controller.setDiskQuotaMonitor(monitor);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setUseSuffixPatternMatch(true)
+                .build();
+    }
+
+    @Test
+    public void testStatusXml() throws Exception {
+        mockMvc.perform(get("/rest/diskquota/status.xml").contextPath(""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("<diskQuotaStatus>")))
+                .andExpect(content().string(containsString("<quotaUpdatesQueueDepth>42</quotaUpdatesQueueDepth>")));
+    }
+
+    @Test
+    public void testStatusJson() throws Exception {
+        mockMvc.perform(get("/rest/diskquota/status.json").contextPath(""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(startsWith("{\"diskQuotaStatus\":")))
+                .andExpect(content().string(containsString("\"quotaUpdatesQueueDepth\":42")));
+    }
+
+    @Test
+    public void testStatusStream() throws Exception {
+        mockMvc.perform(get("/rest/diskquota/status/stream")
+                        .param("interval", "2000")
+                        .contextPath(""))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andExpect(content().string(startsWith("retry: 2000\n")))
+                .andExpect(content().string(containsString("\nevent: status\ndata: {\"diskQuotaStatus\":")))
+                .andExpect(content().string(containsString("\"quotaUpdatesQueueDepth\":42")));
+    }
+
+    @Test
+    public void testStatusStreamDefaultInterval() throws Exception {
+        mockMvc.perform(get("/rest/diskquota/status/stream").contextPath(""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(startsWith("retry: 5000\n")));
+    }
+
+    @Test
+    public void testStatusStreamIntervalTooShort() throws Exception {
+        mockMvc.perform(get("/rest/diskquota/status/stream")
+                        .param("interval", "10")
+                        .contextPath(""))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.diskquota.storage;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import org.easymock.EasyMock;
+import org.geowebcache.config.DefaultGridsets;
+import org.geowebcache.grid.GridSet;
+import org.geowebcache.grid.GridSetBroker;
+import org.geowebcache.grid.GridSubset;
+import org.geowebcache.grid.GridSubsetFactory;
+import org.geowebcache.layer.TileLayer;
+import org.geowebcache.layer.TileLayerDispatcher;
+import org.geowebcache.storage.StorageBroker;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TilePageCalculatorTest {
+
+    private static final int ZOOM = 10;
+
+    private TilePageCalculator calculator;
+
+    private TileSet tileSet;
+
+    /** tiles per page on each axis at {@link #ZOOM} */
+    private int pageSize;
+
+    @Before
+    public void setUp() throws Exception {
+        GridSet gridSet =
+                new GridSetBroker(Collections.singletonList(new DefaultGridsets(true, false))).getWorldEpsg3857();
+        GridSubset gridSubset = GridSubsetFactory.createGridSubSet(gridSet);
+
+        TileLayer layer = EasyMock.createMock(TileLayer.class);
+        EasyMock.expect(layer.getGridSubset(gridSet.getName()))
+                .andReturn(gridSubset)
+                .anyTimes();
+        TileLayerDispatcher tld = EasyMock.createMock(TileLayerDispatcher.class);
+        EasyMock.expect(tld.getTileLayer("layer")).andReturn(layer).anyTimes();
+        EasyMock.replay(layer, tld);
+
+        calculator = new TilePageCalculator(tld, EasyMock.createMock(StorageBroker.class));
+        tileSet = new TileSet("layer", gridSet.getName(), "image/png", null);
+        PagePyramid pyramid = calculator.newPagePyramid(gridSubset);
+        pageSize = pyramid.getTilesPerPageX(ZOOM);
+        assertEquals(pageSize, pyramid.getTilesPerPageY(ZOOM));
+        assertTrue(pageSize > 2);
+    }
+
+    @Test
+    public void testPageBoundsForTile() {
+        long last = pageSize - 1;
+        assertArrayEquals(
+                new long[] {0, 0, last, last}, calculator.pageBoundsForTile(tileSet, new long[] {0, 0, ZOOM}));
+        assertArrayEquals(
+                new long[] {0, 0, last, last}, calculator.pageBoundsForTile(tileSet, new long[] {last, last, ZOOM}));
+        assertArrayEquals(
+                new long[] {pageSize, 0, 2L * pageSize - 1, last},
+                calculator.pageBoundsForTile(tileSet, new long[] {pageSize, 1, ZOOM}));
+    }
+
+    @Test
+    public void testPageBoundsMatchPageIndex() {
+        long[] tileIndex = {pageSize + 1, 2L * pageSize + 2, ZOOM};
+        long[] bounds = calculator.pageBoundsForTile(tileSet, tileIndex);
+        int[] page = calculator.pageIndexForTile(tileSet, tileIndex, new int[3]);
+        assertArrayEquals(new int[] {1, 2, ZOOM}, page);
+        assertArrayEquals(new long[] {pageSize, 2L * pageSize, 2L * pageSize - 1, 3L * pageSize - 1}, bounds);
+    }
+}
@@ -0,0 +1,942 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.diskquota.mapped;
+
+import static org.geowebcache.diskquota.DiskQuotaMonitor.GWC_DISKQUOTA_DISABLED;
+import static org.geowebcache.util.FileUtils.listFilesNullSafe;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.commons.io.FileUtils;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.config.ConfigurationException;
+import org.geowebcache.diskquota.QuotaStore;
+import org.geowebcache.diskquota.storage.PageStats;
+import org.geowebcache.diskquota.storage.PageStatsPayload;
+import org.geowebcache.diskquota.storage.Quota;
+import org.geowebcache.diskquota.storage.SystemUtils;
+import org.geowebcache.diskquota.storage.TilePage;
+import org.geowebcache.diskquota.storage.TilePageCalculator;
+import org.geowebcache.diskquota.storage.TileSet;
+import org.geowebcache.diskquota.storage.TileSetVisitor;
+import org.geowebcache.storage.DefaultStorageFinder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Embedded {@link QuotaStore} meant for high tile throughput, keeping the used quotas and page statistics in memory
+ * mapped tables of fixed width records.
+ *
+ * <p>The store is made of three files in the {@code diskquota_mapped_store} directory of the cache:
+ *
+ * <ul>
+ *   <li>{@code journal.log}: an append only {@link StoreJournal write ahead log} of tile set creations and deletions,
+ *       which binds each tile set to a slot in the tables below, and of the table updates made since the tables were
+ *       last flushed to disk.
+ *   <li>{@code quotas.dat}: the used bytes of each tile set, indexed by tile set slot. Slot zero holds the global
+ *       quota.
+ *   <li>{@code pages.dat}: one record per tile page, holding the owning tile set slot, the page coordinates and its
+ *       {@link PageStats} fields.
+ * </ul>
+ *
+ * <p>Quota updates are applied in place with atomic adds, and page statistics are updated under a small set of striped
+ * locks, so unlike the BDB store there is no single writer thread and concurrent updates from several
+ * {@link org.geowebcache.diskquota.QueuedQuotaUpdatesConsumer consumers} proceed in parallel. Only structural changes
+ * (creating, deleting and renaming tile sets) are serialized. The page index is kept in memory and rebuilt from the
+ * page table at startup.
+ *
+ * <p>Each table update is also recorded in the journal, which is forced to disk every second. The tables are flushed
+ * and the journal emptied when it grows past {@link #CHECKPOINT_SIZE}, and on {@link #close()}. At startup the journal
+ * is replayed over the tables, so that a crash loses at most the last second of updates, and never leaves counters
+ * half written.
+ */
+public class MappedQuotaStore implements QuotaStore {
+
+    private static final Logger log = Logging.getLogger(MappedQuotaStore.class.getName());
+
+    private static final String GLOBAL_QUOTA_NAME = "___GLOBAL_QUOTA___";
+
+    public static final String STORE_VERSION = "1.0";
+
+    private static final String VERSION_FILE = "version.txt";
+
+    static final String STORE_DIRECTORY = "diskquota_mapped_store";
+
+    /** Slot of the global quota in the tile set table */
+    private static final int GLOBAL_SLOT = 0;
+
+    // tile set table record layout
+    private static final int TILESET_BYTES = 0;
+
+    private static final int TILESET_RECORD_SIZE = 8;
+
+    private static final int TILESET_RECORDS_PER_SEGMENT = 4096;
+
+    // page table record layout, the tile set field holds the tile set slot plus one, zero for unused records
+    private static final int PAGE_TILESET = 0;
+
+    private static final int PAGE_X = 4;
+
+    private static final int PAGE_Y = 8;
+
+    private static final int PAGE_Z = 12;
+
+    private static final int PAGE_CREATED = 16;
+
+    private static final int PAGE_FILL = 20;
+
+    private static final int PAGE_FREQUENCY = 24;
+
+    private static final int PAGE_ACCESS = 28;
+
+    private static final int PAGE_HITS = 32;
+
+    private static final int PAGE_RECORD_SIZE = 40;
+
+    private static final int PAGE_RECORDS_PER_SEGMENT = 16384;
+
+    private static final int PAGE_LOCK_STRIPES = 64;
+
+    /** Interval between the journal commits, in milliseconds */
+    private static final long COMMIT_INTERVAL = 1000;
+
+    /** Journal size past which the tables are flushed and the journal emptied */
+    static final long CHECKPOINT_SIZE = 64 * 1024 * 1024;
+
+    private final String cacheRootDir;
+
+    private final TilePageCalculator tilePageCalculator;
+
+    private final boolean diskQuotaEnabled;
+
+    private volatile boolean open;
+
+    /** Read locked by data updates, write locked by tile set creation, deletion and renames */
+    private final ReadWriteLock structureLock = new ReentrantReadWriteLock();
+
+    private final Object[] pageLocks;
+
+    private StoreJournal journal;
+
+    private ScheduledExecutorService committer;
+
+    private MappedTable tileSetTable;
+
+    private MappedTable pageTable;
+
+    private final Map<String, Integer> tileSetSlots = new ConcurrentHashMap<>();
+
+    private final Map<Integer, TileSet> tileSetsBySlot = new ConcurrentHashMap<>();
+
+    private final Map<Integer, Set<Integer>> pagesByTileSet = new ConcurrentHashMap<>();
+
+    private final Map<PageKey, Integer> pageSlots = new ConcurrentHashMap<>();
+
+    /** Guarded by the structure write lock */
+    private final Deque<Integer> freeTileSetSlots = new ArrayDeque<>();
+
+    /** Guarded by the structure write lock */
+    private int nextTileSetSlot;
+
+    /** Guarded by itself, also guards {@link #nextPageSlot} */
+    private final Deque<Integer> freePageSlots = new ArrayDeque<>();
+
+    private int nextPageSlot;
+
+    public MappedQuotaStore(final DefaultStorageFinder cacheDirFinder, TilePageCalculator tilePageCalculator)
+            throws ConfigurationException {
+
+        Assert.notNull(cacheDirFinder, "cacheDirFinder can't be null");
+        Assert.notNull(tilePageCalculator, "tilePageCalculator can't be null");
+
+        this.tilePageCalculator = tilePageCalculator;
+        this.cacheRootDir = cacheDirFinder.getDefaultPath();
+        this.pageLocks = new Object[PAGE_LOCK_STRIPES];
+        for (int i = 0; i < pageLocks.length; i++) {
+            pageLocks[i] = new Object();
+        }
+
+        boolean disabled = Boolean.parseBoolean(cacheDirFinder.findEnvVar(GWC_DISKQUOTA_DISABLED));
+        if (disabled) {
+            log.warning(" -- Found environment variable "
+                    + GWC_DISKQUOTA_DISABLED
+                    + " set to true. DiskQuotaMonitor is disabled.");
+        }
+        this.diskQuotaEnabled = !disabled;
+    }
+
+    /**
+     * Opens the store files, replaying the journal over the tables, and starts committing the journal periodically.
+     * The store must be released by calling {@link #close()}.
+     */
+    public void startUp() throws IOException {
+        if (!diskQuotaEnabled) {
+            log.info(getClass().getName() + " won't start, got env variable " + GWC_DISKQUOTA_DISABLED + "=true");
+            return;
+        }
+        File storeDirectory = new File(cacheRootDir, STORE_DIRECTORY);
+        storeDirectory.mkdirs();
+        checkVersion(storeDirectory);
+
+        Path directory = storeDirectory.toPath();
+        journal = new StoreJournal(directory.resolve("journal.log"));
+        tileSetTable =
+                new MappedTable(directory.resolve("quotas.dat"), TILESET_RECORD_SIZE, TILESET_RECORDS_PER_SEGMENT);
+        pageTable = new MappedTable(directory.resolve("pages.dat"), PAGE_RECORD_SIZE, PAGE_RECORDS_PER_SEGMENT);
+        load();
+        open = true;
+
+        CustomizableThreadFactory tf = new CustomizableThreadFactory("GWC DiskQuota Journal Committer-");
+        tf.setDaemon(true);
+        committer = Executors.newSingleThreadScheduledExecutor(tf);
+        committer.scheduleWithFixedDelay(this::commit, COMMIT_INTERVAL, COMMIT_INTERVAL, TimeUnit.MILLISECONDS);
+
+        deleteStaleLayersAndCreateMissingTileSets();
+
+        log.config("Memory mapped Disk Quota page store configured at " + storeDirectory.getAbsolutePath());
+        log.config("Quota Store initialized. Global quota: " + getGloballyUsedQuota().toNiceString());
+    }
+
+    private void checkVersion(File storeDirectory) throws IOException {
+        File version = new File(storeDirectory, VERSION_FILE);
+        if (listFilesNullSafe(storeDirectory).length == 0) {
+            // Directory is empty
+            try {
+                FileUtils.write(version, STORE_VERSION, "UTF-8");
+            } catch (IOException e) {
+                throw new IOException("Mapped DiskQuota could not write " + VERSION_FILE + " to new store", e);
+            }
+        } else {
+            // Directory not empty
+            String versionString;
+            try {
+                versionString = FileUtils.readFileToString(version, "UTF-8");
+            } catch (IOException e) {
+                throw new IOException(
+                        "Mapped DiskQuota could not read " + VERSION_FILE + " to detemine store version", e);
+            }
+            if (!versionString.equals(STORE_VERSION)) {
+                throw new IOException("Mapped DiskQuota does not support store version " + versionString);
+            }
+        }
+    }
+
+    /** Replays the journal over the tables, then rebuilds the in memory indexes out of them */
+    private void load() throws IOException {
+        tileSetSlots.clear();
+        tileSetsBySlot.clear();
+        pagesByTileSet.clear();
+        pageSlots.clear();
+        freeTileSetSlots.clear();
+        freePageSlots.clear();
+        nextPageSlot = 0;
+
+        final TreeMap<Integer, TileSet> live = new TreeMap<>();
+        journal.replay(new StoreJournal.Visitor() {
+            @Override
+            public void created(int slot, TileSet tileSet) {
+                live.put(slot, tileSet);
+            }
+
+            @Override
+            public void deleted(int slot) {
+                live.remove(slot);
+            }
+
+            @Override
+            public void quotaUpdated(int slot, long bytes) throws IOException {
+                tileSetTable.ensureCapacity(slot + 1);
+                tileSetTable.putLong(slot, TILESET_BYTES, bytes);
+            }
+
+            @Override
+            public void pageUpdated(int slot, byte[] record) throws IOException {
+                pageTable.ensureCapacity(slot + 1);
+                pageTable.putRecord(slot, record);
+            }
+        });
+        if (!live.containsKey(GLOBAL_SLOT)) {
+            log.fine("First time run: creating global quota object");
+            live.put(GLOBAL_SLOT, new TileSet(GLOBAL_QUOTA_NAME));
+        }
+
+        nextTileSetSlot = live.lastKey() + 1;
+        tileSetTable.ensureCapacity(nextTileSetSlot);
+        // the global quota is recomputed rather than trusted, in case the process died half way through an update
+        long global = 0;
+        for (int slot = 1; slot < tileSetTable.capacity(); slot++) {
+            TileSet tileSet = live.get(slot);
+            if (tileSet == null) {
+                tileSetTable.putLong(slot, TILESET_BYTES, 0);
+                if (slot < nextTileSetSlot) {
+                    freeTileSetSlots.add(slot);
+                }
+            } else {
+                register(slot, tileSet);
+                global += tileSetTable.getLong(slot, TILESET_BYTES);
+            }
+        }
+        register(GLOBAL_SLOT, live.get(GLOBAL_SLOT));
+        tileSetTable.putLong(GLOBAL_SLOT, TILESET_BYTES, global);
+
+        List<Integer> unused = new ArrayList<>();
+        for (int slot = 0; slot < pageTable.capacity(); slot++) {
+            int tileSetSlot = pageTable.getInt(slot, PAGE_TILESET) - 1;
+            if (tileSetSlot < 0) {
+                unused.add(slot);
+            } else if (tileSetSlot == GLOBAL_SLOT || !tileSetsBySlot.containsKey(tileSetSlot)) {
+                // page of a tile set deleted without the page table being flushed
+                pageTable.clear(slot);
+                unused.add(slot);
+            } else {
+                pageSlots.put(keyOf(slot), slot);
+                pagesByTileSet.get(tileSetSlot).add(slot);
+                nextPageSlot = slot + 1;
+            }
+        }
+        for (Integer slot : unused) {
+            if (slot < nextPageSlot) {
+                freePageSlots.add(slot);
+            }
+        }
+        // the replayed updates are now in the tables, the journal can start over
+        tileSetTable.force();
+        pageTable.force();
+        journal.compact(live);
+    }
+
+    private void register(int slot, TileSet tileSet) {
+        tileSetSlots.put(tileSet.getId(), slot);
+        tileSetsBySlot.put(slot, tileSet);
+        pagesByTileSet.put(slot, ConcurrentHashMap.newKeySet());
+    }
+
+    private void deleteStaleLayersAndCreateMissingTileSets() {
+        final Set<String> layerNames = tilePageCalculator.getLayerNames();
+        final Set<String> existingLayers = new HashSet<>();
+        for (TileSet tileSet : getTileSets()) {
+            existingLayers.add(tileSet.getLayerName());
+        }
+        existingLayers.removeAll(layerNames);
+        for (String layerName : existingLayers) {
+            log.info("Deleting disk quota information for layer '" + layerName + "' as it does not exist anymore...");
+            deleteLayer(layerName);
+        }
+        for (String layerName : layerNames) {
+            createLayer(layerName);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (!diskQuotaEnabled) {
+            return;
+        }
+        log.config("Requesting to close quota store...");
+        if (committer != null) {
+            committer.shutdown();
+            committer.awaitTermination(30, TimeUnit.SECONDS);
+        }
+        Lock lock = structureLock.writeLock();
+        lock.lock();
+        try {
+            if (!open) {
+                return;
+            }
+            checkpoint();
+            open = false;
+            pageTable.close();
+            tileSetTable.close();
+            journal.close();
+        } finally {
+            lock.unlock();
+        }
+        log.config("Quota store closed.");
+    }
+
+    /** Forces the journal to disk, flushing the tables once it grew too large */
+    void commit() {
+        try {
+            journal.commit();
+            if (journal.size() > CHECKPOINT_SIZE) {
+                Lock lock = structureLock.writeLock();
+                lock.lock();
+                try {
+                    if (open) {
+                        checkpoint();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to commit the disk quota journal", e);
+        }
+    }
+
+    /**
+     * Flushes the tables to disk and empties the journal, whose updates they now hold. Must be called while holding
+     * the structure write lock.
+     */
+    void checkpoint() throws IOException {
+        tileSetTable.force();
+        pageTable.force();
+        journal.compact(new TreeMap<>(tileSetsBySlot));
+    }
+
+    /**
+     * Adds to the used bytes of a tile set. The update is applied and journaled under the journal lock, so that the
+     * journal holds the updates of each tile set in the order they were applied.
+     */
+    private void addQuota(int slot, long bytes) {
+        synchronized (journal) {
+            logQuota(slot, tileSetTable.addLong(slot, TILESET_BYTES, bytes));
+        }
+    }
+
+    private void logQuota(int slot, long bytes) {
+        try {
+            journal.appendQuota(slot, bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to journal the quota update", e);
+        }
+    }
+
+    /** Journals the current contents of a page record, must be called while holding the lock guarding the page */
+    private void logPage(int pageSlot) {
+        try {
+            journal.appendPage(pageSlot, pageTable.getRecord(pageSlot));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to journal the page update", e);
+        }
+    }
+
+    private void checkOpen() {
+        if (!open) {
+            throw new IllegalStateException("QuotaStore is closed.");
+        }
+    }
+
+    /** @see org.geowebcache.diskquota.QuotaStore#createLayer(java.lang.String) */
+    @Override
+    public void createLayer(final String layerName) {
+        for (TileSet tileSet : tilePageCalculator.getTileSetsFor(layerName)) {
+            getOrCreateTileSet(tileSet);
+        }
+    }
+
+    private int getOrCreateTileSet(final TileSet tileSet) {
+        Integer slot = tileSetSlots.get(tileSet.getId());
+        if (slot != null) {
+            return slot;
+        }
+        Lock lock = structureLock.writeLock();
+        lock.lock();
+        try {
+            checkOpen();
+            slot = tileSetSlots.get(tileSet.getId());
+            if (slot == null) {
+                slot = createTileSet(tileSet);
+            }
+            return slot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Must be called while holding the structure write lock */
+    private int createTileSet(final TileSet tileSet) {
+        log.fine("Creating TileSet for quota tracking: " + tileSet);
+        int slot = freeTileSetSlots.isEmpty() ? nextTileSetSlot++ : freeTileSetSlots.pop();
+        try {
+            tileSetTable.ensureCapacity(slot + 1);
+            tileSetTable.putLong(slot, TILESET_BYTES, 0);
+            journal.appendQuota(slot, 0);
+            journal.appendCreate(slot, tileSet);
+        } catch (IOException e) {
+            freeTileSetSlots.push(slot);
+            throw new UncheckedIOException("Failed to create tile set " + tileSet, e);
+        }
+        register(slot, tileSet);
+        return slot;
+    }
+
+    /** @see org.geowebcache.diskquota.QuotaStore#getGloballyUsedQuota() */
+    @Override
+    public Quota getGloballyUsedQuota() {
+        return getUsedQuotaByTileSetId(GLOBAL_QUOTA_NAME);
+    }
+
+    /** @see org.geowebcache.diskquota.QuotaStore#getUsedQuotaByTileSetId(java.lang.String) */
+    @Override
+    public Quota getUsedQuotaByTileSetId(final String tileSetId) {
+        Quota quota = new Quota();
+        Integer slot = tileSetSlots.get(tileSetId);
+        if (slot != null) {
+            quota.setTileSetId(tileSetId);
+            quota.setBytes(tileSetTable.getLong(slot, TILESET_BYTES));
+        }
+        return quota;
+    }
+
+    /** @see org.geowebcache.diskquota.QuotaStore#getUsedQuotaByLayerName(java.lang.String) */
+    @Override
+    public Quota getUsedQuotaByLayerName(final String layerName) {
+        Quota quota = new Quota();
+        for (Map.Entry<Integer, TileSet> entry : tileSetsBySlot.entrySet()) {
+            if (layerName.equals(entry.getValue().getLayerName())) {
+                quota.addBytes(tileSetTable.getLong(entry.getKey(), TILESET_BYTES));
+            }
+        }
+        return quota;
+    }
+
+    /** @see org.geowebcache.diskquota.QuotaStore#deleteLayer(java.lang.String) */
+    @Override
+    public void deleteLayer(final String layerName) {
+        Assert.notNull(layerName, "LayerName must be non null");
+        deleteTileSets(layerName, ts -> true);
+    }
+
+    @Override
+    public void deleteGridSubset(String layerName, String gridSetId) {
+        deleteTileSets(layerName, ts -> Objects.equals(ts.getGridsetId(), gridSetId));
+    }
+
+    @Override
+    public void deleteParameters(String layerName, String parametersId) {
+        deleteTileSets(layerName, ts -> Objects.equals(ts.getParametersId(), parametersId));
+    }
+
+    private void deleteTileSets(String layerName, Predicate<TileSet> shouldDelete) {
+        Lock lock = structureLock.writeLock();
+        lock.lock();
+        try {
+            checkOpen();
+            for (Map.Entry<Integer, TileSet> entry : new ArrayList<>(tileSetsBySlot.entrySet())) {
+                TileSet tileSet = entry.getValue();
+                if (layerName.equals(tileSet.getLayerName()) && shouldDelete.test(tileSet)) {
+                    removeTileSet(entry.getKey(), true);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the tile set at the given slot along with its pages. Must be called while holding the structure write
+     * lock.
+     *
+     * @param releaseQuota whether the tile set used quota has to be subtracted from the global one
+     */
+    private void removeTileSet(int slot, boolean releaseQuota) {
+        TileSet tileSet = tileSetsBySlot.get(slot);
+        try {
+            journal.appendDelete(slot);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete tile set " + tileSet, e);
+        }
+        tileSetsBySlot.remove(slot);
+        tileSetSlots.remove(tileSet.getId());
+
+        long freed = tileSetTable.getLong(slot, TILESET_BYTES);
+        if (releaseQuota) {
+            tileSetTable.addLong(GLOBAL_SLOT, TILESET_BYTES, -freed);
+        }
+        tileSetTable.putLong(slot, TILESET_BYTES, 0);
+        logQuota(slot, 0);
+        freeTileSetSlots.push(slot);
+
+        Set<Integer> pages = pagesByTileSet.remove(slot);
+        synchronized (freePageSlots) {
+            for (Integer page : pages) {
+                pageSlots.remove(keyOf(page));
+                pageTable.clear(page);
+                logPage(page);
+                freePageSlots.push(page);
+            }
+        }
+    }
+
+    /**
+     * Moves the used quota and pages of each tile set of the old layer to the matching tile set of the new layer. The
+     * global quota is not affected.
+     *
+     * @see org.geowebcache.diskquota.QuotaStore#renameLayer(java.lang.String, java.lang.String)
+     */
+    @Override
+    public void renameLayer(final String oldLayerName, final String newLayerName) {
+        Assert.notNull(oldLayerName, "Old layer name must be non null");
+        Assert.notNull(newLayerName, "New layer name must be non null");
+        Lock lock = structureLock.writeLock();
+        lock.lock();
+        try {
+            checkOpen();
+            for (Map.Entry<Integer, TileSet> entry : new ArrayList<>(tileSetsBySlot.entrySet())) {
+                TileSet oldTileSet = entry.getValue();
+                if (!oldLayerName.equals(oldTileSet.getLayerName())) {
+                    continue;
+                }
+                final int oldSlot = entry.getKey();
+                TileSet newTileSet = new TileSet(
+                        newLayerName,
+                        oldTileSet.getGridsetId(),
+                        oldTileSet.getBlobFormat(),
+                        oldTileSet.getParametersId());
+                Integer newSlot = tileSetSlots.get(newTileSet.getId());
+                if (newSlot == null) {
+                    newSlot = createTileSet(newTileSet);
+                }
+                addQuota(newSlot, tileSetTable.getLong(oldSlot, TILESET_BYTES));
+
+                Set<Integer> oldPages = pagesByTileSet.get(oldSlot);
+                Set<Integer> newPages = pagesByTileSet.get(newSlot);
+                for (Integer page : oldPages) {
+                    pageSlots.remove(keyOf(page));
+                    pageTable.putInt(page, PAGE_TILESET, newSlot + 1);
+                    PageKey newKey = keyOf(page);
+                    if (pageSlots.containsKey(newKey)) {
+                        // the new layer already has stats for this page, the old ones go away with the tile set
+                        pageTable.putInt(page, PAGE_TILESET, oldSlot + 1);
+                        continue;
+                    }
+                    logPage(page);
+                    pageSlots.put(newKey, page);
+                    newPages.add(page);
+                }
+                oldPages.removeAll(newPages);
+                removeTileSet(oldSlot, false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @see org.geowebcache.diskquota.QuotaStore#getTilesForPage(org.geowebcache.diskquota.storage.TilePage) */
+    @Override
+    public long[][] getTilesForPage(TilePage page) {
+        TileSet tileSet = getTileSetById(page.getTileSetId());
+        long[][] gridCoverage = tilePageCalculator.toGridCoverage(tileSet, page);
+        return gridCoverage;
+    }
+
+    /** @see org.geowebcache.diskquota.QuotaStore#getTileSets() */
+    @Override
+    public Set<TileSet> getTileSets() {
+        Set<TileSet> tileSets = new HashSet<>(tileSetsBySlot.values());
+        tileSets.remove(tileSetsBySlot.get(GLOBAL_SLOT));
+        return tileSets;
+    }
+
+    /** @see org.geowebcache.diskquota.QuotaStore#getTileSetById(java.lang.String) */
+    @Override
+    public TileSet getTileSetById(final String tileSetId) {
+        Integer slot = tileSetSlots.get(tileSetId);
+        TileSet tileSet = slot == null ? null : tileSetsBySlot.get(slot);
+        if (tileSet == null) {
+            throw new IllegalArgumentException("TileSet does not exist: " + tileSetId);
+        }
+        return tileSet;
+    }
+
+    @Override
+    public void accept(TileSetVisitor visitor) {
+        for (TileSet tileSet : getTileSets()) {
+            visitor.visit(tileSet, this);
+        }
+    }
+
+    @Override
+    public TilePageCalculator getTilePageCalculator() {
+        return tilePageCalculator;
+    }
+
+    /**
+     * @see org.geowebcache.diskquota.QuotaStore#addToQuotaAndTileCounts(org.geowebcache.diskquota.storage.TileSet,
+     *     org.geowebcache.diskquota.storage.Quota, java.util.Collection)
+     */
+    @Override
+    public void addToQuotaAndTileCounts(
+            final TileSet tileSet, final Quota quotaDiff, final Collection<PageStatsPayload> tileCountDiffs) {
+        final long bytes = quotaDiff.getBytes().longValue();
+        while (true) {
+            final int slot = getOrCreateTileSet(tileSet);
+            Lock lock = structureLock.readLock();
+            lock.lock();
+            try {
+                checkOpen();
+                if (!Integer.valueOf(slot).equals(tileSetSlots.get(tileSet.getId()))) {
+                    // deleted right after being created, start over
+                    continue;
+                }
+                addQuota(slot, bytes);
+                // not journaled, the global quota is recomputed at startup
+                tileSetTable.addLong(GLOBAL_SLOT, TILESET_BYTES, bytes);
+
+                if (tileCountDiffs != null) {
+                    for (PageStatsPayload payload : tileCountDiffs) {
+                        final TilePage page = payload.getPage();
+                        final int pageSlot = getOrCreatePage(slot, page);
+                        final BigInteger tilesPerPage =
+                                tilePageCalculator.getTilesPerPage(tileSet, page.getZoomLevel());
+                        synchronized (pageLock(pageSlot)) {
+                            PageStats pageStats = readPageStats(pageSlot);
+                            pageStats.addTiles(payload.getNumTiles(), tilesPerPage);
+                            pageTable.putFloat(pageSlot, PAGE_FILL, pageStats.getFillFactor());
+                            logPage(pageSlot);
+                        }
+                    }
+                }
+                return;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Applies the hits synchronously, the returned future is already completed.
+     *
+     * @see org.geowebcache.diskquota.QuotaStore#addHitsAndSetAccesTime(java.util.Collection)
+     */
+    @Override
+    public Future<List<PageStats>> addHitsAndSetAccesTime(final Collection<PageStatsPayload> statsUpdates) {
+        Assert.notNull(statsUpdates, "Stats update must be non null");
+
+        List<PageStats> allStats = new ArrayList<>(statsUpdates.size());
+        Lock lock = structureLock.readLock();
+        lock.lock();
+        try {
+            checkOpen();
+            for (PageStatsPayload payload : statsUpdates) {
+                final TilePage page = payload.getPage();
+                final Integer tileSetSlot = tileSetSlots.get(page.getTileSetId());
+                if (tileSetSlot == null) {
+                    log.info("Can't add usage stats. TileSet does not exist. Was it deleted? " + page.getTileSetId());
+                    continue;
+                }
+                final int pageSlot = getOrCreatePage(tileSetSlot, page);
+                final int lastAccessTimeMinutes = (int) (payload.getLastAccessTime() / 1000 / 60);
+                synchronized (pageLock(pageSlot)) {
+                    PageStats pageStats = readPageStats(pageSlot);
+                    pageStats.addHitsAndAccessTime(
+                            payload.getNumHits(), lastAccessTimeMinutes, pageTable.getInt(pageSlot, PAGE_CREATED));
+                    pageTable.putFloat(pageSlot, PAGE_FILL, pageStats.getFillFactor());
+                    pageTable.putFloat(pageSlot, PAGE_FREQUENCY, pageStats.getFrequencyOfUsePerMinute());
+                    pageTable.putInt(pageSlot, PAGE_ACCESS, pageStats.getLastAccessTimeMinutes());
+                    pageTable.putLong(pageSlot, PAGE_HITS, pageStats.getNumHits().longValue());
+                    logPage(pageSlot);
+                    allStats.add(pageStats);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return CompletableFuture.completedFuture(allStats);
+    }
+
+    /** @see org.geowebcache.diskquota.QuotaStore#getLeastFrequentlyUsedPage(java.util.Set) */
+    @Override
+    public TilePage getLeastFrequentlyUsedPage(final Set<String> layerNames) {
+        return findPageToExpire(layerNames, slot -> pageTable.getFloat(slot, PAGE_FREQUENCY));
+    }
+
+    /** @see org.geowebcache.diskquota.QuotaStore#getLeastRecentlyUsedPage(java.util.Set) */
+    @Override
+    public TilePage getLeastRecentlyUsedPage(final Set<String> layerNames) {
+        return findPageToExpire(layerNames, slot -> pageTable.getInt(slot, PAGE_ACCESS));
+    }
+
+    /** Scans the pages of the given layers for the non empty one with the lowest value for the expiration policy */
+    private TilePage findPageToExpire(final Set<String> layerNames, final IntToDoubleFunction policy) {
+        Lock lock = structureLock.readLock();
+        lock.lock();
+        try {
+            checkOpen();
+            int nextToExpire = -1;
+            double lowest = 0;
+            for (Map.Entry<Integer, TileSet> entry : tileSetsBySlot.entrySet()) {
+                String layerName = entry.getValue().getLayerName();
+                if (layerName == null || !layerNames.contains(layerName)) {
+                    continue;
+                }
+                for (Integer page : pagesByTileSet.get(entry.getKey())) {
+                    if (pageTable.getFloat(page, PAGE_FILL) <= 0) {
+                        continue;
+                    }
+                    double value = policy.applyAsDouble(page);
+                    if (nextToExpire < 0 || value < lowest || (value == lowest && page < nextToExpire)) {
+                        nextToExpire = page;
+                        lowest = value;
+                    }
+                }
+            }
+            if (nextToExpire < 0) {
+                return null;
+            }
+            TileSet tileSet = tileSetsBySlot.get(pageTable.getInt(nextToExpire, PAGE_TILESET) - 1);
+            return new TilePage(
+                    tileSet.getId(),
+                    pageTable.getInt(nextToExpire, PAGE_X),
+                    pageTable.getInt(nextToExpire, PAGE_Y),
+                    pageTable.getInt(nextToExpire, PAGE_Z),
+                    pageTable.getInt(nextToExpire, PAGE_CREATED));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @see org.geowebcache.diskquota.QuotaStore#setTruncated(org.geowebcache.diskquota.storage.TilePage) */
+    @Override
+    public PageStats setTruncated(final TilePage tilePage) {
+        Lock lock = structureLock.readLock();
+        lock.lock();
+        try {
+            checkOpen();
+            Integer tileSetSlot = tileSetSlots.get(tilePage.getTileSetId());
+            if (tileSetSlot == null) {
+                return null;
+            }
+            Integer pageSlot = pageSlots.get(new PageKey(
+                    tileSetSlot, tilePage.getPageX(), tilePage.getPageY(), tilePage.getZoomLevel()));
+            if (pageSlot == null) {
+                return null;
+            }
+            synchronized (pageLock(pageSlot)) {
+                pageTable.putFloat(pageSlot, PAGE_FILL, 0f);
+                logPage(pageSlot);
+                return readPageStats(pageSlot);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Must be called while holding the structure read lock */
+    private int getOrCreatePage(final int tileSetSlot, final TilePage page) {
+        PageKey key = new PageKey(tileSetSlot, page.getPageX(), page.getPageY(), page.getZoomLevel());
+        Integer slot = pageSlots.get(key);
+        if (slot != null) {
+            return slot;
+        }
+        synchronized (freePageSlots) {
+            slot = pageSlots.get(key);
+            if (slot != null) {
+                return slot;
+            }
+            slot = freePageSlots.isEmpty() ? nextPageSlot++ : freePageSlots.pop();
+            try {
+                pageTable.ensureCapacity(slot + 1);
+            } catch (IOException e) {
+                freePageSlots.push(slot);
+                throw new UncheckedIOException("Failed to grow the page table", e);
+            }
+            pageTable.putInt(slot, PAGE_X, page.getPageX());
+            pageTable.putInt(slot, PAGE_Y, page.getPageY());
+            pageTable.putInt(slot, PAGE_Z, page.getZoomLevel());
+            pageTable.putInt(slot, PAGE_CREATED, page.getCreationTimeMinutes());
+            pageTable.putFloat(slot, PAGE_FILL, 0f);
+            pageTable.putFloat(slot, PAGE_FREQUENCY, 0f);
+            pageTable.putInt(slot, PAGE_ACCESS, SystemUtils.get().currentTimeMinutes());
+            pageTable.putLong(slot, PAGE_HITS, 0);
+            // written last, marks the record as in use
+            pageTable.putInt(slot, PAGE_TILESET, tileSetSlot + 1);
+            logPage(slot);
+            pageSlots.put(key, slot);
+            pagesByTileSet.get(tileSetSlot).add(slot);
+            return slot;
+        }
+    }
+
+    private Object pageLock(int pageSlot) {
+        return pageLocks[pageSlot % pageLocks.length];
+    }
+
+    private PageStats readPageStats(int pageSlot) {
+        PageStats pageStats = new PageStats(pageSlot);
+        pageStats.setFillFactor(pageTable.getFloat(pageSlot, PAGE_FILL));
+        pageStats.setFrequencyOfUsePerMinute(pageTable.getFloat(pageSlot, PAGE_FREQUENCY));
+        pageStats.setLastAccessMinutes(pageTable.getInt(pageSlot, PAGE_ACCESS));
+        pageStats.setNumHits(BigInteger.valueOf(pageTable.getLong(pageSlot, PAGE_HITS)));
+        return pageStats;
+    }
+
+    private PageKey keyOf(int pageSlot) {
+        return new PageKey(
+                pageTable.getInt(pageSlot, PAGE_TILESET) - 1,
+                pageTable.getInt(pageSlot, PAGE_X),
+                pageTable.getInt(pageSlot, PAGE_Y),
+                pageTable.getInt(pageSlot, PAGE_Z));
+    }
+
+    /** In memory key of a page record, the tile set slot plus the page coordinates */
+    private static final class PageKey {
+
+        private final int tileSetSlot;
+
+        private final int x;
+
+        private final int y;
+
+        private final int z;
+
+        PageKey(int tileSetSlot, int x, int y, int z) {
+            this.tileSetSlot = tileSetSlot;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof PageKey)) {
+                return false;
+            }
+            PageKey other = (PageKey) o;
+            return tileSetSlot == other.tileSetSlot && x == other.x && y == other.y && z == other.z;
+        }
+
+        @Override
+        public int hashCode() {
+            return ((tileSetSlot * 31 + x) * 31 + y) * 31 + z;
+        }
+    }
+}
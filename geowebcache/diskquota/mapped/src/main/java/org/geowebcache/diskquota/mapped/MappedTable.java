@@ -0,0 +1,172 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.diskquota.mapped;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A file backed table of fixed width records, addressed by slot number.
+ *
+ * <p>The file is memory mapped in fixed size segments, growing the table maps a new segment at the end of the file
+ * without touching the existing ones, so concurrent readers never see a buffer being swapped under their feet. Fields
+ * are addressed by their byte offset inside the record; {@code long} fields placed at 8 byte aligned offsets (with a
+ * record size multiple of 8) can be updated atomically with {@link #addLong(int, int, long)}.
+ */
+class MappedTable implements Closeable {
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final FileChannel channel;
+
+    private final int recordSize;
+
+    private final int recordsPerSegment;
+
+    private volatile MappedByteBuffer[] segments;
+
+    MappedTable(Path file, int recordSize, int recordsPerSegment) throws IOException {
+        this.recordSize = recordSize;
+        this.recordsPerSegment = recordsPerSegment;
+        this.channel = FileChannel.open(
+                file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long segmentBytes = segmentBytes();
+        int count = (int) ((channel.size() + segmentBytes - 1) / segmentBytes);
+        MappedByteBuffer[] mapped = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            mapped[i] = map(i);
+        }
+        this.segments = mapped;
+    }
+
+    private long segmentBytes() {
+        return (long) recordSize * recordsPerSegment;
+    }
+
+    private MappedByteBuffer map(int segment) throws IOException {
+        // mapping past the end of the file grows it, the new region reads as zeroes
+        return channel.map(MapMode.READ_WRITE, segment * segmentBytes(), segmentBytes());
+    }
+
+    /** @return the number of records that can be addressed without growing the table */
+    int capacity() {
+        return segments.length * recordsPerSegment;
+    }
+
+    /** Grows the table, if needed, so that it can hold at least {@code records} records */
+    synchronized void ensureCapacity(int records) throws IOException {
+        MappedByteBuffer[] current = segments;
+        if (current.length * recordsPerSegment >= records) {
+            return;
+        }
+        int count = (records + recordsPerSegment - 1) / recordsPerSegment;
+        MappedByteBuffer[] grown = Arrays.copyOf(current, count);
+        for (int i = current.length; i < count; i++) {
+            grown[i] = map(i);
+        }
+        this.segments = grown;
+    }
+
+    private MappedByteBuffer segment(int slot) {
+        return segments[slot / recordsPerSegment];
+    }
+
+    private int offset(int slot, int field) {
+        return (slot % recordsPerSegment) * recordSize + field;
+    }
+
+    int getInt(int slot, int field) {
+        return segment(slot).getInt(offset(slot, field));
+    }
+
+    void putInt(int slot, int field, int value) {
+        segment(slot).putInt(offset(slot, field), value);
+    }
+
+    float getFloat(int slot, int field) {
+        return segment(slot).getFloat(offset(slot, field));
+    }
+
+    void putFloat(int slot, int field, float value) {
+        segment(slot).putFloat(offset(slot, field), value);
+    }
+
+    long getLong(int slot, int field) {
+        return (long) LONGS.getVolatile(segment(slot), offset(slot, field));
+    }
+
+    void putLong(int slot, int field, long value) {
+        LONGS.setVolatile(segment(slot), offset(slot, field), value);
+    }
+
+    /**
+     * Atomically adds {@code delta} to the {@code long} field at the given offset
+     *
+     * @return the updated value
+     */
+    long addLong(int slot, int field, long delta) {
+        return (long) LONGS.getAndAdd(segment(slot), offset(slot, field), delta) + delta;
+    }
+
+    /** @return a copy of the whole record */
+    byte[] getRecord(int slot) {
+        MappedByteBuffer segment = segment(slot);
+        int start = offset(slot, 0);
+        byte[] record = new byte[recordSize];
+        for (int i = 0; i < recordSize; i++) {
+            record[i] = segment.get(start + i);
+        }
+        return record;
+    }
+
+    /** Overwrites the whole record */
+    void putRecord(int slot, byte[] record) {
+        MappedByteBuffer segment = segment(slot);
+        int start = offset(slot, 0);
+        for (int i = 0; i < recordSize; i++) {
+            segment.put(start + i, record[i]);
+        }
+    }
+
+    /** Zeroes out the whole record */
+    void clear(int slot) {
+        MappedByteBuffer segment = segment(slot);
+        int start = offset(slot, 0);
+        for (int i = 0; i < recordSize; i++) {
+            segment.put(start + i, (byte) 0);
+        }
+    }
+
+    /** Flushes the modified pages to disk */
+    void force() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+}
@@ -0,0 +1,303 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.diskquota.mapped;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.diskquota.storage.TileSet;
+
+/**
+ * Append only write ahead log of a {@link MappedQuotaStore}.
+ *
+ * <p>The journal records the tile sets known to the store, each one bound to the slot it occupies in the store tables,
+ * and every change made to the tables since they were last flushed to disk. Changes are recorded as the new contents
+ * of the modified quota or page record rather than as a difference, so that replaying them over tables holding any
+ * later state, or a partially written one, restores the state the journal describes.
+ *
+ * <p>Every record is framed by its length and a CRC32 checksum, a record torn by a crash is detected during
+ * {@link #replay(Visitor) replay} and cut off. Tile set records are forced to disk right away, while table updates are
+ * buffered and written in groups by {@link #commit()}. The log is rewritten with only the live tile sets by
+ * {@link #compact(Map)}, once the tables have been flushed.
+ */
+class StoreJournal implements Closeable {
+
+    private static final Logger log = Logging.getLogger(StoreJournal.class.getName());
+
+    private static final byte CREATE = 1;
+
+    private static final byte DELETE = 2;
+
+    private static final byte QUOTA = 3;
+
+    private static final byte PAGE = 4;
+
+    /** Size of the buffer holding the table updates not yet written to the log */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** Receives the journal records in the order they were appended */
+    interface Visitor {
+
+        void created(int slot, TileSet tileSet);
+
+        void deleted(int slot);
+
+        void quotaUpdated(int slot, long bytes) throws IOException;
+
+        void pageUpdated(int slot, byte[] record) throws IOException;
+    }
+
+    private final Path file;
+
+    private FileChannel channel;
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    private final CRC32 crc = new CRC32();
+
+    StoreJournal(Path file) throws IOException {
+        this.file = file;
+        this.channel = open(file);
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(
+                file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        return channel;
+    }
+
+    /** Replays the whole journal, truncating it right after the last complete record */
+    synchronized void replay(Visitor visitor) throws IOException {
+        long valid = 0;
+        channel.position(0);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        try {
+            while (true) {
+                int length = in.readInt();
+                if (length <= 0 || length > channel.size()) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                long checksum = in.readInt() & 0xFFFFFFFFL;
+                if (checksum != checksum(payload)) {
+                    break;
+                }
+                apply(payload, visitor);
+                valid += 4 + length + 4;
+            }
+        } catch (EOFException e) {
+            // partial record at the end of the log, discarded below
+        }
+        if (valid < channel.size()) {
+            log.warning("Discarding " + (channel.size() - valid) + " bytes of incomplete records at the end of "
+                    + file);
+            channel.truncate(valid);
+        }
+        channel.position(valid);
+    }
+
+    private void apply(byte[] payload, Visitor visitor) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte type = in.readByte();
+        int slot = in.readInt();
+        if (type == CREATE) {
+            String layer = readString(in);
+            String gridset = readString(in);
+            String format = readString(in);
+            String parametersId = readString(in);
+            TileSet tileSet = layer == null
+                    ? new TileSet(gridset)
+                    : new TileSet(layer, gridset, format, parametersId);
+            visitor.created(slot, tileSet);
+        } else if (type == DELETE) {
+            visitor.deleted(slot);
+        } else if (type == QUOTA) {
+            visitor.quotaUpdated(slot, in.readLong());
+        } else if (type == PAGE) {
+            byte[] record = new byte[payload.length - 5];
+            in.readFully(record);
+            visitor.pageUpdated(slot, record);
+        } else {
+            throw new IOException("Unknown record type " + type + " in " + file);
+        }
+    }
+
+    /** Records that {@code tileSet} now lives at {@code slot}, forcing the record to disk */
+    synchronized void appendCreate(int slot, TileSet tileSet) throws IOException {
+        write(createRecord(slot, tileSet));
+        commit();
+    }
+
+    /** Records that the tile set at {@code slot} has been removed, forcing the record to disk */
+    synchronized void appendDelete(int slot) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(DELETE);
+        out.writeInt(slot);
+        write(frame(bytes.toByteArray()));
+        commit();
+    }
+
+    /** Records the new used bytes of the tile set at {@code slot}, to be written by the next {@link #commit()} */
+    synchronized void appendQuota(int slot, long bytes) throws IOException {
+        reserve(4 + 1 + 4 + 8 + 4);
+        int start = buffer.position();
+        buffer.putInt(1 + 4 + 8);
+        buffer.put(QUOTA);
+        buffer.putInt(slot);
+        buffer.putLong(bytes);
+        putChecksum(start);
+    }
+
+    /** Records the new contents of the page record at {@code slot}, to be written by the next {@link #commit()} */
+    synchronized void appendPage(int slot, byte[] record) throws IOException {
+        reserve(4 + 1 + 4 + record.length + 4);
+        int start = buffer.position();
+        buffer.putInt(1 + 4 + record.length);
+        buffer.put(PAGE);
+        buffer.putInt(slot);
+        buffer.put(record);
+        putChecksum(start);
+    }
+
+    /** Appends the checksum of the payload of the record starting at {@code start} in the buffer */
+    private void putChecksum(int start) {
+        crc.reset();
+        crc.update(buffer.array(), start + 4, buffer.position() - start - 4);
+        buffer.putInt((int) crc.getValue());
+    }
+
+    private void reserve(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    /** Writes the buffered table updates to the log, without forcing them to disk */
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void write(byte[] record) throws IOException {
+        flush();
+        channel.write(ByteBuffer.wrap(record));
+    }
+
+    /** Writes the buffered table updates to the log and forces the log to disk */
+    synchronized void commit() throws IOException {
+        flush();
+        channel.force(false);
+    }
+
+    /** @return the size of the log, including the buffered records */
+    synchronized long size() throws IOException {
+        return channel.size() + buffer.position();
+    }
+
+    /**
+     * Atomically replaces the journal with one holding a single creation record per live tile set. The table updates
+     * recorded so far are discarded, the tables must have been flushed to disk beforehand.
+     */
+    synchronized void compact(Map<Integer, TileSet> live) throws IOException {
+        buffer.clear();
+        Path compacted = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(
+                compacted,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Map.Entry<Integer, TileSet> e : live.entrySet()) {
+                out.write(ByteBuffer.wrap(createRecord(e.getKey(), e.getValue())));
+            }
+            out.force(true);
+        }
+        channel.close();
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = open(file);
+    }
+
+    private static byte[] createRecord(int slot, TileSet tileSet) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(CREATE);
+        out.writeInt(slot);
+        if (tileSet.getLayerName() == null) {
+            // the global quota pseudo tile set only has an id
+            writeString(out, null);
+            writeString(out, tileSet.getId());
+            writeString(out, null);
+            writeString(out, null);
+        } else {
+            writeString(out, tileSet.getLayerName());
+            writeString(out, tileSet.getGridsetId());
+            writeString(out, tileSet.getBlobFormat());
+            writeString(out, tileSet.getParametersId());
+        }
+        return frame(bytes.toByteArray());
+    }
+
+    private static byte[] frame(byte[] payload) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(payload.length + 8);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(payload.length);
+        out.write(payload);
+        out.writeInt((int) checksum(payload));
+        return bytes.toByteArray();
+    }
+
+    private static long checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return crc.getValue();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        commit();
+        channel.close();
+    }
+}
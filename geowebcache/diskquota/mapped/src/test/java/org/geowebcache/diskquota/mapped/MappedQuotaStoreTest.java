@@ -0,0 +1,103 @@
+package org.geowebcache.diskquota.mapped;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.geowebcache.diskquota.AbstractQuotaStoreTest;
+import org.geowebcache.diskquota.storage.PageStats;
+import org.geowebcache.diskquota.storage.PageStatsPayload;
+import org.geowebcache.diskquota.storage.Quota;
+import org.geowebcache.diskquota.storage.TilePage;
+import org.geowebcache.diskquota.storage.TileSet;
+import org.junit.Test;
+
+public class MappedQuotaStoreTest extends AbstractQuotaStoreTest<MappedQuotaStore> {
+
+    @Override
+    protected MappedQuotaStore openStore() throws Exception {
+        MappedQuotaStore store = new MappedQuotaStore(cacheDirFinder, tilePageCalculator);
+        store.startUp();
+        return store;
+    }
+
+    @Override
+    protected String getStoreDirectory() {
+        return MappedQuotaStore.STORE_DIRECTORY;
+    }
+
+    @Test
+    public void testVisitor() throws Exception {
+        Set<TileSet> tileSets = new HashSet<>();
+        store.accept((tileSet, quotaStore) -> tileSets.add(tileSet));
+        assertEquals(store.getTileSets(), tileSets);
+    }
+
+    @Test
+    public void testPersistsAcrossRestarts() throws Exception {
+        TilePage page = new TilePage(testTileSet.getId(), 1, 2, 3);
+        PageStatsPayload payload = new PageStatsPayload(page);
+        payload.setNumTiles(1);
+        payload.setNumHits(10);
+        store.addToQuotaAndTileCounts(testTileSet, new Quota(BigInteger.valueOf(1000)), Collections.singleton(payload));
+        PageStats before =
+                store.addHitsAndSetAccesTime(Collections.singleton(payload)).get().get(0);
+        store.deleteLayer("topp:states");
+
+        store.close();
+        store = openStore();
+
+        assertThat(store.getUsedQuotaByTileSetId(testTileSet.getId()), bytes(1000));
+        assertThat(store, hasProperty("globallyUsedQuota", bytes(1000)));
+        assertThat(store.getLeastFrequentlyUsedPage(Collections.singleton("topp:states2")), equalTo(page));
+        PageStats after = store.setTruncated(page);
+        assertThat(after, hasProperty("numHits", equalTo(before.getNumHits())));
+        assertThat(after, hasProperty("frequencyOfUsePerMinute", closeTo(before.getFrequencyOfUsePerMinute(), 0f)));
+        // the deleted layer tile sets are recreated empty, since the layer is still configured
+        assertThat(store.getUsedQuotaByLayerName("topp:states"), quotaEmpty());
+    }
+
+    @Test
+    public void testRecoversFromJournal() throws Exception {
+        TilePage page = new TilePage(testTileSet.getId(), 1, 2, 3);
+        PageStatsPayload payload = new PageStatsPayload(page);
+        payload.setNumTiles(1);
+        payload.setNumHits(10);
+        store.addToQuotaAndTileCounts(testTileSet, new Quota(BigInteger.valueOf(1000)), Collections.singleton(payload));
+        PageStats before =
+                store.addHitsAndSetAccesTime(Collections.singleton(payload)).get().get(0);
+        store.commit();
+
+        // copy the store as a crash would leave it: the journal got to disk, with a torn record at its end, while
+        // none of the table updates made since startup did
+        File crashed = targetDir.newFolder("crashed");
+        Path source = targetDir.getRoot().toPath().resolve(MappedQuotaStore.STORE_DIRECTORY);
+        Path copy = Files.createDirectory(crashed.toPath().resolve(MappedQuotaStore.STORE_DIRECTORY));
+        Files.copy(source.resolve("version.txt"), copy.resolve("version.txt"));
+        Files.copy(source.resolve("journal.log"), copy.resolve("journal.log"));
+        Files.write(copy.resolve("journal.log"), new byte[] {0, 0, 0, 13, 3, 0}, StandardOpenOption.APPEND);
+        for (String table : new String[] {"quotas.dat", "pages.dat"}) {
+            Files.write(copy.resolve(table), new byte[(int) Files.size(source.resolve(table))]);
+        }
+
+        store.close();
+        store = new MappedQuotaStore(createCacheDirFinder(crashed), tilePageCalculator);
+        store.startUp();
+
+        assertThat(store.getUsedQuotaByTileSetId(testTileSet.getId()), bytes(1000));
+        assertThat(store, hasProperty("globallyUsedQuota", bytes(1000)));
+        assertThat(store.getLeastFrequentlyUsedPage(Collections.singleton("topp:states2")), equalTo(page));
+        PageStats after = store.setTruncated(page);
+        assertThat(after, hasProperty("numHits", equalTo(before.getNumHits())));
+        assertThat(after, hasProperty("frequencyOfUsePerMinute", closeTo(before.getFrequencyOfUsePerMinute(), 0f)));
+    }
+}
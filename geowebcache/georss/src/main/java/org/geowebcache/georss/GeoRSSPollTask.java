@@ -189,6 +189,24 @@ private void runPollAndLaunchSeed() throws IOException {
                 "Seeding process for tiles affected by feed " + feedUrl.toExternalForm() + " successfully launched.");
     }
 
+    /**
+     * Creates the mask of the tiles to seed, its bounds expanded to the metatiling factors of each zoom level as the
+     * seeding iterates over whole metatiles
+     */
+    static RasterMask createRasterMask(
+            final TileLayer layer, final String gridSetId, final GeometryRasterMaskBuilder tileRangeMask) {
+
+        GridSubset gridSub = layer.getGridSubset(gridSetId);
+
+        long[][] fullCoverage = gridSub.getCoverages();
+        long[][] coveredBounds =
+                gridSub.expandToMetaFactors(tileRangeMask.getCoveredBounds(), layer::getMetaTilingFactors);
+
+        BufferedImage[] byLevelMasks = tileRangeMask.getByLevelMasks();
+
+        return new RasterMask(byLevelMasks, fullCoverage, coveredBounds);
+    }
+
     private String templateFeedUrl(final String feedUrl, final String lastUpdatedEntry) {
         if (feedUrl == null) {
             throw new NullPointerException("feedUrl");
@@ -240,12 +258,7 @@ private void launchSeeding(
 
         GridSubset gridSub = layer.getGridSubset(gridSetId);
 
-        long[][] fullCoverage = gridSub.getCoverages();
-        long[][] coveredBounds = tileRangeMask.getCoveredBounds();
-
-        BufferedImage[] byLevelMasks = tileRangeMask.getByLevelMasks();
-
-        RasterMask rasterMask = new RasterMask(byLevelMasks, fullCoverage, coveredBounds);
+        RasterMask rasterMask = createRasterMask(layer, gridSetId, tileRangeMask);
 
         List<MimeType> mimeList = null;
 
@@ -70,7 +70,6 @@ public GeometryRasterMaskBuilder buildTileRangeMask(final GeoRSSReader reader, S
             throws IOException {
 
         final GridSubset gridSubset = layer.getGridSubset(gridSetId);
-        final int[] metaTilingFactors = layer.getMetaTilingFactors();
         GeometryRasterMaskBuilder matrix = null;
 
         Entry entry;
@@ -84,7 +83,7 @@ public GeometryRasterMaskBuilder buildTileRangeMask(final GeoRSSReader reader, S
                             + " since it has the same date as our last feed update.");
                 } else {
                     if (matrix == null) {
-                        matrix = new GeometryRasterMaskBuilder(gridSubset, metaTilingFactors, maxMaskLevel);
+                        matrix = new GeometryRasterMaskBuilder(gridSubset, layer::getMetaTilingFactors, maxMaskLevel);
                     }
 
                     // Record the most recent updated entry. Date comparison
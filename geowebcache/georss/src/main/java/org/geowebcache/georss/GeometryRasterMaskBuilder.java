@@ -20,6 +20,7 @@
 import java.awt.Shape;
 import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
+import java.util.function.IntFunction;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.geotools.api.geometry.MismatchedDimensionException;
@@ -74,10 +75,19 @@ public class GeometryRasterMaskBuilder {
 
     private final int maxMaskLevel;
 
-    private int[] metaTilingFactors;
+    private final IntFunction<int[]> metaTilingFactors;
 
     public GeometryRasterMaskBuilder(
             final GridSubset gridSubset, final int[] metaTilingFactors, final int maxMaskLevel) {
+        this(gridSubset, z -> metaTilingFactors, maxMaskLevel);
+    }
+
+    /**
+     * @param metaTilingFactors the metatiling factors of each zoom level, the mask of each level covers the grid subset
+     *     coverage expanded to them
+     */
+    public GeometryRasterMaskBuilder(
+            final GridSubset gridSubset, final IntFunction<int[]> metaTilingFactors, final int maxMaskLevel) {
 
         this.gridSubset = gridSubset;
         this.metaTilingFactors = metaTilingFactors;
@@ -21,17 +21,28 @@
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import javax.xml.stream.FactoryConfigurationError;
 import javax.xml.stream.XMLStreamException;
 import org.geowebcache.config.DefaultGridsets;
 import org.geowebcache.grid.BoundingBox;
 import org.geowebcache.grid.GridSetBroker;
+import org.geowebcache.layer.MetaTilingRule;
 import org.geowebcache.layer.TileLayer;
+import org.geowebcache.layer.wms.WMSLayer;
+import org.geowebcache.mime.ImageMime;
+import org.geowebcache.storage.DiscontinuousTileRange;
+import org.geowebcache.storage.RasterMask;
+import org.geowebcache.storage.TileRangeIterator;
 import org.geowebcache.util.TestUtils;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.locationtech.jts.io.WKTReader;
 
 public class GeoRSSTileRangeBuilderTest {
 
@@ -102,6 +113,41 @@ public void testCoveredBounds() throws Exception {
         TestUtils.assertEquals(new long[] {511, 0, 2047, 768, 10}, tileRangeMask.getCoveredBounds(10));
     }
 
+    /** The tiles to seed are masked and iterated by the metatiling factors of their zoom level */
+    @Test
+    public void testSeedingWithMetaTilingRule() throws Exception {
+        // tiles 5 to 10 wide at level 3, where the metatiles are 8x8 instead of 4x4
+        WMSLayer metaTiledLayer = TestUtils.createWMSLayer(
+                "image/png",
+                new GridSetBroker(Collections.singletonList(new DefaultGridsets(false, false))),
+                4,
+                4,
+                new BoundingBox(-60, -80, 60, 80));
+        metaTiledLayer.setMetaTilingRules(Collections.singletonList(new MetaTilingRule(3, 8, 8, null)));
+
+        // a point on tile 7,4 of level 3, close enough to tile 8 of the next metatile to affect it too
+        Entry entry = new Entry();
+        entry.setWhere(new WKTReader().read("POINT(-5 10)"));
+        Iterator<Entry> entries = Collections.singletonList(entry).iterator();
+        GeoRSSReader reader = () -> entries.hasNext() ? entries.next() : null;
+
+        GeometryRasterMaskBuilder tileRangeMask =
+                new GeoRSSTileRangeBuilder(metaTiledLayer, gridsetId, 10).buildTileRangeMask(reader, null);
+        RasterMask rasterMask = GeoRSSPollTask.createRasterMask(metaTiledLayer, gridsetId, tileRangeMask);
+        Assert.assertTrue(rasterMask.lookup(7, 4, 3));
+        Assert.assertTrue(rasterMask.lookup(8, 4, 3));
+
+        DiscontinuousTileRange range = new DiscontinuousTileRange(
+                metaTiledLayer.getName(), gridsetId, 3, 3, rasterMask, ImageMime.png, null);
+        TileRangeIterator iterator = new TileRangeIterator(range, metaTiledLayer::getMetaTilingFactors);
+        List<String> metaTiles = new ArrayList<>();
+        long[] gridLoc = new long[3];
+        while (iterator.nextMetaGridLocation(gridLoc) != null) {
+            metaTiles.add(Arrays.toString(gridLoc));
+        }
+        Assert.assertEquals(Arrays.asList("[0, 0, 3]", "[8, 0, 3]"), metaTiles);
+    }
+
     @Test
     public void testLatestUpdate() throws IOException, XMLStreamException, FactoryConfigurationError {
         assertLatestUpdate("2005-08-17T07:02:34Z", "point_feed.xml");
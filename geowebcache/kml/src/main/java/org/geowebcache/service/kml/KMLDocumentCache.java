@@ -0,0 +1,121 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.service.kml;
+
+import java.util.Arrays;
+import java.util.Objects;
+import org.geowebcache.service.TileDependentCache;
+
+/**
+ * Caches the KML super-overlays and overlays, and the KMZ archives packaging the overlays with their data, so that the
+ * very repetitive requests of a client walking down a KML hierarchy don't get the documents rebuilt, the linked tiles
+ * filtered, and the archives zipped over and over.
+ *
+ * <p>Documents are keyed by layer, gridset, tile index, tile format, wrapper format and URL prefix, as they embed
+ * absolute links. A document is dropped whenever the tile it packages, or any of the tiles it links to on the next
+ * level, is stored, updated or deleted, so that truncating a layer drops its documents too.
+ */
+public class KMLDocumentCache extends TileDependentCache<KMLDocumentCache.Key> {
+
+    /** @param maxBytes the maximum total size of the cached documents */
+    public KMLDocumentCache(long maxBytes) {
+        super(maxBytes);
+    }
+
+    /** Identifies a KML document */
+    public static class Key extends TileDependentCache.Key {
+
+        final long[] tileIndex;
+
+        final String wrapperFormat;
+
+        final String urlPrefix;
+
+        final long[][] links;
+
+        /**
+         * @param layerName the layer
+         * @param gridSetId the gridset of the tiles
+         * @param tileIndex the overlay tile index, {@code {-1, -1, -1}} for the super-overlay
+         * @param format the {@link org.geowebcache.mime.MimeType#getFormat() format} of the tiles
+         * @param wrapperFormat the format of the document, KML or KMZ
+         * @param urlPrefix the prefix of the links in the document
+         * @param links the indexes of the tiles the document may link to, whose presence may change it
+         */
+        public Key(
+                String layerName,
+                String gridSetId,
+                long[] tileIndex,
+                String format,
+                String wrapperFormat,
+                String urlPrefix,
+                long[][] links) {
+            super(layerName, gridSetId, format);
+            this.tileIndex = tileIndex.clone();
+            this.wrapperFormat = wrapperFormat;
+            this.urlPrefix = urlPrefix;
+            this.links = new long[links.length][];
+            for (int i = 0; i < links.length; i++) {
+                this.links[i] = links[i].clone();
+            }
+        }
+
+        @Override
+        protected boolean dependsOn(String parametersId, long[] range) {
+            // parameters are not checked, documents being built for the default ones whatever their identifier
+            if (contains(range, tileIndex)) {
+                return true;
+            }
+            for (long[] link : links) {
+                if (contains(range, link)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        protected boolean dependsOn(String parametersId) {
+            // KML documents are built for the default parameters, which can't be deleted
+            return false;
+        }
+
+        private static boolean contains(long[] range, long[] index) {
+            return index[2] == range[4]
+                    && index[0] >= range[0]
+                    && index[0] <= range[2]
+                    && index[1] >= range[1]
+                    && index[1] <= range[3];
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return layerName.equals(other.layerName)
+                    && gridSetId.equals(other.gridSetId)
+                    && Arrays.equals(tileIndex, other.tileIndex)
+                    && format.equals(other.format)
+                    && Objects.equals(wrapperFormat, other.wrapperFormat)
+                    && Objects.equals(urlPrefix, other.urlPrefix);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(layerName, gridSetId, Arrays.hashCode(tileIndex), format, wrapperFormat, urlPrefix);
+        }
+    }
+}
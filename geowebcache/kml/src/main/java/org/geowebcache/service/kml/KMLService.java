@@ -69,6 +69,9 @@ public class KMLService extends Service {
 
     private SecurityDispatcher secDispatcher;
 
+    // Built super-overlays, overlays and KMZ archives, null if not cached
+    private KMLDocumentCache documentCache;
+
     /** Protected no-argument constructor to allow run-time instrumentation */
     protected KMLService() {
         super(SERVICE_KML);
@@ -283,6 +286,14 @@ private static String urlPrefix(String requestUrl, String[] parsed) {
     private void handleSuperOverlay(ConveyorKMLTile tile) throws GeoWebCacheException {
         TileLayer layer = tile.getLayer();
 
+        KMLDocumentCache.Key cacheKey = isCacheable(tile) ? cacheKey(tile, new long[0][]) : null;
+        byte[] document = cacheKey == null ? null : documentCache.get(cacheKey, layer);
+        if (document != null) {
+            writeSuperOverlay(tile, document);
+            return;
+        }
+        long cacheGeneration = cacheKey == null ? 0 : documentCache.generation(layer.getName());
+
         GridSubset gridSubset = tile.getGridSubset();
 
         // int srsIdx = layer.getSRSIndex(srs);
@@ -328,8 +339,15 @@ private void handleSuperOverlay(ConveyorKMLTile tile) throws GeoWebCacheExceptio
         }
 
         String xml = KMLHeader() + "\n<Folder>" + getLookAt(bbox) + networkLinks + "\n</Folder>" + "\n</kml>\n";
+        document = xml.getBytes();
+        if (cacheKey != null) {
+            documentCache.put(cacheKey, layer, document, cacheGeneration);
+        }
+        writeSuperOverlay(tile, document);
+    }
 
-        tile.setBlob(new ByteArrayResource(xml.getBytes()));
+    private void writeSuperOverlay(ConveyorKMLTile tile, byte[] document) throws GeoWebCacheException {
+        tile.setBlob(new ByteArrayResource(document));
         tile.setMimeType(XMLMime.kml);
         tile.setStatus(200);
         String mimeStr = getMimeTypeOverride(tile);
@@ -400,60 +418,87 @@ private void handleOverlay(ConveyorKMLTile tile) throws GeoWebCacheException {
             packageData = true;
         }
 
-        // TODO The 1.1 branch doesn't have a good way of storing the archives.
-        // For now we compress on every request
+        KMLDocumentCache.Key cacheKey = null;
+        byte[] document = null;
+        long cacheGeneration = 0;
+        if (isCacheable(tile)) {
+            cacheKey = cacheKey(tile, tile.getGridSubset().getSubGrid(tile.getTileIndex()));
+            cacheGeneration = documentCache.generation(tileLayer.getName());
+            document = documentCache.get(cacheKey, tileLayer);
+        }
 
-        // Did we get lucky?
-        // TODO need to look into expiration here
-        // if(tile.retrieve(-1)) {
-        // writeResponse(tile,true);
-        // return;
-        // }
+        if (document == null) {
+            if (!packageData) {
+                document = createOverlay(tile, false).getBytes();
+            } else {
+                document = createPackage(tile);
+            }
+            if (cacheKey != null) {
+                documentCache.put(cacheKey, tileLayer, document, cacheGeneration);
+            }
+        }
 
-        // Sigh....
-        if (!packageData) {
-            String overlayXml = createOverlay(tile, false);
-            tile.setBlob(new ByteArrayResource(overlayXml.getBytes()));
-            tile.setStatus(200);
-            // tileLayer.putTile(tile);
-        } else {
-            // Get the overlay
-            String overlayXml = createOverlay(tile, true);
+        tile.setBlob(new ByteArrayResource(document));
+        tile.setStatus(200);
 
-            // Get the data (cheat)
-            try {
-                tile.setWrapperMimeType(null);
-                try {
-                    tileLayer.getTile(tile);
-                } catch (OutsideCoverageException oce) {
-                    log.log(
-                            Level.SEVERE,
-                            "Out of bounds: "
-                                    + Arrays.toString(tile.getTileIndex())
-                                    + " should never habe been linked to.");
-                    throw oce;
-                }
-                tile.setWrapperMimeType(XMLMime.kmz);
-            } catch (IOException ioe) {
-                log.log(Level.SEVERE, ioe.getMessage(), ioe);
-                throw new ServiceException(ioe.getMessage());
-            }
+        String mimeStr = getMimeTypeOverride(tile);
 
-            byte[] zip = KMZHelper.createZippedKML(
-                    gridLocString(tile.getTileIndex()),
-                    tile.getMimeType().getFileExtension(),
-                    overlayXml.getBytes(),
-                    tile.getBlob());
+        writeTileResponse(tile, true, stats, mimeStr);
+    }
+
+    /** Zips the overlay along with the tile data */
+    private byte[] createPackage(ConveyorKMLTile tile) throws GeoWebCacheException {
+        TileLayer tileLayer = tile.getLayer();
 
-            tile.setBlob(new ByteArrayResource(zip));
-            tile.setStatus(200);
-            // tileLayer.putTile(tile);
+        // Get the overlay
+        String overlayXml = createOverlay(tile, true);
 
+        // Get the data (cheat)
+        try {
+            tile.setWrapperMimeType(null);
+            try {
+                tileLayer.getTile(tile);
+            } catch (OutsideCoverageException oce) {
+                log.log(
+                        Level.SEVERE,
+                        "Out of bounds: "
+                                + Arrays.toString(tile.getTileIndex())
+                                + " should never habe been linked to.");
+                throw oce;
+            }
+            tile.setWrapperMimeType(XMLMime.kmz);
+        } catch (IOException ioe) {
+            log.log(Level.SEVERE, ioe.getMessage(), ioe);
+            throw new ServiceException(ioe.getMessage());
         }
 
-        String mimeStr = getMimeTypeOverride(tile);
+        return KMZHelper.createZippedKML(
+                gridLocString(tile.getTileIndex()),
+                tile.getMimeType().getFileExtension(),
+                overlayXml.getBytes(),
+                tile.getBlob());
+    }
 
-        writeTileResponse(tile, true, stats, mimeStr);
+    /**
+     * Documents listing links are cached only when security is disabled, as the linked tiles are filtered by the
+     * access rules of the requesting user
+     */
+    private boolean isCacheable(ConveyorKMLTile tile) {
+        return documentCache != null
+                && tile.getHint() != HINT_DEBUGGRID
+                && (getSecurityDispatcher() == null || !getSecurityDispatcher().isSecurityEnabled());
+    }
+
+    private KMLDocumentCache.Key cacheKey(ConveyorKMLTile tile, long[][] links) {
+        MimeType wrapper = tile.getWrapperMimeType();
+        return new KMLDocumentCache.Key(
+                tile.getLayerId(),
+                tile.getGridSetId(),
+                tile.getTileIndex(),
+                tile.getMimeType().getFormat(),
+                wrapper == null ? null : wrapper.getFormat(),
+                tile.getUrlPrefix(),
+                links);
     }
 
     private String getMimeTypeOverride(ConveyorKMLTile tile) {
@@ -742,6 +787,24 @@ private static double distance(double[] p1, double[] p2) {
         return Math.sqrt(dx * dx + dy * dy + dz * dz);
     }
 
+    /**
+     * Sets the maximum total size, in bytes, of the cached super-overlays, overlays and KMZ archives, {@code 0} building
+     * them on every request
+     */
+    public void setDocumentCacheSize(long documentCacheSize) {
+        if (documentCache != null) {
+            sb.removeBlobStoreListener(documentCache);
+            tld.removeLayerChangeListener(documentCache);
+            documentCache = null;
+        }
+        if (documentCacheSize > 0) {
+            KMLDocumentCache cache = new KMLDocumentCache(documentCacheSize);
+            sb.addBlobStoreListener(cache);
+            tld.addLayerChangeListener(cache);
+            documentCache = cache;
+        }
+    }
+
     public void setSecurityDispatcher(SecurityDispatcher secDispatcher) {
         this.secDispatcher = secDispatcher;
     }
@@ -0,0 +1,67 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.service.kml;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.geowebcache.layer.TileLayer;
+import org.junit.Test;
+
+public class KMLDocumentCacheTest {
+
+    private static final long[][] LINKS = {{4, 6, 3}, {5, 6, 3}, {4, 7, 3}, {-1, -1, -1}};
+
+    private static KMLDocumentCache.Key key(String layer, String wrapper) {
+        return new KMLDocumentCache.Key(
+                layer, "EPSG:4326", new long[] {2, 3, 2}, "image/png", wrapper, "http://localhost/kml/", LINKS);
+    }
+
+    @Test
+    public void testKeyDependencies() {
+        KMLDocumentCache.Key key = key("a", "application/vnd.google-earth.kmz");
+
+        // the packaged tile
+        assertTrue(key.dependsOn(null, new long[] {2, 3, 2, 3, 2}));
+        // a linked tile, whatever the parameters
+        assertTrue(key.dependsOn("p1", new long[] {5, 6, 5, 6, 3}));
+        // truncation
+        assertTrue(key.dependsOn(null, new long[] {0, 0, 10, 10, 3}));
+        // tiles neither packaged nor linked
+        assertFalse(key.dependsOn(null, new long[] {3, 3, 3, 3, 2}));
+        assertFalse(key.dependsOn(null, new long[] {5, 7, 5, 7, 3}));
+        assertFalse(key.dependsOn(null, new long[] {4, 6, 4, 6, 4}));
+
+        assertFalse(key.dependsOn("p1"));
+    }
+
+    @Test
+    public void testWrapperFormats() {
+        KMLDocumentCache cache = new KMLDocumentCache(1024 * 1024);
+        TileLayer layer = createNiceMock(TileLayer.class);
+        byte[] kml = {1, 2, 3};
+        byte[] kmz = {4, 5, 6};
+
+        cache.put(key("a", "application/vnd.google-earth.kml+xml"), layer, kml, cache.generation("a"));
+        cache.put(key("a", "application/vnd.google-earth.kmz"), layer, kmz, cache.generation("a"));
+        assertArrayEquals(kml, cache.get(key("a", "application/vnd.google-earth.kml+xml"), layer));
+        assertArrayEquals(kmz, cache.get(key("a", "application/vnd.google-earth.kmz"), layer));
+
+        cache.tileDeleted("a", "EPSG:4326", "image/png", null, 4, 7, 3, 10);
+        assertEquals(0, cache.size());
+    }
+}
@@ -62,6 +62,14 @@
 
     private final WebApplicationContext context;
 
+    // XStream instances are thread safe once configured, so they're built once and reused, except for the ones
+    // writing XStreamListAliasWrapper objects, which need the wrapper aliases and converter
+    private volatile XStream xmlReader;
+
+    private volatile XStream xmlWriter;
+
+    private volatile XStream jsonWriter;
+
     public final List<Class> supportedClasses = Collections.unmodifiableList(
             Arrays.asList(BlobStoreInfo.class, GridSet.class, TileLayer.class, ServerConfigurationPOJO.class));
 
@@ -81,6 +89,35 @@ private XStream configureXStream(XStream xs) {
         return xs;
     }
 
+    private XStream configureRestXStream(XStream xs) {
+        return configureXStream(XMLConfiguration.getConfiguredXStreamWithContext(
+                xs, context, ContextualConfigurationProvider.Context.REST));
+    }
+
+    private XStream getXmlReader() {
+        XStream xs = xmlReader;
+        if (xs == null) {
+            xs = xmlReader = configureRestXStream(new GeoWebCacheXStream(new DomDriver()));
+        }
+        return xs;
+    }
+
+    private XStream getXmlWriter() {
+        XStream xs = xmlWriter;
+        if (xs == null) {
+            xs = xmlWriter = configureRestXStream(new GeoWebCacheXStream());
+        }
+        return xs;
+    }
+
+    private XStream getJsonWriter() {
+        XStream xs = jsonWriter;
+        if (xs == null) {
+            xs = jsonWriter = configureRestXStream(new GeoWebCacheXStream(new JsonHierarchicalStreamDriver()));
+        }
+        return xs;
+    }
+
     @Override
     protected boolean supports(Class<?> clazz) {
         for (Class<?> supportedClass : supportedClasses) {
@@ -97,8 +134,7 @@ protected T readInternal(Class<? extends T> clazz, HttpInputMessage httpInputMes
             throws IOException, HttpMessageNotReadableException {
         MediaType contentType = httpInputMessage.getHeaders().getContentType();
 
-        XStream xs = configureXStream(XMLConfiguration.getConfiguredXStreamWithContext(
-                new GeoWebCacheXStream(new DomDriver()), context, ContextualConfigurationProvider.Context.REST));
+        XStream xs = getXmlReader();
 
         T object;
         try {
@@ -147,28 +183,28 @@ protected void writeInternal(T object, HttpOutputMessage httpOutputMessage)
         try (OutputStreamWriter outputWriter = new OutputStreamWriter(httpOutputMessage.getBody())) {
             if (MediaType.APPLICATION_XML.isCompatibleWith(contentType)
                     || MediaType.TEXT_XML.isCompatibleWith(contentType)) {
-                XStream xs = new GeoWebCacheXStream();
+                XStream xs;
                 Object xsObject = object;
 
                 if (object instanceof XStreamListAliasWrapper) {
                     final XStreamListAliasWrapper wrapper = ((XStreamListAliasWrapper) object);
                     xsObject = wrapper.object;
+                    xs = new GeoWebCacheXStream();
                     xs.alias(wrapper.alias + "s", wrapper.collectionClass);
                     xs.registerConverter(wrapper.createConverter());
-                } else if (object instanceof GridSet) {
-                    xsObject = new XMLGridSet((GridSet) object);
+                    xs = configureRestXStream(xs);
+                } else {
+                    if (object instanceof GridSet) {
+                        xsObject = new XMLGridSet((GridSet) object);
+                    }
+                    xs = getXmlWriter();
                 }
 
-                xs = configureXStream(XMLConfiguration.getConfiguredXStreamWithContext(
-                        xs, context, ContextualConfigurationProvider.Context.REST));
                 String xmlText = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" + xs.toXML(xsObject);
 
                 outputWriter.write(xmlText);
             } else if (MediaType.APPLICATION_JSON.isCompatibleWith(contentType)) {
-                XStream xs = configureXStream(XMLConfiguration.getConfiguredXStreamWithContext(
-                        new GeoWebCacheXStream(new JsonHierarchicalStreamDriver()),
-                        context,
-                        ContextualConfigurationProvider.Context.REST));
+                XStream xs = getJsonWriter();
                 Object jsonObject;
                 if (object instanceof XStreamListAliasWrapper) {
                     jsonObject = new JSONArray(((XStreamListAliasWrapper) object).object);
@@ -25,6 +25,7 @@
 import org.geowebcache.mime.MimeException;
 import org.geowebcache.mime.MimeType;
 import org.geowebcache.storage.BlobStoreListenerList;
+import org.geowebcache.storage.TileDeletionBatch;
 import org.geowebcache.util.TMSKeyBuilder;
 
 /**
@@ -73,6 +74,9 @@ public void accept(List<S3ObjectSummary> tileObjectList) {
         // All the S3Objects are from the same layer
         String layerName = null;
         long count = 0;
+        // consecutive tiles of the same tile set are reported as aggregate deletions to the listeners supporting them
+        TileDeletionBatch batch = null;
+        String batchKey = null;
         for (S3ObjectSummary s3ObjectSummary : tileObjectList) {
             Matcher matcher = keyRegex.matcher(s3ObjectSummary.getKey());
             if (matcher.matches()) {
@@ -103,12 +107,24 @@ public void accept(List<S3ObjectSummary> tileObjectList) {
                     continue;
                 }
 
-                listenerList.sendTileDeleted(
-                        layerName, gridSetId, mimeType.getMimeType(), parametersId, x, y, z, s3ObjectSummary.getSize());
+                String tileSetKey = gridSetId + "/" + extension + "/" + parametersId;
+                if (!tileSetKey.equals(batchKey)) {
+                    if (batch != null) {
+                        batch.flush();
+                    }
+                    batch = listenerList.newTileDeletionBatch(
+                            layerName, gridSetId, mimeType.getMimeType(), parametersId);
+                    batchKey = tileSetKey;
+                }
+                batch.tileDeleted(x, y, z, s3ObjectSummary.getSize());
+                count++;
             } else {
                 logger.warning("Key is in an invalid format " + s3ObjectSummary.getKey());
             }
         }
+        if (batch != null) {
+            batch.flush();
+        }
         logger.fine("Notified " + count + " tiles successfully deleted from a batch of " + tileObjectList.size());
     }
 
@@ -152,7 +152,8 @@ public void put(TileObject tile) throws StorageException {
             MBTilesFile mbtiles = GeoToolsMbtilesUtils.getMBTilesFile(connection, file);
             MBTilesTile gtTile = new MBTilesTile(tile.getXYZ()[2], tile.getXYZ()[0], tile.getXYZ()[1]);
             try {
-                final boolean gzipped = tileIsGzipped(tile);
+                // tiles compressed by the storage broker are stored as they are
+                final boolean gzipped = tileIsGzipped(tile) && tile.getContentEncoding() == null;
 
                 byte[] bytes;
                 if (gzipped) {
@@ -26,6 +26,7 @@
 import org.geowebcache.layer.TileLayerDispatcher;
 import org.geowebcache.layer.meta.LayerMetaInformation;
 import org.geowebcache.mime.MimeType;
+import org.geowebcache.service.CapabilitiesCache;
 import org.geowebcache.util.URLMangler;
 
 /**
@@ -52,6 +53,8 @@ public class TMSDocumentFactory {
 
     public static final String SERVICE_PATH = "service/" + TILEMAPSERVICE_LEADINGPATH;
 
+    private final CapabilitiesCache<String> capabilitiesCache = new CapabilitiesCache<>();
+
     protected TMSDocumentFactory(
             TileLayerDispatcher tld, GridSetBroker gsb, URLMangler urlMangler, String serviceName, Charset encoding) {
         this.tld = tld;
@@ -123,12 +126,17 @@ protected String getTileMapServiceDoc(String baseUrl, String contextPath) {
             // <ContactElectronicMailAddress>pramsey@refractions.net</ContactElectronicMailAddress>
             // </ContactInformation>
             xml.indentElement("TileMaps");
+            final String cacheContext = baseUrl + "\n" + contextPath;
             Iterable<TileLayer> iter = tld.getLayerListFiltered();
             for (TileLayer layer : iter) {
                 if (!layer.isEnabled() || !layer.isAdvertised()) {
                     continue;
                 }
-                tileMapsForLayer(xml, layer, baseUrl, contextPath);
+                xml.appendFragment(capabilitiesCache.getLayerFragment(layer, cacheContext, () -> {
+                    StringBuilder fragment = new StringBuilder();
+                    tileMapsForLayer(xml.fragment(fragment), layer, baseUrl, contextPath);
+                    return fragment.toString();
+                }));
             }
             xml.endElement();
             xml.endElement();
@@ -140,6 +148,14 @@ protected String getTileMapServiceDoc(String baseUrl, String contextPath) {
         }
     }
 
+    /**
+     * @return the cache of the layers {@code TileMap} elements of the TileMapService document, to be invalidated on
+     *     layer changes
+     */
+    protected CapabilitiesCache<String> getCapabilitiesCache() {
+        return capabilitiesCache;
+    }
+
     protected void tileMapsForLayer(XMLBuilder xml, TileLayer layer, String baseUrl, String contextPath)
             throws IOException {
         for (String gridSetId : layer.getGridSubsets()) {
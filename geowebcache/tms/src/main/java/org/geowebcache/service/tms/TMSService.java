@@ -14,8 +14,6 @@
 package org.geowebcache.service.tms;
 
 import java.io.IOException;
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Map;
@@ -35,6 +33,7 @@
 import org.geowebcache.layer.TileLayerDispatcher;
 import org.geowebcache.mime.MimeException;
 import org.geowebcache.mime.MimeType;
+import org.geowebcache.service.CapabilitiesCache;
 import org.geowebcache.service.HttpErrorCodeException;
 import org.geowebcache.service.Service;
 import org.geowebcache.service.ServiceException;
@@ -86,6 +85,7 @@ public TMSService(
             throw new IllegalArgumentException("Specified TMSFactory should not be null ");
         }
         this.tld = tmsFactory.tld;
+        tld.addLayerChangeListener(tmsFactory.getCapabilitiesCache());
     }
 
     public TMSService(StorageBroker sb, TileLayerDispatcher tld, GridSetBroker gsb, RuntimeStats stats) {
@@ -226,7 +226,6 @@ public void handleRequest(Conveyor conv) throws GeoWebCacheException {
         String context =
                 ServletUtils.getServletContextPath(conv.servletReq, TMSDocumentFactory.SERVICE_PATH, servletPrefix);
 
-        final Charset encoding = StandardCharsets.UTF_8;
         String ret = null;
 
         if (paramsLength < 2) {
@@ -249,14 +248,11 @@ public void handleRequest(Conveyor conv) throws GeoWebCacheException {
             ret = tmsFactory.getTileMapDoc(tl, gridSub, mimeType, servletBase, context);
         }
 
-        byte[] data = ret.getBytes(encoding);
-        stats.log(data.length, CacheResult.OTHER);
-
-        conv.servletResp.setStatus(200);
+        CapabilitiesCache.Document document = new CapabilitiesCache.Document(ret);
         conv.servletResp.setContentType("text/xml");
         conv.servletResp.setHeader("content-disposition", "inline;filename=tms-getcapabilities.xml");
         try {
-            conv.servletResp.getOutputStream().write(data);
+            stats.log(document.write(conv.servletReq, conv.servletResp), CacheResult.OTHER);
         } catch (IOException e) {
             // TODO log error
         }
@@ -16,6 +16,7 @@
 import java.util.Map;
 import java.util.regex.Pattern;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import org.apache.commons.lang3.StringUtils;
 import org.custommonkey.xmlunit.XMLUnit;
 import org.custommonkey.xmlunit.XpathEngine;
@@ -289,6 +290,37 @@ public void testTileMapServiceDocument() throws Exception {
                 "0", xpath.evaluate("count(//TileMap[@title='mockLayer'][contains(@href,'jpeg-png')])", doc));
     }
 
+    @Test
+    public void testTileMapServiceDocumentNotModified() throws Exception {
+        service = new TMSService(sb, tld, gridsetBroker, mock(RuntimeStats.class));
+
+        HttpServletRequest req = mock(HttpServletRequest.class);
+        when(req.getCharacterEncoding()).thenReturn("UTF-8");
+        when(req.getPathInfo()).thenReturn("/service/tms/1.0.0");
+        when(req.getRequestURI()).thenReturn("/mycontext/service/tms/1.0.0");
+        when(req.getScheme()).thenReturn("http");
+        when(req.getServerName()).thenReturn("localhost");
+        when(req.getServerPort()).thenReturn(8080);
+        when(req.getContextPath()).thenReturn("/mycontext");
+        when(req.getRequestURL()).thenReturn(new StringBuffer("http://localhost:8080/mycontext/service/tms/1.0.0"));
+        List<String> gridSetNames = Arrays.asList("EPSG:4326");
+        TileLayer tileLayer = mockTileLayer(tld, gridsetBroker, "mockLayer", gridSetNames, Collections.emptyList());
+        when(tld.getLayerList()).thenReturn(Arrays.asList(tileLayer));
+        when(tld.getLayerListFiltered()).thenReturn(Arrays.asList(tileLayer));
+
+        MockHttpServletResponse resp = new MockHttpServletResponse();
+        service.handleRequest(service.getConveyor(req, resp));
+        String eTag = resp.getHeader("ETag");
+        Assert.assertNotNull(eTag);
+        Assert.assertTrue(resp.getContentAsString().contains("mockLayer"));
+
+        when(req.getHeader("If-None-Match")).thenReturn(eTag);
+        resp = new MockHttpServletResponse();
+        service.handleRequest(service.getConveyor(req, resp));
+        Assert.assertEquals(HttpServletResponse.SC_NOT_MODIFIED, resp.getStatus());
+        Assert.assertEquals(0, resp.getContentAsByteArray().length);
+    }
+
     @Test
     public void testTMSDocumentsWithCustomFactory() throws Exception {
 
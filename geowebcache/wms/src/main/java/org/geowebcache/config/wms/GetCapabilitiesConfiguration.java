@@ -49,7 +49,9 @@
 import org.geowebcache.config.ConfigurationException;
 import org.geowebcache.config.DefaultingConfiguration;
 import org.geowebcache.config.GridSetConfiguration;
+import org.geowebcache.config.ListenerCollection;
 import org.geowebcache.config.TileLayerConfiguration;
+import org.geowebcache.config.TileLayerConfigurationListener;
 import org.geowebcache.config.legends.LegendRawInfo;
 import org.geowebcache.config.legends.LegendsRawInfo;
 import org.geowebcache.config.wms.parameters.NaiveWMSDimensionFilter;
@@ -105,6 +107,8 @@ public class GetCapabilitiesConfiguration implements TileLayerConfiguration, Gri
 
     private Map<String, GridSet> generatedGridSets = new HashMap<>();
 
+    private ListenerCollection<TileLayerConfigurationListener> layerListeners = new ListenerCollection<>();
+
     public GetCapabilitiesConfiguration(
             GridSetBroker gridSetBroker, String url, String mimeTypes, String metaTiling, String allowCacheBypass) {
         this.gridSetBroker = gridSetBroker;
@@ -545,6 +549,7 @@ public void afterPropertiesSet() throws GeoWebCacheException {
                     .collect(Collectors.toMap(GridSet::getName, UnaryOperator.identity()));
             generatedGridSets.putAll(generatedForLayer);
         }
+        notifyLayerListeners(TileLayerConfigurationListener::handleReload);
     }
 
     /** @see TileLayerConfiguration#getLayers() */
@@ -562,7 +567,7 @@ public Set<String> getLayerNames() {
     /** @see TileLayerConfiguration#containsLayer(java.lang.String) */
     @Override
     public boolean containsLayer(String layerName) {
-        return getLayer(layerName) != null;
+        return getLayer(layerName).isPresent();
     }
 
     /** @see TileLayerConfiguration#getTileLayer(java.lang.String) */
@@ -584,6 +589,7 @@ public void removeLayer(String layerName) throws NoSuchElementException {
         if (layers.remove(layerName) == null) {
             throw new NoSuchElementException("Layer " + layerName + " does not exist");
         }
+        notifyLayerListeners(listener -> listener.handleRemoveLayer(layerName));
     }
 
     /** @see TileLayerConfiguration#modifyLayer(org.geowebcache.layer.TileLayer) */
@@ -686,5 +692,25 @@ public void setGridSetBroker(@Qualifier("gwcGridSetBroker") GridSetBroker broker
     public void deinitialize() throws Exception {
         this.generatedGridSets.clear();
         this.layers.clear();
+        notifyLayerListeners(TileLayerConfigurationListener::handleReload);
+    }
+
+    @Override
+    public boolean addLayerListener(TileLayerConfigurationListener listener) {
+        layerListeners.add(listener);
+        return true;
+    }
+
+    @Override
+    public void removeLayerListener(TileLayerConfigurationListener listener) {
+        layerListeners.remove(listener);
+    }
+
+    private void notifyLayerListeners(ListenerCollection.HandlerMethod<TileLayerConfigurationListener> method) {
+        try {
+            layerListeners.safeForEach(method);
+        } catch (IOException | GeoWebCacheException | RuntimeException e) {
+            log.log(Level.WARNING, "Exception while handling layer listeners of " + getIdentifier(), e);
+        }
     }
 }
@@ -99,62 +99,74 @@ public void encode(
         if (disablePNG) {
             super.encode(image, destination, aggressiveOutputStreamOptimization, type, map);
         } else {
-            // Creation of the associated Writer
-            PNGWriter writer = new PNGWriter();
-            OutputStream stream = null;
-            try { // NOPMD stream not instantiated here
-                // Check if the input object is an OutputStream
-                if (destination instanceof OutputStream) {
-                    boolean isScanlinePresent = writer.isScanlineSupported(image);
-                    if (!isScanlinePresent) {
-                        image = new ImageWorker(image)
-                                .rescaleToBytes()
-                                .forceComponentColorModel()
-                                .getRenderedImage();
-                    }
-                    Object filterObj = null;
-                    if (map != null) {
-                        filterObj = map.get(FILTER_TYPE);
-                    }
-                    FilterType filter = null;
-                    if (filterObj == null || !(filterObj instanceof FilterType)) {
-                        filter = FilterType.FILTER_NONE;
-                    } else {
-                        filter = (FilterType) filterObj;
-                    }
-                    stream = (OutputStream) destination;
+            writePNG(image, destination, type, map, true);
+        }
+    }
 
-                    // Image preparation if an image helper is present
-                    WriteHelper helper = getHelper();
-                    RenderedImage finalImage = image;
-                    if (helper != null) {
-                        finalImage = helper.prepareImage(image, type);
-                    }
-                    // Image writing
-                    writer.writePNG(finalImage, stream, quality, filter);
+    /**
+     * Writes the image with the new PNGWriter
+     *
+     * @param prepare whether the image still has to go through the {@link WriteHelper}, {@code false} if it was
+     *     already prepared
+     */
+    protected void writePNG(RenderedImage image, Object destination, MimeType type, Map<String, ?> map, boolean prepare)
+            throws Exception {
+        // Creation of the associated Writer
+        PNGWriter writer = new PNGWriter();
+        OutputStream stream = null;
+        try { // NOPMD stream not instantiated here
+            // Check if the input object is an OutputStream
+            if (destination instanceof OutputStream) {
+                boolean isScanlinePresent = writer.isScanlineSupported(image);
+                if (!isScanlinePresent) {
+                    image = new ImageWorker(image)
+                            .rescaleToBytes()
+                            .forceComponentColorModel()
+                            .getRenderedImage();
+                }
+                Object filterObj = null;
+                if (map != null) {
+                    filterObj = map.get(FILTER_TYPE);
+                }
+                FilterType filter = null;
+                if (filterObj == null || !(filterObj instanceof FilterType)) {
+                    filter = FilterType.FILTER_NONE;
                 } else {
-                    throw new IllegalArgumentException("Only an OutputStream can be provided to the PNGEncoder");
+                    filter = (FilterType) filterObj;
                 }
-            } catch (Exception e) {
-                LOGGER.log(Level.SEVERE, e.getMessage(), e);
-                throw e;
-            } finally {
-                // Writer disposal
-                if (writer != null) {
-                    writer = null;
+                stream = (OutputStream) destination;
+
+                // Image preparation if an image helper is present
+                WriteHelper helper = getHelper();
+                RenderedImage finalImage = image;
+                if (prepare && helper != null) {
+                    finalImage = helper.prepareImage(image, type);
                 }
-                // Stream closure
-                if (stream != null) {
-                    try {
-                        stream.close();
-                    } catch (IOException e) {
-                        LOGGER.log(Level.SEVERE, e.getMessage(), e);
-                    }
-                    stream = null;
+                // Image writing
+                writer.writePNG(finalImage, stream, quality, filter);
+            } else {
+                throw new IllegalArgumentException("Only an OutputStream can be provided to the PNGEncoder");
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, e.getMessage(), e);
+            throw e;
+        } finally {
+            // Writer disposal
+            if (writer != null) {
+                writer = null;
+            }
+            // Stream closure
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (IOException e) {
+                    LOGGER.log(Level.SEVERE, e.getMessage(), e);
                 }
+                stream = null;
             }
         }
     }
+
     /** Boolean indicating if the new PNG encoder is disabled */
     public boolean isDisablePNG() {
         return disablePNG;
@@ -0,0 +1,156 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.io.codec;
+
+import ar.com.hjg.pngj.FilterType;
+import java.awt.image.RenderedImage;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.mime.MimeType;
+import org.geowebcache.mime.PNGRasterEncoder;
+
+/**
+ * Subclass of the {@link PNGImageEncoder} writing the PNG straight from the image raster with a
+ * {@link PNGRasterEncoder}, without going through the ImageIO machinery. Images the raster encoder cannot handle are
+ * written by the {@link PNGImageEncoder}, as are all the images when {@link #isDisablePNG() disablePNG} is set.
+ */
+public class PNGRasterImageEncoder extends PNGImageEncoder {
+    /** Filter type associated string */
+    private static final String FILTER_TYPE = "filterType";
+    /** Logger used */
+    private static final Logger LOGGER = Logging.getLogger(PNGRasterImageEncoder.class.getName());
+
+    private int compressionLevel = PNGRasterEncoder.DEFAULT_COMPRESSION_LEVEL;
+
+    private PNGRasterEncoder.Filter filter = PNGRasterEncoder.Filter.ADAPTIVE;
+
+    private int deflateThreads = 1;
+
+    private volatile PNGRasterEncoder encoder;
+
+    public PNGRasterImageEncoder(
+            boolean aggressiveOutputStreamOptimization,
+            Float quality,
+            List<String> writerSpi,
+            Map<String, String> inputParams,
+            boolean disablePNG,
+            ImageIOInitializer initializer) {
+        super(aggressiveOutputStreamOptimization, quality, writerSpi, inputParams, disablePNG, initializer);
+    }
+
+    @Override
+    public void encode(
+            RenderedImage image,
+            Object destination,
+            boolean aggressiveOutputStreamOptimization,
+            MimeType type,
+            Map<String, ?> map)
+            throws Exception {
+        // the ImageIO writers are used when the new PNG writers are disabled
+        if (isDisablePNG()
+                || !(destination instanceof OutputStream)
+                || aggressiveOutputStreamOptimization && !isAggressiveOutputStreamSupported()) {
+            super.encode(image, destination, aggressiveOutputStreamOptimization, type, map);
+            return;
+        }
+        // Image preparation if an image helper is present
+        WriteHelper helper = getHelper();
+        RenderedImage finalImage = helper != null ? helper.prepareImage(image, type) : image;
+        if (!PNGRasterEncoder.isSupported(finalImage)) {
+            writePNG(finalImage, destination, type, map, false);
+            return;
+        }
+        try (OutputStream stream = (OutputStream) destination) {
+            getEncoder().encode(finalImage, stream, getFilter(map));
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /** Maps the pngj filter type possibly found in the encoding parameters to the raster encoder one */
+    PNGRasterEncoder.Filter getFilter(Map<String, ?> map) {
+        Object filterObj = map != null ? map.get(FILTER_TYPE) : null;
+        if (!(filterObj instanceof FilterType)) {
+            return filter;
+        }
+        switch ((FilterType) filterObj) {
+            case FILTER_NONE:
+                return PNGRasterEncoder.Filter.NONE;
+            case FILTER_SUB:
+                return PNGRasterEncoder.Filter.SUB;
+            case FILTER_UP:
+                return PNGRasterEncoder.Filter.UP;
+            case FILTER_AVERAGE:
+                return PNGRasterEncoder.Filter.AVERAGE;
+            case FILTER_PAETH:
+                return PNGRasterEncoder.Filter.PAETH;
+            default:
+                return PNGRasterEncoder.Filter.ADAPTIVE;
+        }
+    }
+
+    private PNGRasterEncoder getEncoder() {
+        PNGRasterEncoder result = encoder;
+        if (result == null) {
+            synchronized (this) {
+                result = encoder;
+                if (result == null) {
+                    result = new PNGRasterEncoder(compressionLevel, filter, deflateThreads);
+                    encoder = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /** The deflate level, from 0 (no compression) to 9 (best compression) */
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public void setCompressionLevel(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
+    /** The filter used when the encoding parameters do not ask for a specific one */
+    public PNGRasterEncoder.Filter getFilter() {
+        return filter;
+    }
+
+    public void setFilter(PNGRasterEncoder.Filter filter) {
+        this.filter = filter;
+    }
+
+    /** The number of threads deflating the large images in parallel, 1 to deflate them in the calling thread */
+    public int getDeflateThreads() {
+        return deflateThreads;
+    }
+
+    public void setDeflateThreads(int deflateThreads) {
+        this.deflateThreads = deflateThreads;
+    }
+
+    /** Releases the deflater threads and the pooled deflaters */
+    public synchronized void destroy() {
+        if (encoder != null) {
+            encoder.dispose();
+            encoder = null;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.service.wms;
+
+import java.awt.RenderingHints;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import org.geowebcache.filter.parameters.ParametersUtils;
+import org.geowebcache.grid.BoundingBox;
+import org.geowebcache.service.TileDependentCache;
+
+/**
+ * Caches the encoded output of recombined WMS GetMap requests, so that clients asking over and over for the same map
+ * (e.g., a fixed size overview, or a web page embedding a static map) don't get the source tiles decoded, drawn,
+ * scaled and encoded again on each request.
+ *
+ * <p>Images are keyed by layer, gridset, source and output formats, request size, bounding box, filtering parameters
+ * and rendering hints. The bounding box is normalized to thousandths of an output pixel, so that requests differing
+ * only by floating point noise share the same image. An image is dropped as soon as any of its source tiles changes.
+ */
+public class FusedImageCache extends TileDependentCache<FusedImageCache.Key> {
+
+    /** Normalized bounding box units per output pixel */
+    static final int PIXEL_FRACTIONS = 1000;
+
+    /** @param maxBytes the maximum total size of the cached images */
+    public FusedImageCache(long maxBytes) {
+        super(maxBytes);
+    }
+
+    /**
+     * Creates the key of a recombined request
+     *
+     * @param layerName the requested layer
+     * @param gridSetId the gridset the source tiles are taken from
+     * @param sourceFormat the format name of the source tiles
+     * @param outputFormat the format name of the response
+     * @param bbox the requested bounding box
+     * @param width the requested width
+     * @param height the requested height
+     * @param parameters the filtering parameters
+     * @param hints the rendering hints, may be {@code null}
+     * @param sourceRange {@code [minx, miny, maxx, maxy, z]} inclusive range of the source tiles
+     */
+    public static Key key(
+            String layerName,
+            String gridSetId,
+            String sourceFormat,
+            String outputFormat,
+            BoundingBox bbox,
+            int width,
+            int height,
+            Map<String, String> parameters,
+            RenderingHints hints,
+            long[] sourceRange) {
+        return new Key(
+                layerName,
+                gridSetId,
+                sourceFormat,
+                outputFormat,
+                normalize(bbox, width, height),
+                width,
+                height,
+                parameters,
+                hints,
+                sourceRange);
+    }
+
+    /** Expresses the bounding box in {@link #PIXEL_FRACTIONS fractions} of the output pixels */
+    static long[] normalize(BoundingBox bbox, int width, int height) {
+        double xRes = bbox.getWidth() / width / PIXEL_FRACTIONS;
+        double yRes = bbox.getHeight() / height / PIXEL_FRACTIONS;
+        return new long[] {
+            Math.round(bbox.getMinX() / xRes),
+            Math.round(bbox.getMinY() / yRes),
+            Math.round(bbox.getMaxX() / xRes),
+            Math.round(bbox.getMaxY() / yRes)
+        };
+    }
+
+    /** Identifies a recombined request, see {@link FusedImageCache#key} */
+    public static class Key extends TileDependentCache.Key {
+
+        final String outputFormat;
+
+        final long[] bbox;
+
+        final int width;
+
+        final int height;
+
+        final Map<String, String> parameters;
+
+        final String parametersId;
+
+        final RenderingHints hints;
+
+        final long[] sourceRange;
+
+        private final int hashCode;
+
+        Key(
+                String layerName,
+                String gridSetId,
+                String sourceFormat,
+                String outputFormat,
+                long[] bbox,
+                int width,
+                int height,
+                Map<String, String> parameters,
+                RenderingHints hints,
+                long[] sourceRange) {
+            super(layerName, gridSetId, sourceFormat);
+            this.outputFormat = outputFormat;
+            this.bbox = bbox;
+            this.width = width;
+            this.height = height;
+            this.parameters = parameters == null ? new TreeMap<>() : new TreeMap<>(parameters);
+            this.parametersId = ParametersUtils.getId(this.parameters);
+            this.hints = hints;
+            this.sourceRange = sourceRange.clone();
+            this.hashCode = Objects.hash(
+                    layerName, gridSetId, outputFormat, Arrays.hashCode(bbox), width, height, this.parameters);
+        }
+
+        @Override
+        protected boolean dependsOn(String parametersId, long[] range) {
+            return dependsOn(parametersId)
+                    && range[4] == sourceRange[4]
+                    && range[0] <= sourceRange[2]
+                    && range[2] >= sourceRange[0]
+                    && range[1] <= sourceRange[3]
+                    && range[3] >= sourceRange[1];
+        }
+
+        @Override
+        protected boolean dependsOn(String parametersId) {
+            return Objects.equals(this.parametersId, parametersId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return layerName.equals(other.layerName)
+                    && gridSetId.equals(other.gridSetId)
+                    && format.equals(other.format)
+                    && outputFormat.equals(other.outputFormat)
+                    && Arrays.equals(bbox, other.bbox)
+                    && width == other.width
+                    && height == other.height
+                    && parameters.equals(other.parameters)
+                    && Objects.equals(hints, other.hints)
+                    && Arrays.equals(sourceRange, other.sourceRange);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
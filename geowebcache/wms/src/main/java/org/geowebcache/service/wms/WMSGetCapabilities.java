@@ -17,7 +17,6 @@
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.io.IOException;
-import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -51,6 +50,8 @@
 import org.geowebcache.layer.meta.MetadataURL;
 import org.geowebcache.mime.ImageMime;
 import org.geowebcache.mime.MimeType;
+import org.geowebcache.service.CapabilitiesCache;
+import org.geowebcache.service.StreamingXMLResponse;
 import org.geowebcache.util.ServletUtils;
 import org.geowebcache.util.URLMangler;
 
@@ -64,13 +65,32 @@ public class WMSGetCapabilities {
 
     private boolean includeVendorSpecific = false;
 
+    private final HttpServletRequest servReq;
+
+    private final CapabilitiesCache<String> cache;
+
+    /** The context to cache the layers fragments with, or {@code null} to encode them on the spot */
+    private String cacheContext;
+
     protected WMSGetCapabilities(
             TileLayerDispatcher tld,
             HttpServletRequest servReq,
             String baseUrl,
             String contextPath,
             URLMangler urlMangler) {
+        this(tld, servReq, baseUrl, contextPath, urlMangler, null);
+    }
+
+    protected WMSGetCapabilities(
+            TileLayerDispatcher tld,
+            HttpServletRequest servReq,
+            String baseUrl,
+            String contextPath,
+            URLMangler urlMangler,
+            CapabilitiesCache<String> cache) {
         this.tld = tld;
+        this.servReq = servReq;
+        this.cache = cache;
 
         urlStr = urlMangler.buildURL(baseUrl, contextPath, WMSService.SERVICE_PATH) + "?SERVICE=WMS&";
 
@@ -84,51 +104,49 @@ protected WMSGetCapabilities(
     }
 
     protected void writeResponse(HttpServletResponse response) {
-
-        final Charset encoding = StandardCharsets.UTF_8;
-        byte[] data = generateGetCapabilities(encoding).getBytes(encoding);
+        if (cache != null && cache.isEnabled()) {
+            writeCachedResponse(response);
+            return;
+        }
 
         response.setStatus(HttpServletResponse.SC_OK);
         response.setContentType("application/vnd.ogc.wms_xml");
-        response.setCharacterEncoding(encoding.name());
-        response.setContentLength(data.length);
         response.setHeader("content-disposition", "inline;filename=wms-getcapabilities.xml");
 
-        try (OutputStream os = response.getOutputStream()) {
-            os.write(data);
-            os.flush();
+        try (StreamingXMLResponse out = StreamingXMLResponse.open(servReq, response)) {
+            writeGetCapabilities(out.getBuilder(), StandardCharsets.UTF_8);
         } catch (IOException ioe) {
             log.fine("Caught IOException" + ioe.getMessage());
         }
     }
 
-    String generateGetCapabilities(Charset encoding) {
-        StringBuilder str = new StringBuilder();
-        XMLBuilder xml = new XMLBuilder(str);
+    private void writeCachedResponse(HttpServletResponse response) {
+        List<TileLayer> layers = new ArrayList<>();
+        for (TileLayer layer : tld.getLayerListFiltered()) {
+            if (layer.isEnabled() && layer.isAdvertised()) {
+                layers.add(layer);
+            }
+        }
+        cacheContext = urlStr + "\n" + includeVendorSpecific;
 
+        response.setContentType("application/vnd.ogc.wms_xml");
+        response.setHeader("content-disposition", "inline;filename=wms-getcapabilities.xml");
         try {
-            xml.header("1.0", encoding);
-            xml.appendUnescaped(
-                    "<!DOCTYPE WMT_MS_Capabilities SYSTEM \"http://schemas.opengis.net/wms/1.1.1/capabilities_1_1_1.dtd\" ");
-            if (includeVendorSpecific) {
-                xml.appendUnescaped("[\n");
-                xml.appendUnescaped("<!ELEMENT VendorSpecificCapabilities (TileSet*) >\n");
-                xml.appendUnescaped(
-                        "<!ELEMENT TileSet (SRS, BoundingBox?, Resolutions, Width, Height, Format, Layers*, Styles*) >\n");
-                xml.appendUnescaped("<!ELEMENT Resolutions (#PCDATA) >\n");
-                xml.appendUnescaped("<!ELEMENT Width (#PCDATA) >\n");
-                xml.appendUnescaped("<!ELEMENT Height (#PCDATA) >\n");
-                xml.appendUnescaped("<!ELEMENT Layers (#PCDATA) >\n");
-                xml.appendUnescaped("<!ELEMENT Styles (#PCDATA) >\n");
-                xml.appendUnescaped("]");
-            }
-            xml.appendUnescaped(">\n");
-            xml.indentElement("WMT_MS_Capabilities").attribute("version", "1.1.1");
+            CapabilitiesCache.Document document = cache.getDocument(
+                    cacheContext,
+                    layers,
+                    Collections.singletonList(tld.getServiceInformation()),
+                    () -> generateGetCapabilities(StandardCharsets.UTF_8));
+            document.write(servReq, response);
+        } catch (IOException ioe) {
+            log.fine("Caught IOException" + ioe.getMessage());
+        }
+    }
 
-            // The actual meat
-            service(xml);
-            capability(xml);
-            xml.endElement();
+    String generateGetCapabilities(Charset encoding) {
+        StringBuilder str = new StringBuilder();
+        try {
+            writeGetCapabilities(new XMLBuilder(str), encoding);
         } catch (IOException e) {
             // Should not happen as StringBuilder doesn't throw IOException
             throw new IllegalStateException(e);
@@ -137,6 +155,32 @@ String generateGetCapabilities(Charset encoding) {
         return str.toString();
     }
 
+    /** Writes the capabilities document layer by layer, so that it can be streamed out */
+    private void writeGetCapabilities(XMLBuilder xml, Charset encoding) throws IOException {
+        xml.header("1.0", encoding);
+        xml.appendUnescaped(
+                "<!DOCTYPE WMT_MS_Capabilities SYSTEM \"http://schemas.opengis.net/wms/1.1.1/capabilities_1_1_1.dtd\" ");
+        if (includeVendorSpecific) {
+            xml.appendUnescaped("[\n");
+            xml.appendUnescaped("<!ELEMENT VendorSpecificCapabilities (TileSet*) >\n");
+            xml.appendUnescaped(
+                    "<!ELEMENT TileSet (SRS, BoundingBox?, Resolutions, Width, Height, Format, Layers*, Styles*) >\n");
+            xml.appendUnescaped("<!ELEMENT Resolutions (#PCDATA) >\n");
+            xml.appendUnescaped("<!ELEMENT Width (#PCDATA) >\n");
+            xml.appendUnescaped("<!ELEMENT Height (#PCDATA) >\n");
+            xml.appendUnescaped("<!ELEMENT Layers (#PCDATA) >\n");
+            xml.appendUnescaped("<!ELEMENT Styles (#PCDATA) >\n");
+            xml.appendUnescaped("]");
+        }
+        xml.appendUnescaped(">\n");
+        xml.indentElement("WMT_MS_Capabilities").attribute("version", "1.1.1");
+
+        // The actual meat
+        service(xml);
+        capability(xml);
+        xml.endElement();
+    }
+
     private void service(XMLBuilder xml) throws IOException {
         ServiceInformation servInfo = tld.getServiceInformation();
         xml.indentElement("Service");
@@ -471,16 +515,28 @@ private void capabilityLayerOuter(XMLBuilder xml) throws IOException {
             if (!layer.isEnabled() || !layer.isAdvertised()) {
                 continue;
             }
-            try {
-                capabilityLayerInner(xml, layer);
-            } catch (GeoWebCacheException e) {
-                log.log(Level.SEVERE, e.getMessage());
+            if (cacheContext == null) {
+                capabilityLayerInnerSafe(xml, layer);
+            } else {
+                xml.appendFragment(cache.getLayerFragment(layer, cacheContext, () -> {
+                    StringBuilder str = new StringBuilder();
+                    capabilityLayerInnerSafe(xml.fragment(str), layer);
+                    return str.toString();
+                }));
             }
         }
 
         xml.endElement();
     }
 
+    private void capabilityLayerInnerSafe(XMLBuilder xml, TileLayer layer) throws IOException {
+        try {
+            capabilityLayerInner(xml, layer);
+        } catch (GeoWebCacheException e) {
+            log.log(Level.SEVERE, e.getMessage());
+        }
+    }
+
     private void capabilityLayerInner(XMLBuilder xml, TileLayer layer) throws GeoWebCacheException, IOException {
         xml.indentElement("Layer");
 
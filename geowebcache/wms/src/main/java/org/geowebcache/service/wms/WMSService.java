@@ -15,6 +15,7 @@
 
 import static org.geowebcache.grid.GridUtil.findBestMatchingGrid;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.IOException;
 import java.nio.channels.Channels;
 import java.util.ArrayList;
@@ -23,6 +24,11 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -52,6 +58,7 @@
 import org.geowebcache.mime.MimeException;
 import org.geowebcache.mime.MimeType;
 import org.geowebcache.mime.TextMime;
+import org.geowebcache.service.CapabilitiesCache;
 import org.geowebcache.service.Service;
 import org.geowebcache.service.ServiceException;
 import org.geowebcache.stats.RuntimeStats;
@@ -90,10 +97,23 @@ public class WMSService extends Service {
 
     private String hintsConfig = "DEFAULT";
 
+    // Source tiles fetched and decoded concurrently by each recombined GetMap request
+    private int fuserParallelism = 1;
+
+    // Threads fetching and decoding source tiles, shared by all recombined GetMap requests
+    private int fuserThreads = 2 * Runtime.getRuntime().availableProcessors();
+
+    private volatile ExecutorService fuserExecutor;
+
+    // Encoded responses of recombined GetMap requests, null if not cached
+    private FusedImageCache fuserCache;
+
     private WMSUtilities utility;
 
     private SecurityDispatcher securityDispatcher;
 
+    private final CapabilitiesCache<String> capabilitiesCache = new CapabilitiesCache<>();
+
     /** Protected no-argument constructor to allow run-time instrumentation */
     protected WMSService() {
         super(SERVICE_WMS);
@@ -105,6 +125,7 @@ public WMSService(StorageBroker sb, TileLayerDispatcher tld, RuntimeStats stats)
         this.sb = sb;
         this.tld = tld;
         this.stats = stats;
+        tld.addLayerChangeListener(capabilitiesCache);
     }
 
     public WMSService(
@@ -120,6 +141,7 @@ public WMSService(
         this.stats = stats;
         this.urlMangler = urlMangler;
         this.controller = controller;
+        tld.addLayerChangeListener(capabilitiesCache);
     }
 
     @Override
@@ -285,8 +307,8 @@ public void handleRequest(Conveyor conv) throws GeoWebCacheException {
 
         if (tile.getHint() != null) {
             if (tile.getHint().equalsIgnoreCase("getcapabilities")) {
-                WMSGetCapabilities wmsCap =
-                        new WMSGetCapabilities(tld, tile.servletReq, servletBase, context, urlMangler);
+                WMSGetCapabilities wmsCap = new WMSGetCapabilities(
+                        tld, tile.servletReq, servletBase, context, urlMangler, capabilitiesCache);
                 wmsCap.writeResponse(tile.servletResp);
             } else if (tile.getHint().equalsIgnoreCase("getmap")) {
                 getSecurityDispatcher().checkSecurity(tile);
@@ -331,9 +353,34 @@ protected WMSTileFuser getFuser(HttpServletRequest servletReq) throws GeoWebCach
         wmsFuser.setApplicationContext(utility.getApplicationContext());
         // Setting of the hintConfiguration if present
         wmsFuser.setHintsConfiguration(hintsConfig);
+        if (fuserParallelism > 1) {
+            wmsFuser.setExecutor(getFuserExecutor(), fuserParallelism);
+        }
+        wmsFuser.setCache(fuserCache);
         return wmsFuser;
     }
 
+    private ExecutorService getFuserExecutor() {
+        ExecutorService executor = fuserExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = fuserExecutor;
+                if (executor == null) {
+                    ThreadFactory tf = new ThreadFactoryBuilder()
+                            .setDaemon(true)
+                            .setNameFormat("GWC WMS tile fuser-%d")
+                            .build();
+                    ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                            fuserThreads, fuserThreads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), tf);
+                    // let the threads go when there are no recombined requests
+                    pool.allowCoreThreadTimeOut(true);
+                    executor = fuserExecutor = pool;
+                }
+            }
+        }
+        return executor;
+    }
+
     /** Handles a getfeatureinfo request */
     private void handleGetFeatureInfo(ConveyorTile tile) throws GeoWebCacheException {
         TileLayer tl = tld.getTileLayer(tile.getLayerId());
@@ -479,6 +526,37 @@ public void setHintsConfig(String hintsConfig) {
         this.hintsConfig = hintsConfig;
     }
 
+    /**
+     * Sets how many source tiles each recombined GetMap request fetches and decodes concurrently, {@code 1} fetching
+     * them one after the other on the request thread
+     */
+    public void setFuserParallelism(int fuserParallelism) {
+        this.fuserParallelism = fuserParallelism;
+    }
+
+    /** Sets the number of threads fetching and decoding source tiles for all recombined GetMap requests */
+    public void setFuserThreads(int fuserThreads) {
+        this.fuserThreads = fuserThreads;
+    }
+
+    /**
+     * Sets the maximum total size, in bytes, of the cached responses of recombined GetMap requests, {@code 0} rendering
+     * every request
+     */
+    public void setFuserCacheSize(long fuserCacheSize) {
+        if (fuserCache != null) {
+            sb.removeBlobStoreListener(fuserCache);
+            tld.removeLayerChangeListener(fuserCache);
+            fuserCache = null;
+        }
+        if (fuserCacheSize > 0) {
+            FusedImageCache cache = new FusedImageCache(fuserCacheSize);
+            sb.addBlobStoreListener(cache);
+            tld.addLayerChangeListener(cache);
+            fuserCache = cache;
+        }
+    }
+
     public void setUtility(WMSUtilities utility) {
         this.utility = utility;
     }
@@ -19,12 +19,20 @@
 import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
 import java.awt.image.RenderedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.media.jai.PlanarImage;
@@ -149,6 +157,15 @@ static class PixelOffsets {
 
     private SecurityDispatcher securityDispatcher;
 
+    /** Executor fetching and decoding the source tiles, if null they are fetched on the request thread */
+    private ExecutorService executor;
+
+    /** Maximum number of source tiles fetched and decoded concurrently */
+    private int parallelism = 1;
+
+    /** Cache of the encoded responses, if null every request is rendered */
+    private FusedImageCache cache;
+
     /** Enum storing the Hints associated to one of the 3 configurations(SPEED, QUALITY, DEFAULT) */
     public enum HintsLevel {
         QUALITY(0, "quality"),
@@ -469,9 +486,18 @@ protected void createCanvas() {
     }
 
     protected void renderCanvas() throws OutsideCoverageException, GeoWebCacheException, IOException, Exception {
+        renderCanvas(collectSourceTiles());
+    }
+
+    /**
+     * Lists the source tiles making up the canvas, checking the access to each of them and skipping those filtered out
+     * by the layer request filters
+     */
+    private List<SourceTile> collectSourceTiles() throws GeoWebCacheException {
 
         // Now we loop over all the relevant tiles and write them to the canvas,
         // Starting at the bottom, moving to the right and up
+        List<SourceTile> sourceTiles = new ArrayList<>();
 
         // Bottom row of tiles, in tile coordinates
         long starty = srcRectangle[1];
@@ -515,6 +541,7 @@ protected void renderCanvas() throws OutsideCoverageException, GeoWebCacheExcept
 
                 tile.setTileLayer(layer);
 
+                // security and request filters may depend on the request thread state, keep them here
                 securityDispatcher.checkSecurity(tile);
 
                 // Check whether this tile is to be rendered at all
@@ -525,14 +552,6 @@ protected void renderCanvas() throws OutsideCoverageException, GeoWebCacheExcept
                     continue;
                 }
 
-                layer.getTile(tile);
-                // Selection of the resource input stream
-                Resource blob = tile.getBlob();
-                // Extraction of the image associated with the defined MimeType
-                String formatName = srcFormat.getMimeType();
-                BufferedImage tileImg = decoderMap.decode(
-                        formatName, blob, decoderMap.isAggressiveInputStreamSupported(formatName), null);
-
                 int tilex = 0;
                 int canvasx = (int) (gridx - startx) * gridSubset.getTileWidth();
                 int tileWidth = gridSubset.getTileWidth();
@@ -565,23 +584,123 @@ protected void renderCanvas() throws OutsideCoverageException, GeoWebCacheExcept
                     continue;
                 }
 
-                // Cut down the tile to the part we want
-                if (tileWidth != gridSubset.getTileWidth() || tileHeight != gridSubset.getTileHeight()) {
-                    log.fine("tileImg.getSubimage(" + tilex + "," + tiley + "," + tileWidth + "," + tileHeight + ")");
-                    tileImg = tileImg.getSubimage(tilex, tiley, tileWidth, tileHeight);
-                }
-
-                // Render the tile on the big canvas
-                log.fine("drawImage(subtile," + canvasx + "," + canvasy + ",null) " + Arrays.toString(gridLoc));
+                sourceTiles.add(new SourceTile(tile, tilex, tiley, tileWidth, tileHeight, canvasx, canvasy));
+            }
+        }
+        return sourceTiles;
+    }
 
-                bufferedImageWrapper.drawImage(tileImg, canvasx, canvasy);
+    private void renderCanvas(List<SourceTile> sourceTiles) throws Exception {
+        if (executor == null || parallelism <= 1 || sourceTiles.size() <= 1) {
+            for (SourceTile sourceTile : sourceTiles) {
+                drawTile(sourceTile, fetchTile(sourceTile));
             }
+        } else {
+            renderConcurrently(sourceTiles);
         }
         if (bufferedImageWrapper != null) {
             bufferedImageWrapper.disposeGraphics();
         }
     }
 
+    /**
+     * Fetches and decodes up to {@link #parallelism} source tiles at a time on the {@link #executor}, drawing each one
+     * on the canvas from the request thread as soon as it's ready
+     */
+    private void renderConcurrently(List<SourceTile> sourceTiles) throws Exception {
+        CompletionService<BufferedImage> completion = new ExecutorCompletionService<>(executor);
+        Map<Future<BufferedImage>, SourceTile> pending = new HashMap<>();
+        Iterator<SourceTile> queued = sourceTiles.iterator();
+        try {
+            while (queued.hasNext() || !pending.isEmpty()) {
+                while (queued.hasNext() && pending.size() < parallelism) {
+                    SourceTile sourceTile = queued.next();
+                    pending.put(completion.submit(() -> fetchTile(sourceTile)), sourceTile);
+                }
+                Future<BufferedImage> done = completion.take();
+                SourceTile sourceTile = pending.remove(done);
+                BufferedImage tileImg;
+                try {
+                    tileImg = done.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof Exception) {
+                        throw (Exception) cause;
+                    }
+                    throw e;
+                }
+                drawTile(sourceTile, tileImg);
+            }
+        } finally {
+            for (Future<BufferedImage> future : pending.keySet()) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /** Fetches the source tile, from the cache or the backend, and decodes it */
+    private BufferedImage fetchTile(SourceTile sourceTile) throws GeoWebCacheException, IOException {
+        layer.getTile(sourceTile.tile);
+        // Selection of the resource input stream
+        Resource blob = sourceTile.tile.getBlob();
+        // Extraction of the image associated with the defined MimeType
+        String formatName = srcFormat.getMimeType();
+        return decoderMap.decode(formatName, blob, decoderMap.isAggressiveInputStreamSupported(formatName), null);
+    }
+
+    private void drawTile(SourceTile sourceTile, BufferedImage tileImg) {
+        // Cut down the tile to the part we want
+        if (sourceTile.width != gridSubset.getTileWidth() || sourceTile.height != gridSubset.getTileHeight()) {
+            log.fine("tileImg.getSubimage("
+                    + sourceTile.x
+                    + ","
+                    + sourceTile.y
+                    + ","
+                    + sourceTile.width
+                    + ","
+                    + sourceTile.height
+                    + ")");
+            tileImg = tileImg.getSubimage(sourceTile.x, sourceTile.y, sourceTile.width, sourceTile.height);
+        }
+
+        // Render the tile on the big canvas
+        log.fine("drawImage(subtile,"
+                + sourceTile.canvasX
+                + ","
+                + sourceTile.canvasY
+                + ",null) "
+                + Arrays.toString(sourceTile.tile.getTileIndex()));
+
+        bufferedImageWrapper.drawImage(tileImg, sourceTile.canvasX, sourceTile.canvasY);
+    }
+
+    /** A source tile, along with the part of it to be drawn and where on the canvas */
+    private static class SourceTile {
+        final ConveyorTile tile;
+
+        final int x;
+
+        final int y;
+
+        final int width;
+
+        final int height;
+
+        final int canvasX;
+
+        final int canvasY;
+
+        SourceTile(ConveyorTile tile, int x, int y, int width, int height, int canvasX, int canvasY) {
+            this.tile = tile;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+            this.canvasX = canvasX;
+            this.canvasY = canvasY;
+        }
+    }
+
     protected void scaleRaster() {
         if (bufferedImageWrapper != null && canvasSize[0] != reqWidth || canvasSize[1] != reqHeight) {
             BufferedImage preTransform = bufferedImageWrapper.getCanvas();
@@ -617,8 +736,35 @@ protected void writeResponse(HttpServletResponse response, RuntimeStats stats)
             throws IOException, OutsideCoverageException, GeoWebCacheException, Exception {
         determineSourceResolution();
         determineCanvasLayout();
+        // access is checked on every request, whether the image is cached or not
+        // read before fetching the source tiles, not to cache a response built out of tiles changed meanwhile
+        long cacheGeneration = cache == null ? 0 : cache.generation(layer.getName());
+        List<SourceTile> sourceTiles = collectSourceTiles();
+
+        FusedImageCache.Key cacheKey = null;
+        if (cache != null) {
+            cacheKey = FusedImageCache.key(
+                    layer.getName(),
+                    gridSubset.getName(),
+                    srcFormat.getFormat(),
+                    outputFormat.getFormat(),
+                    reqBounds,
+                    reqWidth,
+                    reqHeight,
+                    fullParameters,
+                    hints,
+                    new long[] {srcRectangle[0], srcRectangle[1], srcRectangle[2], srcRectangle[3], srcIdx});
+            byte[] cached = cache.get(cacheKey, layer);
+            if (cached != null) {
+                log.fine("WMS response served from the fused image cache, size: " + cached.length + "bytes.");
+                writeCached(response, cached);
+                stats.log(cached.length, CacheResult.HIT);
+                return;
+            }
+        }
+
         createCanvas();
-        renderCanvas();
+        renderCanvas(sourceTiles);
         scaleRaster();
 
         @SuppressWarnings("PMD.CloseResource") // wraps OS managed by servlet container
@@ -627,6 +773,17 @@ protected void writeResponse(HttpServletResponse response, RuntimeStats stats)
         try {
             finalImage = bufferedImageWrapper.getCanvas();
 
+            if (cacheKey != null) {
+                ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+                encoderMap.encode(finalImage, outputFormat, encoded, false, null);
+                byte[] bytes = encoded.toByteArray();
+                cache.put(cacheKey, layer, bytes, cacheGeneration);
+                writeCached(response, bytes);
+                log.fine("WMS response size: " + bytes.length + "bytes.");
+                stats.log(bytes.length, CacheResult.WMS);
+                return;
+            }
+
             response.setStatus(HttpServletResponse.SC_OK);
             response.setContentType(this.outputFormat.getMimeType());
 
@@ -659,6 +816,16 @@ protected void writeResponse(HttpServletResponse response, RuntimeStats stats)
         }
     }
 
+    private void writeCached(HttpServletResponse response, byte[] bytes) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(this.outputFormat.getMimeType());
+        response.setContentLength(bytes.length);
+        @SuppressWarnings("PMD.CloseResource") // managed by servlet container
+        ServletOutputStream os = response.getOutputStream();
+        os.write(bytes);
+        os.flush();
+    }
+
     /** Setting of the ApplicationContext associated for extracting the related beans */
     public void setApplicationContext(ApplicationContext context) throws BeansException {
         applicationContext = context;
@@ -676,4 +843,18 @@ public void setHintsConfiguration(String hintsConfig) {
     public void setSecurityDispatcher(SecurityDispatcher securityDispatcher) {
         this.securityDispatcher = securityDispatcher;
     }
+
+    /**
+     * Sets the executor fetching and decoding the source tiles, while the request thread draws them on the canvas, and
+     * the maximum number of source tiles this request fetches concurrently
+     */
+    public void setExecutor(ExecutorService executor, int parallelism) {
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    /** Sets the cache of the encoded responses, {@code null} rendering every request */
+    public void setCache(FusedImageCache cache) {
+        this.cache = cache;
+    }
 }
@@ -0,0 +1,141 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.io.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import ar.com.hjg.pngj.FilterType;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import javax.imageio.ImageIO;
+import org.geowebcache.mime.ImageMime;
+import org.geowebcache.mime.PNGRasterEncoder;
+import org.junit.After;
+import org.junit.Test;
+
+public class PNGRasterImageEncoderTest {
+
+    private static final List<String> WRITER_SPIS =
+            Collections.singletonList("com.sun.imageio.plugins.png.PNGImageWriterSpi");
+
+    private PNGRasterImageEncoder encoder;
+
+    @After
+    public void tearDown() {
+        if (encoder != null) {
+            encoder.destroy();
+        }
+    }
+
+    private PNGRasterImageEncoder encoder(boolean disablePNG) {
+        encoder = spy(new PNGRasterImageEncoder(
+                false, null, WRITER_SPIS, null, disablePNG, ImageIOInitializer.getInstance(new ArrayList<>())));
+        return encoder;
+    }
+
+    private static BufferedImage image(int type) {
+        BufferedImage image = new BufferedImage(64, 32, type);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, 0xFF000000 | (x * 4) << 16 | (y * 8) << 8 | (x + y));
+            }
+        }
+        return image;
+    }
+
+    private static void assertSamePixels(BufferedImage expected, byte[] png) throws Exception {
+        BufferedImage actual = ImageIO.read(new ByteArrayInputStream(png));
+        assertNotNull(actual);
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertEquals(expected.getRGB(x, y), actual.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testRasterEncoding() throws Exception {
+        PNGRasterImageEncoder encoder = encoder(false);
+        BufferedImage image = image(BufferedImage.TYPE_4BYTE_ABGR);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        encoder.encode(image, out, false, ImageMime.png, null);
+        assertSamePixels(image, out.toByteArray());
+        // written from the raster, the PNGWriter is not involved
+        verify(encoder, never()).writePNG(any(), any(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    public void testFallback() throws Exception {
+        PNGRasterImageEncoder encoder = encoder(false);
+        // premultiplied images cannot be written from the raster
+        BufferedImage image = image(BufferedImage.TYPE_INT_ARGB_PRE);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        encoder.encode(image, out, false, ImageMime.png, null);
+        assertSamePixels(image, out.toByteArray());
+        // handed to the PNGWriter as already prepared
+        verify(encoder).writePNG(same(image), same(out), eq(ImageMime.png), any(), eq(false));
+    }
+
+    @Test
+    public void testDisablePNG() throws Exception {
+        PNGRasterImageEncoder encoder = encoder(true);
+        BufferedImage image = image(BufferedImage.TYPE_4BYTE_ABGR);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        encoder.encode(image, out, false, ImageMime.png, null);
+        assertSamePixels(image, out.toByteArray());
+        // written by the ImageIO writers
+        verify(encoder, never()).writePNG(any(), any(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    public void testFilterMapping() {
+        PNGRasterImageEncoder encoder = encoder(false);
+        encoder.setFilter(PNGRasterEncoder.Filter.UP);
+
+        // the configured filter is used when none is requested
+        assertEquals(PNGRasterEncoder.Filter.UP, encoder.getFilter(null));
+        assertEquals(PNGRasterEncoder.Filter.UP, encoder.getFilter(Collections.emptyMap()));
+        assertEquals(PNGRasterEncoder.Filter.UP, encoder.getFilter(Map.of("filterType", "PAETH")));
+
+        assertEquals(PNGRasterEncoder.Filter.NONE, filter(encoder, FilterType.FILTER_NONE));
+        assertEquals(PNGRasterEncoder.Filter.SUB, filter(encoder, FilterType.FILTER_SUB));
+        assertEquals(PNGRasterEncoder.Filter.UP, filter(encoder, FilterType.FILTER_UP));
+        assertEquals(PNGRasterEncoder.Filter.AVERAGE, filter(encoder, FilterType.FILTER_AVERAGE));
+        assertEquals(PNGRasterEncoder.Filter.PAETH, filter(encoder, FilterType.FILTER_PAETH));
+        assertEquals(PNGRasterEncoder.Filter.ADAPTIVE, filter(encoder, FilterType.FILTER_ADAPTIVE_FULL));
+        assertEquals(PNGRasterEncoder.Filter.ADAPTIVE, filter(encoder, FilterType.FILTER_DEFAULT));
+    }
+
+    private static PNGRasterEncoder.Filter filter(PNGRasterImageEncoder encoder, FilterType type) {
+        return encoder.getFilter(Map.of("filterType", type));
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.service.wms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.Collections;
+import java.util.Map;
+import org.geowebcache.filter.parameters.ParametersUtils;
+import org.geowebcache.grid.BoundingBox;
+import org.geowebcache.layer.TileLayer;
+import org.junit.Test;
+
+public class FusedImageCacheTest {
+
+    private static final Map<String, String> STYLE = Collections.singletonMap("STYLES", "dark");
+
+    private static FusedImageCache.Key key(String layer, BoundingBox bbox, Map<String, String> parameters) {
+        return FusedImageCache.key(
+                layer, "EPSG:4326", "png", "jpeg", bbox, 256, 256, parameters, null, new long[] {2, 3, 4, 5, 6});
+    }
+
+    @Test
+    public void testKeyNormalization() {
+        FusedImageCache.Key key = key("a", new BoundingBox(-10, -10, 10, 10), STYLE);
+        // floating point noise well below a pixel
+        assertEquals(key, key("a", new BoundingBox(-10.0000000001, -10, 10.0000000001, 10), STYLE));
+        // a pixel off
+        assertNotEquals(key, key("a", new BoundingBox(-10 + 20d / 256, -10, 10 + 20d / 256, 10), STYLE));
+        assertNotEquals(key, key("a", new BoundingBox(-10, -10, 10, 10), null));
+        assertNotEquals(key, key("b", new BoundingBox(-10, -10, 10, 10), STYLE));
+    }
+
+    @Test
+    public void testKeyDependencies() {
+        FusedImageCache.Key key = key("a", new BoundingBox(-10, -10, 10, 10), STYLE);
+        String parametersId = ParametersUtils.getId(STYLE);
+
+        // source tiles are {2, 3, 4, 5, 6}
+        assertTrue(key.dependsOn(parametersId, new long[] {4, 5, 4, 5, 6}));
+        assertTrue(key.dependsOn(parametersId, new long[] {0, 0, 2, 3, 6}));
+        assertFalse(key.dependsOn(parametersId, new long[] {5, 5, 5, 5, 6}));
+        assertFalse(key.dependsOn(parametersId, new long[] {0, 4, 10, 10, 7}));
+        assertFalse(key.dependsOn(null, new long[] {4, 5, 4, 5, 6}));
+
+        assertTrue(key.dependsOn(parametersId));
+        assertFalse(key.dependsOn(ParametersUtils.getId(Collections.singletonMap("STYLES", "light"))));
+    }
+
+    @Test
+    public void testTileEvents() {
+        FusedImageCache cache = new FusedImageCache(1024 * 1024);
+        FusedImageCache.Key key = key("a", new BoundingBox(-10, -10, 10, 10), STYLE);
+        cache.put(key, mock(TileLayer.class), new byte[] {1}, cache.generation("a"));
+
+        // the source tiles are looked up by their own format
+        cache.tileStored("a", "EPSG:4326", "jpeg", ParametersUtils.getId(STYLE), 3, 4, 6, 10);
+        assertEquals(1, cache.size());
+        cache.tileStored("a", "EPSG:4326", "png", ParametersUtils.getId(STYLE), 3, 4, 6, 10);
+        assertEquals(0, cache.size());
+    }
+}
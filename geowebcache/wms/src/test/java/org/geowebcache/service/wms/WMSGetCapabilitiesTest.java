@@ -5,6 +5,7 @@
 import static org.easymock.EasyMock.replay;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.not;
 
 import java.io.StringReader;
@@ -29,10 +30,13 @@
 import org.geowebcache.layer.TileLayer;
 import org.geowebcache.layer.TileLayerDispatcher;
 import org.geowebcache.layer.wms.WMSLayer;
+import org.geowebcache.service.CapabilitiesCache;
 import org.geowebcache.util.NullURLMangler;
 import org.geowebcache.util.URLMangler;
 import org.hamcrest.xml.HasXPath;
 import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.w3c.dom.Document;
 import org.xml.sax.InputSource;
 
@@ -169,6 +173,41 @@ public void testEscapeXMLChars() throws Exception {
         EasyMock.verify(tld, servReq, response, servInfo);
     }
 
+    @Test
+    public void testCachedResponse() throws Exception {
+        TileLayerDispatcher tld = createMock(TileLayerDispatcher.class);
+        Map<String, GridSubset> subSets = new HashMap<>();
+        GridSubset gridSubSet = GridSubsetFactory.createGridSubSet(
+                new GridSetBroker(Collections.singletonList(new DefaultGridsets(true, true))).get("EPSG:4326"));
+        subSets.put(gridSubSet.getName(), gridSubSet);
+        WMSLayer layer = new WMSLayer("test", null, null, null, null, subSets, null, null, null, false, null);
+        layer.setEnabled(true);
+        layer.setAdvertised(true);
+        expect(tld.getServiceInformation()).andStubReturn(null);
+        expect(tld.getLayerListFiltered()).andStubReturn(Collections.singletonList(layer));
+        replay(tld);
+
+        CapabilitiesCache<String> cache = new CapabilitiesCache<>(10);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        String expected = new WMSGetCapabilities(
+                        tld, request, "http://example.com/geowebcache/", "service/", new NullURLMangler())
+                .generateGetCapabilities(StandardCharsets.UTF_8);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new WMSGetCapabilities(tld, request, "http://example.com/geowebcache/", "service/", new NullURLMangler(), cache)
+                .writeResponse(response);
+        assertThat(response.getContentAsString(), equalTo(expected));
+        String eTag = response.getHeader("ETag");
+        assertThat(eTag, not(equalTo(null)));
+
+        request = new MockHttpServletRequest();
+        request.addHeader("If-None-Match", eTag);
+        response = new MockHttpServletResponse();
+        new WMSGetCapabilities(tld, request, "http://example.com/geowebcache/", "service/", new NullURLMangler(), cache)
+                .writeResponse(response);
+        assertThat(response.getStatus(), equalTo(HttpServletResponse.SC_NOT_MODIFIED));
+    }
+
     /** Returns an XPath expression equivalent to the given string which can safely include both " and ' characters. */
     String xpathString(String s) {
         StringBuilder b = new StringBuilder();
@@ -0,0 +1,155 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.service.wms;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import org.apache.commons.io.FileUtils;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.config.DefaultGridsets;
+import org.geowebcache.filter.security.SecurityDispatcher;
+import org.geowebcache.grid.GridSetBroker;
+import org.geowebcache.grid.GridSubset;
+import org.geowebcache.grid.GridSubsetFactory;
+import org.geowebcache.io.FileResource;
+import org.geowebcache.layer.TileLayer;
+import org.geowebcache.layer.TileLayerDispatcher;
+import org.geowebcache.layer.wms.WMSLayer;
+import org.geowebcache.layer.wms.WMSSourceHelper;
+import org.geowebcache.locks.LockProvider;
+import org.geowebcache.stats.RuntimeStats;
+import org.geowebcache.storage.DefaultStorageBroker;
+import org.geowebcache.storage.StorageBroker;
+import org.geowebcache.storage.StorageException;
+import org.geowebcache.storage.TileObject;
+import org.geowebcache.storage.TransientCache;
+import org.geowebcache.storage.blobstore.file.FileBlobStore;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Measures the time taken by the {@link WMSTileFuser} to serve a 2048x2048 GetMap request, made of 64 cached tiles
+ * each taking {@link #LATENCY} milliseconds to be read, with increasing per request parallelism.
+ */
+final class WMSTileFuserPerf {
+
+    private static Logger LOGGER = Logging.getLogger(WMSTileFuserPerf.class.getName());
+
+    // simulated storage latency, in milliseconds
+    static final int LATENCY = 5;
+    // number of measured requests for each parallelism, after as many warm up ones
+    static final int RUNS = 10;
+
+    public static void main(String[] args) throws Exception {
+        GridSetBroker gridSetBroker = new GridSetBroker(Collections.singletonList(new DefaultGridsets(false, false)));
+        TileLayer layer = createLayer(gridSetBroker);
+        TileLayerDispatcher dispatcher = mock(TileLayerDispatcher.class);
+        when(dispatcher.getTileLayer("test:layer")).thenReturn(layer);
+        File imageTile = new File(WMSTileFuserPerf.class.getResource("/image.png").toURI());
+        File directory = Files.createTempDirectory("gwc-").toFile();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try (ClassPathXmlApplicationContext context = new ClassPathXmlApplicationContext("appContextTest.xml")) {
+            StorageBroker broker = new DefaultStorageBroker(
+                    new FileBlobStore(directory.getAbsolutePath()) {
+
+                        @Override
+                        public boolean get(TileObject stObj) throws StorageException {
+                            try {
+                                Thread.sleep(LATENCY);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                            stObj.setBlob(new FileResource(imageTile));
+                            stObj.setCreated(new Date().getTime());
+                            stObj.setBlobSize((int) imageTile.length());
+                            return true;
+                        }
+                    },
+                    new TransientCache(100, 1024, 2000));
+            for (int parallelism : new int[] {1, 2, 4, 8, 16}) {
+                long total = 0;
+                for (int i = 0; i < RUNS * 2; i++) {
+                    long start = System.nanoTime();
+                    render(context, dispatcher, broker, executor, parallelism);
+                    if (i >= RUNS) {
+                        total += System.nanoTime() - start;
+                    }
+                }
+                LOGGER.info(String.format(
+                        "Parallelism %d: %d ms per request.",
+                        parallelism, TimeUnit.NANOSECONDS.toMillis(total / RUNS)));
+            }
+        } finally {
+            executor.shutdown();
+            FileUtils.deleteDirectory(directory);
+        }
+    }
+
+    private static void render(
+            ClassPathXmlApplicationContext context,
+            TileLayerDispatcher dispatcher,
+            StorageBroker broker,
+            ExecutorService executor,
+            int parallelism)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addParameter("layers", "test:layer");
+        request.addParameter("srs", "EPSG:4326");
+        request.addParameter("format", "image/png");
+        request.addParameter("width", "2048");
+        request.addParameter("height", "2048");
+        // matches zoom level 3 of the world grid, 8x8 tiles
+        request.addParameter("bbox", "-90,-90,90,90");
+
+        WMSTileFuser tileFuser = new WMSTileFuser(dispatcher, broker, request);
+        tileFuser.setApplicationContext(context);
+        tileFuser.setSecurityDispatcher(mock(SecurityDispatcher.class));
+        tileFuser.setExecutor(executor, parallelism);
+        tileFuser.writeResponse(new MockHttpServletResponse(), mock(RuntimeStats.class));
+    }
+
+    private static TileLayer createLayer(GridSetBroker gridSetBroker) {
+        Map<String, GridSubset> grids = new HashMap<>();
+        GridSubset grid = GridSubsetFactory.createGridSubSet(gridSetBroker.getWorldEpsg4326());
+        grids.put(grid.getName(), grid);
+        WMSLayer layer = new WMSLayer(
+                "test:layer",
+                new String[] {"http://localhost:38080/wms"},
+                null,
+                "test:layer",
+                Collections.singletonList("image/png"),
+                grids,
+                null,
+                new int[] {4, 4},
+                null,
+                false,
+                null);
+        layer.setLockProvider(mock(LockProvider.class));
+        layer.setSourceHelper(mock(WMSSourceHelper.class));
+        layer.initialize(gridSetBroker);
+        return layer;
+    }
+}
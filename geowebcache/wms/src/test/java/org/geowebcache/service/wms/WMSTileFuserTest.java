@@ -14,6 +14,7 @@
 package org.geowebcache.service.wms;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThrows;
@@ -33,6 +34,10 @@
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 import javax.imageio.ImageIO;
 import javax.servlet.http.HttpServletRequest;
@@ -356,6 +361,58 @@ public boolean get(TileObject stObj) throws StorageException {
         }
     }
 
+    @Test
+    public void testWriteResponseConcurrently() throws Exception {
+        final TileLayer layer = createWMSLayer();
+        BoundingBox bounds = new BoundingBox(-35.0, 14.0, 55.0, 39);
+        int width = (int) bounds.getWidth() * 25;
+        int height = (int) bounds.getHeight() * 25;
+        GridSubset gridSubset =
+                layer.getGridSubset(layer.getGridSubsets().iterator().next());
+        TileLayerDispatcher dispatcher = mock(TileLayerDispatcher.class);
+        Mockito.when(dispatcher.getTileLayer("test:layer")).thenReturn(layer);
+        StorageBroker sb = mock(StorageBroker.class);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        Mockito.when(sb.get(ArgumentMatchers.any(TileObject.class))).thenAnswer(invoc -> {
+            threads.add(Thread.currentThread().getName());
+            TileObject stObj = (TileObject) invoc.getArguments()[0];
+            final File imageTile = new File(getClass().getResource("/image.png").toURI());
+            stObj.setBlob(new FileResource(imageTile));
+            stObj.setCreated((new Date()).getTime());
+            stObj.setBlobSize(1000);
+            return true;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (ClassPathXmlApplicationContext context = new ClassPathXmlApplicationContext("appContextTest.xml")) {
+            BufferedImage[] images = new BufferedImage[2];
+            for (int i = 0; i < images.length; i++) {
+                WMSTileFuser tileFuser =
+                        new WMSTileFuser(dispatcher, sb, fuserRequest(layer, gridSubset, bounds, width, height));
+                tileFuser.setApplicationContext(context);
+                tileFuser.setSecurityDispatcher(secDisp);
+                if (i == 1) {
+                    threads.clear();
+                    tileFuser.setExecutor(executor, 4);
+                }
+                MockHttpServletResponse response = new MockHttpServletResponse();
+                tileFuser.writeResponse(response, mock(RuntimeStats.class));
+                images[i] = ImageIO.read(new ByteArrayInputStream(response.getContentAsByteArray()));
+            }
+            // fetched on the executor, not the request thread
+            assertFalse(threads.contains(Thread.currentThread().getName()));
+            // and drawn the same
+            assertEquals(width, images[1].getWidth());
+            assertEquals(height, images[1].getHeight());
+            for (int x = 0; x < width; x++) {
+                for (int y = 0; y < height; y++) {
+                    assertEquals(images[0].getRGB(x, y), images[1].getRGB(x, y));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     private WMSLayer createWMSLayer() {
         String[] urls = {"http://localhost:38080/wms"};
         List<String> formatList = new LinkedList<>();
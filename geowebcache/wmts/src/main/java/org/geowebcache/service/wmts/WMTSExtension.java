@@ -83,6 +83,15 @@ default void encodeLayer(XMLBuilder xmlBuilder, TileLayer tileLayer) throws IOEx
         // nothing to do
     }
 
+    /**
+     * Returns a key identifying the current contributions of this extension to the capabilities document, so that the
+     * documents produced with equal keys can be cached and reused. This method should return NULL, the default, if the
+     * contributions can change in ways the extension can't tell apart, which disables capabilities caching.
+     */
+    default String getCapabilitiesCacheKey() {
+        return null;
+    }
+
     /** By default an extension will have the lowest priority. */
     @Override
     default int getPriority() {
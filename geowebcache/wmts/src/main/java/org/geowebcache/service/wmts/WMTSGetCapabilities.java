@@ -17,10 +17,10 @@
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.io.IOException;
-import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -54,6 +54,8 @@
 import org.geowebcache.layer.meta.LayerMetaInformation;
 import org.geowebcache.layer.meta.MetadataURL;
 import org.geowebcache.mime.ApplicationMime;
+import org.geowebcache.service.CapabilitiesCache;
+import org.geowebcache.service.StreamingXMLResponse;
 import org.geowebcache.stats.RuntimeStats;
 import org.geowebcache.util.ServletUtils;
 import org.geowebcache.util.URLMangler;
@@ -72,6 +74,10 @@ public class WMTSGetCapabilities {
 
     private final Collection<WMTSExtension> extensions;
 
+    private final HttpServletRequest servReq;
+
+    private final CapabilitiesCache<LayerFragment> cache;
+
     protected WMTSGetCapabilities(
             TileLayerDispatcher tld,
             GridSetBroker gsb,
@@ -90,6 +96,18 @@ protected WMTSGetCapabilities(
             String contextPath,
             URLMangler urlMangler,
             Collection<WMTSExtension> extensions) {
+        this(tld, gsb, servReq, baseUrl, contextPath, urlMangler, extensions, null);
+    }
+
+    protected WMTSGetCapabilities(
+            TileLayerDispatcher tld,
+            GridSetBroker gsb,
+            HttpServletRequest servReq,
+            String baseUrl,
+            String contextPath,
+            URLMangler urlMangler,
+            Collection<WMTSExtension> extensions,
+            CapabilitiesCache<LayerFragment> cache) {
         this.tld = tld;
         this.gsb = gsb;
 
@@ -105,84 +123,142 @@ protected WMTSGetCapabilities(
         this.restBaseUrl = urlMangler.buildURL(baseUrl, contextPath, WMTSService.REST_PATH);
 
         this.extensions = extensions;
+        this.servReq = servReq;
+        this.cache = cache;
     }
 
     protected void writeResponse(HttpServletResponse response, RuntimeStats stats) {
-        final Charset encoding = StandardCharsets.UTF_8;
-        byte[] data = generateGetCapabilities(encoding).getBytes(encoding);
+        final String cacheContext = getCacheContext();
+        if (cacheContext != null) {
+            writeCachedResponse(response, stats, cacheContext);
+            return;
+        }
 
         response.setStatus(HttpServletResponse.SC_OK);
         response.setContentType("text/xml");
-        response.setCharacterEncoding(encoding.name());
-        response.setContentLength(data.length);
         response.setHeader("content-disposition", "inline;filename=wmts-getcapabilities.xml");
-
-        stats.log(data.length, CacheResult.OTHER);
-
-        try (OutputStream os = response.getOutputStream()) {
-            os.write(data);
-            os.flush();
+        try {
+            StreamingXMLResponse out = StreamingXMLResponse.open(servReq, response);
+            try (out) {
+                writeGetCapabilities(out.getBuilder(), StandardCharsets.UTF_8, getAdvertisedLayers(), null);
+            }
+            stats.log((int) out.getBytesWritten(), CacheResult.OTHER);
         } catch (IOException ioe) {
             log.fine("Caught IOException" + ioe.getMessage());
         }
     }
 
-    private String generateGetCapabilities(Charset encoding) {
-        StringBuilder str = new StringBuilder();
-        XMLBuilder xml = new XMLBuilder(str);
+    private void writeCachedResponse(HttpServletResponse response, RuntimeStats stats, String cacheContext) {
+        final List<TileLayer> layers = getAdvertisedLayers();
+        final List<Object> dependencies = new ArrayList<>(Arrays.asList(tld.getServiceInformation()));
+        dependencies.addAll(gsb.getGridSets());
 
+        response.setContentType("text/xml");
+        response.setHeader("content-disposition", "inline;filename=wmts-getcapabilities.xml");
         try {
-            xml.header("1.0", encoding);
-            xml.indentElement("Capabilities");
-            xml.attribute("xmlns", "http://www.opengis.net/wmts/1.0");
-            xml.attribute("xmlns:ows", "http://www.opengis.net/ows/1.1");
-            xml.attribute("xmlns:xlink", "http://www.w3.org/1999/xlink");
-            xml.attribute("xmlns:xsi", "http://www.w3.org/2001/XMLSchema-instance");
-            xml.attribute("xmlns:gml", "http://www.opengis.net/gml");
-            // allow extensions to register their names spaces
-            for (WMTSExtension extension : extensions) {
-                extension.registerNamespaces(xml);
+            CapabilitiesCache.Document document = cache.getDocument(
+                    cacheContext,
+                    layers,
+                    dependencies,
+                    () -> generateGetCapabilities(StandardCharsets.UTF_8, layers, cacheContext));
+            stats.log(document.write(servReq, response), CacheResult.OTHER);
+        } catch (IOException ioe) {
+            log.fine("Caught IOException" + ioe.getMessage());
+        }
+    }
+
+    /**
+     * @return the capabilities caching context, made of the base URLs and the extensions cache keys, or {@code null}
+     *     if caching is disabled or not supported by an extension
+     */
+    private String getCacheContext() {
+        if (cache == null || !cache.isEnabled()) {
+            return null;
+        }
+        StringBuilder context = new StringBuilder(baseUrl).append('\n').append(restBaseUrl);
+        for (WMTSExtension extension : extensions) {
+            String key = extension.getCapabilitiesCacheKey();
+            if (key == null) {
+                return null;
             }
-            StringBuilder schemasLocations = new StringBuilder("http://www.opengis.net/wmts/1.0 ");
-            schemasLocations.append("http://schemas.opengis.net/wmts/1.0/wmtsGetCapabilities_response.xsd ");
-            // allow extensions to register their schemas locations
-            for (WMTSExtension extension : extensions) {
-                for (String schemaLocation : extension.getSchemaLocations()) {
-                    schemasLocations.append(schemaLocation).append(" ");
-                }
+            context.append('\n').append(extension.getClass().getName()).append('=').append(key);
+        }
+        return context.toString();
+    }
+
+    private List<TileLayer> getAdvertisedLayers() {
+        List<TileLayer> layers = new ArrayList<>();
+        for (TileLayer layer : tld.getLayerListFiltered()) {
+            if (layer.isEnabled() && layer.isAdvertised()) {
+                layers.add(layer);
             }
-            schemasLocations.delete(schemasLocations.length() - 1, schemasLocations.length());
-            // add schemas locations
-            xml.attribute("xsi:schemaLocation", schemasLocations.toString());
-            xml.attribute("version", "1.0.0");
-            // There were some contradictions in the draft schema, haven't checked whether they've
-            // fixed those
-            // str.append("xsi:schemaLocation=\"http://www.opengis.net/wmts/1.0
-            // http://geowebcache.org/schema/opengis/wmts/1.0.0/wmtsGetCapabilities_response.xsd\"\n");
+        }
+        return layers;
+    }
 
-            ServiceInformation serviceInformation = getServiceInformation();
+    private String generateGetCapabilities(Charset encoding, List<TileLayer> layers, String cacheContext) {
+        StringBuilder str = new StringBuilder();
+        try {
+            writeGetCapabilities(new XMLBuilder(str), encoding, layers, cacheContext);
+        } catch (IOException e) {
+            // Should not happen as StringBuilder doesn't throw
+            throw new IllegalStateException(e);
+        }
+        return str.toString();
+    }
 
-            serviceIdentification(xml, serviceInformation);
-            serviceProvider(xml, serviceInformation);
-            operationsMetadata(xml);
+    /**
+     * Writes the capabilities document layer by layer, so that it can be streamed out
+     *
+     * @param cacheContext the context to cache the layers fragments with, or {@code null} to encode them on the spot
+     */
+    private void writeGetCapabilities(XMLBuilder xml, Charset encoding, List<TileLayer> layers, String cacheContext)
+            throws IOException {
+        xml.header("1.0", encoding);
+        xml.indentElement("Capabilities");
+        xml.attribute("xmlns", "http://www.opengis.net/wmts/1.0");
+        xml.attribute("xmlns:ows", "http://www.opengis.net/ows/1.1");
+        xml.attribute("xmlns:xlink", "http://www.w3.org/1999/xlink");
+        xml.attribute("xmlns:xsi", "http://www.w3.org/2001/XMLSchema-instance");
+        xml.attribute("xmlns:gml", "http://www.opengis.net/gml");
+        // allow extensions to register their names spaces
+        for (WMTSExtension extension : extensions) {
+            extension.registerNamespaces(xml);
+        }
+        StringBuilder schemasLocations = new StringBuilder("http://www.opengis.net/wmts/1.0 ");
+        schemasLocations.append("http://schemas.opengis.net/wmts/1.0/wmtsGetCapabilities_response.xsd ");
+        // allow extensions to register their schemas locations
+        for (WMTSExtension extension : extensions) {
+            for (String schemaLocation : extension.getSchemaLocations()) {
+                schemasLocations.append(schemaLocation).append(" ");
+            }
+        }
+        schemasLocations.delete(schemasLocations.length() - 1, schemasLocations.length());
+        // add schemas locations
+        xml.attribute("xsi:schemaLocation", schemasLocations.toString());
+        xml.attribute("version", "1.0.0");
+        // There were some contradictions in the draft schema, haven't checked whether they've
+        // fixed those
+        // str.append("xsi:schemaLocation=\"http://www.opengis.net/wmts/1.0
+        // http://geowebcache.org/schema/opengis/wmts/1.0.0/wmtsGetCapabilities_response.xsd\"\n");
 
-            contents(xml);
+        ServiceInformation serviceInformation = getServiceInformation();
 
-            xml.indentElement("ServiceMetadataURL")
-                    .attribute("xlink:href", WMTSUtils.getKvpServiceMetadataURL(baseUrl))
-                    .endElement();
+        serviceIdentification(xml, serviceInformation);
+        serviceProvider(xml, serviceInformation);
+        operationsMetadata(xml);
 
-            xml.indentElement("ServiceMetadataURL")
-                    .attribute("xlink:href", restBaseUrl + "/WMTSCapabilities.xml")
-                    .endElement();
+        contents(xml, layers, cacheContext);
 
-            xml.endElement("Capabilities");
+        xml.indentElement("ServiceMetadataURL")
+                .attribute("xlink:href", WMTSUtils.getKvpServiceMetadataURL(baseUrl))
+                .endElement();
 
-            return str.toString();
-        } catch (IOException e) {
-            // Should not happen as StringBuilder doesn't throw
-            throw new IllegalStateException(e);
-        }
+        xml.indentElement("ServiceMetadataURL")
+                .attribute("xlink:href", restBaseUrl + "/WMTSCapabilities.xml")
+                .endElement();
+
+        xml.endElement("Capabilities");
     }
 
     /** Composes service information using information provided by extensions. */
@@ -418,15 +494,17 @@ private void operation(XMLBuilder xml, String operationName, String baseUrl) thr
         xml.endElement("ows:Operation");
     }
 
-    private void contents(XMLBuilder xml) throws IOException {
+    private void contents(XMLBuilder xml, List<TileLayer> layers, String cacheContext) throws IOException {
         xml.indentElement("Contents");
-        Iterable<TileLayer> iter = tld.getLayerListFiltered();
         Set<GridSet> usedGridsets = new HashSet<>();
-        for (TileLayer layer : iter) {
-            if (!layer.isEnabled() || !layer.isAdvertised()) {
-                continue;
+        for (TileLayer layer : layers) {
+            if (cacheContext == null) {
+                layer(xml, layer, baseUrl, usedGridsets);
+            } else {
+                LayerFragment fragment = cache.getLayerFragment(layer, cacheContext, () -> layerFragment(xml, layer));
+                xml.appendFragment(fragment.xml);
+                usedGridsets.addAll(fragment.gridSets);
             }
-            layer(xml, layer, baseUrl, usedGridsets);
         }
 
         // only dump the gridsets actually used, as the OGC TMS spec introduced many default ones
@@ -441,6 +519,13 @@ private void contents(XMLBuilder xml) throws IOException {
         xml.endElement("Contents");
     }
 
+    private LayerFragment layerFragment(XMLBuilder xml, TileLayer layer) throws IOException {
+        StringBuilder str = new StringBuilder();
+        Set<GridSet> usedGridsets = new HashSet<>();
+        layer(xml.fragment(str), layer, baseUrl, usedGridsets);
+        return new LayerFragment(str.toString(), usedGridsets);
+    }
+
     private void layer(XMLBuilder xml, TileLayer layer, String baseurl, Set<GridSet> usedGridsets) throws IOException {
         xml.indentElement("Layer");
         LayerMetaInformation layerMeta = layer.getMetaInformation();
@@ -808,4 +893,17 @@ private void appendTag(XMLBuilder xml, String tagName, String value, String defa
         }
         xml.simpleElement(tagName, value, true);
     }
+
+    /** The pre-rendered {@code Layer} element of a layer, along with the gridsets it references */
+    static class LayerFragment {
+
+        final String xml;
+
+        final Set<GridSet> gridSets;
+
+        LayerFragment(String xml, Set<GridSet> gridSets) {
+            this.xml = xml;
+            this.gridSets = gridSets;
+        }
+    }
 }
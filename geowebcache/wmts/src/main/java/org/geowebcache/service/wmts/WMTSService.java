@@ -42,6 +42,7 @@
 import org.geowebcache.layer.TileLayerDispatcher;
 import org.geowebcache.mime.MimeException;
 import org.geowebcache.mime.MimeType;
+import org.geowebcache.service.CapabilitiesCache;
 import org.geowebcache.service.HttpErrorCodeException;
 import org.geowebcache.service.OWSException;
 import org.geowebcache.service.Service;
@@ -81,39 +82,114 @@ static final String buildRestPattern(int numPathElements, boolean hasStyle) {
 
     enum RestRequest {
         // "/{layer}/{tileMatrixSet}/{tileMatrix}/{tileRow}/{tileCol}"
-        TILE(buildRestPattern(5, false), RequestType.TILE, false),
+        TILE(5, RequestType.TILE, false),
         // "/{layer}/{style}/{tileMatrixSet}/{tileMatrix}/{tileRow}/{tileCol}",
-        TILE_STYLE(buildRestPattern(6, true), RequestType.TILE, true),
+        TILE_STYLE(6, RequestType.TILE, true),
         // "/{layer}/{tileMatrixSet}/{tileMatrix}/{tileRow}/{tileCol}/{j}/{i}"
-        FEATUREINFO(buildRestPattern(7, false), RequestType.FEATUREINFO, false),
+        FEATUREINFO(7, RequestType.FEATUREINFO, false),
         // "/{layer}/{style}/{tileMatrixSet}/{tileMatrix}/{tileRow}/{tileCol}/{j}/{i}",
-        FEATUREINFO_STYLE(buildRestPattern(8, true), RequestType.FEATUREINFO, true),
+        FEATUREINFO_STYLE(8, RequestType.FEATUREINFO, true),
         // "/{layer}/tilejson/{tileformat}"
-        TILEJSON(buildRestPattern(3, false), RequestType.TILEJSON, false),
+        TILEJSON(3, RequestType.TILEJSON, false),
         // "/{layer}/{style}/tilejson/{tileformat}"
-        TILEJSON_STYLE(buildRestPattern(4, true), RequestType.TILEJSON, true);
+        TILEJSON_STYLE(4, RequestType.TILEJSON, true);
 
+        /** The requests by number of path elements, each request has a distinct number of them */
+        private static final RestRequest[] BY_PATH_ELEMENTS = new RestRequest[9];
+
+        static {
+            for (RestRequest restRequest : values()) {
+                BY_PATH_ELEMENTS[restRequest.numPathElements] = restRequest;
+            }
+        }
+
+        int numPathElements;
         Pattern pattern;
         RequestType type;
         boolean hasStyle;
 
-        RestRequest(String pattern, RequestType type, boolean hasStyle) {
-            this.pattern = Pattern.compile(pattern);
+        RestRequest(int numPathElements, RequestType type, boolean hasStyle) {
+            this.numPathElements = numPathElements;
+            this.pattern = Pattern.compile(buildRestPattern(numPathElements, hasStyle));
             this.type = type;
             this.hasStyle = hasStyle;
         }
 
+        /**
+         * Returns the parsed KVP of the request matching the path, or null if none does.
+         *
+         * <p>The path elements following the {@link #REST_PATH} are split in a single pass and their number picks the
+         * only request that may match, the patterns are only tried, in order, if the path holds the RESTful endpoint
+         * path more than once, or no request accepts its elements.
+         */
+        static Map<String, String> parse(HttpServletRequest request) {
+            final String path = request.getPathInfo();
+            final String restPath = REST_PATH + "/";
+            final int rest = path.indexOf(restPath);
+            if (rest >= 0 && path.indexOf(restPath, rest + 1) < 0) {
+                List<String> elements = splitPath(path, rest + restPath.length());
+                if (elements != null) {
+                    RestRequest restRequest = BY_PATH_ELEMENTS[elements.size()];
+                    if (restRequest != null && restRequest.accepts(elements)) {
+                        return restRequest.toKVP(request, elements);
+                    }
+                }
+            }
+            for (RestRequest restRequest : values()) {
+                Map<String, String> values = restRequest.toKVP(request);
+                if (values != null) {
+                    return values;
+                }
+            }
+            return null;
+        }
+
+        /** Splits the path elements starting at {@code offset}, null if there are more than any request has */
+        private static List<String> splitPath(String path, int offset) {
+            final int maxElements = BY_PATH_ELEMENTS.length - 1;
+            List<String> elements = new ArrayList<>(maxElements);
+            int start = offset;
+            while (elements.size() < maxElements) {
+                int end = path.indexOf('/', start);
+                if (end < 0) {
+                    elements.add(path.substring(start));
+                    return elements;
+                }
+                elements.add(path.substring(start, end));
+                start = end + 1;
+            }
+            return null;
+        }
+
+        /** Whether the path elements match the request pattern, the style being the only one that can be empty */
+        private boolean accepts(List<String> elements) {
+            for (int i = 0; i < elements.size(); i++) {
+                if (elements.get(i).isEmpty() && !(hasStyle && i == 1)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
         /** Returns the parsed KVP, or null if the path does not match the request pattern */
         public Map<String, String> toKVP(HttpServletRequest request) {
             final Matcher matcher = pattern.matcher(request.getPathInfo());
             if (!matcher.matches()) {
                 return null;
             }
+            List<String> elements = new ArrayList<>(numPathElements);
+            for (int i = 1; i <= matcher.groupCount(); i++) {
+                elements.add(matcher.group(i));
+            }
+            return toKVP(request, elements);
+        }
+
+        private Map<String, String> toKVP(HttpServletRequest request, List<String> elements) {
             Map<String, String> values = new HashMap<>();
             // go through the pattern and extract the actual request
             // leverage the predictable path structure to use a single parsing sequence for all
             // requests
-            int i = 1;
+            int i = 0;
             String req = null;
             switch (type) {
                 case FEATUREINFO:
@@ -128,21 +204,21 @@ public Map<String, String> toKVP(HttpServletRequest request) {
             }
             final boolean isFeatureInfo = type == RequestType.FEATUREINFO;
             values.put("request", req);
-            values.put("layer", matcher.group(i++));
+            values.put("layer", elements.get(i++));
             if (hasStyle) {
-                values.put("style", matcher.group(i++));
+                values.put("style", elements.get(i++));
             }
             if (type != RequestType.TILEJSON) {
-                values.put("tilematrixset", matcher.group(i++));
-                values.put("tilematrix", matcher.group(i++));
-                values.put("tilerow", matcher.group(i++));
-                values.put("tilecol", matcher.group(i++));
+                values.put("tilematrixset", elements.get(i++));
+                values.put("tilematrix", elements.get(i++));
+                values.put("tilerow", elements.get(i++));
+                values.put("tilecol", elements.get(i++));
                 if (isFeatureInfo) {
-                    values.put("j", matcher.group(i++));
-                    values.put("i", matcher.group(i++));
+                    values.put("j", elements.get(i++));
+                    values.put("i", elements.get(i++));
                 }
             } else {
-                values.put("tileformat", matcher.group(++i));
+                values.put("tileformat", elements.get(++i));
             }
             if (request.getParameter("format") instanceof String) {
                 if (isFeatureInfo) {
@@ -177,6 +253,8 @@ public Map<String, String> toKVP(HttpServletRequest request) {
 
     private SecurityDispatcher securityDispatcher;
 
+    private final CapabilitiesCache<WMTSGetCapabilities.LayerFragment> capabilitiesCache = new CapabilitiesCache<>();
+
     /** Protected no-argument constructor to allow run-time instrumentation */
     protected WMTSService() {
         super(SERVICE_WMTS);
@@ -191,6 +269,7 @@ public WMTSService(StorageBroker sb, TileLayerDispatcher tld, GridSetBroker gsb,
         this.gsb = gsb;
         this.stats = stats;
         extensions.addAll(GeoWebCacheExtensions.extensions(WMTSExtension.class));
+        tld.addLayerChangeListener(capabilitiesCache);
     }
 
     public WMTSService(
@@ -209,6 +288,7 @@ public WMTSService(
         this.urlMangler = urlMangler;
         this.controller = controller;
         extensions.addAll(GeoWebCacheExtensions.extensions(WMTSExtension.class));
+        tld.addLayerChangeListener(capabilitiesCache);
     }
 
     @Override
@@ -276,11 +356,9 @@ public Conveyor getRestConveyor(HttpServletRequest request, HttpServletResponse
 
         // all other paths are handled via the RestRequest enumeration, matching patterns and
         // extracting variables
-        for (RestRequest restRequest : RestRequest.values()) {
-            Map<String, String> values = restRequest.toKVP(request);
-            if (values != null) {
-                return getKvpConveyor(request, response, values);
-            }
+        Map<String, String> values = RestRequest.parse(request);
+        if (values != null) {
+            return getKvpConveyor(request, response, values);
         }
 
         // we implement all WMTS supported request, this means that the provided request name is
@@ -573,7 +651,7 @@ public void handleRequest(Conveyor conv) throws OWSException, GeoWebCacheExcepti
         if (tile.getHint() != null) {
             if (tile.getHint().equals(GET_CAPABILITIES)) {
                 WMTSGetCapabilities wmsGC = new WMTSGetCapabilities(
-                        tld, gsb, tile.servletReq, servletBase, context, urlMangler, extensions);
+                        tld, gsb, tile.servletReq, servletBase, context, urlMangler, extensions, capabilitiesCache);
                 wmsGC.writeResponse(tile.servletResp, stats);
 
             } else if (tile.getHint().equals(GET_FEATUREINFO)) {
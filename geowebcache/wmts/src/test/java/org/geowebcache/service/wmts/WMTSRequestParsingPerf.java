@@ -0,0 +1,131 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.service.wmts;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.util.ServletUtils;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+/**
+ * Measures the time taken to route RESTful WMTS requests and to pick the KVP parameters of GetTile requests, for a mix
+ * of requests as issued by typical clients (mostly GetTile, some with a style, a few GetFeatureInfo and TileJSON).
+ */
+final class WMTSRequestParsingPerf {
+
+    private static Logger LOGGER = Logging.getLogger(WMTSRequestParsingPerf.class.getName());
+
+    // number of parsed requests for each measurement, after as many warm up ones
+    static final int REQUESTS = 1_000_000;
+
+    static final String[] REST_PATHS = {
+        "/geowebcache/service/wmts/rest/topp:states/EPSG:900913/EPSG:900913:12/1540/1207",
+        "/geowebcache/service/wmts/rest/topp:states/EPSG:900913/EPSG:900913:12/1540/1208",
+        "/geowebcache/service/wmts/rest/topp:states/EPSG:900913/EPSG:900913:13/3081/2415",
+        "/geowebcache/service/wmts/rest/ne:countries/default/EPSG:4326/EPSG:4326:5/20/41",
+        "/geowebcache/service/wmts/rest/ne:countries/default/EPSG:4326/EPSG:4326:5/20/42",
+        "/geowebcache/service/wmts/rest/ne:countries//EPSG:4326/EPSG:4326:6/41/84",
+        "/geowebcache/service/wmts/rest/topp:states/EPSG:900913/EPSG:900913:12/1540/1207/128/37",
+        "/geowebcache/service/wmts/rest/ne:countries/tilejson/png"
+    };
+
+    static final String[] KVP_KEYS = {
+        "layer",
+        "request",
+        "style",
+        "format",
+        "infoformat",
+        "tilematrixset",
+        "tilematrix",
+        "tilerow",
+        "tilecol",
+        "tileformat",
+        "i",
+        "j"
+    };
+
+    public static void main(String[] args) {
+        List<MockHttpServletRequest> restRequests = new ArrayList<>();
+        for (String path : REST_PATHS) {
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.setPathInfo(path);
+            request.addParameter("format", "image/png");
+            restRequests.add(request);
+        }
+        MockHttpServletRequest kvpRequest = new MockHttpServletRequest();
+        kvpRequest.addParameter("SERVICE", "WMTS");
+        kvpRequest.addParameter("REQUEST", "GetTile");
+        kvpRequest.addParameter("VERSION", "1.0.0");
+        kvpRequest.addParameter("LAYER", "topp:states");
+        kvpRequest.addParameter("STYLE", "");
+        kvpRequest.addParameter("TILEMATRIXSET", "EPSG:900913");
+        kvpRequest.addParameter("TILEMATRIX", "EPSG:900913:12");
+        kvpRequest.addParameter("TILEROW", "1540");
+        kvpRequest.addParameter("TILECOL", "1207");
+        kvpRequest.addParameter("FORMAT", "image/png");
+
+        for (int run = 0; run < 2; run++) {
+            boolean warmUp = run == 0;
+            measure(warmUp, "REST, pattern per request", () -> {
+                long matched = 0;
+                for (int i = 0; i < REQUESTS; i++) {
+                    MockHttpServletRequest request = restRequests.get(i % restRequests.size());
+                    for (WMTSService.RestRequest restRequest : WMTSService.RestRequest.values()) {
+                        if (restRequest.toKVP(request) != null) {
+                            matched++;
+                            break;
+                        }
+                    }
+                }
+                return matched;
+            });
+            measure(warmUp, "REST, routed by path elements", () -> {
+                long matched = 0;
+                for (int i = 0; i < REQUESTS; i++) {
+                    if (WMTSService.RestRequest.parse(restRequests.get(i % restRequests.size())) != null) {
+                        matched++;
+                    }
+                }
+                return matched;
+            });
+            measure(warmUp, "KVP parameters", () -> {
+                long matched = 0;
+                Map<String, String[]> parameters = kvpRequest.getParameterMap();
+                for (int i = 0; i < REQUESTS; i++) {
+                    matched += ServletUtils.selectedStringsFromMap(parameters, "UTF-8", KVP_KEYS)
+                            .size();
+                }
+                return matched;
+            });
+        }
+    }
+
+    interface Parse {
+        long run();
+    }
+
+    private static void measure(boolean warmUp, String name, Parse parse) {
+        long start = System.nanoTime();
+        long matched = parse.run();
+        long nanos = System.nanoTime() - start;
+        if (!warmUp) {
+            LOGGER.info(String.format(
+                    "%s: %d requests in %d ms, %.0f ns per request (%d matches)",
+                    name, REQUESTS, nanos / 1_000_000, nanos / (double) REQUESTS, matched));
+        }
+    }
+}
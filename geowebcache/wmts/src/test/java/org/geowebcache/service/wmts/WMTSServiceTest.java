@@ -23,24 +23,31 @@
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.withSettings;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import org.apache.commons.collections4.map.CaseInsensitiveMap;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.custommonkey.xmlunit.SimpleNamespaceContext;
 import org.custommonkey.xmlunit.Validator;
 import org.custommonkey.xmlunit.XMLUnit;
@@ -82,6 +89,7 @@
 import org.geowebcache.mime.ImageMime;
 import org.geowebcache.mime.MimeType;
 import org.geowebcache.mime.XMLMime;
+import org.geowebcache.service.CapabilitiesCache;
 import org.geowebcache.service.OWSException;
 import org.geowebcache.stats.RuntimeStats;
 import org.geowebcache.storage.StorageBroker;
@@ -963,6 +971,99 @@ public void testGetCapMultipleStyles() throws Exception {
                         doc));
     }
 
+    @Test
+    public void testGetCapCached() throws Exception {
+        TileLayer tileLayer = mockTileLayer("mockLayer", Arrays.asList("EPSG:4326"), Collections.emptyList());
+        when(tld.getLayerListFiltered()).thenReturn(Collections.singletonList(tileLayer));
+        CapabilitiesCache<WMTSGetCapabilities.LayerFragment> cache = new CapabilitiesCache<>(10);
+
+        MockHttpServletResponse uncached = getCapabilities(null, new MockHttpServletRequest());
+        assertNull(uncached.getHeader("ETag"));
+        MockHttpServletResponse cached = getCapabilities(cache, new MockHttpServletRequest());
+        assertEquals(uncached.getContentAsString(), cached.getContentAsString());
+        String eTag = cached.getHeader("ETag");
+        assertNotNull(eTag);
+
+        // served from the cache, the layer is not encoded again
+        MockHttpServletRequest req = new MockHttpServletRequest();
+        req.addHeader("Accept-Encoding", "gzip, deflate");
+        MockHttpServletResponse gzipped = getCapabilities(cache, req);
+        verify(tileLayer, times(2)).getMetaInformation();
+        assertEquals("gzip", gzipped.getHeader("Content-Encoding"));
+        assertEquals(eTag, gzipped.getHeader("ETag"));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.getContentAsByteArray()))) {
+            assertEquals(uncached.getContentAsString(), IOUtils.toString(in, "UTF-8"));
+        }
+
+        req = new MockHttpServletRequest();
+        req.addHeader("If-None-Match", eTag);
+        MockHttpServletResponse notModified = getCapabilities(cache, req);
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, notModified.getStatus());
+        assertEquals(0, notModified.getContentAsByteArray().length);
+
+        // a layer change drops its fragment
+        cache.layerModified("mockLayer");
+        assertEquals(
+                uncached.getContentAsString(),
+                getCapabilities(cache, new MockHttpServletRequest()).getContentAsString());
+        verify(tileLayer, times(3)).getMetaInformation();
+    }
+
+    @Test
+    public void testGetCapCachedDisabledByExtension() throws Exception {
+        TileLayer tileLayer = mockTileLayer("mockLayer", Arrays.asList("EPSG:4326"), Collections.emptyList());
+        when(tld.getLayerListFiltered()).thenReturn(Collections.singletonList(tileLayer));
+        CapabilitiesCache<WMTSGetCapabilities.LayerFragment> cache = new CapabilitiesCache<>(10);
+
+        MockHttpServletResponse resp = new MockHttpServletResponse();
+        WMTSGetCapabilities capabilities = new WMTSGetCapabilities(
+                tld,
+                gridsetBroker,
+                new MockHttpServletRequest(),
+                "http://localhost:8080",
+                "/geowebcache",
+                new NullURLMangler(),
+                Collections.singletonList(new WMTSExtensionImpl()),
+                cache);
+        capabilities.writeResponse(resp, mock(RuntimeStats.class));
+        assertNull(resp.getHeader("ETag"));
+        assertTrue(resp.getContentAsString().contains("mockLayer"));
+    }
+
+    @Test
+    public void testGetCapStreamed() throws Exception {
+        TileLayer tileLayer = mockTileLayer("mockLayer", Arrays.asList("EPSG:4326"), Collections.emptyList());
+        when(tld.getLayerListFiltered()).thenReturn(Collections.singletonList(tileLayer));
+
+        MockHttpServletRequest req = new MockHttpServletRequest();
+        req.addHeader("Accept-Encoding", "gzip");
+        MockHttpServletResponse resp = getCapabilities(new CapabilitiesCache<>(0), req);
+        assertEquals(200, resp.getStatus());
+        assertNull(resp.getHeader("ETag"));
+        assertEquals("gzip", resp.getHeader("Content-Encoding"));
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(resp.getContentAsByteArray()))) {
+            String content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(content.contains("<ows:Identifier>mockLayer</ows:Identifier>"));
+            assertTrue(content.endsWith("</Capabilities>"));
+        }
+    }
+
+    private MockHttpServletResponse getCapabilities(
+            CapabilitiesCache<WMTSGetCapabilities.LayerFragment> cache, HttpServletRequest req) {
+        MockHttpServletResponse resp = new MockHttpServletResponse();
+        WMTSGetCapabilities capabilities = new WMTSGetCapabilities(
+                tld,
+                gridsetBroker,
+                req,
+                "http://localhost:8080",
+                "/geowebcache",
+                new NullURLMangler(),
+                Collections.emptyList(),
+                cache);
+        capabilities.writeResponse(resp, mock(RuntimeStats.class));
+        return resp;
+    }
+
     private static XpathEngine buildWMTSXPath() {
         Map<String, String> namespaces = new HashMap<>();
         namespaces.put("xlink", "http://www.w3.org/1999/xlink");
@@ -1463,6 +1564,41 @@ public void testGetCapWithTileJSONDifferentUrls() throws Exception {
                         "\"tiles\":[\"http://localhost/service/wmts/rest/mockLayer/EPSG:900913/EPSG:900913:{z}/{y}/{x}?format=image/png\"]"));
     }
 
+    @Test
+    public void testRestRequestRouting() {
+        String[] paths = {
+            "geowebcache/service/wmts/rest/mockLayer/EPSG:4326/EPSG:4326:0/0/0",
+            "geowebcache/service/wmts/rest/mockLayer/style-a/EPSG:4326/EPSG:4326:0/0/0",
+            "geowebcache/service/wmts/rest/mockLayer//EPSG:4326/EPSG:4326:0/0/0",
+            "geowebcache/service/wmts/rest/mockLayer/EPSG:4326/EPSG:4326:0/0/0/1/2",
+            "geowebcache/service/wmts/rest/mockLayer/style-a/EPSG:4326/EPSG:4326:0/0/0/1/2",
+            "geowebcache/service/wmts/rest/mockLayer/tilejson/png",
+            "geowebcache/service/wmts/rest/mockLayer/style-a/tilejson/pbf",
+            "geowebcache/service/wmts/rest/mockLayer//tilejson/pbf",
+            // layer named as the endpoint path
+            "geowebcache/service/wmts/rest/service/wmts/rest/0/0/0",
+            // not matching any request
+            "geowebcache/service/wmts/rest/mockLayer/EPSG:4326/EPSG:4326:0/0/0/",
+            "geowebcache/service/wmts/rest/mockLayer/EPSG:4326//0/0",
+            "geowebcache/service/wmts/rest/mockLayer",
+            "geowebcache/service/wmts/rest/a/b/c/d/e/f/g/h/i",
+            "geowebcache/service/wmts/rest/"
+        };
+        for (String path : paths) {
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.setPathInfo(path);
+            request.addParameter("format", "image/png");
+            Map<String, String> expected = null;
+            for (WMTSService.RestRequest restRequest : WMTSService.RestRequest.values()) {
+                expected = restRequest.toKVP(request);
+                if (expected != null) {
+                    break;
+                }
+            }
+            assertEquals(path, expected, WMTSService.RestRequest.parse(request));
+        }
+    }
+
     private String writeTileJsonResponse(ConveyorTile conv, TileLayer tileLayer, MockHttpServletResponse resp)
             throws UnsupportedEncodingException {
         WMTSTileJSON tileJSON = new WMTSTileJSON(conv, "http://localhost", "", null, new NullURLMangler());